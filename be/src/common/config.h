@@ -347,6 +347,8 @@ CONF_mInt32(olap_table_sink_send_interval_ms, "10");
 CONF_Int32(fragment_pool_thread_num_min, "64");
 CONF_Int32(fragment_pool_thread_num_max, "4096");
 CONF_Int32(fragment_pool_queue_size, "2048");
+// The number of threads preparing the fragment instances sent by one batch rpc concurrently
+CONF_Int32(exec_batch_plan_fragments_thread_num, "16");
 
 //for cast
 // CONF_Bool(cast, "true");
@@ -21,6 +21,8 @@
 
 #include "exec/exchange_node.h"
 
+#include <limits>
+
 #include "column/chunk.h"
 #include "exec/pipeline/exchange/exchange_merge_sort_source_operator.h"
 #include "exec/pipeline/exchange/exchange_source_operator.h"
@@ -51,6 +53,7 @@ ExchangeNode::ExchangeNode(ObjectPool* pool, const TPlanNode& tnode, const Descr
           _next_row_idx(0),
           _is_merging(tnode.exchange_node.__isset.sort_info),
           _offset(tnode.exchange_node.__isset.offset ? tnode.exchange_node.offset : 0),
+          _unlimited_buffer(tnode.exchange_node.__isset.unlimited_buffer && tnode.exchange_node.unlimited_buffer),
           _num_rows_skipped(0) {
     DCHECK_GE(_offset, 0);
     DCHECK(_is_merging || (_offset == 0));
@@ -74,9 +77,11 @@ Status ExchangeNode::prepare(RuntimeState* state) {
     // TODO: figure out appropriate buffer size
     DCHECK_GT(_num_senders, 0);
     _sub_plan_query_statistics_recvr.reset(new QueryStatisticsRecvr());
+    // The memory of the buffered data is still limited by the mem tracker of the query
+    int buffer_size = _unlimited_buffer ? std::numeric_limits<int>::max() : config::exchg_node_buffer_size_bytes;
     _stream_recvr = state->exec_env()->stream_mgr()->create_recvr(
-            state, _input_row_desc, state->fragment_instance_id(), _id, _num_senders,
-            config::exchg_node_buffer_size_bytes, _runtime_profile, _is_merging, _sub_plan_query_statistics_recvr);
+            state, _input_row_desc, state->fragment_instance_id(), _id, _num_senders, buffer_size,
+            _runtime_profile, _is_merging, _sub_plan_query_statistics_recvr);
     if (_is_merging) {
         RETURN_IF_ERROR(_sort_exec_exprs.prepare(state, _row_descriptor, _row_descriptor, expr_mem_tracker()));
         // AddExprCtxsToFree(_sort_exec_exprs);
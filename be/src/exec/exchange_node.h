@@ -119,6 +119,9 @@ private:
     // Offset specifying number of rows to skip.
     int64_t _offset;
 
+    // True if the receiver buffers all the received data instead of holding back the senders.
+    bool _unlimited_buffer;
+
     // Number of rows skipped so far.
     int64_t _num_rows_skipped;
 
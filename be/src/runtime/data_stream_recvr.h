@@ -150,7 +150,9 @@ private:
 
     // Return true if the addition of a new batch of size 'batch_size' would exceed the
     // total buffer limit.
-    bool exceeds_limit(int batch_size) { return _num_buffered_bytes + batch_size > _total_buffer_limit; }
+    bool exceeds_limit(int batch_size) {
+        return static_cast<int64_t>(_num_buffered_bytes) + batch_size > _total_buffer_limit;
+    }
 
     // DataStreamMgr instance used to create this recvr. (Not owned)
     DataStreamMgr* _mgr;
@@ -0,0 +1,52 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+#pragma once
+
+#include <memory>
+#include <vector>
+
+#include "exec/data_sink.h"
+#include "runtime/data_stream_sender.h"
+
+namespace starrocks {
+
+class ObjectPool;
+class RowDescriptor;
+class RuntimeProfile;
+class RuntimeState;
+
+// Send the same data to multiple exchange nodes, e.g. the CTE which is computed once and
+// consumed by multiple exchange nodes. Each exchange node has its own DataStreamSender, so
+// the output partition of each exchange node can be different.
+class MultiCastDataStreamSink final : public DataSink {
+public:
+    MultiCastDataStreamSink(ObjectPool* pool, bool is_vectorized, int sender_id, const RowDescriptor& row_desc,
+                            const TMultiCastDataStreamSink& sink, int per_channel_buffer_size,
+                            bool send_query_statistics_with_every_batch);
+
+    ~MultiCastDataStreamSink() override = default;
+
+    Status init(const TDataSink& thrift_sink) override;
+
+    Status prepare(RuntimeState* state) override;
+
+    Status open(RuntimeState* state) override;
+
+    Status send(RuntimeState* state, RowBatch* batch) override;
+
+    Status send_chunk(RuntimeState* state, vectorized::Chunk* chunk) override;
+
+    Status close(RuntimeState* state, Status exec_status) override;
+
+    RuntimeProfile* profile() override { return _profile; }
+
+    // The statistics are only sent by the first sender, avoid counting them multiple times
+    void set_query_statistics(std::shared_ptr<QueryStatistics> statistics) override;
+
+private:
+    ObjectPool* _pool;
+    std::vector<std::unique_ptr<DataStreamSender>> _senders;
+    RuntimeProfile* _profile = nullptr;
+};
+
+} // namespace starrocks
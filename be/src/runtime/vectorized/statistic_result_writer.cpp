@@ -15,6 +15,7 @@ namespace starrocks {
 namespace vectorized {
 
 const int STATISTIC_DATA_VERSION1 = 1;
+const int STATISTIC_HISTOGRAM_VERSION = 2;
 
 StatisticResultWriter::StatisticResultWriter(BufferControlBlock* sinker,
                                              const std::vector<ExprContext*>& output_expr_ctxs,
@@ -69,6 +70,8 @@ Status StatisticResultWriter::append_chunk(vectorized::Chunk* chunk) {
     // Step 3: fill statistic data
     if (version == STATISTIC_DATA_VERSION1) {
         _fill_statistic_data_v1(version, result_columns, chunk, result);
+    } else if (version == STATISTIC_HISTOGRAM_VERSION) {
+        _fill_statistic_data_v2(version, result_columns, chunk, result);
     }
 
     // Step 4: send
@@ -131,6 +134,41 @@ void StatisticResultWriter::_fill_statistic_data_v1(int version, const vectorize
     }
 }
 
+void StatisticResultWriter::_fill_statistic_data_v2(int version, const vectorized::Columns& columns,
+                                                    const vectorized::Chunk* chunk, TFetchDataResult* result) {
+    SCOPED_TIMER(_serialize_timer);
+
+    // mapping with Data.thrift.TStatisticData, only the histogram
+    DCHECK(columns.size() == 6);
+
+    // skip read version
+    auto& updateTimes = ColumnHelper::cast_to_raw<TYPE_DATETIME>(columns[1])->get_data();
+    auto& dbIds = ColumnHelper::cast_to_raw<TYPE_BIGINT>(columns[2])->get_data();
+    auto& tableIds = ColumnHelper::cast_to_raw<TYPE_BIGINT>(columns[3])->get_data();
+    BinaryColumn* nameColumn = ColumnHelper::cast_to_raw<TYPE_VARCHAR>(columns[4]);
+    BinaryColumn* histogramColumn = ColumnHelper::cast_to_raw<TYPE_VARCHAR>(columns[5]);
+
+    std::vector<TStatisticData> data_list;
+    int num_rows = chunk->num_rows();
+
+    data_list.resize(num_rows);
+    for (int i = 0; i < num_rows; ++i) {
+        data_list[i].__set_updateTime(updateTimes[i].to_string());
+        data_list[i].__set_dbId(dbIds[i]);
+        data_list[i].__set_tableId(tableIds[i]);
+        data_list[i].__set_columnName(nameColumn->get_slice(i).to_string());
+        data_list[i].__set_histogram(histogramColumn->get_slice(i).to_string());
+    }
+
+    result->result_batch.rows.resize(num_rows);
+    result->result_batch.__set_statistic_version(version);
+
+    ThriftSerializer serializer(true, chunk->memory_usage());
+    for (int i = 0; i < num_rows; ++i) {
+        serializer.serialize(&data_list[i], &result->result_batch.rows[i]);
+    }
+}
+
 Status StatisticResultWriter::close() {
     COUNTER_SET(_sent_rows_counter, _written_rows);
     return Status::OK();
@@ -36,6 +36,9 @@ private:
     void _fill_statistic_data_v1(int version, const vectorized::Columns& columns, const vectorized::Chunk* chunk,
                                  TFetchDataResult* result);
 
+    void _fill_statistic_data_v2(int version, const vectorized::Columns& columns, const vectorized::Chunk* chunk,
+                                 TFetchDataResult* result);
+
 private:
     BufferControlBlock* _sinker;
     const std::vector<ExprContext*>& _output_expr_ctxs;
@@ -35,6 +35,7 @@
 #include "runtime/routine_load/routine_load_task_executor.h"
 #include "runtime/runtime_filter_worker.h"
 #include "service/brpc.h"
+#include "util/countdown_latch.h"
 #include "util/thrift_util.h"
 #include "util/uid_util.h"
 
@@ -42,7 +43,9 @@ namespace starrocks {
 
 template <typename T>
 PInternalServiceImpl<T>::PInternalServiceImpl(ExecEnv* exec_env)
-        : _exec_env(exec_env), _tablet_worker_pool(config::number_tablet_writer_threads, 10240) {}
+        : _exec_env(exec_env),
+          _tablet_worker_pool(config::number_tablet_writer_threads, 10240),
+          _exec_batch_plan_fragments_pool(config::exec_batch_plan_fragments_thread_num, 10240) {}
 
 template <typename T>
 PInternalServiceImpl<T>::~PInternalServiceImpl() {}
@@ -153,6 +156,20 @@ void PInternalServiceImpl<T>::exec_plan_fragment(google::protobuf::RpcController
     st.to_protobuf(response->mutable_status());
 }
 
+template <typename T>
+void PInternalServiceImpl<T>::exec_batch_plan_fragments(google::protobuf::RpcController* cntl_base,
+                                                        const PExecBatchPlanFragmentsRequest* request,
+                                                        PExecBatchPlanFragmentsResult* response,
+                                                        google::protobuf::Closure* done) {
+    brpc::ClosureGuard closure_guard(done);
+    brpc::Controller* cntl = static_cast<brpc::Controller*>(cntl_base);
+    auto st = _exec_batch_plan_fragments(cntl);
+    if (!st.ok()) {
+        LOG(WARNING) << "exec batch plan fragments failed, errmsg=" << st.get_error_msg();
+    }
+    st.to_protobuf(response->mutable_status());
+}
+
 template <typename T>
 void PInternalServiceImpl<T>::tablet_writer_add_batch(google::protobuf::RpcController* controller,
                                                       const PTabletWriterAddBatchRequest* request,
@@ -237,6 +254,66 @@ Status PInternalServiceImpl<T>::_exec_plan_fragment(brpc::Controller* cntl) {
         uint32_t len = ser_request.size();
         RETURN_IF_ERROR(deserialize_thrift_msg(buf, &len, false, &t_request));
     }
+    return _exec_plan_fragment(t_request);
+}
+
+template <typename T>
+Status PInternalServiceImpl<T>::_exec_batch_plan_fragments(brpc::Controller* cntl) {
+    auto ser_request = cntl->request_attachment().to_string();
+    TExecBatchPlanFragmentsParams t_batch_request;
+    {
+        const uint8_t* buf = (const uint8_t*)ser_request.data();
+        uint32_t len = ser_request.size();
+        RETURN_IF_ERROR(deserialize_thrift_msg(buf, &len, false, &t_batch_request));
+    }
+    if (t_batch_request.unique_params.size() != t_batch_request.fragment_indexes.size()) {
+        return Status::InvalidArgument("the number of unique params and fragment indexes don't match");
+    }
+    size_t num_instances = t_batch_request.unique_params.size();
+    std::vector<TExecPlanFragmentParams> t_requests(num_instances);
+    for (size_t i = 0; i < num_instances; ++i) {
+        const TExecPlanFragmentParams& unique_request = t_batch_request.unique_params[i];
+        int32_t fragment_index = t_batch_request.fragment_indexes[i];
+        if (fragment_index < 0 || fragment_index >= static_cast<int32_t>(t_batch_request.fragments.size())) {
+            return Status::InvalidArgument(strings::Substitute("invalid fragment index $0", fragment_index));
+        }
+        TExecPlanFragmentParams& t_request = t_requests[i];
+        t_request = t_batch_request.common_param;
+        t_request.__set_fragment(t_batch_request.fragments[fragment_index]);
+        t_request.__set_params(unique_request.params);
+        t_request.__set_backend_num(unique_request.backend_num);
+        if (unique_request.__isset.is_pipeline) {
+            t_request.__set_is_pipeline(unique_request.is_pipeline);
+        }
+    }
+    if (num_instances == 1) {
+        return _exec_plan_fragment(t_requests[0]);
+    }
+
+    // The coordinator sends the senders after their receivers are prepared, so the instances of a batch
+    // don't exchange data with each other and are prepared concurrently. The coordinator cancels all of
+    // them if one of them fails.
+    std::vector<Status> statuses(num_instances);
+    CountDownLatch latch(num_instances);
+    for (size_t i = 0; i < num_instances; ++i) {
+        bool offered = _exec_batch_plan_fragments_pool.offer([this, &t_requests, &statuses, &latch, i]() {
+            statuses[i] = _exec_plan_fragment(t_requests[i]);
+            latch.count_down();
+        });
+        if (!offered) {
+            statuses[i] = Status::ServiceUnavailable("the pool executing the batch plan fragments is shut down");
+            latch.count_down();
+        }
+    }
+    latch.wait();
+    for (const Status& st : statuses) {
+        RETURN_IF_ERROR(st);
+    }
+    return Status::OK();
+}
+
+template <typename T>
+Status PInternalServiceImpl<T>::_exec_plan_fragment(const TExecPlanFragmentParams& t_request) {
     bool is_pipeline = t_request.__isset.is_pipeline && t_request.is_pipeline;
     LOG(INFO) << "exec plan fragment, fragment_instance_id=" << print_id(t_request.params.fragment_instance_id)
               << ", coord=" << t_request.coord << ", backend=" << t_request.backend_num << " is_pipeline "
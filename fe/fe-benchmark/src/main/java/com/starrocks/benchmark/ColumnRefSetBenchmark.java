@@ -0,0 +1,97 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.benchmark;
+
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The set operations of the column refs used by the optimizer rules and the property derivation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnRefSetBenchmark {
+    // the max column ref id, like the number of columns of a query
+    @Param({"64", "1024"})
+    public int maxId;
+
+    private ColumnRefSet left;
+    private ColumnRefSet right;
+    private ColumnRefSet subset;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+        left = new ColumnRefSet();
+        right = new ColumnRefSet();
+        subset = new ColumnRefSet();
+        for (int i = 1; i <= maxId; i++) {
+            if (random.nextBoolean()) {
+                left.union(i);
+                if (random.nextInt(4) == 0) {
+                    subset.union(i);
+                }
+            }
+            if (random.nextBoolean()) {
+                right.union(i);
+            }
+        }
+    }
+
+    @Benchmark
+    public ColumnRefSet union() {
+        ColumnRefSet result = (ColumnRefSet) left.clone();
+        result.union(right);
+        return result;
+    }
+
+    @Benchmark
+    public ColumnRefSet intersect() {
+        ColumnRefSet result = (ColumnRefSet) left.clone();
+        result.intersect(right);
+        return result;
+    }
+
+    @Benchmark
+    public ColumnRefSet except() {
+        ColumnRefSet result = (ColumnRefSet) left.clone();
+        result.except(right);
+        return result;
+    }
+
+    @Benchmark
+    public boolean isIntersect() {
+        return left.isIntersect(right);
+    }
+
+    @Benchmark
+    public boolean containsAll() {
+        return left.contains(subset);
+    }
+
+    @Benchmark
+    public int cardinality() {
+        return left.cardinality();
+    }
+
+    @Benchmark
+    public int[] getColumnIds() {
+        return left.getColumnIds();
+    }
+}
@@ -0,0 +1,68 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.benchmark;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The database read lock taken by many query threads at the same time, alone and mixed with table writers.
+ * The read lock goes through the database intention lock, so this measures its cost under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseLockBenchmark {
+    private Database db;
+    private List<Table> tables;
+
+    @Setup
+    public void setUp() {
+        db = new Database(1L, "db");
+        Table table = new Table(2L, "t", Table.TableType.OLAP, Lists.newArrayList());
+        db.createTable(table);
+        tables = Lists.newArrayList(table);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void readLock() {
+        db.readLock();
+        db.readUnlock();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(15)
+    public void mixedReadLock() {
+        db.readLock();
+        db.readUnlock();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWriteLockTables() {
+        db.writeLockTables(tables);
+        db.writeUnlockTables(tables);
+    }
+}
@@ -0,0 +1,68 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.benchmark;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.DataProperty;
+import com.starrocks.persist.BatchModifyPartitionsInfo;
+import com.starrocks.persist.ModifyPartitionInfo;
+import com.starrocks.thrift.TStorageMedium;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write and read a journal which is serialized by GsonUtils, the same as the edit log does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonJournalBenchmark {
+    // the number of partitions in the journal
+    @Param({"10", "1000"})
+    public int partitionNum;
+
+    private BatchModifyPartitionsInfo info;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<ModifyPartitionInfo> infos = Lists.newArrayList();
+        for (int i = 0; i < partitionNum; i++) {
+            infos.add(new ModifyPartitionInfo(10001L, 10002L, 20000L + i,
+                    new DataProperty(TStorageMedium.SSD, 1600000000000L + i), (short) 3, false));
+        }
+        info = new BatchModifyPartitionsInfo(infos);
+        serialized = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        info.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public BatchModifyPartitionsInfo read() throws IOException {
+        return BatchModifyPartitionsInfo.read(new DataInputStream(new ByteArrayInputStream(serialized)));
+    }
+}
@@ -0,0 +1,89 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.benchmark;
+
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.analyzer.relation.Relation;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Optimizer;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
+import com.starrocks.sql.optimizer.transformer.LogicalPlan;
+import com.starrocks.sql.optimizer.transformer.RelationTransformer;
+import com.starrocks.sql.plan.PlanTestBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure {@link Optimizer#optimize} of the queries on the tables of the plan tests, whose statistics are
+ * from {@link com.starrocks.sql.optimizer.statistics.MockTpchStatisticStorage}. The sql is parsed, analyzed
+ * and transformed to the logical plan before each invocation, so only the optimization is measured.
+ * <p>
+ * Each fork starts a mocked frontend and backend in the process.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class OptimizerBenchmarkBase {
+    private String sql;
+    private ColumnRefFactory columnRefFactory;
+    private LogicalPlan logicalPlan;
+
+    /**
+     * Create the tables, the statistics storage of {@link PlanTestBase#connectContext} is mocked.
+     */
+    protected abstract void createTables() throws Exception;
+
+    protected abstract String getSql() throws Exception;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        createTables();
+        sql = getSql();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        PlanTestBase.tearDown();
+    }
+
+    @Setup(Level.Invocation)
+    public void transform() throws Exception {
+        ConnectContext context = PlanTestBase.connectContext;
+        context.setThreadLocalInfo();
+        SqlParser parser = new SqlParser(new SqlScanner(new StringReader(sql),
+                context.getSessionVariable().getSqlMode()));
+        StatementBase statement = SqlParserUtils.getFirstStmt(parser);
+        Relation relation = new Analyzer(Catalog.getCurrentCatalog(), context).analyze(statement);
+        columnRefFactory = new ColumnRefFactory();
+        logicalPlan = new RelationTransformer(columnRefFactory).transform(relation);
+    }
+
+    @Benchmark
+    public OptExpression optimize() {
+        return new Optimizer().optimize(PlanTestBase.connectContext, logicalPlan.getRoot(),
+                new PhysicalPropertySet(), new ColumnRefSet(logicalPlan.getOutputColumn()), columnRefFactory);
+    }
+}
@@ -0,0 +1,90 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.thrift.TCounter;
+import com.starrocks.thrift.TRuntimeProfileNode;
+import com.starrocks.thrift.TRuntimeProfileTree;
+import com.starrocks.thrift.TUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Update the profile of a fragment instance by the profile reported by the backend, like the coordinator
+ * does for each report.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuntimeProfileBenchmark {
+    private static final int COUNTER_NUM = 20;
+
+    // the number of operators in the fragment instance
+    @Param({"10", "100"})
+    public int operatorNum;
+
+    private TRuntimeProfileTree tree;
+    private RuntimeProfile profile;
+
+    @Setup
+    public void setUp() {
+        List<TRuntimeProfileNode> nodes = Lists.newArrayList();
+        nodes.add(createNode("Instance", operatorNum));
+        for (int i = 0; i < operatorNum; i++) {
+            nodes.add(createNode("OPERATOR (id=" + i + ")", 0));
+        }
+        tree = new TRuntimeProfileTree(nodes);
+
+        profile = new RuntimeProfile("Instance");
+        profile.update(tree);
+    }
+
+    private static TRuntimeProfileNode createNode(String name, int childNum) {
+        List<TCounter> counters = Lists.newArrayList();
+        List<String> infoKeys = Lists.newArrayList();
+        Map<String, String> infoStrings = Maps.newHashMap();
+        for (int i = 0; i < COUNTER_NUM; i++) {
+            counters.add(new TCounter("Counter" + i, i % 2 == 0 ? TUnit.TIME_NS : TUnit.UNIT, i * 1000L));
+        }
+        for (int i = 0; i < 5; i++) {
+            infoKeys.add("Info" + i);
+            infoStrings.put("Info" + i, "value" + i);
+        }
+        Map<String, Set<String>> childCounters = Maps.newHashMap();
+        childCounters.put("Counter0", ImmutableSet.of("Counter2", "Counter4"));
+        return new TRuntimeProfileNode(name, childNum, counters, 0L, true, infoStrings, infoKeys, childCounters);
+    }
+
+    @Benchmark
+    public RuntimeProfile updateExisting() {
+        profile.update(tree);
+        return profile;
+    }
+
+    @Benchmark
+    public RuntimeProfile updateNew() {
+        RuntimeProfile newProfile = new RuntimeProfile("Instance");
+        newProfile.update(tree);
+        return newProfile;
+    }
+}
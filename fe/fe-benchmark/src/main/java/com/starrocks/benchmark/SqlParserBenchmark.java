@@ -0,0 +1,83 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.benchmark;
+
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.common.util.SqlParserUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse the large statements: a query with many columns and a large IN list, and an insert with many rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlParserBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private String query;
+    private String insert;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder("select ");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("sum(c").append(i % 100).append(" + ").append(i).append(") as s").append(i);
+        }
+        sb.append(" from db.t where k1 > 10 and k2 in (");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(i);
+        }
+        sb.append(") group by k1, k2 order by k1 limit 100");
+        query = sb.toString();
+
+        sb = new StringBuilder("insert into db.t values ");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("(").append(i).append(", 'value_").append(i).append("', '2021-01-01 00:00:00', ")
+                    .append(i).append(".5)");
+        }
+        insert = sb.toString();
+    }
+
+    private static StatementBase parse(String sql) throws Exception {
+        SqlParser parser = new SqlParser(new SqlScanner(new StringReader(sql)));
+        return SqlParserUtils.getFirstStmt(parser);
+    }
+
+    @Benchmark
+    public StatementBase parseQuery() throws Exception {
+        return parse(query);
+    }
+
+    @Benchmark
+    public StatementBase parseInsert() throws Exception {
+        return parse(insert);
+    }
+}
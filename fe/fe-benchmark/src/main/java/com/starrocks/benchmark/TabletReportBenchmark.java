@@ -0,0 +1,108 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.benchmark;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.Replica;
+import com.starrocks.catalog.Replica.ReplicaState;
+import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.catalog.TabletMeta;
+import com.starrocks.common.Pair;
+import com.starrocks.thrift.TPartitionVersionInfo;
+import com.starrocks.thrift.TStorageMedium;
+import com.starrocks.thrift.TTablet;
+import com.starrocks.thrift.TTabletInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diff the tablets reported by a backend with the inverted index. Most reported tablets are the same as
+ * the meta, a few have newer versions and a few are missing in the report.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TabletReportBenchmark {
+    private static final long BACKEND_ID = 10001L;
+    private static final long DB_ID = 1L;
+    private static final long TABLE_ID = 2L;
+    private static final long INDEX_ID = 3L;
+    private static final int SCHEMA_HASH = 1234;
+    private static final int TABLETS_PER_PARTITION = 16;
+
+    // the number of tablets on the backend
+    @Param({"10000", "100000"})
+    public int tabletNum;
+
+    private TabletInvertedIndex invertedIndex;
+    private Map<Long, TTablet> backendTablets;
+    private HashMap<Long, TStorageMedium> storageMediumMap;
+
+    @Setup
+    public void setUp() {
+        invertedIndex = new TabletInvertedIndex();
+        backendTablets = Maps.newHashMap();
+        storageMediumMap = Maps.newHashMap();
+        for (int i = 0; i < tabletNum; i++) {
+            long tabletId = 100000L + i;
+            long partitionId = 10L + i / TABLETS_PER_PARTITION;
+            long version = 10L;
+            storageMediumMap.put(partitionId, TStorageMedium.HDD);
+            invertedIndex.addTablet(tabletId,
+                    new TabletMeta(DB_ID, TABLE_ID, partitionId, INDEX_ID, SCHEMA_HASH, TStorageMedium.HDD));
+            invertedIndex.addReplica(tabletId,
+                    new Replica(tabletId, BACKEND_ID, ReplicaState.NORMAL, version, 0L, SCHEMA_HASH));
+
+            if (i % 100 == 0) {
+                // the tablet is not reported
+                continue;
+            }
+            // a few tablets have newer versions
+            TTabletInfo tabletInfo = new TTabletInfo(tabletId, SCHEMA_HASH, i % 10 == 0 ? version + 1 : version,
+                    0L, 1000L, 100000L);
+            tabletInfo.setPartition_id(partitionId);
+            tabletInfo.setStorage_medium(TStorageMedium.HDD);
+            tabletInfo.setPath_hash(1L);
+            tabletInfo.setVersion_count(5L);
+            backendTablets.put(tabletId, new TTablet(Collections.singletonList(tabletInfo)));
+        }
+    }
+
+    @Benchmark
+    public Set<Long> tabletReport() {
+        ListMultimap<Long, Long> tabletSyncMap = ArrayListMultimap.create();
+        ListMultimap<Long, Long> tabletDeleteFromMeta = ArrayListMultimap.create();
+        Set<Long> foundTabletsWithValidSchema = Sets.newHashSet();
+        Map<Long, TTabletInfo> foundTabletsWithInvalidSchema = Maps.newHashMap();
+        ListMultimap<TStorageMedium, Long> tabletMigrationMap = ArrayListMultimap.create();
+        Map<Long, ListMultimap<Long, TPartitionVersionInfo>> transactionsToPublish = Maps.newHashMap();
+        ListMultimap<Long, Long> transactionsToClear = ArrayListMultimap.create();
+        ListMultimap<Long, Long> tabletRecoveryMap = ArrayListMultimap.create();
+        Set<Pair<Long, Integer>> tabletWithoutPartitionId = Sets.newHashSet();
+        invertedIndex.tabletReport(BACKEND_ID, backendTablets, storageMediumMap, tabletSyncMap,
+                tabletDeleteFromMeta, foundTabletsWithValidSchema, foundTabletsWithInvalidSchema,
+                tabletMigrationMap, transactionsToPublish, transactionsToClear, tabletRecoveryMap,
+                tabletWithoutPartitionId);
+        return foundTabletsWithValidSchema;
+    }
+}
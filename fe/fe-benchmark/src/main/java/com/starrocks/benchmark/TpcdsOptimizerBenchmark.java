@@ -0,0 +1,82 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.benchmark;
+
+import com.google.common.collect.ImmutableMap;
+import com.starrocks.sql.plan.TPCDSPlanTestBase;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Optimize the queries on the TPC-DS tables, the queries are the same as the ones in TPCDSPlanTest.
+ */
+public class TpcdsOptimizerBenchmark extends OptimizerBenchmarkBase {
+    private static final ImmutableMap<String, String> QUERIES = ImmutableMap.of(
+            "star_join", "select count(*)\n" +
+                    "from store_sales, household_demographics, time_dim, store\n" +
+                    "where ss_sold_time_sk = time_dim.t_time_sk\n" +
+                    "  and ss_hdemo_sk = household_demographics.hd_demo_sk\n" +
+                    "  and ss_store_sk = s_store_sk\n" +
+                    "  and time_dim.t_hour = 8\n" +
+                    "  and time_dim.t_minute >= 30\n" +
+                    "  and household_demographics.hd_dep_count = 5\n" +
+                    "  and store.s_store_name = 'ese'\n" +
+                    "order by count(*)\n" +
+                    "limit 100",
+            "correlated_subquery", "select sum(cs_ext_discount_amt) as \"excess discount amount\"\n" +
+                    "from catalog_sales, item, date_dim\n" +
+                    "where i_manufact_id = 283\n" +
+                    "  and i_item_sk = cs_item_sk\n" +
+                    "  and d_date between '1999-02-22' and date_add(cast('1999-02-22' as date), 90)\n" +
+                    "  and d_date_sk = cs_sold_date_sk\n" +
+                    "  and cs_ext_discount_amt > (\n" +
+                    "    select 1.3 * avg(cs_ext_discount_amt)\n" +
+                    "    from catalog_sales, date_dim\n" +
+                    "    where cs_item_sk = i_item_sk\n" +
+                    "      and d_date between '1999-02-22' and date_add(cast('1999-02-22' as date), 90)\n" +
+                    "      and d_date_sk = cs_sold_date_sk)\n" +
+                    "limit 100",
+            "six_table_join", "select i_brand_id brand_id, i_brand brand, i_manufact_id, i_manufact,\n" +
+                    "  sum(ss_ext_sales_price) ext_price\n" +
+                    "from date_dim, store_sales, item, customer, customer_address, store\n" +
+                    "where d_date_sk = ss_sold_date_sk\n" +
+                    "  and ss_item_sk = i_item_sk\n" +
+                    "  and i_manager_id = 8\n" +
+                    "  and d_moy = 11\n" +
+                    "  and d_year = 1999\n" +
+                    "  and ss_customer_sk = c_customer_sk\n" +
+                    "  and c_current_addr_sk = ca_address_sk\n" +
+                    "  and substr(ca_zip, 1, 5) <> substr(s_zip, 1, 5)\n" +
+                    "  and ss_store_sk = s_store_sk\n" +
+                    "group by i_brand, i_brand_id, i_manufact_id, i_manufact\n" +
+                    "order by ext_price desc, i_brand, i_brand_id, i_manufact_id, i_manufact\n" +
+                    "limit 100",
+            "exists_subquery", "select count(distinct ws_order_number) as \"order count\",\n" +
+                    "  sum(ws_ext_ship_cost) as \"total shipping cost\",\n" +
+                    "  sum(ws_net_profit) as \"total net profit\"\n" +
+                    "from web_sales ws1, date_dim, customer_address, web_site\n" +
+                    "where d_date between '1999-4-01' and date_add(cast('1999-4-01' as date), 60)\n" +
+                    "  and ws1.ws_ship_date_sk = d_date_sk\n" +
+                    "  and ws1.ws_ship_addr_sk = ca_address_sk\n" +
+                    "  and ca_state = 'WI'\n" +
+                    "  and ws1.ws_web_site_sk = web_site_sk\n" +
+                    "  and web_company_name = 'pri'\n" +
+                    "  and exists (select * from web_sales ws2\n" +
+                    "      where ws1.ws_order_number = ws2.ws_order_number\n" +
+                    "        and ws1.ws_warehouse_sk <> ws2.ws_warehouse_sk)\n" +
+                    "  and not exists(select * from web_returns wr1\n" +
+                    "      where ws1.ws_order_number = wr1.wr_order_number)\n" +
+                    "order by count(distinct ws_order_number)\n" +
+                    "limit 100");
+
+    @Param({"star_join", "correlated_subquery", "six_table_join", "exists_subquery"})
+    public String query;
+
+    @Override
+    protected void createTables() throws Exception {
+        TPCDSPlanTestBase.beforeClass();
+    }
+
+    @Override
+    protected String getSql() {
+        return QUERIES.get(query);
+    }
+}
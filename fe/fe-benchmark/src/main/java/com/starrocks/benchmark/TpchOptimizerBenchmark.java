@@ -0,0 +1,34 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.benchmark;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.Resources;
+import com.starrocks.sql.plan.PlanTestBase;
+import org.openjdk.jmh.annotations.Param;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Optimize the TPC-H queries, which are read from the plan test cases in sql/tpch of the fe-core test jar.
+ */
+public class TpchOptimizerBenchmark extends OptimizerBenchmarkBase {
+    // the test case of q1 is named Q1.sql
+    @Param({"Q1", "q2", "q3", "q4", "q5", "q6", "q7", "q8", "q9", "q10", "q11", "q12", "q13", "q14", "q15",
+            "q16", "q17", "q18", "q19", "q20", "q21", "q22"})
+    public String query;
+
+    @Override
+    protected void createTables() throws Exception {
+        PlanTestBase.beforeClass();
+    }
+
+    @Override
+    protected String getSql() throws Exception {
+        String testCase = Resources.toString(Resources.getResource("sql/tpch/" + query + ".sql"),
+                StandardCharsets.UTF_8);
+        int begin = testCase.indexOf("[sql]");
+        int end = testCase.indexOf("[result]");
+        Preconditions.checkState(begin >= 0 && end > begin, "invalid test case of " + query);
+        return testCase.substring(begin + "[sql]".length(), end).trim();
+    }
+}
@@ -308,16 +308,20 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
 
         // create all replicas success.
         // add all shadow indexes to catalog
-        db.writeLock();
+        OlapTable tbl = (OlapTable) db.getTable(tableId);
+        if (tbl == null) {
+            throw new AlterCancelException("Table " + tableId + " does not exist");
+        }
+        // only lock this table, not to block the queries and loads of other tables
+        db.writeLockTables(Lists.newArrayList(tbl));
         try {
-            OlapTable tbl = (OlapTable) db.getTable(tableId);
-            if (tbl == null) {
+            if (db.getTable(tableId) != tbl) {
                 throw new AlterCancelException("Table " + tableId + " does not exist");
             }
             Preconditions.checkState(tbl.getState() == OlapTableState.SCHEMA_CHANGE);
             addShadowIndexToCatalog(tbl);
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTables(Lists.newArrayList(tbl));
         }
 
         this.watershedTxnId =
@@ -478,10 +482,13 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
          * all tasks are finished. check the integrity.
          * we just check whether all new replicas are healthy.
          */
-        db.writeLock();
+        OlapTable tbl = (OlapTable) db.getTable(tableId);
+        if (tbl == null) {
+            throw new AlterCancelException("Table " + tableId + " does not exist");
+        }
+        db.writeLockTables(Lists.newArrayList(tbl));
         try {
-            OlapTable tbl = (OlapTable) db.getTable(tableId);
-            if (tbl == null) {
+            if (db.getTable(tableId) != tbl) {
                 throw new AlterCancelException("Table " + tableId + " does not exist");
             }
             Preconditions.checkState(tbl.getState() == OlapTableState.SCHEMA_CHANGE);
@@ -521,7 +528,7 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
             // all partitions are good
             onFinished(tbl);
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTables(Lists.newArrayList(tbl));
         }
 
         pruneMeta();
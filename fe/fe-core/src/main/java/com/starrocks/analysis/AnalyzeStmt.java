@@ -10,12 +10,20 @@ public class AnalyzeStmt extends StatementBase {
     private List<String> columnNames;
     private final boolean isSample;
     private Map<String, String> properties;
+    // Collect the distinct values of the column combination instead of the statistics of each column
+    private final boolean isMultiColumn;
 
     public AnalyzeStmt(TableName tbl, List<String> columns, Map<String, String> properties, boolean isSample) {
+        this(tbl, columns, properties, isSample, false);
+    }
+
+    public AnalyzeStmt(TableName tbl, List<String> columns, Map<String, String> properties, boolean isSample,
+                       boolean isMultiColumn) {
         this.tbl = tbl;
         this.columnNames = columns;
         this.isSample = isSample;
         this.properties = properties;
+        this.isMultiColumn = isMultiColumn;
     }
 
     public List<String> getColumnNames() {
@@ -34,6 +42,10 @@ public class AnalyzeStmt extends StatementBase {
         return isSample;
     }
 
+    public boolean isMultiColumn() {
+        return isMultiColumn;
+    }
+
     public Map<String, String> getProperties() {
         return properties;
     }
@@ -0,0 +1,53 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.analysis;
+
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.PrimitiveType;
+import com.starrocks.catalog.ScalarType;
+import com.starrocks.qe.ShowResultSetMetaData;
+
+// SHOW RUNNING QUERIES and SHOW QUEUED QUERIES statement.
+// Used to show the queries admitted by or waiting in the query queue of this FE.
+public class ShowQueriesStmt extends ShowStmt {
+    private static final ShowResultSetMetaData META_DATA =
+            ShowResultSetMetaData.builder()
+                    .addColumn(new Column("QueryId", ScalarType.createVarchar(64)))
+                    .addColumn(new Column("ConnectionId", ScalarType.createType(PrimitiveType.BIGINT)))
+                    .addColumn(new Column("User", ScalarType.createVarchar(16)))
+                    .addColumn(new Column("ResourceGroup", ScalarType.createVarchar(16)))
+                    .addColumn(new Column("Priority", ScalarType.createType(PrimitiveType.INT)))
+                    .addColumn(new Column("MemLimitBytes", ScalarType.createType(PrimitiveType.BIGINT)))
+                    .addColumn(new Column("PendingTimeMs", ScalarType.createType(PrimitiveType.BIGINT)))
+                    .addColumn(new Column("RunningTimeMs", ScalarType.createType(PrimitiveType.BIGINT)))
+                    .addColumn(new Column("Sql", ScalarType.createVarchar(32 * 1024)))
+                    .build();
+    private final boolean isQueued;
+
+    public ShowQueriesStmt(boolean isQueued) {
+        this.isQueued = isQueued;
+    }
+
+    @Override
+    public void analyze(Analyzer analyzer) {
+    }
+
+    @Override
+    public String toSql() {
+        return isQueued ? "SHOW QUEUED QUERIES" : "SHOW RUNNING QUERIES";
+    }
+
+    @Override
+    public String toString() {
+        return toSql();
+    }
+
+    @Override
+    public ShowResultSetMetaData getMetaData() {
+        return META_DATA;
+    }
+
+    public boolean isQueued() {
+        return isQueued;
+    }
+}
@@ -135,6 +135,7 @@ import com.starrocks.common.MetaNotFoundException;
 import com.starrocks.common.Pair;
 import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.UserException;
+import com.starrocks.common.io.DataOutputBuffer;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.util.Daemon;
 import com.starrocks.common.util.DynamicPartitionUtil;
@@ -190,6 +191,7 @@ import com.starrocks.persist.DropLinkDbAndUpdateDbInfo;
 import com.starrocks.persist.DropPartitionInfo;
 import com.starrocks.persist.EditLog;
 import com.starrocks.persist.GlobalVarPersistInfo;
+import com.starrocks.persist.ImageChangeTracker;
 import com.starrocks.persist.ModifyPartitionInfo;
 import com.starrocks.persist.ModifyTablePropertyOperationLog;
 import com.starrocks.persist.OperationType;
@@ -197,6 +199,7 @@ import com.starrocks.persist.PartitionPersistInfo;
 import com.starrocks.persist.RecoverInfo;
 import com.starrocks.persist.ReplacePartitionOperationLog;
 import com.starrocks.persist.ReplicaPersistInfo;
+import com.starrocks.persist.SectionedImage;
 import com.starrocks.persist.SetReplicaStatusOperationLog;
 import com.starrocks.persist.Storage;
 import com.starrocks.persist.StorageInfo;
@@ -247,6 +250,7 @@ import org.apache.logging.log4j.Logger;
 import org.codehaus.jackson.map.ObjectMapper;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -257,6 +261,7 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -268,8 +273,10 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -353,6 +360,10 @@ public class Catalog {
     private CatalogIdGenerator idGenerator = new CatalogIdGenerator(NEXT_ID_INIT_VALUE);
 
     private EditLog editLog;
+    // only set in checkpoint catalog for incremental checkpoint
+    private ImageChangeTracker imageChangeTracker = null;
+    // shared by image load and save of all catalogs (serving and checkpoint), created on first use
+    private static ThreadPoolExecutor imageSerdeExecutor = null;
     private int clusterId;
     private String token;
     // For checkpoint and observer memory replayed marker
@@ -1462,6 +1473,17 @@ public class Catalog {
         replayedJournalId.set(storage.getImageSeq());
         LOG.info("start load image from {}. is ckpt: {}", curFile.getAbsolutePath(), Catalog.isCheckpointThread());
         long loadImageStartTime = System.currentTimeMillis();
+        if (SectionedImage.isSectionedImage(curFile)) {
+            loadSectionedImage(curFile);
+        } else {
+            loadImage(curFile);
+        }
+
+        long loadImageEndTime = System.currentTimeMillis();
+        LOG.info("finished to load image in " + (loadImageEndTime - loadImageStartTime) + " ms");
+    }
+
+    private void loadImage(File curFile) throws IOException, DdlException {
         DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(curFile)));
 
         long checksum = 0;
@@ -1507,9 +1529,49 @@ public class Catalog {
         }
 
         Preconditions.checkState(remoteChecksum == checksum, remoteChecksum + " vs. " + checksum);
+    }
 
-        long loadImageEndTime = System.currentTimeMillis();
-        LOG.info("finished to load image in " + (loadImageEndTime - loadImageStartTime) + " ms");
+    // The sections must be loaded in the same order as loadImage(File)
+    private void loadSectionedImage(File curFile) throws IOException, DdlException {
+        SectionedImage.Reader reader = new SectionedImage.Reader(curFile);
+        reader.loadSection("header", this::loadHeader);
+        // the blocks of base image can only be reused if it has the same meta version as current code
+        if (Config.enable_incremental_checkpoint && isCheckpointThread()
+                && MetaContext.get().getMetaVersion() == FeConstants.meta_version
+                && MetaContext.get().getStarRocksMetaVersion() == FeConstants.starrocks_meta_version) {
+            imageChangeTracker = new ImageChangeTracker(reader);
+        }
+        reader.loadSection("masterInfo", this::loadMasterInfo);
+        reader.loadSection("frontends", this::loadFrontends);
+        reader.loadSection("backends", Catalog.getCurrentSystemInfo()::loadBackends);
+        reader.loadSection("db", this::loadDbInParallel);
+        // ATTN: this should be done after load Db, and before loadAlterJob
+        recreateTabletInvertIndex();
+        // rebuild es state state
+        esRepository.loadTableFromCatalog();
+        starRocksRepository.loadTableFromCatalog();
+
+        reader.loadSection("loadJob", this::loadLoadJob);
+        reader.loadSection("alterJob", this::loadAlterJob);
+        reader.loadSection("recycleBin", this::loadRecycleBin);
+        reader.loadSection("globalVariable", this::loadGlobalVariable);
+        reader.loadSection("cluster", this::loadCluster);
+        reader.loadSection("brokers", this::loadBrokers);
+        reader.loadSection("resources", this::loadResources);
+        reader.loadSection("exportJob", this::loadExportJob);
+        reader.loadSection("backupHandler", this::loadBackupHandler);
+        reader.loadSection("auth", this::loadAuth);
+        // global transaction must be replayed before load jobs v2
+        reader.loadSection("transactionState", this::loadTransactionState);
+        reader.loadSection("colocateTableIndex", this::loadColocateTableIndex);
+        reader.loadSection("routineLoadJobs", this::loadRoutineLoadJobs);
+        reader.loadSection("loadJobsV2", this::loadLoadJobsV2);
+        reader.loadSection("smallFiles", this::loadSmallFiles);
+        reader.loadSection("plugins", this::loadPlugins);
+        reader.loadSection("deleteHandler", this::loadDeleteHandler);
+        reader.loadSection("analyze", this::loadAnalyze);
+
+        LOG.info("load time of image sections in ms: {}", reader.getLoadTimeMs());
     }
 
     private void recreateTabletInvertIndex() {
@@ -1649,17 +1711,71 @@ public class Catalog {
             Database db = new Database();
             db.readFields(dis);
             newChecksum ^= db.getId();
-            idToDb.put(db.getId(), db);
-            fullNameToDb.put(db.getFullName(), db);
-            if (db.getDbState() == DbState.LINK) {
-                fullNameToDb.put(db.getAttachDb(), db);
-            }
-            globalTransactionMgr.addDatabaseTransactionMgr(db.getId());
+            addLoadedDb(db);
         }
         LOG.info("finished replay databases from image");
         return newChecksum;
     }
 
+    private void addLoadedDb(Database db) {
+        idToDb.put(db.getId(), db);
+        fullNameToDb.put(db.getFullName(), db);
+        if (db.getDbState() == DbState.LINK) {
+            fullNameToDb.put(db.getAttachDb(), db);
+        }
+        globalTransactionMgr.addDatabaseTransactionMgr(db.getId());
+    }
+
+    /*
+     * Same content as loadDb(), but every database is a length prefixed block written by saveDbInParallel(),
+     * so the databases can be deserialized in parallel.
+     */
+    public long loadDbInParallel(DataInputStream dis, long checksum) throws IOException {
+        int dbCount = dis.readInt();
+        long newChecksum = checksum ^ dbCount;
+        // meta version is thread local, pass it to the worker threads
+        MetaContext metaContext = MetaContext.get();
+        ThreadPoolExecutor executor = getImageSerdeExecutor();
+        try {
+            List<Future<Database>> futures = Lists.newArrayListWithCapacity(dbCount);
+            // offset and length of every block in this section, the count of databases is at offset 0
+            long[] blockOffsets = new long[dbCount];
+            int[] blockLengths = new int[dbCount];
+            long offset = Integer.BYTES;
+            for (int i = 0; i < dbCount; ++i) {
+                byte[] block = new byte[dis.readInt()];
+                dis.readFully(block);
+                blockOffsets[i] = offset + Integer.BYTES;
+                blockLengths[i] = block.length;
+                offset = blockOffsets[i] + block.length;
+                futures.add(executor.submit(() -> {
+                    if (metaContext != null) {
+                        metaContext.setThreadLocalInfo();
+                    }
+                    try {
+                        Database db = new Database();
+                        db.readFields(new DataInputStream(new ByteArrayInputStream(block)));
+                        return db;
+                    } finally {
+                        MetaContext.remove();
+                    }
+                }));
+            }
+            for (int i = 0; i < dbCount; ++i) {
+                Database db = futures.get(i).get();
+                newChecksum ^= db.getId();
+                addLoadedDb(db);
+                if (imageChangeTracker != null) {
+                    imageChangeTracker.addDbBlock(db.getId(), blockOffsets[i], blockLengths[i]);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException("failed to load databases from image", e);
+        }
+        LOG.info("finished replay {} databases from image in parallel", dbCount);
+        return newChecksum;
+    }
+
     public long loadLoadJob(DataInputStream dis, long checksum) throws IOException, DdlException {
         // load jobs
         int jobSize = dis.readInt();
@@ -1929,6 +2045,11 @@ public class Catalog {
         // save image does not need any lock. because only checkpoint thread will call this method.
         LOG.info("start save image to {}. is ckpt: {}", curFile.getAbsolutePath(), Catalog.isCheckpointThread());
 
+        if (Config.enable_sectioned_image) {
+            saveSectionedImage(curFile, replayedJournalId);
+            return;
+        }
+
         long checksum = 0;
         long saveImageStartTime = System.currentTimeMillis();
         try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(curFile))) {
@@ -1965,6 +2086,50 @@ public class Catalog {
                 curFile.getAbsolutePath(), (saveImageEndTime - saveImageStartTime), checksum);
     }
 
+    private void saveSectionedImage(File curFile, long replayedJournalId) throws IOException {
+        long saveImageStartTime = System.currentTimeMillis();
+        try (SectionedImage.Writer writer = new SectionedImage.Writer(curFile)) {
+            writeSection(writer, "header", (dos, checksum) -> saveHeader(dos, replayedJournalId, checksum));
+            writeSection(writer, "masterInfo", this::saveMasterInfo);
+            writeSection(writer, "frontends", this::saveFrontends);
+            writeSection(writer, "backends", Catalog.getCurrentSystemInfo()::saveBackends);
+            writeSection(writer, "db", this::saveDbInParallel);
+            writeSection(writer, "loadJob", this::saveLoadJob);
+            writeSection(writer, "alterJob", this::saveAlterJob);
+            writeSection(writer, "recycleBin", this::saveRecycleBin);
+            writeSection(writer, "globalVariable", this::saveGlobalVariable);
+            writeSection(writer, "cluster", this::saveCluster);
+            writeSection(writer, "brokers", this::saveBrokers);
+            writeSection(writer, "resources", this::saveResources);
+            writeSection(writer, "exportJob", this::saveExportJob);
+            writeSection(writer, "backupHandler", this::saveBackupHandler);
+            writeSection(writer, "auth", this::saveAuth);
+            writeSection(writer, "transactionState", this::saveTransactionState);
+            writeSection(writer, "colocateTableIndex", this::saveColocateTableIndex);
+            writeSection(writer, "routineLoadJobs", this::saveRoutineLoadJobs);
+            writeSection(writer, "loadJobsV2", this::saveLoadJobsV2);
+            writeSection(writer, "smallFiles", this::saveSmallFiles);
+            writeSection(writer, "plugins", this::savePlugins);
+            writeSection(writer, "deleteHandler", this::saveDeleteHandler);
+            writeSection(writer, "analyze", this::saveAnalyze);
+            writer.finish();
+        }
+
+        long saveImageEndTime = System.currentTimeMillis();
+        LOG.info("finished save sectioned image {} in {} ms",
+                curFile.getAbsolutePath(), (saveImageEndTime - saveImageStartTime));
+    }
+
+    // Copy the section from base image if it is not changed, see ImageChangeTracker
+    private void writeSection(SectionedImage.Writer writer, String name, SectionedImage.SectionSaver saver)
+            throws IOException {
+        if (imageChangeTracker != null && !imageChangeTracker.isSectionChanged(name)) {
+            writer.copySection(imageChangeTracker.getBaseImage(), name);
+        } else {
+            writer.writeSection(name, saver);
+        }
+    }
+
     public long saveHeader(DataOutputStream dos, long replayedJournalId, long checksum) throws IOException {
         // Write meta version
         // community meta version is a positive integer, so we write -1 to distinguish old image structure
@@ -2042,6 +2207,82 @@ public class Catalog {
         return checksum;
     }
 
+    /*
+     * Serialize databases in parallel, and write every database as a length prefixed block.
+     * At most Config.image_serde_parallelism databases are serialized in memory at the same time.
+     */
+    public long saveDbInParallel(DataOutputStream dos, long checksum) throws IOException {
+        List<Database> dbs = Lists.newArrayList();
+        for (Database db : idToDb.values()) {
+            // Don't write information_schema db meta
+            if (!InfoSchemaDb.isInfoSchemaDb(db.getFullName())) {
+                dbs.add(db);
+            }
+        }
+        checksum ^= dbs.size();
+        dos.writeInt(dbs.size());
+
+        int parallelism = Math.max(Config.image_serde_parallelism, 1);
+        MetaContext metaContext = MetaContext.get();
+        ThreadPoolExecutor executor = getImageSerdeExecutor();
+        try {
+            for (int start = 0; start < dbs.size(); start += parallelism) {
+                List<Future<byte[]>> futures = Lists.newArrayListWithCapacity(parallelism);
+                for (Database db : dbs.subList(start, Math.min(start + parallelism, dbs.size()))) {
+                    futures.add(executor.submit(() -> {
+                        // incremental checkpoint, reuse the block of base image if the database is not changed
+                        if (imageChangeTracker != null && !imageChangeTracker.isDbChanged(db.getId())) {
+                            return imageChangeTracker.readDbBlock(db.getId());
+                        }
+                        if (metaContext != null) {
+                            metaContext.setThreadLocalInfo();
+                        }
+                        DataOutputBuffer buffer = new DataOutputBuffer();
+                        db.readLock();
+                        try {
+                            db.write(buffer);
+                        } finally {
+                            db.readUnlock();
+                            MetaContext.remove();
+                        }
+                        return Arrays.copyOf(buffer.getData(), buffer.getLength());
+                    }));
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    byte[] block = futures.get(i).get();
+                    checksum ^= dbs.get(start + i).getId();
+                    dos.writeInt(block.length);
+                    dos.write(block);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException("failed to save databases to image", e);
+        }
+        return checksum;
+    }
+
+    /*
+     * The pool used to serialize and deserialize databases in parallel.
+     * It is resized if Config.image_serde_parallelism is changed at runtime.
+     */
+    private static synchronized ThreadPoolExecutor getImageSerdeExecutor() {
+        int parallelism = Math.max(Config.image_serde_parallelism, 1);
+        if (imageSerdeExecutor == null) {
+            // loading submits all the databases of a section at once, saving at most parallelism at a time
+            imageSerdeExecutor = ThreadPoolManager.newDaemonFixedThreadPool(
+                    parallelism, Integer.MAX_VALUE, "image-serde-db", false);
+        } else if (imageSerdeExecutor.getMaximumPoolSize() != parallelism) {
+            if (parallelism > imageSerdeExecutor.getMaximumPoolSize()) {
+                imageSerdeExecutor.setMaximumPoolSize(parallelism);
+                imageSerdeExecutor.setCorePoolSize(parallelism);
+            } else {
+                imageSerdeExecutor.setCorePoolSize(parallelism);
+                imageSerdeExecutor.setMaximumPoolSize(parallelism);
+            }
+        }
+        return imageSerdeExecutor;
+    }
+
     public long saveLoadJob(DataOutputStream dos, long checksum) throws IOException {
         // 1. save load.dbToLoadJob
         int jobSize = 0;
@@ -2446,6 +2687,9 @@ public class Catalog {
             }
             hasLog = true;
             EditLog.loadJournal(this, entity);
+            if (imageChangeTracker != null) {
+                imageChangeTracker.onJournalReplayed(entity.getOpCode(), entity.getData());
+            }
             replayedJournalId.incrementAndGet();
             LOG.debug("journal {} replayed.", replayedJournalId);
             if (feType != FrontendNodeType.MASTER) {
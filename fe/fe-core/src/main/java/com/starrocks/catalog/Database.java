@@ -35,6 +35,9 @@ import com.starrocks.common.UserException;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.io.Writable;
 import com.starrocks.common.util.DebugUtil;
+import com.starrocks.common.util.GroupMutexLock;
+import com.starrocks.metric.TableMetricsEntity;
+import com.starrocks.metric.TableMetricsRegistry;
 import com.starrocks.persist.CreateTableInfo;
 import com.starrocks.system.SystemInfoService;
 import org.apache.logging.log4j.LogManager;
@@ -45,6 +48,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +58,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 import java.util.zip.Adler32;
 
 /**
@@ -76,10 +81,16 @@ public class Database extends MetaObject implements Writable {
     // assume that the time a lock is held by thread is less then 100ms
     public static final long TRY_LOCK_TIMEOUT_MS = 100L;
 
+    // groups of intention lock
+    private static final int SHARED = 0;
+    private static final int INTENTION_EXCLUSIVE = 1;
+
     private long id;
     private String fullQualifiedName;
     private String clusterName;
     private ReentrantReadWriteLock rwLock;
+    // intention lock, to exclude the database read lock and the table write locks, see readLockTables()
+    private GroupMutexLock intentionLock;
 
     // table family group map
     private Map<Long, Table> idToTable;
@@ -110,6 +121,7 @@ public class Database extends MetaObject implements Writable {
             this.fullQualifiedName = "";
         }
         this.rwLock = new ReentrantReadWriteLock(true);
+        this.intentionLock = new GroupMutexLock(2);
         this.idToTable = new ConcurrentHashMap<>();
         this.nameToTable = new ConcurrentHashMap<>();
         this.dataQuotaBytes = FeConstants.default_db_data_quota_bytes;
@@ -120,19 +132,35 @@ public class Database extends MetaObject implements Writable {
     }
 
     public void readLock() {
+        assert !isAnyTableLockHeldByCurrentThread() : "get read lock of db[" + id + "] while holding table locks";
         this.rwLock.readLock().lock();
+        this.intentionLock.lock(SHARED);
     }
 
     public boolean tryReadLock(long timeout, TimeUnit unit) {
+        assert !isAnyTableLockHeldByCurrentThread() : "get read lock of db[" + id + "] while holding table locks";
+        long deadlineNs = System.nanoTime() + unit.toNanos(timeout);
         try {
-            return this.rwLock.readLock().tryLock(timeout, unit);
+            if (!this.rwLock.readLock().tryLock(timeout, unit)) {
+                return false;
+            }
         } catch (InterruptedException e) {
             LOG.warn("failed to try read lock at db[" + id + "]", e);
             return false;
         }
+        try {
+            if (this.intentionLock.tryLock(SHARED, deadlineNs - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("failed to try read lock at db[" + id + "]", e);
+        }
+        this.rwLock.readLock().unlock();
+        return false;
     }
 
     public void readUnlock() {
+        this.intentionLock.unlock(SHARED);
         this.rwLock.readLock().unlock();
     }
 
@@ -157,6 +185,118 @@ public class Database extends MetaObject implements Writable {
         return this.rwLock.writeLock().isHeldByCurrentThread();
     }
 
+    /*
+     * Table level locks.
+     * Lock the given tables of this database in table id order, after getting the intention lock of database:
+     *  - readLockTables: intention shared, only excluded by the database write lock.
+     *  - writeLockTables: intention exclusive, excluded by the database read lock and write lock.
+     * So readers and writers of different tables do not block each other, while the database read lock still
+     * sees a consistent view of all tables, and DDL with database write lock (eg. create, drop, rename table)
+     * excludes all of them.
+     *
+     * The tables should be got from this database before locking. A table may be dropped before it is locked,
+     * so callers should check it again with getTable() after locking if needed.
+     * Do not get the database read lock while holding table locks, which may dead lock with table writers.
+     * It is checked by assertion in readLock(). Getting table write locks while holding the database read lock
+     * waits until the other database readers leave, and is rejected if another reader is doing the same.
+     */
+    public void readLockTables(List<? extends Table> tables) {
+        this.rwLock.readLock().lock();
+        for (Table table : sortTables(tables)) {
+            lockTable(table, false);
+        }
+    }
+
+    public boolean tryReadLockTables(List<? extends Table> tables, long timeout, TimeUnit unit) {
+        List<Table> sortedTables = sortTables(tables);
+        long deadlineNs = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            if (!this.rwLock.readLock().tryLock(timeout, unit)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("failed to try read lock tables at db[" + id + "]", e);
+            return false;
+        }
+        List<Table> lockedTables = Lists.newArrayList();
+        try {
+            for (Table table : sortedTables) {
+                if (!table.getRwLock().readLock().tryLock(deadlineNs - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                lockedTables.add(table);
+            }
+        } catch (InterruptedException e) {
+            LOG.warn("failed to try read lock tables at db[" + id + "]", e);
+        }
+        if (lockedTables.size() == sortedTables.size()) {
+            return true;
+        }
+        for (Table table : lockedTables) {
+            table.getRwLock().readLock().unlock();
+        }
+        this.rwLock.readLock().unlock();
+        return false;
+    }
+
+    public void readUnlockTables(List<? extends Table> tables) {
+        for (Table table : sortTables(tables)) {
+            table.getRwLock().readLock().unlock();
+        }
+        this.rwLock.readLock().unlock();
+    }
+
+    public void writeLockTables(List<? extends Table> tables) {
+        this.rwLock.readLock().lock();
+        this.intentionLock.lock(INTENTION_EXCLUSIVE);
+        for (Table table : sortTables(tables)) {
+            lockTable(table, true);
+        }
+    }
+
+    public void writeUnlockTables(List<? extends Table> tables) {
+        for (Table table : sortTables(tables)) {
+            table.getRwLock().writeLock().unlock();
+        }
+        this.intentionLock.unlock(INTENTION_EXCLUSIVE);
+        this.rwLock.readLock().unlock();
+    }
+
+    // only used in assertions, checking every table is too expensive for the normal path
+    private boolean isAnyTableLockHeldByCurrentThread() {
+        for (Table table : idToTable.values()) {
+            if (table.getRwLock().getReadHoldCount() > 0 || table.getRwLock().isWriteLockedByCurrentThread()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Table> sortTables(List<? extends Table> tables) {
+        return tables.stream().distinct().sorted(Comparator.comparingLong(Table::getId)).collect(Collectors.toList());
+    }
+
+    private static void lockTable(Table table, boolean isWrite) {
+        long startNs = System.nanoTime();
+        if (isWrite) {
+            table.getRwLock().writeLock().lock();
+        } else {
+            table.getRwLock().readLock().lock();
+        }
+        // only record the waits longer than 1ms, to avoid the cost of metrics in the common case
+        long waitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs);
+        if (waitMs > 0) {
+            TableMetricsEntity entity = TableMetricsRegistry.getInstance().getMetricsEntity(table.getId());
+            if (isWrite) {
+                entity.COUNTER_WRITE_LOCK_WAIT_TOTAL.increase(1L);
+                entity.COUNTER_WRITE_LOCK_WAIT_MS_TOTAL.increase(waitMs);
+            } else {
+                entity.COUNTER_READ_LOCK_WAIT_TOTAL.increase(1L);
+                entity.COUNTER_READ_LOCK_WAIT_MS_TOTAL.increase(waitMs);
+            }
+        }
+    }
+
     public long getId() {
         return id;
     }
@@ -41,6 +41,7 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Internal representation of table-related metadata. A table contains several partitions.
@@ -97,6 +98,11 @@ public class Table extends MetaObject implements Writable {
     // table(view)'s comment
     protected String comment = "";
 
+    // Table level lock, DO NOT persist it.
+    // Do not use it directly, use Database.readLockTables() and Database.writeLockTables() instead,
+    // which hold the intention lock of database first.
+    private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock(true);
+
     public Table(TableType type) {
         this.type = type;
         this.fullSchema = Lists.newArrayList();
@@ -123,6 +129,10 @@ public class Table extends MetaObject implements Writable {
         this.createTime = Instant.now().getEpochSecond();
     }
 
+    ReentrantReadWriteLock getRwLock() {
+        return rwLock;
+    }
+
     public boolean isTypeRead() {
         return isTypeRead;
     }
@@ -39,6 +39,11 @@ import com.starrocks.transaction.PartitionCommitInfo;
 import com.starrocks.transaction.TableCommitInfo;
 import com.starrocks.transaction.TransactionState;
 import com.starrocks.transaction.TransactionStatus;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectArrayMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -48,13 +53,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
 
 /*
  * this class stores a inverted index
  * key is tablet id. value is the related ids of this tablet
  * Checkpoint thread is no need to modify this inverted index, because this inverted index will not be wrote
  * into images, all meta data are in catalog, and the inverted index will be rebuild when FE restart.
+ *
+ * The index is split into STRIPE_NUM stripes by tablet id (replica id for replicaToTabletMap), each stripe
+ * is protected by its own lock. So a tablet report, which visits all replicas of a backend, only blocks the
+ * writers of the stripe it is visiting, instead of the whole index.
+ * Never hold the locks of two stripes at the same time, to avoid dead lock.
  */
 public class TabletInvertedIndex {
     private static final Logger LOG = LogManager.getLogger(TabletInvertedIndex.class);
@@ -64,13 +73,77 @@ public class TabletInvertedIndex {
     public static final TabletMeta NOT_EXIST_TABLET_META = new TabletMeta(NOT_EXIST_VALUE, NOT_EXIST_VALUE,
             NOT_EXIST_VALUE, NOT_EXIST_VALUE, NOT_EXIST_VALUE, TStorageMedium.HDD);
 
-    private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // must be power of 2
+    private static final int STRIPE_NUM = 64;
 
-    // tablet id -> tablet meta
-    private Map<Long, TabletMeta> tabletMetaMap = Maps.newHashMap();
+    private static class Stripe {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
-    // replica id -> tablet id
-    private Map<Long, Long> replicaToTabletMap = Maps.newHashMap();
+        // tablet id -> tablet meta
+        private final Long2ObjectOpenHashMap<TabletMeta> tabletMetaMap = new Long2ObjectOpenHashMap<>();
+
+        // replica id -> tablet id
+        private final Long2LongOpenHashMap replicaToTabletMap = new Long2LongOpenHashMap();
+
+        // tablet id -> (backend id -> replica)
+        // a tablet only has a few replicas, so array map is used to save memory
+        private final Long2ObjectOpenHashMap<Long2ObjectArrayMap<Replica>> replicaMetaTable =
+                new Long2ObjectOpenHashMap<>();
+        // backing replica table, for visiting backend replicas faster.
+        // backend id -> (tablet id -> replica)
+        private final Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<Replica>> backingReplicaMetaTable =
+                new Long2ObjectOpenHashMap<>();
+
+        private void readLock() {
+            this.lock.readLock().lock();
+        }
+
+        private void readUnlock() {
+            this.lock.readLock().unlock();
+        }
+
+        private void writeLock() {
+            this.lock.writeLock().lock();
+        }
+
+        private void writeUnlock() {
+            this.lock.writeLock().unlock();
+        }
+
+        private Long2ObjectMap<Replica> getReplicasOfBackend(long backendId) {
+            Long2ObjectMap<Replica> replicaMetaWithBackend = backingReplicaMetaTable.get(backendId);
+            return replicaMetaWithBackend == null ? Long2ObjectMaps.emptyMap() : replicaMetaWithBackend;
+        }
+
+        private void removeReplica(long tabletId, long backendId) {
+            Long2ObjectArrayMap<Replica> replicas = replicaMetaTable.get(tabletId);
+            if (replicas != null) {
+                replicas.remove(backendId);
+                if (replicas.isEmpty()) {
+                    replicaMetaTable.remove(tabletId);
+                }
+            }
+            Long2ObjectOpenHashMap<Replica> replicaMetaWithBackend = backingReplicaMetaTable.get(backendId);
+            if (replicaMetaWithBackend != null) {
+                replicaMetaWithBackend.remove(tabletId);
+                if (replicaMetaWithBackend.isEmpty()) {
+                    backingReplicaMetaTable.remove(backendId);
+                }
+            }
+        }
+
+        private void clear() {
+            tabletMetaMap.clear();
+            replicaToTabletMap.clear();
+            replicaMetaTable.clear();
+            backingReplicaMetaTable.clear();
+        }
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPE_NUM];
+
+    // protect tabletMetaTable only
+    private ReentrantReadWriteLock tabletMetaTableLock = new ReentrantReadWriteLock();
 
     /*
      *  we use this to save memory.
@@ -83,29 +156,14 @@ public class TabletInvertedIndex {
      */
     private Table<Long, Long, TabletMeta> tabletMetaTable = HashBasedTable.create();
 
-    // tablet id -> (backend id -> replica)
-    private Table<Long, Long, Replica> replicaMetaTable = HashBasedTable.create();
-    // backing replica table, for visiting backend replicas faster.
-    // backend id -> (tablet id -> replica)
-    private Table<Long, Long, Replica> backingReplicaMetaTable = HashBasedTable.create();
-
     public TabletInvertedIndex() {
+        for (int i = 0; i < STRIPE_NUM; i++) {
+            stripes[i] = new Stripe();
+        }
     }
 
-    private void readLock() {
-        this.lock.readLock().lock();
-    }
-
-    private void readUnlock() {
-        this.lock.readLock().unlock();
-    }
-
-    private void writeLock() {
-        this.lock.writeLock().lock();
-    }
-
-    private void writeUnlock() {
-        this.lock.writeLock().unlock();
+    private Stripe getStripe(long id) {
+        return stripes[(int) (id & (STRIPE_NUM - 1))];
     }
 
     public void tabletReport(long backendId, Map<Long, TTablet> backendTablets,
@@ -128,17 +186,18 @@ public class TabletInvertedIndex {
             }
         }
 
-        readLock();
         long start = System.currentTimeMillis();
-        try {
-            LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
+        LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
+        // only hold the lock of one stripe at a time, so writers of other stripes are not blocked
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
                 // traverse replicas in meta with this backend
-                for (Map.Entry<Long, Replica> entry : replicaMetaWithBackend.entrySet()) {
-                    long tabletId = entry.getKey();
-                    Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-                    TabletMeta tabletMeta = tabletMetaMap.get(tabletId);
+                for (Long2ObjectMap.Entry<Replica> entry : stripe.getReplicasOfBackend(backendId)
+                        .long2ObjectEntrySet()) {
+                    long tabletId = entry.getLongKey();
+                    Preconditions.checkState(stripe.tabletMetaMap.containsKey(tabletId));
+                    TabletMeta tabletMeta = stripe.tabletMetaMap.get(tabletId);
 
                     if (backendTablets.containsKey(tabletId)) {
                         TTablet backendTablet = backendTablets.get(tabletId);
@@ -258,9 +317,9 @@ public class TabletInvertedIndex {
                         tabletDeleteFromMeta.put(tabletMeta.getDbId(), tabletId);
                     }
                 } // end for replicaMetaWithBackend
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
 
         long end = System.currentTimeMillis();
@@ -272,34 +331,35 @@ public class TabletInvertedIndex {
     }
 
     public Long getTabletIdByReplica(long replicaId) {
-        readLock();
+        Stripe stripe = getStripe(replicaId);
+        stripe.readLock();
         try {
-            return replicaToTabletMap.get(replicaId);
+            if (!stripe.replicaToTabletMap.containsKey(replicaId)) {
+                return null;
+            }
+            return stripe.replicaToTabletMap.get(replicaId);
         } finally {
-            readUnlock();
+            stripe.readUnlock();
         }
     }
 
     public TabletMeta getTabletMeta(long tabletId) {
-        readLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.readLock();
         try {
-            return tabletMetaMap.get(tabletId);
+            return stripe.tabletMetaMap.get(tabletId);
         } finally {
-            readUnlock();
+            stripe.readUnlock();
         }
     }
 
     public List<TabletMeta> getTabletMetaList(List<Long> tabletIdList) {
         List<TabletMeta> tabletMetaList = new ArrayList<>(tabletIdList.size());
-        readLock();
-        try {
-            for (Long tabletId : tabletIdList) {
-                tabletMetaList.add(tabletMetaMap.getOrDefault(tabletId, NOT_EXIST_TABLET_META));
-            }
-            return tabletMetaList;
-        } finally {
-            readUnlock();
+        for (Long tabletId : tabletIdList) {
+            TabletMeta tabletMeta = getTabletMeta(tabletId);
+            tabletMetaList.add(tabletMeta == null ? NOT_EXIST_TABLET_META : tabletMeta);
         }
+        return tabletMetaList;
     }
 
     private boolean needSync(Replica replicaInFe, TTabletInfo backendTabletInfo) {
@@ -385,111 +445,161 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.writeLock();
         try {
-            if (tabletMetaMap.containsKey(tabletId)) {
+            if (stripe.tabletMetaMap.containsKey(tabletId)) {
                 return;
             }
-            tabletMetaMap.put(tabletId, tabletMeta);
+            stripe.tabletMetaMap.put(tabletId, tabletMeta);
+        } finally {
+            stripe.writeUnlock();
+        }
+
+        tabletMetaTableLock.writeLock().lock();
+        try {
             if (!tabletMetaTable.contains(tabletMeta.getPartitionId(), tabletMeta.getIndexId())) {
                 tabletMetaTable.put(tabletMeta.getPartitionId(), tabletMeta.getIndexId(), tabletMeta);
                 LOG.debug("add tablet meta: {}", tabletId);
             }
-
-            LOG.debug("add tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            tabletMetaTableLock.writeLock().unlock();
         }
+
+        LOG.debug("add tablet: {}", tabletId);
     }
 
     public void deleteTablet(long tabletId) {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Long2ObjectArrayMap<Replica> replicas;
+        TabletMeta tabletMeta;
+        Stripe stripe = getStripe(tabletId);
+        stripe.writeLock();
         try {
-            Map<Long, Replica> replicas = replicaMetaTable.rowMap().remove(tabletId);
+            replicas = stripe.replicaMetaTable.remove(tabletId);
             if (replicas != null) {
-                for (Replica replica : replicas.values()) {
-                    replicaToTabletMap.remove(replica.getId());
+                for (long backendId : replicas.keySet()) {
+                    stripe.removeReplica(tabletId, backendId);
                 }
+            }
+            tabletMeta = stripe.tabletMetaMap.remove(tabletId);
+        } finally {
+            stripe.writeUnlock();
+        }
 
-                for (long backendId : replicas.keySet()) {
-                    backingReplicaMetaTable.remove(backendId, tabletId);
+        if (replicas != null) {
+            for (Replica replica : replicas.values()) {
+                Stripe replicaStripe = getStripe(replica.getId());
+                replicaStripe.writeLock();
+                try {
+                    replicaStripe.replicaToTabletMap.remove(replica.getId());
+                } finally {
+                    replicaStripe.writeUnlock();
                 }
             }
-            TabletMeta tabletMeta = tabletMetaMap.remove(tabletId);
-            if (tabletMeta != null) {
+        }
+
+        if (tabletMeta != null) {
+            tabletMetaTableLock.writeLock().lock();
+            try {
                 tabletMetaTable.remove(tabletMeta.getPartitionId(), tabletMeta.getIndexId());
-                LOG.debug("delete tablet meta: {}", tabletId);
+            } finally {
+                tabletMetaTableLock.writeLock().unlock();
             }
-
-            LOG.debug("delete tablet: {}", tabletId);
-        } finally {
-            writeUnlock();
+            LOG.debug("delete tablet meta: {}", tabletId);
         }
+
+        LOG.debug("delete tablet: {}", tabletId);
     }
 
     public void addReplica(long tabletId, Replica replica) {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.writeLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            replicaMetaTable.put(tabletId, replica.getBackendId(), replica);
-            replicaToTabletMap.put(replica.getId(), tabletId);
-            backingReplicaMetaTable.put(replica.getBackendId(), tabletId, replica);
-            LOG.debug("add replica {} of tablet {} in backend {}",
-                    replica.getId(), tabletId, replica.getBackendId());
+            Preconditions.checkState(stripe.tabletMetaMap.containsKey(tabletId));
+            stripe.replicaMetaTable.computeIfAbsent(tabletId, k -> new Long2ObjectArrayMap<>())
+                    .put(replica.getBackendId(), replica);
+            stripe.backingReplicaMetaTable.computeIfAbsent(replica.getBackendId(), k -> new Long2ObjectOpenHashMap<>())
+                    .put(tabletId, replica);
         } finally {
-            writeUnlock();
+            stripe.writeUnlock();
         }
+
+        Stripe replicaStripe = getStripe(replica.getId());
+        replicaStripe.writeLock();
+        try {
+            replicaStripe.replicaToTabletMap.put(replica.getId(), tabletId);
+        } finally {
+            replicaStripe.writeUnlock();
+        }
+        LOG.debug("add replica {} of tablet {} in backend {}",
+                replica.getId(), tabletId, replica.getBackendId());
     }
 
     public void deleteReplica(long tabletId, long backendId) {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Replica replica;
+        Stripe stripe = getStripe(tabletId);
+        stripe.writeLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            if (replicaMetaTable.containsRow(tabletId)) {
-                Replica replica = replicaMetaTable.remove(tabletId, backendId);
-                replicaToTabletMap.remove(replica.getId());
-                replicaMetaTable.remove(tabletId, backendId);
-                backingReplicaMetaTable.remove(backendId, tabletId);
-                LOG.debug("delete replica {} of tablet {} in backend {}",
-                        replica.getId(), tabletId, backendId);
-            } else {
+            Preconditions.checkState(stripe.tabletMetaMap.containsKey(tabletId));
+            if (!stripe.replicaMetaTable.containsKey(tabletId)) {
                 // this may happen when fe restart after tablet is empty(bug cause)
                 // add log instead of assertion to observe
                 LOG.error("tablet[{}] contains no replica in inverted index", tabletId);
+                return;
             }
+            replica = stripe.replicaMetaTable.get(tabletId).get(backendId);
+            stripe.removeReplica(tabletId, backendId);
+        } finally {
+            stripe.writeUnlock();
+        }
+
+        if (replica == null) {
+            LOG.warn("tablet[{}] contains no replica in backend {} in inverted index", tabletId, backendId);
+            return;
+        }
+        Stripe replicaStripe = getStripe(replica.getId());
+        replicaStripe.writeLock();
+        try {
+            replicaStripe.replicaToTabletMap.remove(replica.getId());
         } finally {
-            writeUnlock();
+            replicaStripe.writeUnlock();
         }
+        LOG.debug("delete replica {} of tablet {} in backend {}",
+                replica.getId(), tabletId, backendId);
     }
 
     public Replica getReplica(long tabletId, long backendId) {
-        readLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.readLock();
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId), tabletId);
-            return replicaMetaTable.get(tabletId, backendId);
+            Preconditions.checkState(stripe.tabletMetaMap.containsKey(tabletId), tabletId);
+            Long2ObjectArrayMap<Replica> replicas = stripe.replicaMetaTable.get(tabletId);
+            return replicas == null ? null : replicas.get(backendId);
         } finally {
-            readUnlock();
+            stripe.readUnlock();
         }
     }
 
     public List<Replica> getReplicasByTabletId(long tabletId) {
-        readLock();
+        Stripe stripe = getStripe(tabletId);
+        stripe.readLock();
         try {
-            if (replicaMetaTable.containsRow(tabletId)) {
-                return Lists.newArrayList(replicaMetaTable.row(tabletId).values());
+            Long2ObjectArrayMap<Replica> replicas = stripe.replicaMetaTable.get(tabletId);
+            if (replicas != null) {
+                return Lists.newArrayList(replicas.values());
             }
             return Lists.newArrayList();
         } finally {
-            readUnlock();
+            stripe.readUnlock();
         }
     }
 
@@ -497,12 +607,12 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        tabletMetaTableLock.writeLock().lock();
         try {
             Preconditions.checkState(tabletMetaTable.contains(partitionId, indexId));
             tabletMetaTable.get(partitionId, indexId).setNewSchemaHash(newSchemaHash);
         } finally {
-            writeUnlock();
+            tabletMetaTableLock.writeLock().unlock();
         }
     }
 
@@ -510,12 +620,12 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        tabletMetaTableLock.writeLock().lock();
         try {
             Preconditions.checkState(tabletMetaTable.contains(partitionId, indexId));
             tabletMetaTable.get(partitionId, indexId).updateToNewSchemaHash();
         } finally {
-            writeUnlock();
+            tabletMetaTableLock.writeLock().unlock();
         }
     }
 
@@ -523,14 +633,14 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        tabletMetaTableLock.writeLock().lock();
         try {
             TabletMeta tabletMeta = tabletMetaTable.get(partitionId, indexId);
             if (tabletMeta != null) {
                 tabletMeta.deleteNewSchemaHash();
             }
         } finally {
-            writeUnlock();
+            tabletMetaTableLock.writeLock().unlock();
         }
     }
 
@@ -538,91 +648,95 @@ public class TabletInvertedIndex {
      * @return array of pair(partitionId, indexId)
      */
     public List<Pair<Long, Long>> getAllPartitionIndex() {
-        List<Pair<Long, Long>> partitionIndexList = new ArrayList<>(tabletMetaTable.size());
-        readLock();
+        tabletMetaTableLock.readLock().lock();
         try {
+            List<Pair<Long, Long>> partitionIndexList = new ArrayList<>(tabletMetaTable.size());
             tabletMetaTable.values().forEach(tabletMeta ->
                     partitionIndexList.add(new Pair<>(tabletMeta.getPartitionId(), tabletMeta.getIndexId()))
             );
+            return partitionIndexList;
         } finally {
-            readUnlock();
+            tabletMetaTableLock.readLock().unlock();
         }
-        return partitionIndexList;
     }
 
     public List<Long> getTabletIdsByBackendId(long backendId) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds.addAll(replicaMetaWithBackend.keySet());
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                tabletIds.addAll(stripe.getReplicasOfBackend(backendId).keySet());
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         return tabletIds;
     }
 
     public List<Long> getTabletIdsByBackendIdAndStorageMedium(long backendId, TStorageMedium storageMedium) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds = replicaMetaWithBackend.keySet().stream().filter(
-                        id -> tabletMetaMap.get(id).getStorageMedium() == storageMedium).collect(Collectors.toList());
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                for (long tabletId : stripe.getReplicasOfBackend(backendId).keySet()) {
+                    if (stripe.tabletMetaMap.get(tabletId).getStorageMedium() == storageMedium) {
+                        tabletIds.add(tabletId);
+                    }
+                }
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         return tabletIds;
     }
 
     public long getTabletNumByBackendId(long backendId) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.size();
+        long tabletNum = 0;
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                tabletNum += stripe.getReplicasOfBackend(backendId).size();
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
-        return 0;
+        return tabletNum;
     }
 
     public long getTabletNumByBackendIdAndPathHash(long backendId, long pathHash) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.values().stream().filter(r -> r.getPathHash() == pathHash).count();
+        long tabletNum = 0;
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                for (Replica replica : stripe.getReplicasOfBackend(backendId).values()) {
+                    if (replica.getPathHash() == pathHash) {
+                        tabletNum++;
+                    }
+                }
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
-        return 0;
+        return tabletNum;
     }
 
     public Map<TStorageMedium, Long> getReplicaNumByBeIdAndStorageMedium(long backendId) {
         Map<TStorageMedium, Long> replicaNumMap = Maps.newHashMap();
         long hddNum = 0;
         long ssdNum = 0;
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                for (long tabletId : replicaMetaWithBackend.keySet()) {
-                    if (tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
+        for (Stripe stripe : stripes) {
+            stripe.readLock();
+            try {
+                for (long tabletId : stripe.getReplicasOfBackend(backendId).keySet()) {
+                    if (stripe.tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
                         hddNum++;
                     } else {
                         ssdNum++;
                     }
                 }
+            } finally {
+                stripe.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
         replicaNumMap.put(TStorageMedium.HDD, hddNum);
         replicaNumMap.put(TStorageMedium.SSD, ssdNum);
@@ -631,20 +745,19 @@ public class TabletInvertedIndex {
 
     // just for test
     public void clear() {
-        writeLock();
+        for (Stripe stripe : stripes) {
+            stripe.writeLock();
+            try {
+                stripe.clear();
+            } finally {
+                stripe.writeUnlock();
+            }
+        }
+        tabletMetaTableLock.writeLock().lock();
         try {
-            tabletMetaMap.clear();
-            replicaToTabletMap.clear();
             tabletMetaTable.clear();
-            replicaMetaTable.clear();
-            backingReplicaMetaTable.clear();
         } finally {
-            writeUnlock();
+            tabletMetaTableLock.writeLock().unlock();
         }
     }
-
-    public Map<Long, Long> getReplicaToTabletMap() {
-        return replicaToTabletMap;
-    }
 }
-
@@ -236,6 +236,41 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static int edit_log_roll_num = 50000;
 
+    /**
+     * If true, concurrent edit log writes are queued and written to bdbje by a dedicated writer thread,
+     * several journals in one bdbje transaction. The caller returns once its batch is durable.
+     * This reduces the cost of sync and replica ack under heavy load. It can not be changed at runtime.
+     */
+    @ConfField
+    public static boolean edit_log_group_commit = false;
+
+    /**
+     * Max number of journals written in one bdbje transaction when *edit_log_group_commit* is true.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int edit_log_group_commit_max_batch_size = 256;
+
+    /**
+     * If true, the checkpoint saves image in the sectioned format, in which every section has its own
+     * checksum and databases are serialized in parallel. Images of both formats can always be loaded,
+     * but an image of the sectioned format can not be loaded by FE of older versions.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_sectioned_image = false;
+
+    /**
+     * If true and both the last image and the new image are in the sectioned format, checkpoint copies
+     * the sections and databases which are not changed since the last image, instead of serializing them again.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_incremental_checkpoint = false;
+
+    /**
+     * Number of threads used to serialize and deserialize databases of sectioned image.
+     */
+    @ConfField(mutable = true)
+    public static int image_serde_parallelism = 8;
+
     /**
      * Non-master FE will stop offering service
      * if meta data delay gap exceeds *meta_delay_toleration_second*
@@ -426,6 +461,25 @@ public class Config extends ConfigBase {
     @ConfField
     public static int max_mysql_service_task_threads_num = 4096;
 
+    /**
+     * The size of the buffer used to send the results of a statement to a mysql client.
+     */
+    @ConfField
+    public static int mysql_send_buffer_size = 2 * 1024 * 1024;
+
+    /**
+     * Max num of the off-heap send buffers shared by mysql connections. A connection only holds a buffer
+     * while it is executing a statement, the connections exceeding this limit use heap buffers instead.
+     */
+    @ConfField
+    public static int mysql_send_buffer_pool_max_num = 256;
+
+    /**
+     * Max num of the server-side prepared statements kept by a mysql connection.
+     */
+    @ConfField(mutable = true)
+    public static int max_prepared_statements_per_connection = 1024;
+
     /**
      * Cluster name will be shown as the title of web page
      */
@@ -468,6 +522,33 @@ public class Config extends ConfigBase {
     @ConfField
     public static int publish_version_interval_ms = 10;
 
+    /**
+     * If true, the publish version daemon finishes the transactions of different tables concurrently,
+     * and the ready transactions of the same tables are finished in batch under one table lock.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_concurrent_publish = false;
+
+    /**
+     * Number of threads to finish transactions when *enable_concurrent_publish* is true.
+     */
+    @ConfField
+    public static int publish_version_thread_num = 8;
+
+    /**
+     * If true, the concurrent commits of loads in the same database are merged, they are committed under
+     * one database write lock and persisted in one edit log.
+     * Each transaction still takes its own partition version, so the number of versions is not reduced.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_merge_commit = false;
+
+    /**
+     * Max number of transactions committed together when *enable_merge_commit* is true.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int merge_commit_max_batch_size = 128;
+
     /**
      * The thrift server max worker threads
      */
@@ -745,6 +826,53 @@ public class Config extends ConfigBase {
     @ConfField
     public static int max_connection_scheduler_threads_num = 4096;
 
+    /**
+     * If set to true, the queries which exceed the concurrency or memory slots of their resource group
+     * wait in the queue of the group until the running queries finish.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_query_queue = false;
+
+    /**
+     * Maximal number of running queries of each resource group per FE. 0 means no limit.
+     * Used by the resource groups which are not in query_queue_concurrency_limit_by_group.
+     */
+    @ConfField(mutable = true)
+    public static int query_queue_concurrency_limit = 0;
+
+    /**
+     * Maximal number of running queries of the resource groups per FE, in the format of "group:limit,...",
+     * e.g. "high:20,low:5". 0 means no limit.
+     */
+    @ConfField(mutable = true)
+    public static String query_queue_concurrency_limit_by_group = "";
+
+    /**
+     * Maximal sum of the exec_mem_limit of the running queries of each resource group per FE. 0 means no limit.
+     * Used by the resource groups which are not in query_queue_mem_limit_bytes_by_group.
+     */
+    @ConfField(mutable = true)
+    public static long query_queue_mem_limit_bytes = 0;
+
+    /**
+     * Maximal sum of the exec_mem_limit of the running queries of the resource groups per FE, in the format of
+     * "group:limit,...", e.g. "high:34359738368". 0 means no limit.
+     */
+    @ConfField(mutable = true)
+    public static String query_queue_mem_limit_bytes_by_group = "";
+
+    /**
+     * Maximal number of queries waiting in the queue of each resource group, more queries are rejected.
+     */
+    @ConfField(mutable = true)
+    public static int query_queue_max_queued_queries = 1024;
+
+    /**
+     * The query fails if it waits in the queue longer than this.
+     */
+    @ConfField(mutable = true)
+    public static int query_queue_pending_timeout_second = 300;
+
     /**
      * Deprecated after 0.10
      */
@@ -830,6 +958,15 @@ public class Config extends ConfigBase {
     @ConfField
     public static boolean enable_brpc_share_channel = true;
 
+    /**
+     * If set to true, the coordinator sends all the fragment instances of a query executed by a backend
+     * in one rpc, and sends to the backends in parallel. The fragments are still dispatched level by level
+     * from the top, so that the receivers of a fragment are prepared before it starts to send data.
+     * Set it to false if some backends are of the old versions which don't support the batch rpc.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_batch_fragment_dispatch = true;
+
     /**
      * if set to false, auth check will be disable, in case some goes wrong with the new privilege system.
      */
@@ -1208,6 +1345,40 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long max_planner_scalar_rewrite_num = 100000;
 
+    /**
+     * The max number of plans cached by each frontend, used when the session variable enable_plan_cache is true,
+     * or enable_prepared_plan_cache is true for the executions of the prepared statements.
+     * The least recently used plans are evicted.
+     */
+    @ConfField(mutable = true)
+    public static int plan_cache_max_entries = 1024;
+
+    /**
+     * The max memory used by the query results cached by each frontend, used when the session variable
+     * enable_result_cache is true. The least recently used results are evicted.
+     */
+    @ConfField(mutable = true)
+    public static long result_cache_max_size_mb = 256;
+
+    /**
+     * The result of a query (or of a partition of a query) is not cached if it's larger than this size.
+     */
+    @ConfField(mutable = true)
+    public static long result_cache_max_entry_size_kb = 1024;
+
+    /**
+     * The max number of result batches fetched from the backend ahead of the batch being sent to the client.
+     * 0 means the next batch is fetched only after the current one is sent.
+     */
+    @ConfField(mutable = true)
+    public static int result_prefetch_depth = 3;
+
+    /**
+     * The max memory of the prefetched result batches of each query.
+     */
+    @ConfField(mutable = true)
+    public static long result_prefetch_max_bytes = 64L * 1024 * 1024;
+
     @ConfField(mutable = true)
     public static boolean enable_decimal_v3 = true;
 
@@ -1248,6 +1419,58 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true, masterOnly = true)
     public static boolean enable_statistic_collect = true;
 
+    /**
+     * Whether collect the statistics of the range partitioned tables by partition, only the partitions
+     * changed since the last collection are collected, then merged into the table statistics.
+     * The changed partitions are scanned in full, so it only applies to the FULL collect jobs.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_statistic_collect_on_partition = false;
+
+    /**
+     * Whether collect the histograms and the most common values of the columns with the statistics
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_collect_histogram = true;
+
+    /**
+     * The bucket number of the equi-height histogram
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long histogram_buckets_size = 64;
+
+    /**
+     * The max number of the most common values of a column
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long histogram_mcv_size = 100;
+
+    /**
+     * The row number to build the histogram, default 20w rows
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long histogram_sample_rows = 200000;
+
+    /**
+     * The max number of the columns in ANALYZE TABLE ... COLUMNS (...)
+     */
+    @ConfField(mutable = true)
+    public static int statistic_multi_column_max_size = 8;
+
+    /**
+     * The max number of plan subtrees whose actual rows are recorded by each frontend, used when the
+     * session variable enable_cardinality_feedback is true. The least recently used subtrees are evicted.
+     */
+    @ConfField(mutable = true)
+    public static int cardinality_feedback_max_entries = 10000;
+
+    /**
+     * The max time to wait for the final reports of a finished query to collect its cardinality feedback,
+     * the query is kept registered until then.
+     */
+    @ConfField(mutable = true)
+    public static long cardinality_feedback_report_timeout_ms = 5000;
+
     /**
      * whether ignore unknown log id
      * when fe rolls back to low version, there may be log id that low version fe can not recognise
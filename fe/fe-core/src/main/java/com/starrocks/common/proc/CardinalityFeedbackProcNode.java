@@ -0,0 +1,23 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.proc;
+
+import com.starrocks.sql.optimizer.statistics.CardinalityFeedback;
+
+import java.util.List;
+
+/*
+ * SHOW PROC '/cardinality_feedback'
+ * show the plan subtrees whose actual rows are recorded, the largest estimation error first
+ */
+public class CardinalityFeedbackProcNode implements ProcNodeInterface {
+    @Override
+    public ProcResult fetchResult() {
+        BaseProcResult result = new BaseProcResult();
+        result.setNames(CardinalityFeedback.TITLE_NAMES);
+        for (List<String> row : CardinalityFeedback.getInstance().getShowRows()) {
+            result.addRow(row);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,212 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Group mutual exclusion lock.
+ * Threads of the same group can hold the lock at the same time, threads of different groups can not.
+ *
+ * It is used as the database intention lock: the database read lock and the table write locks of a
+ * database are two groups, so the database readers are excluded by the table writers, and the table
+ * writers of different tables run concurrently.
+ *
+ * - The lock is reentrant for the groups a thread already holds.
+ * - A thread holding one group gets another group only when it is the only holder of all the other groups,
+ *   so it waits for the other holders to leave. If two threads wait like this at the same time, they wait
+ *   for each other forever, so the second one is rejected with IllegalMonitorStateException.
+ * - A new thread waits if other groups are waiting and its own group is holding the lock,
+ *   so no group will be starved.
+ *
+ * The number of holders of every group is packed in one AtomicLong. When nobody waits, lock and unlock are
+ * a CAS on it and a thread local lookup, the monitor of this lock is only used by waiters.
+ */
+public class GroupMutexLock {
+    private static final int MAX_GROUP_NUM = 4;
+    private static final int HOLDER_BITS = 16;
+    private static final long HOLDER_MASK = (1L << HOLDER_BITS) - 1;
+
+    private final int groupNum;
+    // number of threads holding each group, HOLDER_BITS bits per group
+    private final AtomicLong state = new AtomicLong(0);
+    // hold count of each group by the current thread
+    private final ThreadLocal<int[]> holdCounts;
+    // number of threads waiting for each group, guarded by this
+    private final int[] waiterNum;
+    // sum of waiterNum, threads only take the fast path when nobody waits
+    private volatile int totalWaiterNum = 0;
+    // the thread holding a group and waiting for another group, guarded by this
+    private Thread upgradingThread = null;
+
+    public GroupMutexLock(int groupNum) {
+        Preconditions.checkArgument(groupNum > 1 && groupNum <= MAX_GROUP_NUM);
+        this.groupNum = groupNum;
+        this.holdCounts = ThreadLocal.withInitial(() -> new int[groupNum]);
+        this.waiterNum = new int[groupNum];
+    }
+
+    public void lock(int group) {
+        int[] holdCount = holdCounts.get();
+        if (holdCount[group] > 0) {
+            holdCount[group]++;
+            return;
+        }
+        if (totalWaiterNum == 0 && !holdsAny(holdCount) && tryAcquire(group, holdCount)) {
+            return;
+        }
+        lockSlow(group, holdCount);
+    }
+
+    public boolean tryLock(int group, long timeout, TimeUnit unit) throws InterruptedException {
+        int[] holdCount = holdCounts.get();
+        if (holdCount[group] > 0) {
+            holdCount[group]++;
+            return true;
+        }
+        if (totalWaiterNum == 0 && !holdsAny(holdCount) && tryAcquire(group, holdCount)) {
+            return true;
+        }
+        return tryLockSlow(group, holdCount, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    public void unlock(int group) {
+        int[] holdCount = holdCounts.get();
+        if (holdCount[group] == 0) {
+            throw new IllegalMonitorStateException("group " + group + " is not held by current thread");
+        }
+        if (--holdCount[group] == 0) {
+            state.addAndGet(-(1L << shift(group)));
+            // the waiter increases totalWaiterNum before checking the state, so it is either seen here,
+            // or it sees the released state
+            if (totalWaiterNum > 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    public boolean isHeldByCurrentThread(int group) {
+        return holdCounts.get()[group] > 0;
+    }
+
+    public synchronized boolean hasWaiter(int group) {
+        return waiterNum[group] > 0;
+    }
+
+    private synchronized void lockSlow(int group, int[] holdCount) {
+        if (tryAcquire(group, holdCount)) {
+            return;
+        }
+        beginWait(group, holdCount);
+        boolean interrupted = false;
+        try {
+            while (!tryAcquire(group, holdCount)) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            endWait(group);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized boolean tryLockSlow(int group, int[] holdCount, long deadlineNs)
+            throws InterruptedException {
+        if (tryAcquire(group, holdCount)) {
+            return true;
+        }
+        beginWait(group, holdCount);
+        try {
+            while (!tryAcquire(group, holdCount)) {
+                long remainingNs = deadlineNs - System.nanoTime();
+                if (remainingNs <= 0) {
+                    // threads which give way to this waiter can go now
+                    notifyAll();
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remainingNs);
+            }
+            return true;
+        } finally {
+            endWait(group);
+        }
+    }
+
+    private void beginWait(int group, int[] holdCount) {
+        if (holdsAny(holdCount)) {
+            if (upgradingThread != null) {
+                throw new IllegalMonitorStateException("group " + group + " is waited by another holder "
+                        + upgradingThread.getName() + ", waiting for it dead locks");
+            }
+            upgradingThread = Thread.currentThread();
+        }
+        waiterNum[group]++;
+        totalWaiterNum++;
+    }
+
+    private void endWait(int group) {
+        if (upgradingThread == Thread.currentThread()) {
+            upgradingThread = null;
+        }
+        waiterNum[group]--;
+        totalWaiterNum--;
+    }
+
+    /*
+     * Increase the holder number of the group if the current thread can get it.
+     * Called with the monitor when there are waiters, since it reads waiterNum.
+     */
+    private boolean tryAcquire(int group, int[] holdCount) {
+        boolean upgrading = holdsAny(holdCount);
+        while (true) {
+            long s = state.get();
+            for (int other = 0; other < groupNum; other++) {
+                if (other == group) {
+                    continue;
+                }
+                long otherHolders = holderNum(s, other) - (holdCount[other] > 0 ? 1 : 0);
+                if (otherHolders > 0) {
+                    return false;
+                }
+                // a holder does not give way, the waiters of other groups may be waiting for it
+                if (!upgrading && waiterNum[other] > 0 && holderNum(s, group) > 0) {
+                    return false;
+                }
+            }
+            if (holderNum(s, group) == HOLDER_MASK) {
+                throw new Error("Maximum lock count exceeded");
+            }
+            if (state.compareAndSet(s, s + (1L << shift(group)))) {
+                holdCount[group] = 1;
+                return true;
+            }
+        }
+    }
+
+    private static boolean holdsAny(int[] holdCount) {
+        for (int count : holdCount) {
+            if (count > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int shift(int group) {
+        return group * HOLDER_BITS;
+    }
+
+    private static long holderNum(long s, int group) {
+        return (s >>> shift(group)) & HOLDER_MASK;
+    }
+}
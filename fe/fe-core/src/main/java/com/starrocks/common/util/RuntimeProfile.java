@@ -372,6 +372,10 @@ public class RuntimeProfile {
         }
     }
 
+    public String getName() {
+        return name;
+    }
+
     public void setName(String name) {
         this.name = name;
     }
@@ -52,6 +52,10 @@ public interface Journal {
     // Write a journal and sync to disk
     public void write(short op, Writable writable);
 
+    // Write a batch of journals in one transaction and sync to disk.
+    // The journals get consecutive ids in the order of the list.
+    public void batchWrite(List<JournalEntity> entities);
+
     // Delete journals whose max id is less than deleteToJournalId
     public void deleteJournals(long deleteJournalToId);
 
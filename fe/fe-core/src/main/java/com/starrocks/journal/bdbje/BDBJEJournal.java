@@ -26,6 +26,7 @@ import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
 import com.sleepycat.je.rep.InsufficientLogException;
 import com.sleepycat.je.rep.NetworkRestore;
 import com.sleepycat.je.rep.NetworkRestoreConfig;
@@ -47,6 +48,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -191,6 +193,102 @@ public class BDBJEJournal implements Journal {
         }
     }
 
+    /*
+     * Write all the entities in one bdb transaction, so that the cost of sync and replica ack
+     * is paid once per batch instead of once per journal.
+     * The entities get consecutive journal ids in list order.
+     */
+    @Override
+    public synchronized void batchWrite(List<JournalEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        long firstId = nextJournalId.getAndAdd(entities.size());
+        TupleBinding<Long> idBinding = TupleBinding.getPrimitiveBinding(Long.class);
+        List<DatabaseEntry> keys = new ArrayList<>(entities.size());
+        List<DatabaseEntry> values = new ArrayList<>(entities.size());
+        boolean allTimestamp = true;
+        long totalSize = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            JournalEntity entity = entities.get(i);
+            DatabaseEntry theKey = new DatabaseEntry();
+            idBinding.objectToEntry(firstId + i, theKey);
+            keys.add(theKey);
+
+            DataOutputBuffer buffer = new DataOutputBuffer(OUTPUT_BUFFER_INIT_SIZE);
+            try {
+                entity.write(buffer);
+            } catch (IOException e) {
+                LOG.warn("failed to serialize journal {}, op code {}", firstId + i, entity.getOpCode(), e);
+            }
+            DatabaseEntry theData = new DatabaseEntry(buffer.getData());
+            values.add(theData);
+            totalSize += theData.getSize();
+            if (entity.getOpCode() != OperationType.OP_TIMESTAMP) {
+                allTimestamp = false;
+            }
+        }
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_EDIT_LOG_SIZE_BYTES.increase(totalSize);
+        }
+        LOG.debug("batch write {} journals from {}, journal size = {}", entities.size(), firstId, totalSize);
+
+        boolean writeSucceeded = false;
+        for (int i = 0; i < RETRY_TIME; i++) {
+            Transaction txn = null;
+            try {
+                txn = bdbEnvironment.getReplicatedEnvironment().beginTransaction(null, null);
+                boolean allPut = true;
+                for (int j = 0; j < keys.size(); j++) {
+                    if (currentJournalDB.put(txn, keys.get(j), values.get(j)) != OperationStatus.SUCCESS) {
+                        allPut = false;
+                        break;
+                    }
+                }
+                if (allPut) {
+                    txn.commit();
+                    txn = null;
+                    writeSucceeded = true;
+                    LOG.debug("master batch write journal {} to {} finished. db name {}, current time {}",
+                            firstId, firstId + entities.size() - 1,
+                            currentJournalDB.getDb().getDatabaseName(), System.currentTimeMillis());
+                    break;
+                }
+            } catch (DatabaseException e) {
+                LOG.error("catch an exception when batch writing to database. sleep and retry. journal id {}",
+                        firstId, e);
+                try {
+                    Thread.sleep(5 * 1000);
+                } catch (InterruptedException e1) {
+                    LOG.warn("interrupted while waiting to retry the batch write. journal id {}", firstId, e1);
+                }
+            } finally {
+                if (txn != null) {
+                    try {
+                        txn.abort();
+                    } catch (DatabaseException e) {
+                        LOG.warn("abort bdb transaction failed. journal id {}", firstId, e);
+                    }
+                }
+            }
+        }
+
+        if (!writeSucceeded) {
+            if (allTimestamp) {
+                // same as write(), do not exit if the batch only contains OP_TIMESTAMP
+                nextJournalId.set(firstId);
+                LOG.warn("master can not achieve quorum. write timestamp fail. but will not exit.");
+                return;
+            }
+            String msg = "batch write bdb failed. will exit. journalId: " + firstId + ", bdb database Name: " +
+                    currentJournalDB.getDb().getDatabaseName();
+            LOG.error(msg);
+            Util.stdoutWithTime(msg);
+            System.exit(-1);
+        }
+    }
+
     @Deprecated
     @Override
     public JournalEntity read(long journalId) {
@@ -139,6 +139,20 @@ public class LocalJournal implements Journal {
         }
     }
 
+    @Override
+    public synchronized void batchWrite(List<JournalEntity> entities) {
+        try {
+            for (JournalEntity entity : entities) {
+                outputStream.write(entity.getOpCode(), entity.getData());
+                journalId.incrementAndGet();
+            }
+            outputStream.setReadyToFlush();
+            outputStream.flush();
+        } catch (IOException e) {
+            LOG.error(e);
+        }
+    }
+
     @Override
     public void deleteJournals(long deleteJournalToId) {
         try {
@@ -42,6 +42,7 @@ import com.starrocks.metric.Metric.MetricUnit;
 import com.starrocks.monitor.jvm.JvmService;
 import com.starrocks.monitor.jvm.JvmStats;
 import com.starrocks.persist.EditLog;
+import com.starrocks.qe.QueryQueueManager;
 import com.starrocks.service.ExecuteEnv;
 import com.starrocks.system.Backend;
 import com.starrocks.system.SystemInfoService;
@@ -86,9 +87,20 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_RECEIVED_BYTES;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_ERROR_ROWS;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_PAUSED;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_HIT;
+    public static LongCounterMetric COUNTER_PLAN_CACHE_MISS;
+    public static LongCounterMetric COUNTER_RESULT_CACHE_HIT;
+    public static LongCounterMetric COUNTER_RESULT_CACHE_PARTIAL_HIT;
+    public static LongCounterMetric COUNTER_RESULT_CACHE_MISS;
+    public static LongCounterMetric COUNTER_QUERY_QUEUE_PENDING;
+    public static LongCounterMetric COUNTER_QUERY_QUEUE_TIMEOUT;
+    public static LongCounterMetric COUNTER_QUERY_QUEUE_REJECTED;
 
     public static Histogram HISTO_QUERY_LATENCY;
     public static Histogram HISTO_EDIT_LOG_WRITE_LATENCY;
+    public static Histogram HISTO_EDIT_LOG_GROUP_COMMIT_BATCH_SIZE;
+    public static Histogram HISTO_EDIT_LOG_GROUP_COMMIT_LATENCY;
+    public static Histogram HISTO_TXN_VISIBLE_LATENCY;
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -326,6 +338,56 @@ public final class MetricRepo {
         COUNTER_TXN_FAILED = new LongCounterMetric("txn_failed", MetricUnit.REQUESTS, "counter of failed transactions");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_TXN_FAILED);
 
+        COUNTER_PLAN_CACHE_HIT =
+                new LongCounterMetric("plan_cache_hit", MetricUnit.REQUESTS, "counter of queries using cached plans");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_HIT);
+        COUNTER_PLAN_CACHE_MISS = new LongCounterMetric("plan_cache_miss", MetricUnit.REQUESTS,
+                "counter of cacheable queries planned from scratch");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_PLAN_CACHE_MISS);
+        COUNTER_RESULT_CACHE_HIT = new LongCounterMetric("result_cache_hit", MetricUnit.REQUESTS,
+                "counter of queries whose results are all from the result cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_RESULT_CACHE_HIT);
+        COUNTER_RESULT_CACHE_PARTIAL_HIT = new LongCounterMetric("result_cache_partial_hit", MetricUnit.REQUESTS,
+                "counter of queries whose results of some partitions are from the result cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_RESULT_CACHE_PARTIAL_HIT);
+        COUNTER_RESULT_CACHE_MISS = new LongCounterMetric("result_cache_miss", MetricUnit.REQUESTS,
+                "counter of cacheable queries executed without the result cache");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_RESULT_CACHE_MISS);
+
+        COUNTER_QUERY_QUEUE_PENDING = new LongCounterMetric("query_queue_pending", MetricUnit.REQUESTS,
+                "counter of queries which have waited in the query queue");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_QUEUE_PENDING);
+        COUNTER_QUERY_QUEUE_TIMEOUT = new LongCounterMetric("query_queue_timeout", MetricUnit.REQUESTS,
+                "counter of queries which timed out in the query queue");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_QUEUE_TIMEOUT);
+        COUNTER_QUERY_QUEUE_REJECTED = new LongCounterMetric("query_queue_rejected", MetricUnit.REQUESTS,
+                "counter of queries rejected because the query queue is full");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_QUEUE_REJECTED);
+
+        // running and queued queries of each resource group
+        QueryQueueManager queryQueueManager = QueryQueueManager.getInstance();
+        for (String group : QueryQueueManager.getGroupNames()) {
+            GaugeMetric<Long> runningGauge = (GaugeMetric<Long>) new GaugeMetric<Long>("query_queue_running_queries",
+                    MetricUnit.NOUNIT, "running queries admitted by the query queue") {
+                @Override
+                public Long getValue() {
+                    return (long) queryQueueManager.getRunningNum(group);
+                }
+            };
+            runningGauge.addLabel(new MetricLabel("group", group));
+            STARROCKS_METRIC_REGISTER.addMetric(runningGauge);
+
+            GaugeMetric<Long> queuedGauge = (GaugeMetric<Long>) new GaugeMetric<Long>("query_queue_queued_queries",
+                    MetricUnit.NOUNIT, "queries waiting in the query queue") {
+                @Override
+                public Long getValue() {
+                    return (long) queryQueueManager.getQueuedNum(group);
+                }
+            };
+            queuedGauge.addLabel(new MetricLabel("group", group));
+            STARROCKS_METRIC_REGISTER.addMetric(queuedGauge);
+        }
+
         COUNTER_ROUTINE_LOAD_ROWS =
                 new LongCounterMetric("routine_load_rows", MetricUnit.ROWS, "total rows of routine load");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_ROUTINE_LOAD_ROWS);
@@ -340,6 +402,12 @@ public final class MetricRepo {
         HISTO_QUERY_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("query", "latency", "ms"));
         HISTO_EDIT_LOG_WRITE_LATENCY =
                 METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "write", "latency", "ms"));
+        HISTO_EDIT_LOG_GROUP_COMMIT_BATCH_SIZE =
+                METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "group_commit", "batch_size"));
+        HISTO_EDIT_LOG_GROUP_COMMIT_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "group_commit", "latency", "ms"));
+        // from commit to visible of load transactions
+        HISTO_TXN_VISIBLE_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("txn", "visible", "latency", "ms"));
 
         // init system metrics
         initSystemMetrics();
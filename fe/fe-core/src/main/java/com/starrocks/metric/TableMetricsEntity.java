@@ -23,6 +23,11 @@ public final class TableMetricsEntity {
     public static final String TABLE_LOAD_FINISHED = "table_load_finished";
     private static final String TABLE_LOAD_FINISHED_COMMENT = "total loaded times of this table";
 
+    private static final String TABLE_LOCK_WAIT = "table_lock_wait";
+    private static final String TABLE_LOCK_WAIT_COMMENT = "total times of waiting for the lock of a table";
+    private static final String TABLE_LOCK_WAIT_MS = "table_lock_wait_ms";
+    private static final String TABLE_LOCK_WAIT_MS_COMMENT = "total time in ms waiting for the lock of a table";
+
     private List<Metric> metrics;
 
     public LongCounterMetric COUNTER_SCAN_BYTES_TOTAL;
@@ -49,6 +54,11 @@ public final class TableMetricsEntity {
     public LongCounterMetric COUNTER_SPARK_LOAD_ROWS_TOTAL;
     public LongCounterMetric COUNTER_SPARK_LOAD_FINISHED_TOTAL;
 
+    public LongCounterMetric COUNTER_READ_LOCK_WAIT_TOTAL;
+    public LongCounterMetric COUNTER_READ_LOCK_WAIT_MS_TOTAL;
+    public LongCounterMetric COUNTER_WRITE_LOCK_WAIT_TOTAL;
+    public LongCounterMetric COUNTER_WRITE_LOCK_WAIT_MS_TOTAL;
+
     public TableMetricsEntity() {
         initTableMetrics();
     }
@@ -134,6 +144,24 @@ public final class TableMetricsEntity {
                 new LongCounterMetric(TABLE_LOAD_FINISHED, MetricUnit.REQUESTS, TABLE_LOAD_FINISHED_COMMENT);
         COUNTER_INSERT_LOAD_FINISHED_TOTAL.addLabel(new MetricLabel("type", "insert_into"));
         metrics.add(COUNTER_INSERT_LOAD_FINISHED_TOTAL);
+
+        // lock metrics
+        COUNTER_READ_LOCK_WAIT_TOTAL =
+                new LongCounterMetric(TABLE_LOCK_WAIT, MetricUnit.REQUESTS, TABLE_LOCK_WAIT_COMMENT);
+        COUNTER_READ_LOCK_WAIT_TOTAL.addLabel(new MetricLabel("type", "read"));
+        metrics.add(COUNTER_READ_LOCK_WAIT_TOTAL);
+        COUNTER_READ_LOCK_WAIT_MS_TOTAL =
+                new LongCounterMetric(TABLE_LOCK_WAIT_MS, MetricUnit.MILLISECONDS, TABLE_LOCK_WAIT_MS_COMMENT);
+        COUNTER_READ_LOCK_WAIT_MS_TOTAL.addLabel(new MetricLabel("type", "read"));
+        metrics.add(COUNTER_READ_LOCK_WAIT_MS_TOTAL);
+        COUNTER_WRITE_LOCK_WAIT_TOTAL =
+                new LongCounterMetric(TABLE_LOCK_WAIT, MetricUnit.REQUESTS, TABLE_LOCK_WAIT_COMMENT);
+        COUNTER_WRITE_LOCK_WAIT_TOTAL.addLabel(new MetricLabel("type", "write"));
+        metrics.add(COUNTER_WRITE_LOCK_WAIT_TOTAL);
+        COUNTER_WRITE_LOCK_WAIT_MS_TOTAL =
+                new LongCounterMetric(TABLE_LOCK_WAIT_MS, MetricUnit.MILLISECONDS, TABLE_LOCK_WAIT_MS_COMMENT);
+        COUNTER_WRITE_LOCK_WAIT_MS_TOTAL.addLabel(new MetricLabel("type", "write"));
+        metrics.add(COUNTER_WRITE_LOCK_WAIT_MS_TOTAL);
     }
 }
 
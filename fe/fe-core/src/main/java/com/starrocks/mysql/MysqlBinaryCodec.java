@@ -0,0 +1,312 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.mysql;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Encoding of the binary protocol used by the prepared statements.
+ * <p>
+ * The parameters of COM_STMT_EXECUTE are decoded to SQL literals, and the text result rows produced by
+ * the backends are encoded to binary result rows.
+ * https://dev.mysql.com/doc/internals/en/binary-protocol-value.html
+ */
+public class MysqlBinaryCodec {
+    private static final int UNSIGNED_FLAG = 0x80;
+    private static final int NULL_VALUE = 0xfb;
+    // The first two bits of the null bitmap of the result row are reserved
+    private static final int RESULT_NULL_BITMAP_OFFSET = 2;
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+
+    /**
+     * Read the parameters of COM_STMT_EXECUTE following the iteration count and convert them to SQL literals.
+     *
+     * @param paramTypes the types of the parameters bound by the previous execution, they are
+     *                   updated if the client sends the new types
+     */
+    public static void readParams(ByteBuffer buffer, int[] paramTypes, List<String> literals) {
+        int paramNum = paramTypes.length;
+        if (paramNum == 0) {
+            return;
+        }
+        byte[] nullBitmap = MysqlProto.readFixedString(buffer, (paramNum + 7) / 8);
+        if (MysqlProto.readInt1(buffer) == 1) {
+            for (int i = 0; i < paramNum; ++i) {
+                paramTypes[i] = MysqlProto.readInt2(buffer);
+            }
+        }
+        for (int i = 0; i < paramNum; ++i) {
+            if ((nullBitmap[i / 8] & (1 << (i % 8))) != 0) {
+                literals.add("NULL");
+            } else {
+                literals.add(readParam(buffer, paramTypes[i]));
+            }
+        }
+    }
+
+    private static String readParam(ByteBuffer buffer, int paramType) {
+        boolean unsigned = ((paramType >> 8) & UNSIGNED_FLAG) != 0;
+        switch (paramType & 0xff) {
+            case 0x01: // MYSQL_TYPE_TINY
+                return unsigned ? String.valueOf(MysqlProto.readInt1(buffer)) : String.valueOf(buffer.get());
+            case 0x02: // MYSQL_TYPE_SHORT
+            case 0x0d: // MYSQL_TYPE_YEAR
+                int shortValue = MysqlProto.readInt2(buffer);
+                return unsigned ? String.valueOf(shortValue) : String.valueOf((short) shortValue);
+            case 0x03: // MYSQL_TYPE_LONG
+            case 0x09: // MYSQL_TYPE_INT24
+                int intValue = MysqlProto.readInt4(buffer);
+                return unsigned ? Integer.toUnsignedString(intValue) : String.valueOf(intValue);
+            case 0x08: // MYSQL_TYPE_LONGLONG
+                long longValue = MysqlProto.readInt8(buffer);
+                return unsigned ? Long.toUnsignedString(longValue) : String.valueOf(longValue);
+            case 0x04: // MYSQL_TYPE_FLOAT
+                return toDoubleLiteral(Float.intBitsToFloat(MysqlProto.readInt4(buffer)));
+            case 0x05: // MYSQL_TYPE_DOUBLE
+                return toDoubleLiteral(Double.longBitsToDouble(MysqlProto.readInt8(buffer)));
+            case 0x06: // MYSQL_TYPE_NULL
+                return "NULL";
+            case 0x07: // MYSQL_TYPE_TIMESTAMP
+            case 0x0a: // MYSQL_TYPE_DATE
+            case 0x0c: // MYSQL_TYPE_DATETIME
+                return readDateTime(buffer, (paramType & 0xff) == 0x0a);
+            case 0x0b: // MYSQL_TYPE_TIME
+                return readTime(buffer);
+            case 0x00: // MYSQL_TYPE_DECIMAL
+            case 0xf6: // MYSQL_TYPE_NEWDECIMAL
+                String decimal = new String(MysqlProto.readLenEncodedString(buffer), StandardCharsets.UTF_8);
+                return NUMBER_PATTERN.matcher(decimal).matches() ? decimal : toStringLiteral(decimal);
+            default:
+                return toStringLiteral(new String(MysqlProto.readLenEncodedString(buffer), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String toDoubleLiteral(double value) {
+        Preconditions.checkArgument(!Double.isNaN(value) && !Double.isInfinite(value),
+                "Unsupported parameter value " + value);
+        return String.valueOf(value);
+    }
+
+    public static String toStringLiteral(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('\'');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '\'' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.append('\'').toString();
+    }
+
+    private static String readDateTime(ByteBuffer buffer, boolean isDate) {
+        int length = MysqlProto.readInt1(buffer);
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 4) {
+            year = MysqlProto.readInt2(buffer);
+            month = MysqlProto.readInt1(buffer);
+            day = MysqlProto.readInt1(buffer);
+        }
+        if (length >= 7) {
+            hour = MysqlProto.readInt1(buffer);
+            minute = MysqlProto.readInt1(buffer);
+            second = MysqlProto.readInt1(buffer);
+        }
+        if (length >= 11) {
+            microsecond = MysqlProto.readInt4(buffer);
+        }
+        if (isDate) {
+            return String.format("'%04d-%02d-%02d'", year, month, day);
+        }
+        if (microsecond != 0) {
+            return String.format("'%04d-%02d-%02d %02d:%02d:%02d.%06d'",
+                    year, month, day, hour, minute, second, microsecond);
+        }
+        return String.format("'%04d-%02d-%02d %02d:%02d:%02d'", year, month, day, hour, minute, second);
+    }
+
+    private static String readTime(ByteBuffer buffer) {
+        int length = MysqlProto.readInt1(buffer);
+        boolean negative = false;
+        long hours = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 8) {
+            negative = MysqlProto.readInt1(buffer) == 1;
+            hours = (MysqlProto.readInt4(buffer) & 0xffffffffL) * 24 + MysqlProto.readInt1(buffer);
+            minute = MysqlProto.readInt1(buffer);
+            second = MysqlProto.readInt1(buffer);
+        }
+        if (length >= 12) {
+            microsecond = MysqlProto.readInt4(buffer);
+        }
+        String sign = negative ? "-" : "";
+        if (microsecond != 0) {
+            return String.format("'%s%02d:%02d:%02d.%06d'", sign, hours, minute, second, microsecond);
+        }
+        return String.format("'%s%02d:%02d:%02d'", sign, hours, minute, second);
+    }
+
+    /**
+     * Encode a text result row, which consists of length encoded strings or NULL values,
+     * to a binary result row.
+     *
+     * @param colTypes the codes of the MysqlColType of the columns sent in the result metadata
+     */
+    public static ByteBuffer textRowToBinary(ByteBuffer row, int[] colTypes, MysqlSerializer serializer) {
+        ByteBuffer text = row.duplicate();
+        byte[] nullBitmap = new byte[(colTypes.length + 7 + RESULT_NULL_BITMAP_OFFSET) / 8];
+        byte[][] values = new byte[colTypes.length][];
+        for (int i = 0; i < colTypes.length; ++i) {
+            if ((text.get(text.position()) & 0xff) == NULL_VALUE) {
+                text.get();
+                int bit = i + RESULT_NULL_BITMAP_OFFSET;
+                nullBitmap[bit / 8] |= 1 << (bit % 8);
+            } else {
+                values[i] = MysqlProto.readLenEncodedString(text);
+            }
+        }
+
+        serializer.reset();
+        serializer.writeInt1(0x00);
+        serializer.writeBytes(nullBitmap);
+        for (int i = 0; i < colTypes.length; ++i) {
+            if (values[i] != null) {
+                writeValue(serializer, colTypes[i], values[i]);
+            }
+        }
+        return serializer.toByteBuffer();
+    }
+
+    private static void writeValue(MysqlSerializer serializer, int colType, byte[] value) {
+        if (colType == MysqlColType.MYSQL_TYPE_TINY.getCode()) {
+            serializer.writeInt1((int) parseLong(value));
+        } else if (colType == MysqlColType.MYSQL_TYPE_SHORT.getCode() ||
+                colType == MysqlColType.MYSQL_TYPE_YEAR.getCode()) {
+            serializer.writeInt2((int) parseLong(value));
+        } else if (colType == MysqlColType.MYSQL_TYPE_LONG.getCode() ||
+                colType == MysqlColType.MYSQL_TYPE_INT24.getCode()) {
+            serializer.writeInt4((int) parseLong(value));
+        } else if (colType == MysqlColType.MYSQL_TYPE_LONGLONG.getCode()) {
+            serializer.writeInt8(parseLong(value));
+        } else if (colType == MysqlColType.MYSQL_TYPE_FLOAT.getCode()) {
+            serializer.writeInt4(Float.floatToIntBits((float) parseDouble(value)));
+        } else if (colType == MysqlColType.MYSQL_TYPE_DOUBLE.getCode()) {
+            serializer.writeInt8(Double.doubleToLongBits(parseDouble(value)));
+        } else if (colType == MysqlColType.MYSQL_TYPE_DATE.getCode() ||
+                colType == MysqlColType.MYSQL_TYPE_DATETIME.getCode() ||
+                colType == MysqlColType.MYSQL_TYPE_TIMESTAMP.getCode()) {
+            writeDateTime(serializer, new String(value, StandardCharsets.UTF_8));
+        } else if (colType == MysqlColType.MYSQL_TYPE_TIME.getCode()) {
+            writeTime(serializer, new String(value, StandardCharsets.UTF_8));
+        } else {
+            serializer.writeVInt(value.length);
+            serializer.writeBytes(value);
+        }
+    }
+
+    private static long parseLong(byte[] value) {
+        String str = new String(value, StandardCharsets.UTF_8);
+        if (str.equalsIgnoreCase("true")) {
+            return 1;
+        } else if (str.equalsIgnoreCase("false")) {
+            return 0;
+        }
+        return Long.parseLong(str);
+    }
+
+    private static double parseDouble(byte[] value) {
+        String str = new String(value, StandardCharsets.UTF_8).toLowerCase();
+        switch (str) {
+            case "inf":
+            case "+inf":
+            case "infinity":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+            case "-infinity":
+                return Double.NEGATIVE_INFINITY;
+            case "nan":
+            case "-nan":
+                return Double.NaN;
+            default:
+                return Double.parseDouble(str);
+        }
+    }
+
+    // The format is 'yyyy-MM-dd[ HH:mm:ss[.SSSSSS]]'
+    private static void writeDateTime(MysqlSerializer serializer, String value) {
+        int year = Integer.parseInt(value.substring(0, 4));
+        int month = Integer.parseInt(value.substring(5, 7));
+        int day = Integer.parseInt(value.substring(8, 10));
+        if (value.length() < 19) {
+            serializer.writeInt1(4);
+            writeDate(serializer, year, month, day);
+            return;
+        }
+        int hour = Integer.parseInt(value.substring(11, 13));
+        int minute = Integer.parseInt(value.substring(14, 16));
+        int second = Integer.parseInt(value.substring(17, 19));
+        int microsecond = value.length() > 20 ? parseMicrosecond(value.substring(20)) : 0;
+        serializer.writeInt1(microsecond == 0 ? 7 : 11);
+        writeDate(serializer, year, month, day);
+        serializer.writeInt1(hour);
+        serializer.writeInt1(minute);
+        serializer.writeInt1(second);
+        if (microsecond != 0) {
+            serializer.writeInt4(microsecond);
+        }
+    }
+
+    private static void writeDate(MysqlSerializer serializer, int year, int month, int day) {
+        serializer.writeInt2(year);
+        serializer.writeInt1(month);
+        serializer.writeInt1(day);
+    }
+
+    // The format is '[-]HH:mm:ss[.SSSSSS]', the hours may be more than 24
+    private static void writeTime(MysqlSerializer serializer, String value) {
+        boolean negative = value.startsWith("-");
+        String[] parts = (negative ? value.substring(1) : value).split(":");
+        long hours = Long.parseLong(parts[0]);
+        int minute = Integer.parseInt(parts[1]);
+        int microsecond = 0;
+        int second;
+        int dot = parts[2].indexOf('.');
+        if (dot >= 0) {
+            second = Integer.parseInt(parts[2].substring(0, dot));
+            microsecond = parseMicrosecond(parts[2].substring(dot + 1));
+        } else {
+            second = Integer.parseInt(parts[2]);
+        }
+        serializer.writeInt1(microsecond == 0 ? 8 : 12);
+        serializer.writeInt1(negative ? 1 : 0);
+        serializer.writeInt4((int) (hours / 24));
+        serializer.writeInt1((int) (hours % 24));
+        serializer.writeInt1(minute);
+        serializer.writeInt1(second);
+        if (microsecond != 0) {
+            serializer.writeInt4(microsecond);
+        }
+    }
+
+    private static int parseMicrosecond(String fraction) {
+        StringBuilder digits = new StringBuilder(fraction.length() > 6 ? fraction.substring(0, 6) : fraction);
+        while (digits.length() < 6) {
+            digits.append('0');
+        }
+        return Integer.parseInt(digits.toString());
+    }
+}
@@ -0,0 +1,71 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.mysql;
+
+import com.starrocks.common.Config;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of the off-heap buffers used to send data to mysql clients.
+ * <p>
+ * Most of the connections are idle, so a connection only acquires a buffer when it starts to send
+ * the result of a statement, and releases it when the statement is finished. At most
+ * mysql_send_buffer_pool_max_num direct buffers are allocated, the connections acquiring a buffer
+ * after that get a heap buffer which is dropped when released. The heap buffer written to the socket is
+ * copied into a temporary direct buffer cached by the thread, jdk.nio.maxCachedBufferSize in fe.conf keeps
+ * the large ones from being cached.
+ */
+public class MysqlBufferPool {
+    private static final MysqlBufferPool INSTANCE =
+            new MysqlBufferPool(Config.mysql_send_buffer_size, Config.mysql_send_buffer_pool_max_num);
+
+    private final int bufferSize;
+    private final int maxDirectBufferNum;
+    private final ConcurrentLinkedQueue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+    // The number of direct buffers allocated, including the ones in use
+    private final AtomicInteger directBufferNum = new AtomicInteger(0);
+
+    public MysqlBufferPool(int bufferSize, int maxDirectBufferNum) {
+        this.bufferSize = bufferSize;
+        this.maxDirectBufferNum = maxDirectBufferNum;
+    }
+
+    public static MysqlBufferPool getInstance() {
+        return INSTANCE;
+    }
+
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        if (directBufferNum.incrementAndGet() <= maxDirectBufferNum) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        directBufferNum.decrementAndGet();
+        return ByteBuffer.allocate(bufferSize);
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        buffer.clear();
+        freeBuffers.offer(buffer);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getDirectBufferNum() {
+        return directBufferNum.get();
+    }
+
+    public int getFreeBufferNum() {
+        return freeBuffers.size();
+    }
+}
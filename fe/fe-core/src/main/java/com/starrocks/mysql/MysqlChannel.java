@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.List;
 
 /**
  * This class used to read/write MySQL logical packet.
@@ -50,6 +51,7 @@ public class MysqlChannel {
     protected ByteBuffer headerByteBuffer = ByteBuffer.allocate(PACKET_HEADER_LEN);
     // default packet byte buffer for most packet
     protected ByteBuffer defaultBuffer = ByteBuffer.allocate(16 * 1024);
+    // acquired from MysqlBufferPool when a statement starts to send data, released when it is finished
     protected ByteBuffer sendBuffer;
     // for log and show
     protected String remoteHostPortString;
@@ -58,7 +60,6 @@ public class MysqlChannel {
 
     protected MysqlChannel() {
         this.sequenceId = 0;
-        this.sendBuffer = ByteBuffer.allocate(2 * 1024 * 1024);
         this.isSend = false;
         this.remoteHostPortString = "";
         this.remoteIp = "";
@@ -67,7 +68,6 @@ public class MysqlChannel {
     public MysqlChannel(SocketChannel channel) {
         this.sequenceId = 0;
         this.channel = channel;
-        this.sendBuffer = ByteBuffer.allocate(2 * 1024 * 1024);
         this.isSend = false;
         this.remoteHostPortString = "";
         this.remoteIp = "";
@@ -201,6 +201,19 @@ public class MysqlChannel {
         isSend = true;
     }
 
+    private ByteBuffer getSendBuffer() {
+        if (sendBuffer == null) {
+            sendBuffer = MysqlBufferPool.getInstance().acquire();
+        }
+        return sendBuffer;
+    }
+
+    // Return the send buffer to the pool when the statement is finished, the buffered data is discarded
+    public void releaseSendBuffer() {
+        MysqlBufferPool.getInstance().release(sendBuffer);
+        sendBuffer = null;
+    }
+
     public void flush() throws IOException {
         if (null == sendBuffer || sendBuffer.position() == 0) {
             // Nothing to send
@@ -213,9 +226,7 @@ public class MysqlChannel {
     }
 
     private void writeHeader(int length) throws IOException {
-        if (null == sendBuffer) {
-            return;
-        }
+        ByteBuffer sendBuffer = getSendBuffer();
         long leftLength = sendBuffer.capacity() - sendBuffer.position();
         if (leftLength < 4) {
             flush();
@@ -230,21 +241,29 @@ public class MysqlChannel {
     }
 
     private void writeBuffer(ByteBuffer buffer) throws IOException {
-        if (null == sendBuffer) {
-            return;
+        ByteBuffer sendBuffer = getSendBuffer();
+        if (!sendBuffer.isDirect()) {
+            long leftLength = sendBuffer.capacity() - sendBuffer.position();
+            // If too long for buffer, send buffered data.
+            if (leftLength < buffer.remaining()) {
+                // Flush data in buffer.
+                flush();
+            }
+            // Send this buffer if large enough
+            if (buffer.remaining() > sendBuffer.capacity()) {
+                realNetSend(buffer);
+                return;
+            }
         }
-        long leftLength = sendBuffer.capacity() - sendBuffer.position();
-        // If too long for buffer, send buffered data.
-        if (leftLength < buffer.remaining()) {
-            // Flush data in buffer.
+        // The heap buffer written to the socket is copied into a temporary direct buffer cached by the thread,
+        // so the data larger than the direct send buffer is also copied through it piece by piece
+        while (buffer.remaining() > sendBuffer.remaining()) {
+            int oldLimit = buffer.limit();
+            buffer.limit(buffer.position() + sendBuffer.remaining());
+            sendBuffer.put(buffer);
+            buffer.limit(oldLimit);
             flush();
         }
-        // Send this buffer if large enough
-        if (buffer.remaining() > sendBuffer.capacity()) {
-            realNetSend(buffer);
-            return;
-        }
-        // Put it to
         sendBuffer.put(buffer);
     }
 
@@ -264,9 +283,22 @@ public class MysqlChannel {
         accSequenceId();
     }
 
+    /**
+     * Send the packets through the send buffer. The packets are usually heap buffers, writing them to the
+     * socket directly makes the JDK copy them into a temporary direct buffer cached by the thread, so they
+     * are copied into the pooled direct send buffer instead, which is written when it's full.
+     */
+    public void sendPackets(List<ByteBuffer> packets) throws IOException {
+        for (ByteBuffer packet : packets) {
+            sendOnePacket(packet);
+        }
+    }
+
     public void sendAndFlush(ByteBuffer packet) throws IOException {
         sendOnePacket(packet);
         flush();
+        // the statement is finished, the connection is idle until the next command
+        releaseSendBuffer();
     }
 
     // Call this function before send query before
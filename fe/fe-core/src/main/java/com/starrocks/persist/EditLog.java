@@ -68,6 +68,7 @@ import com.starrocks.statistic.AnalyzeJob;
 import com.starrocks.system.Backend;
 import com.starrocks.system.Frontend;
 import com.starrocks.transaction.TransactionState;
+import com.starrocks.transaction.TransactionStateBatch;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -91,6 +92,8 @@ public class EditLog {
 
     private Journal journal;
 
+    private EditLogGroupCommitter groupCommitter = null;
+
     public EditLog(String nodeName) {
         journal = new BDBJEJournal(nodeName);
     }
@@ -592,6 +595,14 @@ public class EditLog {
                     LOG.debug("opcode: {}, tid: {}", opCode, state.getTransactionId());
                     break;
                 }
+                case OperationType.OP_BATCH_UPSERT_TRANSACTION_STATE: {
+                    final TransactionStateBatch batch = (TransactionStateBatch) journal.getData();
+                    for (TransactionState state : batch.getTransactionStates()) {
+                        Catalog.getCurrentGlobalTransactionMgr().replayUpsertTransactionState(state);
+                        LOG.debug("opcode: {}, tid: {}", opCode, state.getTransactionId());
+                    }
+                    break;
+                }
                 case OperationType.OP_DELETE_TRANSACTION_STATE: {
                     final TransactionState state = (TransactionState) journal.getData();
                     Catalog.getCurrentGlobalTransactionMgr().replayDeleteTransactionState(state);
@@ -825,8 +836,19 @@ public class EditLog {
     /**
      * Shutdown the file store.
      */
-    public synchronized void close() throws IOException {
-        journal.close();
+    public void close() throws IOException {
+        // Stop outside the monitor, the writer thread of group committer calls afterJournalWritten()
+        // while finishing the queued journals.
+        EditLogGroupCommitter committer;
+        synchronized (this) {
+            committer = groupCommitter;
+        }
+        if (committer != null) {
+            committer.stop();
+        }
+        synchronized (this) {
+            journal.close();
+        }
     }
 
     public synchronized void createEditLogFile(File name) throws IOException {
@@ -847,14 +869,37 @@ public class EditLog {
     }
 
     /**
-     * Write an operation to the edit log. Do not sync to persistent store yet.
+     * Write an operation to the edit log.
+     * If Config.edit_log_group_commit is true, the operation is handed to the group committer
+     * and this method returns after the batch containing it has been written.
      */
-    private synchronized void logEdit(short op, Writable writable) {
+    private void logEdit(short op, Writable writable) {
         if (this.getNumEditStreams() == 0) {
             LOG.error("Fatal Error : no editLog stream", new Exception());
             throw new Error("Fatal Error : no editLog stream");
         }
 
+        if (!Config.edit_log_group_commit) {
+            logEditSync(op, writable);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        getGroupCommitter().submitAndWait(op, writable);
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_EDIT_LOG_WRITE_LATENCY.update((System.currentTimeMillis() - start));
+        }
+    }
+
+    private synchronized EditLogGroupCommitter getGroupCommitter() {
+        if (groupCommitter == null) {
+            groupCommitter = new EditLogGroupCommitter(journal, this::afterJournalWritten);
+            groupCommitter.start();
+        }
+        return groupCommitter;
+    }
+
+    private synchronized void logEditSync(short op, Writable writable) {
         long start = System.currentTimeMillis();
 
         try {
@@ -864,20 +909,28 @@ public class EditLog {
             System.exit(-1);
         }
 
-        // get a new transactionId
-        txId++;
-
-        // update statistics
         long end = System.currentTimeMillis();
-        numTransactions++;
         totalTimeTransactions += (end - start);
         if (MetricRepo.isInit) {
             MetricRepo.HISTO_EDIT_LOG_WRITE_LATENCY.update((end - start));
         }
 
+        afterJournalWritten(1);
+    }
+
+    /**
+     * Update statistics and roll the edit log if needed, after num journals have been written.
+     */
+    private synchronized void afterJournalWritten(int num) {
+        // get new transactionIds
+        txId += num;
+
+        // update statistics
+        numTransactions += num;
+
         if (LOG.isDebugEnabled()) {
-            LOG.debug("nextId = {}, numTransactions = {}, totalTimeTransactions = {}, op = {}",
-                    txId, numTransactions, totalTimeTransactions, op);
+            LOG.debug("nextId = {}, numTransactions = {}, totalTimeTransactions = {}",
+                    txId, numTransactions, totalTimeTransactions);
         }
 
         if (txId >= Config.edit_log_roll_num) {
@@ -888,7 +941,7 @@ public class EditLog {
         }
 
         if (MetricRepo.isInit) {
-            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase(1L);
+            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase((long) num);
         }
     }
 
@@ -1201,6 +1254,10 @@ public class EditLog {
         logEdit(OperationType.OP_UPSERT_TRANSACTION_STATE, transactionState);
     }
 
+    public void logBatchUpsertTransactionStates(TransactionStateBatch batch) {
+        logEdit(OperationType.OP_BATCH_UPSERT_TRANSACTION_STATE, batch);
+    }
+
     public void logDeleteTransactionState(TransactionState transactionState) {
         logEdit(OperationType.OP_DELETE_TRANSACTION_STATE, transactionState);
     }
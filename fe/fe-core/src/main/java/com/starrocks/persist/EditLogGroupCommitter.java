@@ -0,0 +1,164 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Queues;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.starrocks.common.Config;
+import com.starrocks.common.io.Writable;
+import com.starrocks.journal.Journal;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.metric.MetricRepo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Group commit of edit logs.
+ * Callers put their journal into a queue and wait. A single writer thread takes all the queued journals
+ * (at most Config.edit_log_group_commit_max_batch_size), writes them to the journal in one transaction,
+ * and then wakes up all the callers of this batch.
+ * The order of journals is the order they are put into the queue.
+ * After stop(), the journals already queued are still written, and new submissions are rejected.
+ */
+public class EditLogGroupCommitter {
+    private static final Logger LOG = LogManager.getLogger(EditLogGroupCommitter.class);
+
+    private final Journal journal;
+    // called in writer thread after each batch is written, with the number of journals in the batch
+    private final IntConsumer afterBatchWritten;
+    private final BlockingQueue<JournalTask> taskQueue = Queues.newLinkedBlockingQueue();
+    private Thread writerThread;
+
+    private volatile boolean isStopped = false;
+
+    public EditLogGroupCommitter(Journal journal, IntConsumer afterBatchWritten) {
+        this.journal = journal;
+        this.afterBatchWritten = afterBatchWritten;
+    }
+
+    public synchronized void start() {
+        if (writerThread != null) {
+            return;
+        }
+        writerThread = new Thread(new Writer(), "EditLogGroupCommitter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Do not interrupt the writer thread, bdbje environment is invalidated if interrupted while writing.
+    // Wait for the writer thread to write all the queued journals, so that the journal can be closed safely.
+    public void stop() {
+        isStopped = true;
+        Thread thread;
+        synchronized (this) {
+            thread = writerThread;
+        }
+        if (thread != null) {
+            Uninterruptibles.joinUninterruptibly(thread);
+        }
+        // nobody will write the journals left in the queue
+        List<JournalTask> remaining = Lists.newArrayList();
+        taskQueue.drainTo(remaining);
+        for (JournalTask task : remaining) {
+            task.fail();
+        }
+    }
+
+    /**
+     * Put the journal into queue and wait until it is written.
+     *
+     * @throws IllegalStateException if the committer is stopped before the journal is written
+     */
+    public void submitAndWait(short op, Writable writable) {
+        if (isStopped) {
+            throw new IllegalStateException("edit log group committer is stopped");
+        }
+        JournalTask task = new JournalTask(op, writable);
+        Uninterruptibles.putUninterruptibly(taskQueue, task);
+        // The writer checks the queue after it sees isStopped, so if the task is still in the queue here,
+        // nobody will take it any more.
+        if (isStopped && taskQueue.remove(task)) {
+            throw new IllegalStateException("edit log group committer is stopped");
+        }
+        Uninterruptibles.awaitUninterruptibly(task.latch);
+        if (task.failed) {
+            throw new IllegalStateException("edit log group committer is stopped");
+        }
+    }
+
+    private void writeBatch(List<JournalTask> batch) {
+        List<JournalEntity> entities = Lists.newArrayListWithCapacity(batch.size());
+        for (JournalTask task : batch) {
+            entities.add(task.entity);
+        }
+
+        long start = System.currentTimeMillis();
+        journal.batchWrite(entities);
+        afterBatchWritten.accept(batch.size());
+        for (JournalTask task : batch) {
+            task.latch.countDown();
+        }
+
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_EDIT_LOG_GROUP_COMMIT_BATCH_SIZE.update(batch.size());
+            MetricRepo.HISTO_EDIT_LOG_GROUP_COMMIT_LATENCY.update(System.currentTimeMillis() - start);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("group commit {} journals, cost {} ms", batch.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private static class JournalTask {
+        private final JournalEntity entity;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile boolean failed = false;
+
+        JournalTask(short op, Writable writable) {
+            entity = new JournalEntity();
+            entity.setOpCode(op);
+            entity.setData(writable);
+        }
+
+        void fail() {
+            failed = true;
+            latch.countDown();
+        }
+    }
+
+    private class Writer implements Runnable {
+        @Override
+        public void run() {
+            List<JournalTask> batch = Lists.newArrayList();
+            // keep writing until stopped and all the queued journals are written
+            while (!isStopped || !taskQueue.isEmpty()) {
+                try {
+                    JournalTask task = taskQueue.poll(100, TimeUnit.MILLISECONDS);
+                    if (task == null) {
+                        continue;
+                    }
+                    batch.add(task);
+                } catch (InterruptedException e) {
+                    LOG.debug("interrupted when taking journal task from queue", e);
+                    continue;
+                }
+                taskQueue.drainTo(batch, Math.max(Config.edit_log_group_commit_max_batch_size, 1) - 1);
+
+                try {
+                    writeBatch(batch);
+                } catch (Exception e) {
+                    // same as EditLog.logEdit(), a failed journal write is not recoverable
+                    LOG.error("Fatal Error : group commit write stream Exception", e);
+                    System.exit(-1);
+                }
+                batch.clear();
+            }
+        }
+    }
+}
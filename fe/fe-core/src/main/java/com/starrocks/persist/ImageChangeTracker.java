@@ -0,0 +1,118 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.common.io.Writable;
+import com.starrocks.transaction.TransactionState;
+import com.starrocks.transaction.TransactionStateBatch;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Track which image sections and databases are changed by the journals replayed after a sectioned image
+ * (the base image) is loaded. It is used by incremental checkpoint: the unchanged sections and databases
+ * are copied from the base image instead of being serialized again.
+ *
+ * Only the most frequent journals are tracked precisely. Any other journal marks everything as changed,
+ * so the image is fully rewritten, same as the non-incremental checkpoint.
+ */
+public class ImageChangeTracker {
+    // these sections are small and always rewritten
+    private static final Set<String> ALWAYS_CHANGED_SECTIONS =
+            ImmutableSet.of("header", "masterInfo", "frontends", "backends");
+    // sections which may be changed by the replay of transaction state, including the txn callbacks
+    private static final Set<String> TRANSACTION_SECTIONS =
+            ImmutableSet.of("transactionState", "loadJob", "loadJobsV2", "routineLoadJobs", "deleteHandler");
+
+    private final SectionedImage.Reader baseImage;
+    // db id -> (offset in db section, length) of the database block in base image
+    private final Map<Long, long[]> dbBlocks = Maps.newHashMap();
+
+    private boolean allChanged = false;
+    private final Set<String> changedSections = Sets.newHashSet();
+    private final Set<Long> changedDbIds = Sets.newHashSet();
+
+    public ImageChangeTracker(SectionedImage.Reader baseImage) {
+        this.baseImage = baseImage;
+    }
+
+    public SectionedImage.Reader getBaseImage() {
+        return baseImage;
+    }
+
+    public void addDbBlock(long dbId, long offsetInSection, long length) {
+        dbBlocks.put(dbId, new long[] {offsetInSection, length});
+    }
+
+    public void onJournalReplayed(short opCode, Writable data) {
+        switch (opCode) {
+            case OperationType.OP_TIMESTAMP:
+            case OperationType.OP_SAVE_NEXTID:
+            case OperationType.OP_HEARTBEAT:
+            case OperationType.OP_MASTER_INFO_CHANGE:
+                // only change the sections which are always rewritten, or nothing persisted in image
+                break;
+            case OperationType.OP_SAVE_TRANSACTION_ID:
+                changedSections.add("transactionState");
+                break;
+            case OperationType.OP_UPSERT_TRANSACTION_STATE:
+            case OperationType.OP_DELETE_TRANSACTION_STATE:
+                changedSections.addAll(TRANSACTION_SECTIONS);
+                changedSections.add("db");
+                changedDbIds.add(((TransactionState) data).getDbId());
+                break;
+            case OperationType.OP_BATCH_UPSERT_TRANSACTION_STATE:
+                changedSections.addAll(TRANSACTION_SECTIONS);
+                changedSections.add("db");
+                for (TransactionState state : ((TransactionStateBatch) data).getTransactionStates()) {
+                    changedDbIds.add(state.getDbId());
+                }
+                break;
+            case OperationType.OP_ADD_REPLICA:
+            case OperationType.OP_UPDATE_REPLICA:
+            case OperationType.OP_DELETE_REPLICA:
+                // replica may belong to a table in recycle bin
+                changedSections.add("recycleBin");
+                changedSections.add("db");
+                changedDbIds.add(((ReplicaPersistInfo) data).getDbId());
+                break;
+            case OperationType.OP_CREATE_LOAD_JOB:
+            case OperationType.OP_END_LOAD_JOB:
+            case OperationType.OP_UPDATE_LOAD_JOB:
+                changedSections.add("loadJobsV2");
+                break;
+            case OperationType.OP_CREATE_ROUTINE_LOAD_JOB:
+            case OperationType.OP_CHANGE_ROUTINE_LOAD_JOB:
+            case OperationType.OP_REMOVE_ROUTINE_LOAD_JOB:
+                changedSections.add("routineLoadJobs");
+                break;
+            case OperationType.OP_ADD_ANALYZER_JOB:
+            case OperationType.OP_REMOVE_ANALYZER_JOB:
+                changedSections.add("analyze");
+                break;
+            default:
+                allChanged = true;
+                break;
+        }
+    }
+
+    public boolean isSectionChanged(String name) {
+        return allChanged || ALWAYS_CHANGED_SECTIONS.contains(name) || changedSections.contains(name)
+                || baseImage.getEntry(name) == null;
+    }
+
+    public boolean isDbChanged(long dbId) {
+        return allChanged || changedDbIds.contains(dbId) || !dbBlocks.containsKey(dbId);
+    }
+
+    // Thread safe.
+    public byte[] readDbBlock(long dbId) throws IOException {
+        long[] block = dbBlocks.get(dbId);
+        return baseImage.readBytes("db", block[0], (int) block[1]);
+    }
+}
@@ -142,6 +142,7 @@ public class OperationType {
     public static final short OP_FINISHING_ROLLUP = 102;
     public static final short OP_FINISHING_SCHEMA_CHANGE = 103;
     public static final short OP_SAVE_TRANSACTION_ID = 104;
+    public static final short OP_BATCH_UPSERT_TRANSACTION_STATE = 105;
 
     // routine load 110~120
     public static final short OP_ROUTINE_LOAD_JOB = 110;
@@ -0,0 +1,262 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.io.Text;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/*
+ * Sectioned image format.
+ *
+ * +---------------------+
+ * | magic (int)         |
+ * +---------------------+
+ * | section 1           |
+ * | ...                 |
+ * | section N           |
+ * +---------------------+
+ * | section count (int) |
+ * | index entry 1       |  name, offset, length, crc32, checksum
+ * | ...                 |
+ * | index entry N       |
+ * +---------------------+
+ * | index offset (long) |
+ * +---------------------+
+ *
+ * Every section is written by one of the Catalog.saveXXX() methods and is verified by its own crc32
+ * and xor checksum, so sections can be located and read independently.
+ * The magic is different from the first int of the old image format (-1 or a positive meta version),
+ * which is used to tell the two formats apart.
+ */
+public class SectionedImage {
+    private static final Logger LOG = LogManager.getLogger(SectionedImage.class);
+
+    public static final int MAGIC = -2;
+
+    public interface SectionSaver {
+        long save(DataOutputStream dos, long checksum) throws IOException;
+    }
+
+    public interface SectionLoader {
+        long load(DataInputStream dis, long checksum) throws IOException, DdlException;
+    }
+
+    public static boolean isSectionedImage(File file) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(file))) {
+            return file.length() >= Integer.BYTES + Long.BYTES && dis.readInt() == MAGIC;
+        }
+    }
+
+    public static class IndexEntry {
+        private String name;
+        private long offset;
+        private long length;
+        private long crc;
+        private long checksum;
+
+        IndexEntry(String name, long offset, long length, long crc, long checksum) {
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+            this.checksum = checksum;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        void write(DataOutput out) throws IOException {
+            Text.writeString(out, name);
+            out.writeLong(offset);
+            out.writeLong(length);
+            out.writeLong(crc);
+            out.writeLong(checksum);
+        }
+
+        static IndexEntry read(DataInput in) throws IOException {
+            String name = Text.readString(in);
+            long offset = in.readLong();
+            long length = in.readLong();
+            long crc = in.readLong();
+            long checksum = in.readLong();
+            return new IndexEntry(name, offset, length, crc, checksum);
+        }
+    }
+
+    public static class Writer implements Closeable {
+        private final CountingOutputStream countingOut;
+        private final DataOutputStream out;
+        private final List<IndexEntry> index = Lists.newArrayList();
+
+        public Writer(File file) throws IOException {
+            countingOut = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            out = new DataOutputStream(countingOut);
+            out.writeInt(MAGIC);
+        }
+
+        public void writeSection(String name, SectionSaver saver) throws IOException {
+            long start = System.currentTimeMillis();
+            long offset = countingOut.getCount();
+            CRC32 crc = new CRC32();
+            // do not close this stream, it shares the underlying file stream
+            DataOutputStream sectionOut = new DataOutputStream(new CheckedOutputStream(countingOut, crc));
+            long checksum = saver.save(sectionOut, 0);
+            sectionOut.flush();
+            long length = countingOut.getCount() - offset;
+            index.add(new IndexEntry(name, offset, length, crc.getValue(), checksum));
+            LOG.info("finished save image section {}, length {}, cost {} ms",
+                    name, length, System.currentTimeMillis() - start);
+        }
+
+        /*
+         * Copy the section from another image as is, without serializing it again.
+         * Used by incremental checkpoint for the sections which are not changed since the base image.
+         */
+        public void copySection(Reader from, String name) throws IOException {
+            IndexEntry fromEntry = from.getEntry(name);
+            long offset = countingOut.getCount();
+            try (FileInputStream fis = new FileInputStream(from.file)) {
+                fis.getChannel().position(fromEntry.offset);
+                long copied = ByteStreams.copy(ByteStreams.limit(new BufferedInputStream(fis), fromEntry.length),
+                        countingOut);
+                if (copied != fromEntry.length) {
+                    throw new IOException("image section " + name + " is truncated, expect "
+                            + fromEntry.length + " bytes, but copied " + copied);
+                }
+            }
+            index.add(new IndexEntry(name, offset, fromEntry.length, fromEntry.crc, fromEntry.checksum));
+            LOG.info("finished copy image section {}, length {}", name, fromEntry.length);
+        }
+
+        // Write the index. Must be called after all sections are written.
+        public void finish() throws IOException {
+            long indexOffset = countingOut.getCount();
+            out.writeInt(index.size());
+            for (IndexEntry entry : index) {
+                entry.write(out);
+            }
+            out.writeLong(indexOffset);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    public static class Reader {
+        private final File file;
+        private final Map<String, IndexEntry> index = Maps.newLinkedHashMap();
+        // section name -> load time in ms, in load order
+        private final Map<String, Long> loadTimeMs = Maps.newLinkedHashMap();
+
+        public Reader(File file) throws IOException {
+            this.file = file;
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.seek(raf.length() - Long.BYTES);
+                long indexOffset = raf.readLong();
+                raf.seek(indexOffset);
+                int count = raf.readInt();
+                for (int i = 0; i < count; i++) {
+                    IndexEntry entry = IndexEntry.read(raf);
+                    index.put(entry.getName(), entry);
+                }
+            }
+        }
+
+        public IndexEntry getEntry(String name) {
+            return index.get(name);
+        }
+
+        /*
+         * Read length bytes at offsetInSection of the section, without any verification.
+         * Thread safe.
+         */
+        public byte[] readBytes(String name, long offsetInSection, int length) throws IOException {
+            IndexEntry entry = index.get(name);
+            if (entry == null || offsetInSection + length > entry.length) {
+                throw new IOException("read out of range of image section " + name);
+            }
+            byte[] bytes = new byte[length];
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.seek(entry.offset + offsetInSection);
+                raf.readFully(bytes);
+            }
+            return bytes;
+        }
+
+        public List<IndexEntry> getIndex() {
+            return Lists.newArrayList(index.values());
+        }
+
+        public Map<String, Long> getLoadTimeMs() {
+            return loadTimeMs;
+        }
+
+        /*
+         * Load the section and verify its crc32 and checksum.
+         * A section which does not exist in the image, eg. the image is written by an older version,
+         * is skipped, same as the EOF handling of the old image format.
+         */
+        public void loadSection(String name, SectionLoader loader) throws IOException, DdlException {
+            IndexEntry entry = index.get(name);
+            if (entry == null) {
+                LOG.warn("section {} does not exist in image {}, skip it", name, file.getAbsolutePath());
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            try (FileInputStream fis = new FileInputStream(file)) {
+                fis.getChannel().position(entry.offset);
+                CRC32 crc = new CRC32();
+                CheckedInputStream cis = new CheckedInputStream(
+                        ByteStreams.limit(new BufferedInputStream(fis), entry.length), crc);
+                DataInputStream dis = new DataInputStream(cis);
+                long checksum = loader.load(dis, 0);
+                long remaining = ByteStreams.exhaust(cis);
+                if (remaining != 0) {
+                    throw new IOException("image section " + name + " has " + remaining + " bytes not read");
+                }
+                if (crc.getValue() != entry.crc) {
+                    throw new IOException("image section " + name + " crc mismatch, "
+                            + entry.crc + " vs. " + crc.getValue());
+                }
+                if (checksum != entry.checksum) {
+                    throw new IOException("image section " + name + " checksum mismatch, "
+                            + entry.checksum + " vs. " + checksum);
+                }
+            }
+            loadTimeMs.put(name, System.currentTimeMillis() - start);
+        }
+    }
+}
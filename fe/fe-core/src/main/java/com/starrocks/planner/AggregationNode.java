@@ -415,7 +415,7 @@ public class AggregationNode extends PlanNode {
                 }
             }
 
-            if (description.canProbeUse(this)) {
+            if (description.canProbeUse(this, probeExpr)) {
                 // can not push down to children.
                 // use runtime filter at this level.
                 description.addProbeExpr(id.asInt(), probeExpr);
@@ -67,6 +67,9 @@ public class ExchangeNode extends PlanNode {
 
     private DistributionSpec.DistributionType distributionType;
 
+    // Whether the receiver buffers all the received data instead of holding back the senders
+    private boolean unlimitedBuffer = false;
+
     /**
      * Create ExchangeNode that consumes output of inputNode.
      * An ExchangeNode doesn't have an input node as a child, which is why we
@@ -106,6 +109,14 @@ public class ExchangeNode extends PlanNode {
         return distributionType;
     }
 
+    public boolean isUnlimitedBuffer() {
+        return unlimitedBuffer;
+    }
+
+    public void setUnlimitedBuffer(boolean unlimitedBuffer) {
+        this.unlimitedBuffer = unlimitedBuffer;
+    }
+
     @Override
     public final void computeTupleIds() {
         clearTupleIds();
@@ -144,6 +155,9 @@ public class ExchangeNode extends PlanNode {
             msg.exchange_node.setSort_info(sortInfo);
             msg.exchange_node.setOffset(offset);
         }
+        if (unlimitedBuffer) {
+            msg.exchange_node.setUnlimited_buffer(true);
+        }
     }
 
     @Override
@@ -156,11 +170,14 @@ public class ExchangeNode extends PlanNode {
 
     @Override
     protected String getNodeExplainString(String detailPrefix, TExplainLevel detailLevel) {
+        StringBuilder output = new StringBuilder();
         if (offset != 0) {
-            return detailPrefix + "offset: " + offset + "\n";
-        } else {
-            return "";
+            output.append(detailPrefix).append("offset: ").append(offset).append("\n");
+        }
+        if (unlimitedBuffer) {
+            output.append(detailPrefix).append("unlimited buffer\n");
         }
+        return output.toString();
     }
 
     @Override
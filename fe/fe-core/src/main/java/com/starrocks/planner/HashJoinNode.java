@@ -38,6 +38,7 @@ import com.starrocks.catalog.ColumnStats;
 import com.starrocks.common.IdGenerator;
 import com.starrocks.common.UserException;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
 import com.starrocks.thrift.TEqJoinCondition;
 import com.starrocks.thrift.TExplainLevel;
 import com.starrocks.thrift.THashJoinNode;
@@ -76,6 +77,10 @@ public class HashJoinNode extends PlanNode {
     private boolean isShuffleHashBucket = false;
 
     private List<RuntimeFilterDescription> buildRuntimeFilters = Lists.newArrayList();
+    // The decisions of the cost based runtime filter planning, shown in the cost explain
+    private boolean costBasedRuntimeFilter = false;
+    private final List<RuntimeFilterDescription> skippedRuntimeFilters = Lists.newArrayList();
+    private String skippedRuntimeFilterReason = null;
 
     public List<RuntimeFilterDescription> getBuildRuntimeFilters() {
         return buildRuntimeFilters;
@@ -163,12 +168,15 @@ public class HashJoinNode extends PlanNode {
             return;
         }
 
+        costBasedRuntimeFilter = ConnectContext.get() != null &&
+                ConnectContext.get().getSessionVariable().isEnableCostBasedRuntimeFilter();
         if (distrMode.equals(DistributionMode.PARTITIONED) || distrMode.equals(DistributionMode.LOCAL_HASH_BUCKET)) {
             // if it's partitioned join and we can not get correct ndv
             // then it's hard to estimate right bloom filter size or it's too big
             // so we'd better to skip this global runtime filter.
             long card = inner.getCardinality();
             if (card <= 0 || card > runtimeFilterMaxSize) {
+                skippedRuntimeFilterReason = "the build side rows " + card + " is unknown or too large";
                 return;
             }
         }
@@ -182,6 +190,7 @@ public class HashJoinNode extends PlanNode {
             rf.setJoinMode(distrMode);
             rf.setEqualCount(eqJoinConjuncts.size());
             rf.setBuildCardinality(inner.getCardinality());
+            rf.setCostBased(costBasedRuntimeFilter);
 
             Expr left = joinConjunct.getChild(0);
             Expr right = joinConjunct.getChild(1);
@@ -193,6 +202,19 @@ public class HashJoinNode extends PlanNode {
                 right = temp;
             }
 
+            if (costBasedRuntimeFilter) {
+                ColumnStatistic buildStatistic = RuntimeFilterDescription.getColumnStatistic(inner, left);
+                if (buildStatistic != null && !buildStatistic.isUnknown()) {
+                    rf.setBuildDistinctValues(Math.min(buildStatistic.getDistinctValuesCount(),
+                            Math.max(inner.getCardinality(), 1)));
+                }
+                // The broadcast join sends only one copy, the other joins merge the filters of all the instances.
+                // The colocate and bucket shuffle joins probe the large filter in their local instances instead,
+                // the shuffle join has no local probe side, so its filter is always merged.
+                rf.setOnlyLocal(!distrMode.equals(DistributionMode.BROADCAST) && rf.isLocalApplicable() &&
+                        RuntimeFilterDescription.isGlobalMergeTooLarge(inner.getCardinality()));
+            }
+
             // push down rf to child nodes, and build it only when it
             // can be accepted by child nodes.
             rf.setBuildExpr(left);
@@ -202,10 +224,45 @@ public class HashJoinNode extends PlanNode {
             }
             if (accept) {
                 buildRuntimeFilters.add(rf);
+            } else if (costBasedRuntimeFilter) {
+                skippedRuntimeFilters.add(rf);
             }
         }
     }
 
+    @Override
+    public boolean pushDownRuntimeFilters(RuntimeFilterDescription description, Expr probeExpr) {
+        boolean accept = super.pushDownRuntimeFilters(description, probeExpr);
+        if (!description.isCostBased() || !(probeExpr instanceof SlotRef) ||
+                (!joinOp.isInnerJoin() && !joinOp.isLeftSemiJoin())) {
+            return accept;
+        }
+
+        // The rows of the other side can't be joined if the key is filtered, e.g. the filter of t1.k is
+        // also a filter of t2.k for t1 join t2 on t1.k = t2.k, so push it down to the probe nodes of both sides
+        SlotId slotId = ((SlotRef) probeExpr).getSlotId();
+        for (BinaryPredicate eqJoinConjunct : eqJoinConjuncts) {
+            Expr other;
+            if (isSlot(eqJoinConjunct.getChild(0), slotId)) {
+                other = eqJoinConjunct.getChild(1);
+            } else if (isSlot(eqJoinConjunct.getChild(1), slotId)) {
+                other = eqJoinConjunct.getChild(0);
+            } else {
+                continue;
+            }
+            for (PlanNode child : children) {
+                if (other.isBoundByTupleIds(child.getTupleIds()) && child.pushDownRuntimeFilters(description, other)) {
+                    accept = true;
+                }
+            }
+        }
+        return accept;
+    }
+
+    private static boolean isSlot(Expr expr, SlotId slotId) {
+        return expr instanceof SlotRef && ((SlotRef) expr).getSlotId().equals(slotId);
+    }
+
     public List<BinaryPredicate> getEqJoinConjuncts() {
         return eqJoinConjuncts;
     }
@@ -475,6 +532,30 @@ public class HashJoinNode extends PlanNode {
         return output.toString();
     }
 
+    @Override
+    protected String getNodeCostExplain(String detailPrefix) {
+        if (!costBasedRuntimeFilter) {
+            return "";
+        }
+        StringBuilder output = new StringBuilder();
+        output.append(detailPrefix).append("runtime filter decisions:\n");
+        if (skippedRuntimeFilterReason != null) {
+            output.append(detailPrefix).append("- skipped: ").append(skippedRuntimeFilterReason).append("\n");
+        }
+        for (RuntimeFilterDescription rf : buildRuntimeFilters) {
+            output.append(detailPrefix).append("- ").append(rf.toCostExplainString()).append("\n");
+        }
+        for (RuntimeFilterDescription rf : skippedRuntimeFilters) {
+            output.append(detailPrefix).append("- skipped: ").append(rf.toCostExplainString());
+            if (rf.isLocalApplicable() || rf.canPushAcrossExchangeNode()) {
+                output.append(", no probe node pays off\n");
+            } else {
+                output.append(", can't be pushed across the exchange of the probe side\n");
+            }
+        }
+        return output.toString();
+    }
+
     @Override
     public int getNumInstances() {
         return Math.max(children.get(0).getNumInstances(), children.get(1).getNumInstances());
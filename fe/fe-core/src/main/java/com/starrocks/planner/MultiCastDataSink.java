@@ -0,0 +1,85 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.planner;
+
+import com.google.common.collect.Lists;
+import com.starrocks.thrift.TDataSink;
+import com.starrocks.thrift.TDataSinkType;
+import com.starrocks.thrift.TDataStreamSink;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.thrift.TMultiCastDataStreamSink;
+import com.starrocks.thrift.TPlanFragmentDestination;
+
+import java.util.List;
+
+/**
+ * Data sink that forwards the same data to multiple exchange nodes, e.g. the result of the CTE
+ * which is computed once and consumed by multiple fragments.
+ */
+public class MultiCastDataSink extends DataSink {
+    private final List<DataStreamSink> sinks = Lists.newArrayList();
+    private final List<ExchangeNode> exchangeNodes = Lists.newArrayList();
+    // The destinations of each sink, filled by the coordinator
+    private final List<List<TPlanFragmentDestination>> destinations = Lists.newArrayList();
+
+    public void addSink(DataStreamSink sink, ExchangeNode exchangeNode) {
+        sinks.add(sink);
+        exchangeNodes.add(exchangeNode);
+        destinations.add(Lists.newArrayList());
+    }
+
+    public List<DataStreamSink> getSinks() {
+        return sinks;
+    }
+
+    public List<ExchangeNode> getExchangeNodes() {
+        return exchangeNodes;
+    }
+
+    public List<List<TPlanFragmentDestination>> getDestinations() {
+        return destinations;
+    }
+
+    @Override
+    public String getExplainString(String prefix, TExplainLevel explainLevel) {
+        StringBuilder strBuilder = new StringBuilder();
+        strBuilder.append(prefix).append("MultiCastDataSinks\n");
+        for (DataStreamSink sink : sinks) {
+            strBuilder.append(sink.getExplainString(prefix, explainLevel));
+        }
+        return strBuilder.toString();
+    }
+
+    @Override
+    public String getVerboseExplain(String prefix) {
+        StringBuilder strBuilder = new StringBuilder();
+        strBuilder.append(prefix).append("MultiCastDataSinks\n");
+        for (DataStreamSink sink : sinks) {
+            strBuilder.append(sink.getVerboseExplain(prefix));
+        }
+        return strBuilder.toString();
+    }
+
+    @Override
+    protected TDataSink toThrift() {
+        TDataSink result = new TDataSink(TDataSinkType.MULTI_CAST_DATA_STREAM_SINK);
+        List<TDataStreamSink> tStreamSinks = Lists.newArrayList();
+        for (DataStreamSink sink : sinks) {
+            tStreamSinks.add(new TDataStreamSink(sink.getExchNodeId().asInt(),
+                    sink.getOutputPartition().toThrift()));
+        }
+        result.setMulti_cast_stream_sink(new TMultiCastDataStreamSink(tStreamSinks, destinations));
+        return result;
+    }
+
+    // The sink has multiple exchange nodes and output partitions, use the methods of each sink instead
+    @Override
+    public PlanNodeId getExchNodeId() {
+        return null;
+    }
+
+    @Override
+    public DataPartition getOutputPartition() {
+        return null;
+    }
+}
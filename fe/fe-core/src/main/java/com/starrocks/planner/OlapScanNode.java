@@ -860,4 +860,19 @@ public class OlapScanNode extends ScanNode {
     public void setTotalTabletsNum(long totalTabletsNum) {
         this.totalTabletsNum = totalTabletsNum;
     }
+
+    /**
+     * Only scan the given partitions and tablets, used by the result cache to skip the partitions
+     * whose results are cached. It must be called before the scan ranges are assigned by the coordinator.
+     */
+    public void retainTablets(Collection<Long> partitionIds, Set<Long> tabletIds) {
+        result.removeIf(locations -> !tabletIds.contains(locations.getScan_range().getInternal_scan_range()
+                .getTablet_id()));
+        bucketSeq2locations.values().removeIf(locations -> !tabletIds.contains(
+                locations.getScan_range().getInternal_scan_range().getTablet_id()));
+        scanTabletIds.retainAll(tabletIds);
+        selectedTabletsNum = scanTabletIds.size();
+        selectedPartitionIds = Lists.newArrayList(partitionIds);
+        selectedPartitionNum = selectedPartitionIds.size();
+    }
 }
@@ -427,6 +427,9 @@ public class PlanFragment extends TreeNode<PlanFragment> {
         if (destNode != null) {
             return destNode.isVectorized();
         }
+        if (sink instanceof MultiCastDataSink) {
+            return ((MultiCastDataSink) sink).getExchangeNodes().stream().allMatch(PlanNode::isVectorized);
+        }
         return true;
     }
 
@@ -439,6 +442,10 @@ public class PlanFragment extends TreeNode<PlanFragment> {
     }
 
     public boolean isOutputPartitionVectorized() {
+        if (sink instanceof MultiCastDataSink) {
+            return ((MultiCastDataSink) sink).getSinks().stream()
+                    .allMatch(streamSink -> streamSink.getOutputPartition().isVectorized());
+        }
         if (outputPartition != null) {
             return outputPartition.isVectorized();
         }
@@ -446,6 +453,10 @@ public class PlanFragment extends TreeNode<PlanFragment> {
     }
 
     public void setOutputPartitionUseVectorized(boolean flag) {
+        if (sink instanceof MultiCastDataSink) {
+            ((MultiCastDataSink) sink).getSinks()
+                    .forEach(streamSink -> streamSink.getOutputPartition().setUseVectorized(flag));
+        }
         if (outputPartition != null) {
             outputPartition.setUseVectorized(flag);
         }
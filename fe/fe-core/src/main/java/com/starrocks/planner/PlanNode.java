@@ -419,6 +419,11 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
         return expBuilder.toString();
     }
 
+    // The details only shown in the cost explain
+    protected String getNodeCostExplain(String detailPrefix) {
+        return "";
+    }
+
     protected final String getCostExplain(String rootPrefix, String prefix) {
         StringBuilder expBuilder = new StringBuilder();
         String detailPrefix = prefix;
@@ -436,6 +441,7 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
         // will be prefixed by detailPrefix.
         expBuilder.append(rootPrefix).append(id.asInt()).append(":").append(planNodeName).append("\n");
         expBuilder.append(getNodeVerboseExplain(detailPrefix));
+        expBuilder.append(getNodeCostExplain(detailPrefix));
         if (hasNullableGenerateChild) {
             expBuilder.append(detailPrefix).append("hasNullableGenerateChild: ")
                     .append(hasNullableGenerateChild).append("\n");
@@ -816,7 +822,7 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
         if (accept) {
             return true;
         }
-        if (probeExpr.isBoundByTupleIds(getTupleIds()) && description.canProbeUse(this)) {
+        if (probeExpr.isBoundByTupleIds(getTupleIds()) && description.canProbeUse(this, probeExpr)) {
             description.addProbeExpr(id.asInt(), probeExpr);
             probeRuntimeFilters.add(description);
             return true;
@@ -164,7 +164,7 @@ public class ProjectNode extends PlanNode {
 
             // can not push down to children.
             // use runtime filter at this level.
-            if (description.canProbeUse(this)) {
+            if (description.canProbeUse(this, probeExpr)) {
                 description.addProbeExpr(id.asInt(), probeExpr);
                 probeRuntimeFilters.add(description);
                 return true;
@@ -3,6 +3,9 @@
 package com.starrocks.planner;
 
 import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.SlotRef;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TRuntimeFilterBuildJoinMode;
 import com.starrocks.thrift.TRuntimeFilterDescription;
@@ -33,6 +36,20 @@ public class RuntimeFilterDescription {
     private static final float ProbeMinSelectivity = 0.5f;
     private long buildCardinality;
 
+    // The cost based planning is used if enable_cost_based_runtime_filter is true, the filter is applied on
+    // a probe node only if it's estimated to filter enough rows of the node.
+    // A local filter should filter more rows than the lookups cost, and a global filter which is merged
+    // and sent to the remote instances should filter more rows than the build side.
+    private static final double LocalProbeMinFilterRatio = 0.1;
+    // The partitioned build side with more rows is not merged globally
+    private static final long GlobalMergeMaxBuildRows = 1024 * 1024;
+    private boolean costBased;
+    // -1 if the statistics of the build expr is unknown
+    private double buildDistinctValues;
+    private boolean onlyLocal;
+    // probe node id -> the estimated fraction of the rows filtered out, -1 if unknown
+    private final Map<Integer, Double> nodeIdToFilterRatio;
+
     public RuntimeFilterDescription() {
         nodeIdToProbeExpr = new HashMap<>();
         mergeNodes = new ArrayList<>();
@@ -44,6 +61,10 @@ public class RuntimeFilterDescription {
         equalCount = 0;
         crossExchangeNodeTimes = 0;
         buildCardinality = 0;
+        costBased = false;
+        buildDistinctValues = -1;
+        onlyLocal = false;
+        nodeIdToFilterRatio = new HashMap<>();
     }
 
     public void setFilterId(int id) {
@@ -62,7 +83,50 @@ public class RuntimeFilterDescription {
         buildCardinality = value;
     }
 
-    public boolean canProbeUse(PlanNode node) {
+    public long getBuildCardinality() {
+        return buildCardinality;
+    }
+
+    public void setCostBased(boolean costBased) {
+        this.costBased = costBased;
+    }
+
+    public boolean isCostBased() {
+        return costBased;
+    }
+
+    public void setBuildDistinctValues(double buildDistinctValues) {
+        this.buildDistinctValues = buildDistinctValues;
+    }
+
+    public void setOnlyLocal(boolean onlyLocal) {
+        this.onlyLocal = onlyLocal;
+    }
+
+    public static boolean isGlobalMergeTooLarge(long buildCardinality) {
+        return buildCardinality > GlobalMergeMaxBuildRows;
+    }
+
+    public boolean canProbeUse(PlanNode node, Expr probeExpr) {
+        if (costBased) {
+            double filterRatio = estimateFilterRatio(node, probeExpr);
+            if (filterRatio >= 0) {
+                boolean accept;
+                if (inLocalFragmentInstance()) {
+                    accept = filterRatio >= LocalProbeMinFilterRatio;
+                } else {
+                    long card = node.getCardinality();
+                    accept = card >= ProbeMinSize && filterRatio >= ProbeMinSelectivity &&
+                            card * filterRatio > buildCardinality;
+                }
+                if (accept) {
+                    nodeIdToFilterRatio.put(node.getId().asInt(), filterRatio);
+                }
+                return accept;
+            }
+            nodeIdToFilterRatio.put(node.getId().asInt(), -1.0);
+        }
+
         // if we don't across exchange node, that's to say this is in local fragment instance.
         // we don't need to use adaptive strategy now. we are using a conservative way.
         if (inLocalFragmentInstance()) {
@@ -80,6 +144,39 @@ public class RuntimeFilterDescription {
         return true;
     }
 
+    /**
+     * The fraction of the probe rows filtered out, the values of the build side are assumed to be
+     * contained in the probe side like the join estimation.
+     *
+     * @return -1 if the statistics are unknown
+     */
+    private double estimateFilterRatio(PlanNode node, Expr probeExpr) {
+        ColumnStatistic probeStatistic = getColumnStatistic(node, probeExpr);
+        if (buildDistinctValues <= 0 || probeStatistic == null || probeStatistic.isUnknown() ||
+                probeStatistic.getDistinctValuesCount() <= 0) {
+            return -1;
+        }
+        double passRatio = Math.min(1, buildDistinctValues / probeStatistic.getDistinctValuesCount()) *
+                (1 - probeStatistic.getNullsFraction());
+        return 1 - passRatio;
+    }
+
+    /**
+     * @return the statistic of the expr in the output of the node, null if it's not a column
+     */
+    public static ColumnStatistic getColumnStatistic(PlanNode node, Expr expr) {
+        if (!(expr instanceof SlotRef) || node.columnStatistics == null) {
+            return null;
+        }
+        int slotId = ((SlotRef) expr).getSlotId().asInt();
+        for (Map.Entry<ColumnRefOperator, ColumnStatistic> entry : node.columnStatistics.entrySet()) {
+            if (entry.getKey().getId() == slotId) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
     public void enterExchangeNode() {
         crossExchangeNodeTimes += 1;
     }
@@ -131,6 +228,9 @@ public class RuntimeFilterDescription {
     }
 
     public boolean canPushAcrossExchangeNode() {
+        if (onlyLocal) {
+            return false;
+        }
         // if runtime filter is shuffle-aware implementation, then only rf generated by partitioned/bucket shuffle hash join
         // can be pushed down across exchange node.
         // or broadcast join(we just need to send one copy).
@@ -170,6 +270,26 @@ public class RuntimeFilterDescription {
         return sb.toString();
     }
 
+    // The decisions of the cost based planning
+    public String toCostExplainString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("filter_id = ").append(filterId);
+        sb.append(", build_expr = (").append(buildExpr.toSql()).append(")");
+        sb.append(", build_rows = ").append(buildCardinality);
+        sb.append(", build_distinct_values = ").append(Math.round(buildDistinctValues));
+        sb.append(", merge = ").append(hasRemoteTargets ? "GLOBAL" : "LOCAL");
+        if (onlyLocal) {
+            sb.append(" (build side too large)");
+        }
+        for (Map.Entry<Integer, Expr> entry : nodeIdToProbeExpr.entrySet()) {
+            Double filterRatio = nodeIdToFilterRatio.get(entry.getKey());
+            sb.append(", probe ").append(entry.getKey()).append(": (").append(entry.getValue().toSql())
+                    .append(") filter_ratio = ");
+            sb.append(filterRatio == null || filterRatio < 0 ? "unknown" : String.format("%.2f", filterRatio));
+        }
+        return sb.toString();
+    }
+
     public TRuntimeFilterDescription toThrift() {
         TRuntimeFilterDescription t = new TRuntimeFilterDescription();
         t.setFilter_id(filterId);
@@ -22,6 +22,7 @@
 package com.starrocks.qe;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.cluster.ClusterNamespace;
@@ -32,6 +33,7 @@ import com.starrocks.mysql.MysqlSerializer;
 import com.starrocks.plugin.AuditEvent.AuditEventBuilder;
 import com.starrocks.sql.optimizer.dump.DumpInfo;
 import com.starrocks.sql.optimizer.dump.QueryDumpInfo;
+import com.starrocks.sql.plan.ConstantBinder;
 import com.starrocks.thrift.TResourceInfo;
 import com.starrocks.thrift.TUniqueId;
 import org.apache.logging.log4j.LogManager;
@@ -39,6 +41,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.nio.channels.SocketChannel;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 // When one client connect in, we create a connect context for it.
@@ -131,6 +134,13 @@ public class ConnectContext {
 
     protected DumpInfo dumpInfo;
 
+    // set when building the fragments of a cacheable plan
+    protected ConstantBinder constantBinder;
+
+    // the statements prepared by COM_STMT_PREPARE, only accessed by the connection thread
+    protected Map<Integer, ServerPreparedStatement> preparedStatements = Maps.newHashMap();
+    protected int nextPreparedStatementId = 1;
+
     public static ConnectContext get() {
         return threadLocalInfo.get();
     }
@@ -426,6 +436,38 @@ public class ConnectContext {
         this.dumpInfo = dumpInfo;
     }
 
+    public ConstantBinder getConstantBinder() {
+        return constantBinder;
+    }
+
+    public void setConstantBinder(ConstantBinder constantBinder) {
+        this.constantBinder = constantBinder;
+    }
+
+    public int nextPreparedStatementId() {
+        return nextPreparedStatementId++;
+    }
+
+    public void addPreparedStatement(ServerPreparedStatement stmt) {
+        preparedStatements.put(stmt.getId(), stmt);
+    }
+
+    public ServerPreparedStatement getPreparedStatement(int id) {
+        return preparedStatements.get(id);
+    }
+
+    public void removePreparedStatement(int id) {
+        preparedStatements.remove(id);
+    }
+
+    public int getPreparedStatementNum() {
+        return preparedStatements.size();
+    }
+
+    public void clearPreparedStatements() {
+        preparedStatements.clear();
+    }
+
     // kill operation with no protect.
     public void kill(boolean killConnection) {
         LOG.warn("kill timeout query, {}, kill connection: {}",
@@ -22,6 +22,7 @@
 package com.starrocks.qe;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.starrocks.analysis.KillStmt;
 import com.starrocks.analysis.SqlParser;
 import com.starrocks.analysis.SqlScanner;
@@ -33,6 +34,7 @@ import com.starrocks.catalog.Database;
 import com.starrocks.catalog.Table;
 import com.starrocks.cluster.ClusterNamespace;
 import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.ErrorCode;
 import com.starrocks.common.ErrorReport;
@@ -41,7 +43,9 @@ import com.starrocks.common.util.DebugUtil;
 import com.starrocks.common.util.SqlParserUtils;
 import com.starrocks.common.util.UUIDUtil;
 import com.starrocks.metric.MetricRepo;
+import com.starrocks.mysql.MysqlBinaryCodec;
 import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlColDef;
 import com.starrocks.mysql.MysqlCommand;
 import com.starrocks.mysql.MysqlPacket;
 import com.starrocks.mysql.MysqlProto;
@@ -61,6 +65,8 @@ import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousCloseException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -128,6 +134,7 @@ public class ConnectProcessor {
         ctx.getSerializer().setCapability(ctx.getCapability());
         // reset session variable
         ctx.resetSessionVariable();
+        ctx.clearPreparedStatements();
     }
 
     private void auditAfterExec(String origStmt, StatementBase parsedStmt, PQueryStatistics statistics) {
@@ -199,7 +206,6 @@ public class ConnectProcessor {
 
     // process COM_QUERY statement,
     private void handleQuery() {
-        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
         // convert statement to Java string
         String originStmt = null;
         try {
@@ -215,6 +221,12 @@ public class ConnectProcessor {
             ctx.getState().setError("Unsupported character set(UTF-8)");
             return;
         }
+        executeQuery(originStmt);
+    }
+
+    // execute the statements in the origin stmt and audit them
+    private void executeQuery(String originStmt) {
+        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
         ctx.getAuditEventBuilder().reset();
         ctx.getAuditEventBuilder()
                 .setTimestamp(System.currentTimeMillis())
@@ -291,6 +303,97 @@ public class ConnectProcessor {
         addFinishedQueryDetail();
     }
 
+    // process COM_STMT_PREPARE, the statement is checked by parsing it with literals in place of the placeholders
+    private void handleStmtPrepare() throws IOException {
+        String sql = new String(MysqlProto.readEofString(packetBuf), StandardCharsets.UTF_8);
+        if (ctx.getPreparedStatementNum() >= Config.max_prepared_statements_per_connection) {
+            ctx.getState().setError("Too many prepared statements, the limit is " +
+                    Config.max_prepared_statements_per_connection);
+            return;
+        }
+        ServerPreparedStatement stmt = ServerPreparedStatement.create(ctx.nextPreparedStatementId(), sql);
+        try {
+            List<StatementBase> stmts = analyze(stmt.bind(Collections.nCopies(stmt.getParamNum(), "0")));
+            if (stmts.size() != 1) {
+                ctx.getState().setError("Can not prepare multiple statements");
+                return;
+            }
+        } catch (AnalysisException e) {
+            ctx.getState().setError(e.getMessage());
+            ctx.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
+            return;
+        }
+        ctx.addPreparedStatement(stmt);
+
+        // The columns of the result are sent by each execution, as the result of the statement
+        // may change between the executions
+        MysqlSerializer serializer = ctx.getSerializer();
+        MysqlChannel channel = ctx.getMysqlChannel();
+        serializer.reset();
+        serializer.writeInt1(0x00);
+        serializer.writeInt4(stmt.getId());
+        // num columns
+        serializer.writeInt2(0);
+        serializer.writeInt2(stmt.getParamNum());
+        // reserved
+        serializer.writeInt1(0);
+        // warning count
+        serializer.writeInt2(0);
+        channel.sendOnePacket(serializer.toByteBuffer());
+        for (int i = 0; i < stmt.getParamNum(); ++i) {
+            serializer.reset();
+            MysqlColDef.fromName("?").writeTo(serializer);
+            channel.sendOnePacket(serializer.toByteBuffer());
+        }
+        if (stmt.getParamNum() > 0) {
+            ctx.getState().setEof();
+        } else {
+            channel.flush();
+            ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+        }
+    }
+
+    // process COM_STMT_EXECUTE, the result rows are sent by the binary protocol
+    private void handleStmtExecute() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        ServerPreparedStatement stmt = ctx.getPreparedStatement(stmtId);
+        if (stmt == null) {
+            ctx.getState().setError("Unknown prepared statement handler (" + stmtId + ") given to execute");
+            return;
+        }
+        // flags, cursors are not supported, the result is always sent to the client directly
+        MysqlProto.readInt1(packetBuf);
+        // iteration count, always 1
+        MysqlProto.readInt4(packetBuf);
+        String originStmt;
+        try {
+            List<String> literals = Lists.newArrayList();
+            MysqlBinaryCodec.readParams(packetBuf, stmt.getParamTypes(), literals);
+            originStmt = stmt.bind(literals);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to read the parameters of prepared statement " + stmtId, e);
+            ctx.getState().setError("Malformed parameters of prepared statement (" + stmtId + ")");
+            return;
+        }
+        executeQuery(originStmt);
+    }
+
+    // process COM_STMT_CLOSE, nothing is sent to the client
+    private void handleStmtClose() {
+        ctx.removePreparedStatement(MysqlProto.readInt4(packetBuf));
+        ctx.getState().setStateType(QueryState.MysqlStateType.NOOP);
+    }
+
+    // process COM_STMT_RESET, there is no long data or cursor to reset
+    private void handleStmtReset() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        if (ctx.getPreparedStatement(stmtId) == null) {
+            ctx.getState().setError("Unknown prepared statement handler (" + stmtId + ") given to reset");
+            return;
+        }
+        ctx.getState().setOk();
+    }
+
     // analyze the origin stmt and return multi-statements
     private List<StatementBase> analyze(String originStmt) throws AnalysisException {
         LOG.debug("the originStmts are: {}", originStmt);
@@ -405,6 +508,19 @@ public class ConnectProcessor {
             case COM_PING:
                 handlePing();
                 break;
+            case COM_STMT_PREPARE:
+                handleStmtPrepare();
+                break;
+            case COM_STMT_EXECUTE:
+                handleStmtExecute();
+                ctx.setStartTime();
+                break;
+            case COM_STMT_CLOSE:
+                handleStmtClose();
+                break;
+            case COM_STMT_RESET:
+                handleStmtReset();
+                break;
             default:
                 ctx.getState().setError("Unsupported command(" + command + ")");
                 LOG.warn("Unsupported command(" + command + ")");
@@ -475,8 +591,8 @@ public class ConnectProcessor {
         MysqlChannel channel = ctx.getMysqlChannel();
         channel.sendAndFlush(packet);
 
-        // only change lastQueryId when current command is COM_QUERY
-        if (ctx.getCommand() == MysqlCommand.COM_QUERY) {
+        // only change lastQueryId when current command is COM_QUERY or COM_STMT_EXECUTE
+        if (ctx.getCommand() == MysqlCommand.COM_QUERY || ctx.getCommand() == MysqlCommand.COM_STMT_EXECUTE) {
             ctx.setLastQueryId(ctx.queryId);
             ctx.setQueryId(null);
         }
@@ -601,6 +717,7 @@ public class ConnectProcessor {
         if (executor != null && executor.getProxyResultSet() != null) {
             result.setResultSet(executor.getProxyResultSet().tothrift());
         }
+        ctx.getMysqlChannel().releaseSendBuffer();
         return result;
     }
 
@@ -625,10 +742,15 @@ public class ConnectProcessor {
             return;
         }
 
-        // dispatch
-        dispatch();
-        // finalize
-        finalizeCommand();
+        try {
+            // dispatch
+            dispatch();
+            // finalize
+            finalizeCommand();
+        } finally {
+            // the connection may be idle for a long time, don't hold the send buffer
+            channel.releaseSendBuffer();
+        }
 
         ctx.setCommand(MysqlCommand.COM_SLEEP);
     }
@@ -52,6 +52,7 @@ import com.starrocks.planner.ExchangeNode;
 import com.starrocks.planner.ExportSink;
 import com.starrocks.planner.HashJoinNode;
 import com.starrocks.planner.HdfsScanNode;
+import com.starrocks.planner.MultiCastDataSink;
 import com.starrocks.planner.OlapScanNode;
 import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.PlanFragmentId;
@@ -61,6 +62,7 @@ import com.starrocks.planner.Planner;
 import com.starrocks.planner.ResultSink;
 import com.starrocks.planner.RuntimeFilterDescription;
 import com.starrocks.planner.ScanNode;
+import com.starrocks.proto.PExecBatchPlanFragmentsResult;
 import com.starrocks.proto.PExecPlanFragmentResult;
 import com.starrocks.proto.PPlanFragmentCancelReason;
 import com.starrocks.proto.PStatus;
@@ -73,6 +75,7 @@ import com.starrocks.task.LoadEtlTask;
 import com.starrocks.thrift.InternalServiceVersion;
 import com.starrocks.thrift.TDescriptorTable;
 import com.starrocks.thrift.TEsScanRange;
+import com.starrocks.thrift.TExecBatchPlanFragmentsParams;
 import com.starrocks.thrift.TExecPlanFragmentParams;
 import com.starrocks.thrift.TInternalScanRange;
 import com.starrocks.thrift.TLoadErrorHubInfo;
@@ -109,12 +112,15 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class Coordinator {
@@ -169,6 +175,8 @@ public class Coordinator {
     private final Set<TUniqueId> instanceIds = Sets.newHashSet();
     // instance id -> dummy value
     private MarkedCountDownLatch<TUniqueId, Long> profileDoneSignal;
+    // called with the query profile once all the instances have reported their final profiles
+    private Consumer<RuntimeProfile> profileDoneListener;
     private final boolean isBlockQuery;
     private int numReceivedRows = 0;
     private List<String> deltaUrls;
@@ -218,7 +226,8 @@ public class Coordinator {
         }
         this.tResourceInfo = new TResourceInfo(context.getQualifiedUser(),
                 context.getSessionVariable().getResourceGroup());
-        this.needReport = context.getSessionVariable().isReportSucc();
+        this.needReport = context.getSessionVariable().isReportSucc() ||
+                context.getSessionVariable().isCollectCardinalityFeedback();
         this.clusterName = context.getClusterName();
         this.nextInstanceId = new TUniqueId();
         nextInstanceId.setHi(queryId.hi);
@@ -248,7 +257,8 @@ public class Coordinator {
         }
         this.tResourceInfo = new TResourceInfo(context.getQualifiedUser(),
                 context.getSessionVariable().getResourceGroup());
-        this.needReport = context.getSessionVariable().isReportSucc();
+        this.needReport = context.getSessionVariable().isReportSucc() ||
+                context.getSessionVariable().isCollectCardinalityFeedback();
         this.clusterName = context.getClusterName();
         this.nextInstanceId = new TUniqueId();
         nextInstanceId.setHi(queryId.hi);
@@ -352,6 +362,13 @@ public class Coordinator {
 
         // set inputFragments
         for (PlanFragment fragment : fragments) {
+            if (fragment.getSink() instanceof MultiCastDataSink) {
+                for (ExchangeNode exchangeNode : ((MultiCastDataSink) fragment.getSink()).getExchangeNodes()) {
+                    FragmentExecParams params = fragmentExecParamsMap.get(exchangeNode.getFragmentId());
+                    params.inputFragments.add(fragment.getFragmentId());
+                }
+                continue;
+            }
             if (!(fragment.getSink() instanceof DataStreamSink)) {
                 continue;
             }
@@ -484,89 +501,245 @@ public class Coordinator {
         }
         lock();
         try {
-            // execute all instances from up to bottom
-            int backendId = 0;
-            int profileFragmentId = 0;
-            for (PlanFragment fragment : fragments) {
-                FragmentExecParams params = fragmentExecParamsMap.get(fragment.getFragmentId());
-
-                // set up exec states
-                int instanceNum = params.instanceExecParams.size();
-                Preconditions.checkState(instanceNum > 0);
-                List<TExecPlanFragmentParams> tParams = params.toThrift(backendId);
-                List<Pair<BackendExecState, Future<PExecPlanFragmentResult>>> futures = Lists.newArrayList();
-
-                boolean needCheckBackendState = false;
-                if (queryOptions.getQuery_type() == TQueryType.LOAD && profileFragmentId == 0) {
-                    // this is a load process, and it is the first fragment.
-                    // we should add all BackendExecState of this fragment to needCheckBackendExecStates,
-                    // so that we can check these backends' state when joining this Coordinator
-                    needCheckBackendState = true;
-                }
+            if (Config.enable_batch_fragment_dispatch) {
+                deliverBatchExecFragments();
+            } else {
+                deliverExecFragments();
+            }
+            attachInstanceProfileToFragmentProfile();
+        } finally {
+            unlock();
+        }
+    }
 
-                int instanceId = 0;
-                for (TExecPlanFragmentParams tParam : tParams) {
-                    // TODO: pool of pre-formatted BackendExecStates?
-                    BackendExecState execState = new BackendExecState(fragment.getFragmentId(), instanceId++,
-                            profileFragmentId, tParam, this.addressToBackendID);
-                    backendExecStates.add(execState);
-                    if (needCheckBackendState) {
-                        needCheckBackendExecStates.add(execState);
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug("add need check backend {} for fragment, {} job: {}", execState.backend.getId(),
-                                    fragment.getFragmentId().asInt(), jobId);
-                        }
-                    }
-                    futures.add(Pair.create(execState, execState.execRemoteFragmentAsync()));
+    // Send the instances fragment by fragment from up to bottom, wait for the instances of a fragment
+    // before sending the next fragment
+    private void deliverExecFragments() throws Exception {
+        // execute all instances from up to bottom
+        int backendId = 0;
+        int profileFragmentId = 0;
+        for (PlanFragment fragment : fragments) {
+            FragmentExecParams params = fragmentExecParamsMap.get(fragment.getFragmentId());
 
-                    backendId++;
-                }
-                for (Pair<BackendExecState, Future<PExecPlanFragmentResult>> pair : futures) {
-                    TStatusCode code;
-                    String errMsg = null;
-                    try {
-                        PExecPlanFragmentResult result = pair.second.get(queryOptions.query_timeout * 1000L,
-                                TimeUnit.MILLISECONDS);
-                        code = TStatusCode.findByValue(result.status.status_code);
-                        if (result.status.error_msgs != null && !result.status.error_msgs.isEmpty()) {
-                            errMsg = result.status.error_msgs.get(0);
-                        }
-                    } catch (ExecutionException e) {
-                        LOG.warn("catch a execute exception", e);
-                        code = TStatusCode.THRIFT_RPC_ERROR;
-                    } catch (InterruptedException e) {
-                        LOG.warn("catch a interrupt exception", e);
-                        code = TStatusCode.INTERNAL_ERROR;
-                    } catch (TimeoutException e) {
-                        LOG.warn("catch a timeout exception", e);
-                        code = TStatusCode.TIMEOUT;
-                    }
+            // set up exec states
+            int instanceNum = params.instanceExecParams.size();
+            Preconditions.checkState(instanceNum > 0);
+            List<TExecPlanFragmentParams> tParams = params.toThrift(backendId);
+            List<Pair<BackendExecState, Future<PExecPlanFragmentResult>>> futures = Lists.newArrayList();
 
-                    if (code != TStatusCode.OK) {
-                        if (errMsg == null) {
-                            errMsg = "exec rpc error. backend id: " + pair.first.backend.getId();
-                        }
-                        queryStatus.setStatus(errMsg);
-                        LOG.warn("exec plan fragment failed, errmsg={}, code: {}, fragmentId={}, backend={}:{}",
-                                errMsg, code, fragment.getFragmentId(),
-                                pair.first.address.hostname, pair.first.address.port);
-                        cancelInternal(PPlanFragmentCancelReason.INTERNAL_ERROR);
-                        switch (Objects.requireNonNull(code)) {
-                            case TIMEOUT:
-                                throw new UserException("query timeout. backend id: " + pair.first.backend.getId());
-                            case THRIFT_RPC_ERROR:
-                                SimpleScheduler.addToBlacklist(pair.first.backend.getId());
-                                throw new RpcException(pair.first.backend.getHost(), "rpc failed");
-                            default:
-                                throw new UserException(errMsg);
-                        }
+            int instanceId = 0;
+            for (TExecPlanFragmentParams tParam : tParams) {
+                // TODO: pool of pre-formatted BackendExecStates?
+                BackendExecState execState = createBackendExecState(fragment, instanceId++, profileFragmentId, tParam);
+                futures.add(Pair.create(execState, execState.execRemoteFragmentAsync()));
+
+                backendId++;
+            }
+            long deadline = System.currentTimeMillis() + queryOptions.query_timeout * 1000L;
+            for (Pair<BackendExecState, Future<PExecPlanFragmentResult>> pair : futures) {
+                waitExecResult(pair.second, result -> result.status, pair.first, deadline);
+            }
+            profileFragmentId += 1;
+        }
+    }
+
+    /*
+     * Send all the instances of the fragments at the same level to each backend in one rpc, send to the
+     * backends in parallel and wait for them together. The levels are still sent from up to bottom, because
+     * the data sent to a receiver which isn't prepared yet is dropped by the backend.
+     */
+    private void deliverBatchExecFragments() throws Exception {
+        List<List<BackendExecState>> levels = Lists.newArrayList();
+        Map<PlanFragmentId, Integer> fragmentLevels = computeFragmentLevels();
+        // the params of the instances are created in the order of the fragments as the serial delivery,
+        // so that the backend numbers are the same
+        int backendId = 0;
+        int profileFragmentId = 0;
+        for (PlanFragment fragment : fragments) {
+            FragmentExecParams params = fragmentExecParamsMap.get(fragment.getFragmentId());
+            Preconditions.checkState(params.instanceExecParams.size() > 0);
+            List<TExecPlanFragmentParams> tParams = params.toThrift(backendId);
+            backendId += tParams.size();
+
+            int level = fragmentLevels.get(fragment.getFragmentId());
+            while (levels.size() <= level) {
+                levels.add(Lists.newArrayList());
+            }
+            int instanceId = 0;
+            for (TExecPlanFragmentParams tParam : tParams) {
+                levels.get(level).add(createBackendExecState(fragment, instanceId++, profileFragmentId, tParam));
+            }
+            profileFragmentId += 1;
+        }
+
+        for (List<BackendExecState> levelExecStates : levels) {
+            Map<TNetworkAddress, List<BackendExecState>> hostToExecStates = Maps.newLinkedHashMap();
+            for (BackendExecState execState : levelExecStates) {
+                hostToExecStates.computeIfAbsent(execState.address, k -> Lists.newArrayList()).add(execState);
+            }
+
+            List<Pair<List<BackendExecState>, Future<PExecBatchPlanFragmentsResult>>> futures =
+                    Lists.newArrayList();
+            for (List<BackendExecState> execStates : hostToExecStates.values()) {
+                futures.add(Pair.create(execStates, execBatchRemoteFragmentsAsync(execStates)));
+            }
+            long deadline = System.currentTimeMillis() + queryOptions.query_timeout * 1000L;
+            for (Pair<List<BackendExecState>, Future<PExecBatchPlanFragmentsResult>> pair : futures) {
+                waitExecResult(pair.second, result -> result.status, pair.first.get(0), deadline);
+            }
+        }
+    }
+
+    // The level of a fragment is the max distance to the root fragment
+    private Map<PlanFragmentId, Integer> computeFragmentLevels() {
+        Map<PlanFragmentId, Integer> fragmentLevels = Maps.newHashMap();
+        for (PlanFragment fragment : fragments) {
+            fragmentLevels.put(fragment.getFragmentId(), 0);
+        }
+        // a fragment may be the input of multiple fragments at different levels, e.g. the reused CTE
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (PlanFragment fragment : fragments) {
+                int level = fragmentLevels.get(fragment.getFragmentId());
+                for (PlanFragmentId inputId : fragmentExecParamsMap.get(fragment.getFragmentId()).inputFragments) {
+                    if (fragmentLevels.get(inputId) <= level) {
+                        fragmentLevels.put(inputId, level + 1);
+                        changed = true;
                     }
                 }
-                profileFragmentId += 1;
             }
-            attachInstanceProfileToFragmentProfile();
-        } finally {
-            unlock();
+        }
+        return fragmentLevels;
+    }
+
+    private BackendExecState createBackendExecState(PlanFragment fragment, int instanceId, int profileFragmentId,
+                                                    TExecPlanFragmentParams tParam) {
+        BackendExecState execState = new BackendExecState(fragment.getFragmentId(), instanceId,
+                profileFragmentId, tParam, this.addressToBackendID);
+        backendExecStates.add(execState);
+        if (queryOptions.getQuery_type() == TQueryType.LOAD && profileFragmentId == 0) {
+            // this is a load process, and it is the first fragment.
+            // we should add all BackendExecState of this fragment to needCheckBackendExecStates,
+            // so that we can check these backends' state when joining this Coordinator
+            needCheckBackendExecStates.add(execState);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("add need check backend {} for fragment, {} job: {}", execState.backend.getId(),
+                        fragment.getFragmentId().asInt(), jobId);
+            }
+        }
+        return execState;
+    }
+
+    // The params shared by the instances are only set once, and so is the fragment shared by the instances
+    private TExecBatchPlanFragmentsParams createBatchParams(List<BackendExecState> execStates) {
+        TExecPlanFragmentParams firstParams = execStates.get(0).rpcParams;
+        TExecPlanFragmentParams commonParams = new TExecPlanFragmentParams();
+        commonParams.setProtocol_version(firstParams.getProtocol_version());
+        commonParams.setDesc_tbl(firstParams.getDesc_tbl());
+        commonParams.setCoord(firstParams.getCoord());
+        commonParams.setQuery_globals(firstParams.getQuery_globals());
+        commonParams.setQuery_options(firstParams.getQuery_options());
+        commonParams.setResource_info(firstParams.getResource_info());
+        commonParams.setLoad_error_hub_info(firstParams.getLoad_error_hub_info());
+
+        TExecBatchPlanFragmentsParams batchParams = new TExecBatchPlanFragmentsParams();
+        batchParams.setCommon_param(commonParams);
+        batchParams.setFragments(Lists.newArrayList());
+        batchParams.setUnique_params(Lists.newArrayList());
+        batchParams.setFragment_indexes(Lists.newArrayList());
+        Map<PlanFragmentId, Integer> fragmentIndexes = Maps.newHashMap();
+        for (BackendExecState execState : execStates) {
+            Integer fragmentIndex = fragmentIndexes.get(execState.fragmentId);
+            // the fragment of each instance of an export sink has a different file name prefix
+            if (fragmentIndex == null ||
+                    fragmentExecParamsMap.get(execState.fragmentId).fragment.getSink() instanceof ExportSink) {
+                fragmentIndex = batchParams.getFragmentsSize();
+                batchParams.addToFragments(execState.rpcParams.getFragment());
+                fragmentIndexes.put(execState.fragmentId, fragmentIndex);
+            }
+            TExecPlanFragmentParams uniqueParams = new TExecPlanFragmentParams();
+            uniqueParams.setProtocol_version(execState.rpcParams.getProtocol_version());
+            uniqueParams.setParams(execState.rpcParams.getParams());
+            uniqueParams.setBackend_num(execState.rpcParams.getBackend_num());
+            if (execState.rpcParams.isSetIs_pipeline()) {
+                uniqueParams.setIs_pipeline(execState.rpcParams.isIs_pipeline());
+            }
+            batchParams.addToUnique_params(uniqueParams);
+            batchParams.addToFragment_indexes(fragmentIndex);
+        }
+        return batchParams;
+    }
+
+    // Send the instances to their backend in one rpc
+    private Future<PExecBatchPlanFragmentsResult> execBatchRemoteFragmentsAsync(List<BackendExecState> execStates)
+            throws TException {
+        TExecBatchPlanFragmentsParams batchParams = createBatchParams(execStates);
+        for (BackendExecState execState : execStates) {
+            execState.initiated = true;
+        }
+
+        Backend backend = execStates.get(0).backend;
+        TNetworkAddress brpcAddress;
+        try {
+            brpcAddress = new TNetworkAddress(backend.getHost(), backend.getBrpcPort());
+        } catch (Exception e) {
+            throw new TException(e.getMessage());
+        }
+        try {
+            return BackendServiceProxy.getInstance().execBatchPlanFragmentsAsync(brpcAddress, batchParams);
+        } catch (RpcException e) {
+            // DO NOT throw exception here, return a complete future with error code,
+            // so that the following logic will cancel the fragments.
+            PExecBatchPlanFragmentsResult result = new PExecBatchPlanFragmentsResult();
+            result.status = new PStatus();
+            result.status.error_msgs = Lists.newArrayList(e.getMessage());
+            // use THRIFT_RPC_ERROR so that this BE will be added to the blacklist later.
+            result.status.status_code = TStatusCode.THRIFT_RPC_ERROR.getValue();
+            return CompletableFuture.completedFuture(result);
+        }
+    }
+
+    // Wait for the result of the exec rpc until the deadline, cancel the query if it fails
+    private <T> void waitExecResult(Future<T> future, Function<T, PStatus> statusGetter, BackendExecState execState,
+                                    long deadline) throws Exception {
+        TStatusCode code;
+        String errMsg = null;
+        try {
+            long timeoutMs = Math.max(deadline - System.currentTimeMillis(), 0);
+            PStatus status = statusGetter.apply(future.get(timeoutMs, TimeUnit.MILLISECONDS));
+            code = TStatusCode.findByValue(status.status_code);
+            if (status.error_msgs != null && !status.error_msgs.isEmpty()) {
+                errMsg = status.error_msgs.get(0);
+            }
+        } catch (ExecutionException e) {
+            LOG.warn("catch a execute exception", e);
+            code = TStatusCode.THRIFT_RPC_ERROR;
+        } catch (InterruptedException e) {
+            LOG.warn("catch a interrupt exception", e);
+            code = TStatusCode.INTERNAL_ERROR;
+        } catch (TimeoutException e) {
+            LOG.warn("catch a timeout exception", e);
+            code = TStatusCode.TIMEOUT;
+        }
+
+        if (code != TStatusCode.OK) {
+            if (errMsg == null) {
+                errMsg = "exec rpc error. backend id: " + execState.backend.getId();
+            }
+            queryStatus.setStatus(errMsg);
+            LOG.warn("exec plan fragment failed, errmsg={}, code: {}, fragmentId={}, backend={}:{}",
+                    errMsg, code, execState.fragmentId, execState.address.hostname, execState.address.port);
+            cancelInternal(PPlanFragmentCancelReason.INTERNAL_ERROR);
+            switch (Objects.requireNonNull(code)) {
+                case TIMEOUT:
+                    throw new UserException("query timeout. backend id: " + execState.backend.getId());
+                case THRIFT_RPC_ERROR:
+                    SimpleScheduler.addToBlacklist(execState.backend.getId());
+                    throw new RpcException(execState.backend.getHost(), "rpc failed");
+                default:
+                    throw new UserException(errMsg);
+            }
         }
     }
 
@@ -857,6 +1030,11 @@ public class Coordinator {
         // compute destinations and # senders per exchange node
         // (the root fragment doesn't have a destination)
         for (FragmentExecParams params : fragmentExecParamsMap.values()) {
+            if (params.fragment.getSink() instanceof MultiCastDataSink) {
+                computeMultiCastDestinations(params);
+                continue;
+            }
+
             PlanFragment destFragment = params.fragment.getDestFragment();
             if (destFragment == null) {
                 // root plan fragment
@@ -918,6 +1096,26 @@ public class Coordinator {
         }
     }
 
+    // The fragment sends the same data to multiple exchange nodes, each sink has its own destinations
+    private void computeMultiCastDestinations(FragmentExecParams params) throws Exception {
+        MultiCastDataSink multiCastSink = (MultiCastDataSink) params.fragment.getSink();
+        for (int i = 0; i < multiCastSink.getExchangeNodes().size(); ++i) {
+            ExchangeNode exchangeNode = multiCastSink.getExchangeNodes().get(i);
+            FragmentExecParams destParams = fragmentExecParamsMap.get(exchangeNode.getFragmentId());
+            destParams.perExchNumSenders.put(exchangeNode.getId().asInt(), params.instanceExecParams.size());
+
+            List<TPlanFragmentDestination> destinations = multiCastSink.getDestinations().get(i);
+            destinations.clear();
+            for (FInstanceExecParam instanceExecParam : destParams.instanceExecParams) {
+                TPlanFragmentDestination dest = new TPlanFragmentDestination();
+                dest.fragment_instance_id = instanceExecParam.instanceId;
+                dest.server = toRpcHost(instanceExecParam.host);
+                dest.setBrpc_server(toBrpcHost(instanceExecParam.host));
+                destinations.add(dest);
+            }
+        }
+    }
+
     private boolean needScheduleByShuffleJoin(int fragmentId, DataSink sink) {
         if (isBucketShuffleJoin(fragmentId)) {
             if (sink instanceof DataStreamSink) {
@@ -1355,6 +1553,9 @@ public class Coordinator {
                 updateCommitInfos(params.getCommitInfos());
             }
             profileDoneSignal.markedCountDown(params.getFragment_instance_id(), -1L);
+            if (profileDoneSignal.getCount() == 0) {
+                notifyProfileDone();
+            }
         }
 
         if (params.isSetLoaded_rows()) {
@@ -1364,6 +1565,36 @@ public class Coordinator {
         }
     }
 
+    public void setProfileDoneListener(Consumer<RuntimeProfile> listener) {
+        this.profileDoneListener = listener;
+    }
+
+    // Whether the listener is still waiting for the final reports of the started instances
+    public boolean isProfileDoneListenerPending() {
+        lock();
+        try {
+            return profileDoneListener != null && profileDoneSignal != null;
+        } finally {
+            unlock();
+        }
+    }
+
+    // Runs on the report thread, not to keep the client waiting for the profiles of all the instances
+    private void notifyProfileDone() {
+        lock();
+        try {
+            Consumer<RuntimeProfile> listener = profileDoneListener;
+            profileDoneListener = null;
+            if (listener != null) {
+                listener.accept(queryProfile);
+            }
+        } catch (Exception e) {
+            LOG.warn("profile done listener failed, query_id={}", DebugUtil.printId(queryId), e);
+        } finally {
+            unlock();
+        }
+    }
+
     public void endProfile() {
         if (backendExecStates.isEmpty()) {
             return;
@@ -39,6 +39,8 @@ public interface QeProcessor {
 
     void unregisterQuery(TUniqueId queryId);
 
+    void unregisterQueryAfterProfileDone(TUniqueId queryId, long timeoutMs);
+
     Map<String, QueryStatisticsItem> getQueryStatistics();
 
     Coordinator getCoordinator(TUniqueId queryId);
@@ -22,6 +22,7 @@
 package com.starrocks.qe;
 
 import com.google.common.collect.Maps;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.DebugUtil;
 import com.starrocks.thrift.TNetworkAddress;
@@ -34,6 +35,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public final class QeProcessorImpl implements QeProcessor {
 
@@ -46,8 +49,13 @@ public final class QeProcessorImpl implements QeProcessor {
         INSTANCE = new QeProcessorImpl();
     }
 
+    // unregisters the finished queries whose final reports don't arrive in time
+    private final ScheduledExecutorService expireTimer;
+
     private QeProcessorImpl() {
         coordinatorMap = Maps.newConcurrentMap();
+        expireTimer = ThreadPoolManager.newDaemonScheduledThreadPool(1, "Query-Report-Expire-Timer", true);
+        expireTimer.scheduleAtFixedRate(this::unregisterExpiredQueries, 1, 1, TimeUnit.SECONDS);
     }
 
     @Override
@@ -80,13 +88,48 @@ public final class QeProcessorImpl implements QeProcessor {
         }
     }
 
+    /**
+     * Keeps the finished query registered until the coordinator receives the final reports of all the instances,
+     * which may arrive after the results are sent, e.g. to collect the cardinality feedback from the profile.
+     * The query is unregistered after the timeout if some reports never arrive.
+     */
+    @Override
+    public void unregisterQueryAfterProfileDone(TUniqueId queryId, long timeoutMs) {
+        QueryInfo info = coordinatorMap.get(queryId);
+        if (info == null) {
+            return;
+        }
+        info.finish(System.currentTimeMillis() + timeoutMs);
+        if (info.getCoord().isDone()) {
+            unregisterQuery(queryId, info);
+        }
+    }
+
+    private void unregisterQuery(TUniqueId queryId, QueryInfo info) {
+        // the query may be registered again by a retry with the same id
+        if (coordinatorMap.remove(queryId, info)) {
+            LOG.info("deregister query id {}", DebugUtil.printId(queryId));
+        }
+    }
+
+    private void unregisterExpiredQueries() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<TUniqueId, QueryInfo> entry : coordinatorMap.entrySet()) {
+            QueryInfo info = entry.getValue();
+            if (info.isFinished() && info.getFinishDeadline() < now) {
+                LOG.info("the final reports of query {} don't arrive in time", DebugUtil.printId(entry.getKey()));
+                unregisterQuery(entry.getKey(), info);
+            }
+        }
+    }
+
     @Override
     public Map<String, QueryStatisticsItem> getQueryStatistics() {
         final Map<String, QueryStatisticsItem> querySet = Maps.newHashMap();
         for (Map.Entry<TUniqueId, QueryInfo> entry : coordinatorMap.entrySet()) {
             final QueryInfo info = entry.getValue();
             final ConnectContext context = info.getConnectContext();
-            if (info.sql == null || context == null) {
+            if (info.sql == null || context == null || info.isFinished()) {
                 continue;
             }
             final String queryIdStr = DebugUtil.printId(info.getConnectContext().getExecutionId());
@@ -125,6 +168,9 @@ public final class QeProcessorImpl implements QeProcessor {
             LOG.warn(e.getMessage());
             return result;
         }
+        if (info.isFinished() && info.getCoord().isDone()) {
+            unregisterQuery(params.query_id, info);
+        }
         result.setStatus(new TStatus(TStatusCode.OK));
         return result;
     }
@@ -134,6 +180,8 @@ public final class QeProcessorImpl implements QeProcessor {
         private final Coordinator coord;
         private final String sql;
         private final long startExecTime;
+        // the time to unregister the finished query at the latest, -1 if the query is not finished
+        private volatile long finishDeadline = -1;
 
         // from Export, Pull load, Insert 
         public QueryInfo(Coordinator coord) {
@@ -163,5 +211,17 @@ public final class QeProcessorImpl implements QeProcessor {
         public long getStartExecTime() {
             return startExecTime;
         }
+
+        public boolean isFinished() {
+            return finishDeadline >= 0;
+        }
+
+        public long getFinishDeadline() {
+            return finishDeadline;
+        }
+
+        private void finish(long deadline) {
+            finishDeadline = deadline;
+        }
     }
 }
@@ -0,0 +1,359 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
+import com.starrocks.common.UserException;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.mysql.privilege.UserResource;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control of the queries executed by this FE.
+ * <p>
+ * Each resource group (low, normal and high) has its own slots: at most query_queue_concurrency_limit
+ * queries run at the same time, and the sum of the exec_mem_limit of the running queries is at most
+ * query_queue_mem_limit_bytes. The limits of a group may be set by query_queue_concurrency_limit_by_group
+ * and query_queue_mem_limit_bytes_by_group instead. If enable_query_queue is true, the queries which can't get the slots wait
+ * in the queue of their group, ordered by the session variable query_queue_priority and then by the arrival
+ * order, until the slots are released by the running queries, the query is cancelled, or the pending
+ * timeout is reached.
+ * <p>
+ * The running queries are registered even if the queue is disabled, to be shown by SHOW RUNNING QUERIES.
+ */
+public class QueryQueueManager {
+    private static final Logger LOG = LogManager.getLogger(QueryQueueManager.class);
+
+    private static final QueryQueueManager INSTANCE = new QueryQueueManager();
+
+    // The limits may be raised by ADMIN SET FRONTEND CONFIG, which doesn't signal the waiting queries,
+    // so they check the slots again after waiting for this long
+    private static final long MAX_WAIT_MS = 1000;
+
+    private static final Comparator<QueryEntry> QUEUE_ORDER = Comparator
+            .comparingInt((QueryEntry entry) -> -entry.priority)
+            .thenComparingLong(entry -> entry.sequence);
+
+    private final Lock lock = new ReentrantLock();
+    // Signaled when the slots are released, a query is removed from a queue, or a waiting query is cancelled
+    private final Condition changed = lock.newCondition();
+    private final Map<String, GroupQueue> groups = Maps.newLinkedHashMap();
+    private final AtomicLong nextSequence = new AtomicLong(0);
+
+    public QueryQueueManager() {
+        groups.put(UserResource.LOW, new GroupQueue(UserResource.LOW));
+        groups.put(UserResource.NORMAL, new GroupQueue(UserResource.NORMAL));
+        groups.put(UserResource.HIGH, new GroupQueue(UserResource.HIGH));
+    }
+
+    public static QueryQueueManager getInstance() {
+        return INSTANCE;
+    }
+
+    public static List<String> getGroupNames() {
+        return Lists.newArrayList(UserResource.LOW, UserResource.NORMAL, UserResource.HIGH);
+    }
+
+    // The queries of an unknown resource group are put into the normal group
+    public static String normalizeGroup(String group) {
+        if (group == null || !UserResource.isValidGroup(group)) {
+            return UserResource.NORMAL;
+        }
+        return group.toLowerCase();
+    }
+
+    public QueryEntry createEntry(String queryId, long connectionId, String user, String group, int priority,
+                                  long memLimitBytes, String sql) {
+        return new QueryEntry(queryId, connectionId, user, normalizeGroup(group), priority, memLimitBytes, sql,
+                nextSequence.getAndIncrement());
+    }
+
+    /**
+     * Wait until the query gets the slots of its resource group.
+     *
+     * @throws UserException if the queue is full, the query waits longer than query_queue_pending_timeout_second,
+     *                       or the query is cancelled while waiting.
+     */
+    public void acquire(QueryEntry entry) throws UserException {
+        lock.lock();
+        try {
+            GroupQueue group = groups.get(entry.group);
+            if (!Config.enable_query_queue || (group.pending.isEmpty() && group.canAdmit(entry))) {
+                group.admit(entry);
+                return;
+            }
+            if (group.pending.size() >= Config.query_queue_max_queued_queries) {
+                if (MetricRepo.isInit) {
+                    MetricRepo.COUNTER_QUERY_QUEUE_REJECTED.increase(1L);
+                }
+                throw new UserException("Too many queries are waiting in the queue of resource group " +
+                        entry.group + ", max queued queries: " + Config.query_queue_max_queued_queries);
+            }
+
+            group.pending.add(entry);
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_QUERY_QUEUE_PENDING.increase(1L);
+            }
+            LOG.debug("query {} is waiting in the queue of resource group {}", entry.queryId, entry.group);
+            long deadline = entry.createTime + Config.query_queue_pending_timeout_second * 1000L;
+            boolean admitted = false;
+            try {
+                while (true) {
+                    if (entry.cancelled) {
+                        throw new UserException("Query is cancelled while waiting in the queue");
+                    }
+                    if (!Config.enable_query_queue || (group.pending.peek() == entry && group.canAdmit(entry))) {
+                        group.pending.remove(entry);
+                        group.admit(entry);
+                        admitted = true;
+                        return;
+                    }
+                    long waitMs = deadline - System.currentTimeMillis();
+                    if (waitMs <= 0) {
+                        if (MetricRepo.isInit) {
+                            MetricRepo.COUNTER_QUERY_QUEUE_TIMEOUT.increase(1L);
+                        }
+                        throw new UserException("Query waits in the queue of resource group " + entry.group +
+                                " for more than " + Config.query_queue_pending_timeout_second + " seconds");
+                    }
+                    try {
+                        changed.await(Math.min(waitMs, MAX_WAIT_MS), TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new UserException("Query is interrupted while waiting in the queue");
+                    }
+                }
+            } finally {
+                if (!admitted) {
+                    group.pending.remove(entry);
+                }
+                // The next query in the queue may be admitted now
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(QueryEntry entry) {
+        lock.lock();
+        try {
+            if (groups.get(entry.group).release(entry)) {
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called by other threads, e.g. KILL QUERY, to wake up the query waiting in the queue
+    public void cancel(QueryEntry entry) {
+        lock.lock();
+        try {
+            entry.cancelled = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<QueryEntry> getRunningQueries() {
+        lock.lock();
+        try {
+            List<QueryEntry> entries = Lists.newArrayList();
+            for (GroupQueue group : groups.values()) {
+                entries.addAll(group.running);
+            }
+            entries.sort(Comparator.comparingLong(entry -> entry.sequence));
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Return the queued queries in the order to be admitted in each group
+    public List<QueryEntry> getQueuedQueries() {
+        lock.lock();
+        try {
+            List<QueryEntry> entries = Lists.newArrayList();
+            for (GroupQueue group : groups.values()) {
+                List<QueryEntry> pending = Lists.newArrayList(group.pending);
+                pending.sort(QUEUE_ORDER);
+                entries.addAll(pending);
+            }
+            return entries;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunningNum(String group) {
+        lock.lock();
+        try {
+            return groups.get(normalizeGroup(group)).running.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueuedNum(String group) {
+        lock.lock();
+        try {
+            return groups.get(normalizeGroup(group)).pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The limit of the group in the limits of the format "group:limit,...", or the default limit if the group
+    // isn't in it
+    static long getGroupLimit(String groupLimits, String group, long defaultLimit) {
+        if (Strings.isNullOrEmpty(groupLimits)) {
+            return defaultLimit;
+        }
+        for (String item : Splitter.on(',').trimResults().omitEmptyStrings().split(groupLimits)) {
+            List<String> parts = Splitter.on(':').trimResults().splitToList(item);
+            if (parts.size() == 2 && parts.get(0).equalsIgnoreCase(group)) {
+                try {
+                    return Long.parseLong(parts.get(1));
+                } catch (NumberFormatException e) {
+                    LOG.warn("invalid limit of resource group {}: {}", group, item);
+                    return defaultLimit;
+                }
+            }
+        }
+        return defaultLimit;
+    }
+
+    // Guarded by the lock of the manager
+    private static class GroupQueue {
+        private final String name;
+        private final PriorityQueue<QueryEntry> pending = new PriorityQueue<>(QUEUE_ORDER);
+        private final List<QueryEntry> running = Lists.newArrayList();
+        private long runningMemBytes = 0;
+
+        private GroupQueue(String name) {
+            this.name = name;
+        }
+
+        private boolean canAdmit(QueryEntry entry) {
+            long concurrencyLimit = getGroupLimit(Config.query_queue_concurrency_limit_by_group, name,
+                    Config.query_queue_concurrency_limit);
+            if (concurrencyLimit > 0 && running.size() >= concurrencyLimit) {
+                return false;
+            }
+            long memLimitBytes = getGroupLimit(Config.query_queue_mem_limit_bytes_by_group, name,
+                    Config.query_queue_mem_limit_bytes);
+            // A query larger than the memory limit is still admitted when no other query is running
+            return memLimitBytes <= 0 || running.isEmpty() || runningMemBytes + entry.memLimitBytes <= memLimitBytes;
+        }
+
+        private void admit(QueryEntry entry) {
+            entry.admitTime = System.currentTimeMillis();
+            running.add(entry);
+            runningMemBytes += entry.memLimitBytes;
+        }
+
+        private boolean release(QueryEntry entry) {
+            if (!running.remove(entry)) {
+                return false;
+            }
+            runningMemBytes -= entry.memLimitBytes;
+            return true;
+        }
+    }
+
+    public static class QueryEntry {
+        private final String queryId;
+        private final long connectionId;
+        private final String user;
+        private final String group;
+        private final int priority;
+        private final long memLimitBytes;
+        private final String sql;
+        private final long sequence;
+        private final long createTime;
+        // 0 if the query is waiting in the queue
+        private volatile long admitTime = 0;
+        // Guarded by the lock of the manager
+        private boolean cancelled = false;
+
+        private QueryEntry(String queryId, long connectionId, String user, String group, int priority,
+                           long memLimitBytes, String sql, long sequence) {
+            this.queryId = queryId;
+            this.connectionId = connectionId;
+            this.user = user;
+            this.group = group;
+            this.priority = priority;
+            this.memLimitBytes = memLimitBytes;
+            this.sql = sql;
+            this.sequence = sequence;
+            this.createTime = System.currentTimeMillis();
+        }
+
+        public String getQueryId() {
+            return queryId;
+        }
+
+        public long getConnectionId() {
+            return connectionId;
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public long getMemLimitBytes() {
+            return memLimitBytes;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getPendingTimeMs(long nowMs) {
+            return (admitTime > 0 ? admitTime : nowMs) - createTime;
+        }
+
+        public long getRunningTimeMs(long nowMs) {
+            return admitTime > 0 ? nowMs - admitTime : 0;
+        }
+
+        public List<String> toRow(long nowMs) {
+            List<String> row = Lists.newArrayList();
+            row.add(queryId);
+            row.add(String.valueOf(connectionId));
+            row.add(user);
+            row.add(group);
+            row.add(String.valueOf(priority));
+            row.add(String.valueOf(memLimitBytes));
+            row.add(String.valueOf(getPendingTimeMs(nowMs)));
+            row.add(String.valueOf(getRunningTimeMs(nowMs)));
+            row.add(sql);
+            return row;
+        }
+    }
+}
@@ -0,0 +1,522 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.qe;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.PartitionValue;
+import com.starrocks.analysis.QueryStmt;
+import com.starrocks.analysis.SlotDescriptor;
+import com.starrocks.analysis.SlotRef;
+import com.starrocks.analysis.TupleDescriptor;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PartitionType;
+import com.starrocks.catalog.RangePartitionInfo;
+import com.starrocks.catalog.TabletMeta;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.planner.AggregationNode;
+import com.starrocks.planner.ExchangeNode;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.planner.ProjectNode;
+import com.starrocks.planner.ScanNode;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.NormalizedSql;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.thrift.TInternalScanRange;
+import com.starrocks.thrift.TScanRangeLocations;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Cache of the results of the queries planned by the new planner, so the same query doesn't scan the
+ * partitions which have not changed.
+ * <p>
+ * The key of a result is the plan (without the statistics and the selected tablets) and the session
+ * variables. A cached result is used only if the visible versions of the scanned partitions are the same
+ * as the versions when it was cached, so the results are invalidated by the loads.
+ * <p>
+ * If the query scans a single range partitioned table and groups by the partition column, like the time
+ * series queries grouping by the date, the results are cached by partition. The unchanged partitions are
+ * served from the cache and only the others (usually the latest partition) are scanned.
+ */
+public class ResultCache {
+    private static final Logger LOG = LogManager.getLogger(ResultCache.class);
+
+    // The lines of the olap scan nodes which depend on the selected partitions or the statistics
+    private static final ImmutableList<String> SCAN_EXPLAIN_PREFIXES = ImmutableList.of(
+            "partitions=", "tabletRatio=", "tabletList=", "cardinality=", "avgRowSize=", "numNodes=");
+
+    private static final ResultCache INSTANCE = new ResultCache();
+
+    // key -> entry, in the order of access
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes = 0;
+
+    public static ResultCache getInstance() {
+        return INSTANCE;
+    }
+
+    public static boolean isEnabled(ConnectContext session) {
+        return session.getSessionVariable().isEnableResultCache() && Config.result_cache_max_size_mb > 0;
+    }
+
+    private static class Entry {
+        private final List<Object> versions;
+        private final List<ByteBuffer> rows;
+        private final long bytes;
+
+        private Entry(List<Object> versions, List<ByteBuffer> rows, long bytes) {
+            this.versions = versions;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * @return the cached rows, or null if there is no result of the versions
+     */
+    synchronized List<ByteBuffer> get(String key, List<Object> versions) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.versions.equals(versions)) {
+            // the partitions have been changed
+            removeEntry(key);
+            return null;
+        }
+        return entry.rows;
+    }
+
+    synchronized void put(String key, List<Object> versions, List<ByteBuffer> rows, long bytes) {
+        removeEntry(key);
+        entries.put(key, new Entry(versions, Collections.unmodifiableList(rows), bytes));
+        usedBytes += bytes;
+
+        long maxBytes = Config.result_cache_max_size_mb * 1024 * 1024;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().getValue().bytes;
+            iterator.remove();
+        }
+    }
+
+    private void removeEntry(String key) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            usedBytes -= old.bytes;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * Look up the cached result of the query. If the results of some partitions are cached, the olap scan
+     * node of the plan is changed to skip them.
+     *
+     * @return null if the result of the query can't be cached
+     */
+    public Lookup lookup(ExecPlan plan, QueryStmt stmt, ConnectContext session) {
+        if (stmt.isExplain() || stmt.hasOutFileClause()
+                || !NormalizedSql.of(stmt.getOrigStmt().originStmt).isCacheable()) {
+            return null;
+        }
+        if (plan.getScanNodes().isEmpty()) {
+            return null;
+        }
+
+        StringBuilder keyBuilder = new StringBuilder();
+        try {
+            keyBuilder.append(session.getSessionVariable().getJsonString()).append("\n");
+        } catch (Exception e) {
+            return null;
+        }
+        keyBuilder.append(getPlanText(plan));
+
+        // The versions of the scanned partitions, read from the scan ranges so they are the versions
+        // the query reads
+        List<Object> versions = Lists.newArrayList();
+        List<Map<Long, List<Object>>> scanVersions = Lists.newArrayList();
+        List<Map<Long, Set<Long>>> scanTablets = Lists.newArrayList();
+        for (ScanNode scanNode : plan.getScanNodes()) {
+            if (!(scanNode instanceof OlapScanNode)) {
+                return null;
+            }
+            OlapScanNode olapScanNode = (OlapScanNode) scanNode;
+            // partition id -> [index id, visible version]
+            Map<Long, List<Object>> partitionVersions = new TreeMap<>();
+            Map<Long, Set<Long>> partitionTablets = Maps.newHashMap();
+            for (TScanRangeLocations locations : olapScanNode.getScanRangeLocations(0)) {
+                TInternalScanRange scanRange = locations.getScan_range().getInternal_scan_range();
+                TabletMeta tabletMeta = Catalog.getCurrentInvertedIndex().getTabletMeta(scanRange.getTablet_id());
+                if (tabletMeta == null) {
+                    return null;
+                }
+                List<Object> version = ImmutableList.of(tabletMeta.getIndexId(), scanRange.getVersion());
+                List<Object> old = partitionVersions.putIfAbsent(tabletMeta.getPartitionId(), version);
+                if (old != null && !old.equals(version)) {
+                    return null;
+                }
+                partitionTablets.computeIfAbsent(tabletMeta.getPartitionId(), k -> Sets.newHashSet())
+                        .add(scanRange.getTablet_id());
+            }
+            versions.add(olapScanNode.getOlapTable().getId());
+            versions.add(partitionVersions);
+            scanVersions.add(partitionVersions);
+            scanTablets.add(partitionTablets);
+        }
+
+        Lookup lookup;
+        int partitionColumnIndex = getPartitionColumnIndex(plan);
+        if (partitionColumnIndex >= 0) {
+            lookup = new Lookup(keyBuilder.toString(), (OlapScanNode) plan.getScanNodes().get(0),
+                    partitionColumnIndex, scanVersions.get(0), scanTablets.get(0));
+        } else {
+            lookup = new Lookup(keyBuilder.toString(), versions);
+        }
+        if (MetricRepo.isInit) {
+            if (lookup.isHit()) {
+                MetricRepo.COUNTER_RESULT_CACHE_HIT.increase(1L);
+            } else if (lookup.isPartialHit()) {
+                MetricRepo.COUNTER_RESULT_CACHE_PARTIAL_HIT.increase(1L);
+            } else {
+                MetricRepo.COUNTER_RESULT_CACHE_MISS.increase(1L);
+            }
+        }
+        return lookup;
+    }
+
+    private static String getPlanText(ExecPlan plan) {
+        StringBuilder text = new StringBuilder();
+        for (String line : plan.getExplainString(TExplainLevel.NORMAL).split("\n")) {
+            String trimmed = line.trim();
+            if (SCAN_EXPLAIN_PREFIXES.stream().noneMatch(trimmed::startsWith)) {
+                text.append(line).append("\n");
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * If the results of the query can be cached by partition, return the index of the partition column in
+     * the output columns, otherwise return -1.
+     * <p>
+     * The query must scan a range partitioned table with a single partition column, and all the aggregations
+     * must group by the partition column, so each output row only depends on one partition. Besides the
+     * aggregations, only the projections and the exchanges are allowed.
+     */
+    private static int getPartitionColumnIndex(ExecPlan plan) {
+        if (plan.getScanNodes().size() != 1) {
+            return -1;
+        }
+        OlapScanNode scanNode = (OlapScanNode) plan.getScanNodes().get(0);
+        OlapTable table = scanNode.getOlapTable();
+        if (table.getPartitionInfo().getType() != PartitionType.RANGE) {
+            return -1;
+        }
+        List<Column> partitionColumns = ((RangePartitionInfo) table.getPartitionInfo()).getPartitionColumns();
+        if (partitionColumns.size() != 1) {
+            return -1;
+        }
+
+        int partitionSlotId = -1;
+        TupleDescriptor tupleDesc = plan.getDescTbl().getTupleDesc(scanNode.getTupleIds().get(0));
+        for (SlotDescriptor slot : tupleDesc.getSlots()) {
+            if (slot.getColumn() != null && slot.getColumn().getName().equalsIgnoreCase(
+                    partitionColumns.get(0).getName())) {
+                partitionSlotId = slot.getId().asInt();
+            }
+        }
+        if (partitionSlotId < 0) {
+            return -1;
+        }
+
+        boolean hasAggregation = false;
+        for (PlanFragment fragment : plan.getFragments()) {
+            List<PlanNode> nodes = Lists.newArrayList(fragment.getPlanRoot());
+            while (!nodes.isEmpty()) {
+                PlanNode node = nodes.remove(nodes.size() - 1);
+                if (node.hasLimit()) {
+                    return -1;
+                }
+                if (node instanceof AggregationNode) {
+                    if (!containsSlot(((AggregationNode) node).getAggInfo().getGroupingExprs(), partitionSlotId)) {
+                        return -1;
+                    }
+                    hasAggregation = true;
+                } else if (!(node instanceof ExchangeNode) && !(node instanceof ProjectNode)
+                        && !(node instanceof OlapScanNode)) {
+                    return -1;
+                }
+                nodes.addAll(node.getChildren());
+            }
+        }
+        if (!hasAggregation) {
+            return -1;
+        }
+
+        List<Expr> outputExprs = plan.getOutputExprs();
+        for (int i = 0; i < outputExprs.size(); i++) {
+            if (isSlot(outputExprs.get(i), partitionSlotId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean containsSlot(List<Expr> exprs, int slotId) {
+        return exprs.stream().anyMatch(expr -> isSlot(expr, slotId));
+    }
+
+    private static boolean isSlot(Expr expr, int slotId) {
+        return expr instanceof SlotRef && ((SlotRef) expr).getSlotId().asInt() == slotId;
+    }
+
+    /**
+     * Read the column of the row in the mysql text protocol.
+     *
+     * @return the value of the column, or null if the value is NULL
+     */
+    static String readColumn(ByteBuffer row, int columnIndex) {
+        ByteBuffer buffer = row.duplicate();
+        for (int i = 0; ; i++) {
+            int first = buffer.get() & 0xFF;
+            if (first == 0xFB) {
+                if (i == columnIndex) {
+                    return null;
+                }
+                continue;
+            }
+            long length;
+            if (first < 0xFB) {
+                length = first;
+            } else if (first == 0xFC) {
+                length = readFixedLengthInt(buffer, 2);
+            } else if (first == 0xFD) {
+                length = readFixedLengthInt(buffer, 3);
+            } else if (first == 0xFE) {
+                length = readFixedLengthInt(buffer, 8);
+            } else {
+                throw new IllegalArgumentException("invalid length encoded integer: " + first);
+            }
+            Preconditions.checkArgument(length <= buffer.remaining(), "invalid column length: " + length);
+            if (i == columnIndex) {
+                byte[] bytes = new byte[(int) length];
+                buffer.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            buffer.position(buffer.position() + (int) length);
+        }
+    }
+
+    private static long readFixedLengthInt(ByteBuffer buffer, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (long) (buffer.get() & 0xFF) << (8 * i);
+        }
+        return value;
+    }
+
+    /**
+     * The cached result of a query and the rows of the execution to be cached.
+     */
+    public static class Lookup {
+        private final String key;
+        private final List<Object> versions;
+
+        // Used when the results are cached by partition, null otherwise
+        private final OlapScanNode partitionedScan;
+        private final int partitionColumnIndex;
+        private final Map<Long, List<Object>> missingPartitionVersions = Maps.newHashMap();
+
+        private final List<ByteBuffer> cachedRows = Lists.newArrayList();
+        private final boolean hit;
+        private final boolean partialHit;
+
+        // The rows of the execution, null if they are too large to cache
+        private List<ByteBuffer> rows = Lists.newArrayList();
+        private long rowBytes = 0;
+
+        private Lookup(String key, List<Object> versions) {
+            this.key = key;
+            this.versions = versions;
+            this.partitionedScan = null;
+            this.partitionColumnIndex = -1;
+
+            List<ByteBuffer> cached = INSTANCE.get(key, versions);
+            if (cached != null) {
+                cachedRows.addAll(cached);
+            }
+            this.hit = cached != null;
+            this.partialHit = false;
+        }
+
+        private Lookup(String key, OlapScanNode scanNode, int partitionColumnIndex,
+                       Map<Long, List<Object>> partitionVersions, Map<Long, Set<Long>> partitionTablets) {
+            this.key = key;
+            this.versions = null;
+            this.partitionedScan = scanNode;
+            this.partitionColumnIndex = partitionColumnIndex;
+
+            for (Map.Entry<Long, List<Object>> entry : partitionVersions.entrySet()) {
+                List<ByteBuffer> cached = INSTANCE.get(getPartitionKey(entry.getKey()), entry.getValue());
+                if (cached != null) {
+                    cachedRows.addAll(cached);
+                } else {
+                    missingPartitionVersions.put(entry.getKey(), entry.getValue());
+                }
+            }
+            this.hit = missingPartitionVersions.isEmpty();
+            this.partialHit = !hit && missingPartitionVersions.size() < partitionVersions.size();
+            if (partialHit) {
+                Set<Long> tabletIds = Sets.newHashSet();
+                for (Long partitionId : missingPartitionVersions.keySet()) {
+                    tabletIds.addAll(partitionTablets.get(partitionId));
+                }
+                scanNode.retainTablets(missingPartitionVersions.keySet(), tabletIds);
+            }
+        }
+
+        private String getPartitionKey(long partitionId) {
+            return key + "\n" + partitionId;
+        }
+
+        /**
+         * Whether all the rows are cached, so the query doesn't need to be executed.
+         */
+        public boolean isHit() {
+            return hit;
+        }
+
+        /**
+         * Whether the results of some partitions are cached, so only the other partitions are scanned.
+         */
+        public boolean isPartialHit() {
+            return partialHit;
+        }
+
+        /**
+         * The cached rows to send before the rows of the execution.
+         */
+        public List<ByteBuffer> getCachedRows() {
+            return cachedRows;
+        }
+
+        /**
+         * Called before executing the query, the rows of the former execution are discarded.
+         */
+        public void reset() {
+            rows = Lists.newArrayList();
+            rowBytes = 0;
+        }
+
+        /**
+         * Add a row returned by the execution, it must be called before the row is sent.
+         */
+        public void addRow(ByteBuffer row) {
+            if (rows == null) {
+                return;
+            }
+            rowBytes += row.remaining();
+            if (rowBytes > Config.result_cache_max_entry_size_kb * 1024) {
+                rows = null;
+                return;
+            }
+            // copy the row, so it doesn't hold the whole batch
+            ByteBuffer copy = ByteBuffer.allocate(row.remaining());
+            copy.put(row.duplicate());
+            copy.flip();
+            rows.add(copy);
+        }
+
+        /**
+         * Called when all the rows of the execution are added, the rows are put into the cache.
+         */
+        public void finish() {
+            if (rows == null) {
+                return;
+            }
+            if (partitionedScan == null) {
+                INSTANCE.put(key, versions, rows, rowBytes);
+                return;
+            }
+
+            Map<Long, List<ByteBuffer>> partitionRows = Maps.newHashMap();
+            Map<Long, Long> partitionBytes = Maps.newHashMap();
+            for (Long partitionId : missingPartitionVersions.keySet()) {
+                partitionRows.put(partitionId, Lists.newArrayList());
+                partitionBytes.put(partitionId, 0L);
+            }
+            for (ByteBuffer row : rows) {
+                Long partitionId = getPartitionOfRow(row);
+                if (partitionId == null || !partitionRows.containsKey(partitionId)) {
+                    LOG.debug("can not find the partition of the row, skip caching the result");
+                    return;
+                }
+                partitionRows.get(partitionId).add(row);
+                partitionBytes.put(partitionId, partitionBytes.get(partitionId) + row.remaining());
+            }
+            for (Map.Entry<Long, List<ByteBuffer>> entry : partitionRows.entrySet()) {
+                long partitionId = entry.getKey();
+                INSTANCE.put(getPartitionKey(partitionId), missingPartitionVersions.get(partitionId),
+                        entry.getValue(), partitionBytes.get(partitionId));
+            }
+        }
+
+        private Long getPartitionOfRow(ByteBuffer row) {
+            RangePartitionInfo partitionInfo =
+                    (RangePartitionInfo) partitionedScan.getOlapTable().getPartitionInfo();
+            PartitionKey partitionKey;
+            try {
+                String value = readColumn(row, partitionColumnIndex);
+                if (value == null) {
+                    return null;
+                }
+                partitionKey = PartitionKey.createPartitionKey(
+                        Collections.singletonList(new PartitionValue(value)), partitionInfo.getPartitionColumns());
+            } catch (AnalysisException | RuntimeException e) {
+                LOG.debug("failed to read the partition column of the row", e);
+                return null;
+            }
+            for (Long partitionId : missingPartitionVersions.keySet()) {
+                Range<PartitionKey> range = partitionInfo.getRange(partitionId);
+                if (range != null && range.contains(partitionKey)) {
+                    return partitionId;
+                }
+            }
+            return null;
+        }
+    }
+}
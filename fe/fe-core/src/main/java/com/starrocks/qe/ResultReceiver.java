@@ -21,6 +21,9 @@
 
 package com.starrocks.qe;
 
+import com.google.common.collect.Maps;
+import com.starrocks.common.Config;
+import com.starrocks.common.Pair;
 import com.starrocks.common.Status;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.proto.PFetchDataResult;
@@ -37,6 +40,9 @@ import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TDeserializer;
 import org.apache.thrift.TException;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -53,6 +59,15 @@ public class ResultReceiver {
     private final Long backendId;
     private Thread currentThread;
 
+    // The fetch requests sent to the backend but not received yet, in the order of being sent.
+    // The backend fills them in the order of their arrival, which may differ from the order of being sent.
+    private final Deque<Pair<PFetchDataRequest, Future<PFetchDataResult>>> pendingRequests = new ArrayDeque<>();
+    // The results received before the results with smaller packet sequences, indexed by the packet sequence
+    private final Map<Long, Pair<PFetchDataResult, byte[]>> receivedResults = Maps.newHashMap();
+    private final TDeserializer deserializer = new TDeserializer();
+    // The size of the last batch, used to limit the memory of the prefetched batches
+    private long lastBatchBytes = 0;
+
     public ResultReceiver(TUniqueId tid, Long backendId, TNetworkAddress address, int timeoutMs) {
         this.finstId = new PUniqueId();
         this.finstId.hi = tid.hi;
@@ -62,6 +77,10 @@ public class ResultReceiver {
         this.timeoutTs = System.currentTimeMillis() + timeoutMs;
     }
 
+    /**
+     * Get the next batch of the result. The next batches are fetched ahead while the caller is sending
+     * this batch to the client, at most result_prefetch_depth batches and result_prefetch_max_bytes bytes.
+     */
     public RowBatch getNext(Status status) throws TException {
         if (isDone) {
             return null;
@@ -69,51 +88,28 @@ public class ResultReceiver {
         final RowBatch rowBatch = new RowBatch();
         try {
             while (!isDone && !isCancel) {
-                PFetchDataRequest request = new PFetchDataRequest(finstId);
-
                 currentThread = Thread.currentThread();
-                Future<PFetchDataResult> future = BackendServiceProxy.getInstance().fetchDataAsync(address, request);
-                PFetchDataResult pResult = null;
-                while (pResult == null) {
-                    long currentTs = System.currentTimeMillis();
-                    if (currentTs >= timeoutTs) {
-                        throw new TimeoutException("query timeout");
-                    }
-                    try {
-                        pResult = future.get(timeoutTs - currentTs, TimeUnit.MILLISECONDS);
-                    } catch (InterruptedException e) {
-                        // continue to get result
-                        LOG.info("future get interrupted Exception");
-                        if (isCancel) {
-                            status.setStatus(Status.CANCELLED);
-                            return null;
-                        }
-                    }
-                }
-                TStatusCode code = TStatusCode.findByValue(pResult.status.status_code);
-                if (code != TStatusCode.OK) {
-                    status.setPstatus(pResult.status);
+                sendFetchRequests(1);
+                Pair<PFetchDataResult, byte[]> result = receiveResult(status);
+                if (result == null) {
                     return null;
                 }
+                PFetchDataResult pResult = result.first;
 
                 rowBatch.setQueryStatistics(pResult.query_statistics);
-
-                if (packetIdx != pResult.packet_seq) {
-                    LOG.warn("receive packet failed, expect={}, receive={}", packetIdx, pResult.packet_seq);
-                    status.setRpcStatus("receive error packet");
-                    return null;
-                }
-
                 packetIdx++;
                 isDone = pResult.eos;
 
-                byte[] serialResult = request.getSerializedResult();
+                byte[] serialResult = result.second;
                 if (serialResult != null && serialResult.length > 0) {
                     TResultBatch resultBatch = new TResultBatch();
-                    TDeserializer deserializer = new TDeserializer();
                     deserializer.deserialize(resultBatch, serialResult);
                     rowBatch.setBatch(resultBatch);
                     rowBatch.setEos(pResult.eos);
+                    lastBatchBytes = serialResult.length;
+                    if (!isDone) {
+                        sendFetchRequests(getPrefetchNum());
+                    }
                     return rowBatch;
                 }
             }
@@ -140,6 +136,11 @@ public class ResultReceiver {
             synchronized (this) {
                 currentThread = null;
             }
+            if (isDone || !status.ok()) {
+                // the responses of the requests sent after eos are useless
+                pendingRequests.clear();
+                receivedResults.clear();
+            }
         }
 
         if (isCancel) {
@@ -148,6 +149,76 @@ public class ResultReceiver {
         return rowBatch;
     }
 
+    // The number of batches fetched ahead, limited by the memory estimated by the size of the last batch
+    private int getPrefetchNum() {
+        if (Config.result_prefetch_depth <= 0 || lastBatchBytes <= 0) {
+            return 0;
+        }
+        return (int) Math.min(Config.result_prefetch_depth, Config.result_prefetch_max_bytes / lastBatchBytes);
+    }
+
+    // Send the fetch requests until there are requestNum batches being fetched or received
+    private void sendFetchRequests(int requestNum) throws RpcException {
+        while (pendingRequests.size() + receivedResults.size() < requestNum) {
+            PFetchDataRequest request = new PFetchDataRequest(finstId);
+            Future<PFetchDataResult> future = BackendServiceProxy.getInstance().fetchDataAsync(address, request);
+            pendingRequests.addLast(new Pair<>(request, future));
+        }
+    }
+
+    // Receive the result with the expected packet sequence, return null if it fails or is cancelled
+    private Pair<PFetchDataResult, byte[]> receiveResult(Status status)
+            throws RpcException, ExecutionException, TimeoutException {
+        while (true) {
+            Pair<PFetchDataResult, byte[]> result = receivedResults.remove(packetIdx);
+            if (result != null) {
+                return result;
+            }
+
+            if (pendingRequests.isEmpty()) {
+                sendFetchRequests(receivedResults.size() + 1);
+            }
+            Pair<PFetchDataRequest, Future<PFetchDataResult>> request = pendingRequests.peekFirst();
+            PFetchDataResult pResult = null;
+            while (pResult == null) {
+                long currentTs = System.currentTimeMillis();
+                if (currentTs >= timeoutTs) {
+                    throw new TimeoutException("query timeout");
+                }
+                try {
+                    pResult = request.second.get(timeoutTs - currentTs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // continue to get result
+                    LOG.info("future get interrupted Exception");
+                    if (isCancel) {
+                        status.setStatus(Status.CANCELLED);
+                        return null;
+                    }
+                }
+            }
+            pendingRequests.pollFirst();
+
+            TStatusCode code = TStatusCode.findByValue(pResult.status.status_code);
+            if (code != TStatusCode.OK) {
+                status.setPstatus(pResult.status);
+                return null;
+            }
+
+            result = new Pair<>(pResult, request.first.getSerializedResult());
+            if (pResult.packet_seq == packetIdx) {
+                return result;
+            }
+            // The request sent later arrives at the backend earlier, keep its result until its turn.
+            // All the requests received after eos get the eos result, only one of them is kept.
+            if (pResult.packet_seq < packetIdx || pendingRequests.isEmpty()) {
+                LOG.warn("receive packet failed, expect={}, receive={}", packetIdx, pResult.packet_seq);
+                status.setRpcStatus("receive error packet");
+                return null;
+            }
+            receivedResults.putIfAbsent(pResult.packet_seq, result);
+        }
+    }
+
     public void cancel() {
         isCancel = true;
         synchronized (this) {
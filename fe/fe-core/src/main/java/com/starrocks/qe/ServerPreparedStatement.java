@@ -0,0 +1,112 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+/**
+ * The statement prepared by COM_STMT_PREPARE, which is kept by the connection until COM_STMT_CLOSE.
+ * <p>
+ * The statement is split into segments by the '?' placeholders outside the quoted strings and comments,
+ * each execution binds the parameters into the segments as literals, so the executions of the statement
+ * have the same normalized text and share the plan in the plan cache.
+ */
+public class ServerPreparedStatement {
+    private final int id;
+    private final String sql;
+    // The sql split by the placeholders, there is one more segment than the placeholders
+    private final List<String> segments;
+    // The types of the parameters, the client only sends them when they are changed
+    private final int[] paramTypes;
+
+    private ServerPreparedStatement(int id, String sql, List<String> segments) {
+        this.id = id;
+        this.sql = sql;
+        this.segments = segments;
+        this.paramTypes = new int[segments.size() - 1];
+    }
+
+    public static ServerPreparedStatement create(int id, String sql) {
+        List<String> segments = Lists.newArrayList();
+        int start = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i, c);
+            } else if (c == '#' || (c == '-' && sql.startsWith("-- ", i))) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? sql.length() : end + 1;
+            } else if (c == '/' && sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? sql.length() : end + 2;
+            } else if (c == '?') {
+                segments.add(sql.substring(start, i));
+                start = ++i;
+            } else {
+                ++i;
+            }
+        }
+        segments.add(sql.substring(start));
+        return new ServerPreparedStatement(id, sql, segments);
+    }
+
+    // Return the position after the closing quote
+    private static int skipQuoted(String sql, int begin, char quote) {
+        int i = begin + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote) {
+                // two quotes in a quoted string is an escaped quote
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                ++i;
+            }
+        }
+        return sql.length();
+    }
+
+    /**
+     * Replace the placeholders with the literals
+     */
+    public String bind(List<String> literals) {
+        Preconditions.checkArgument(literals.size() == getParamNum(),
+                "Expect " + getParamNum() + " parameters, but got " + literals.size());
+        StringBuilder sb = new StringBuilder(sql.length());
+        for (int i = 0; i < literals.size(); ++i) {
+            String segment = segments.get(i);
+            sb.append(segment);
+            // avoid '-?' with a negative number becoming a comment
+            if (segment.endsWith("-") && literals.get(i).startsWith("-")) {
+                sb.append(' ');
+            }
+            sb.append(literals.get(i));
+        }
+        return sb.append(segments.get(segments.size() - 1)).toString();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getParamNum() {
+        return paramTypes.length;
+    }
+
+    public int[] getParamTypes() {
+        return paramTypes;
+    }
+}
@@ -37,6 +37,8 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Set;
 
 // System variable
 public class SessionVariable implements Serializable, Writable, Cloneable {
@@ -47,6 +49,7 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String PROFILING = "profiling";
     public static final String SQL_MODE = "sql_mode";
     public static final String RESOURCE_VARIABLE = "resource_group";
+    public static final String QUERY_QUEUE_PRIORITY = "query_queue_priority";
     public static final String AUTO_COMMIT = "autocommit";
     public static final String TX_ISOLATION = "tx_isolation";
     public static final String CHARACTER_SET_CLIENT = "character_set_client";
@@ -162,6 +165,15 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String CBO_ENABLE_DP_JOIN_REORDER = "cbo_enable_dp_join_reorder";
     public static final String CBO_MAX_REORDER_NODE_USE_DP = "cbo_max_reorder_node_use_dp";
     public static final String CBO_ENABLE_GREEDY_JOIN_REORDER = "cbo_enable_greedy_join_reorder";
+    public static final String CBO_MAX_GROUP_EXPRESSIONS = "cbo_max_group_expressions";
+    public static final String ENABLE_PLAN_CACHE = "enable_plan_cache";
+    public static final String ENABLE_PREPARED_PLAN_CACHE = "enable_prepared_plan_cache";
+    public static final String ENABLE_RESULT_CACHE = "enable_result_cache";
+    public static final String ENABLE_PARALLEL_OPTIMIZER = "enable_parallel_optimizer";
+    public static final String ENABLE_CARDINALITY_FEEDBACK = "enable_cardinality_feedback";
+    public static final String CBO_ENABLE_EAGER_AGGREGATION = "cbo_enable_eager_aggregation";
+    public static final String CBO_CTE_REUSE = "cbo_cte_reuse";
+    public static final String CBO_CTE_REUSE_RATE = "cbo_cte_reuse_rate";
     // --------  New planner session variables end --------
 
     // Type of compression of transmitted data
@@ -172,6 +184,7 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
 
     public static final String RUNTIME_JOIN_FILTER_PUSH_DOWN_LIMIT = "runtime_join_filter_push_down_limit";
     public static final String ENABLE_GLOBAL_RUNTIME_FILTER = "enable_global_runtime_filter";
+    public static final String ENABLE_COST_BASED_RUNTIME_FILTER = "enable_cost_based_runtime_filter";
 
     // use vectorized engine
     @VariableMgr.VarAttr(name = ENABLE_VECTORIZED_ENGINE, alias = "vectorized_engine_enable")
@@ -213,6 +226,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = RESOURCE_VARIABLE)
     private String resourceGroup = "normal";
 
+    // The queries of higher priority are admitted first when waiting in the queue of the resource group
+    @VariableMgr.VarAttr(name = QUERY_QUEUE_PRIORITY)
+    private int queryQueuePriority = 0;
+
     // this is used to make mysql client happy
     @VariableMgr.VarAttr(name = AUTO_COMMIT)
     private boolean autoCommit = true;
@@ -376,6 +393,44 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = CBO_ENABLE_GREEDY_JOIN_REORDER)
     private boolean cboEnableGreedyJoinReorder = true;
 
+    // stop applying the transformation rules if the memo has more group expressions
+    @VariableMgr.VarAttr(name = CBO_MAX_GROUP_EXPRESSIONS)
+    private int cboMaxGroupExpressions = 50000;
+
+    // reuse the optimized plans of the queries which differ only in literals
+    @VariableMgr.VarAttr(name = ENABLE_PLAN_CACHE)
+    private boolean enablePlanCache = false;
+
+    // reuse the optimized plans of the executions of the prepared statements, used instead of
+    // enable_plan_cache for COM_STMT_EXECUTE
+    @VariableMgr.VarAttr(name = ENABLE_PREPARED_PLAN_CACHE)
+    private boolean enablePreparedPlanCache = false;
+
+    // reuse the results of the queries whose plans and scanned partition versions are unchanged
+    @VariableMgr.VarAttr(name = ENABLE_RESULT_CACHE)
+    private boolean enableResultCache = false;
+
+    // apply the transformation rules of the memo in parallel
+    @VariableMgr.VarAttr(name = ENABLE_PARALLEL_OPTIMIZER)
+    private boolean enableParallelOptimizer = false;
+
+    // Record the actual rows of the plan nodes after execution, and use them instead of the
+    // estimated rows when the same subtree is optimized again
+    @VariableMgr.VarAttr(name = ENABLE_CARDINALITY_FEEDBACK)
+    private boolean enableCardinalityFeedback = false;
+
+    // push down the partial aggregations below the inner joins, and choose it by the cost
+    @VariableMgr.VarAttr(name = CBO_ENABLE_EAGER_AGGREGATION)
+    private boolean cboEnableEagerAggregation = false;
+
+    // compute the CTE referenced multiple times only once and send the result to all the references,
+    // if the cost of computing it repeatedly is larger than cbo_cte_reuse_rate times the cost of sending it
+    @VariableMgr.VarAttr(name = CBO_CTE_REUSE)
+    private boolean cboCteReuse = false;
+
+    @VariableMgr.VarAttr(name = CBO_CTE_REUSE_RATE)
+    private double cboCteReuseRate = 1.5;
+
     @VariableMgr.VarAttr(name = TRANSACTION_VISIBLE_WAIT_TIMEOUT)
     private long transactionVisibleWaitTimeout = 10;
 
@@ -417,6 +472,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = ENABLE_GLOBAL_RUNTIME_FILTER)
     private boolean enableGlobalRuntimeFilter = true;
 
+    // Place the runtime filters by the estimated selectivity of the new planner statistics
+    @VariableMgr.VarAttr(name = ENABLE_COST_BASED_RUNTIME_FILTER)
+    private boolean enableCostBasedRuntimeFilter = false;
+
     //In order to be compatible with the logic of the old planner,
     //When the column name is the same as the alias name,
     //the alias will be used as the groupby column if set to true.
@@ -521,6 +580,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         this.resourceGroup = resourceGroup;
     }
 
+    public int getQueryQueuePriority() {
+        return queryQueuePriority;
+    }
+
+    public void setQueryQueuePriority(int queryQueuePriority) {
+        this.queryQueuePriority = queryQueuePriority;
+    }
+
     public boolean isDisableColocateJoin() {
         return disableColocateJoin;
     }
@@ -634,6 +701,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return cboMaxReorderNodeUseDP;
     }
 
+    public void setCboMaxReorderNodeUseDP(long cboMaxReorderNodeUseDP) {
+        this.cboMaxReorderNodeUseDP = cboMaxReorderNodeUseDP;
+    }
+
     public boolean isCboEnableGreedyJoinReorder() {
         return cboEnableGreedyJoinReorder;
     }
@@ -646,6 +717,84 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         this.cboEnableGreedyJoinReorder = true;
     }
 
+    public int getCboMaxGroupExpressions() {
+        return cboMaxGroupExpressions;
+    }
+
+    public void setCboMaxGroupExpressions(int cboMaxGroupExpressions) {
+        this.cboMaxGroupExpressions = cboMaxGroupExpressions;
+    }
+
+    public boolean isEnablePlanCache() {
+        return enablePlanCache;
+    }
+
+    public void setEnablePlanCache(boolean enablePlanCache) {
+        this.enablePlanCache = enablePlanCache;
+    }
+
+    public boolean isEnablePreparedPlanCache() {
+        return enablePreparedPlanCache;
+    }
+
+    public void setEnablePreparedPlanCache(boolean enablePreparedPlanCache) {
+        this.enablePreparedPlanCache = enablePreparedPlanCache;
+    }
+
+    public boolean isEnableResultCache() {
+        return enableResultCache;
+    }
+
+    public void setEnableResultCache(boolean enableResultCache) {
+        this.enableResultCache = enableResultCache;
+    }
+
+    public boolean isEnableParallelOptimizer() {
+        return enableParallelOptimizer;
+    }
+
+    public void setEnableParallelOptimizer(boolean enableParallelOptimizer) {
+        this.enableParallelOptimizer = enableParallelOptimizer;
+    }
+
+    public boolean isEnableCardinalityFeedback() {
+        return enableCardinalityFeedback;
+    }
+
+    public void setEnableCardinalityFeedback(boolean enableCardinalityFeedback) {
+        this.enableCardinalityFeedback = enableCardinalityFeedback;
+    }
+
+    public boolean isCboEnableEagerAggregation() {
+        return cboEnableEagerAggregation;
+    }
+
+    public void setCboEnableEagerAggregation(boolean cboEnableEagerAggregation) {
+        this.cboEnableEagerAggregation = cboEnableEagerAggregation;
+    }
+
+    // The multi cast sink of the CTE is only supported by the non-pipeline engine
+    public boolean isCboCteReuse() {
+        return cboCteReuse && !enablePipelineEngine;
+    }
+
+    public void setCboCteReuse(boolean cboCteReuse) {
+        this.cboCteReuse = cboCteReuse;
+    }
+
+    public double getCboCteReuseRate() {
+        return cboCteReuseRate;
+    }
+
+    public void setCboCteReuseRate(double cboCteReuseRate) {
+        this.cboCteReuseRate = cboCteReuseRate;
+    }
+
+    // The actual rows are collected from the profile of the non-pipeline engine
+    public boolean isCollectCardinalityFeedback() {
+        return enableCardinalityFeedback && !enablePipelineEngine;
+    }
+
     public long getTransactionVisibleWaitTimeout() {
         return transactionVisibleWaitTimeout;
     }
@@ -718,6 +867,14 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         enableGlobalRuntimeFilter = value;
     }
 
+    public boolean isEnableCostBasedRuntimeFilter() {
+        return enableCostBasedRuntimeFilter;
+    }
+
+    public void setEnableCostBasedRuntimeFilter(boolean enableCostBasedRuntimeFilter) {
+        this.enableCostBasedRuntimeFilter = enableCostBasedRuntimeFilter;
+    }
+
     public boolean isEnablePipelineEngine() {
         return enablePipelineEngine;
     }
@@ -734,7 +891,7 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         tResult.setBuffer_pool_limit(maxExecMemByte);
         // Avoid integer overflow
         tResult.setQuery_timeout(Math.min(Integer.MAX_VALUE / 1000, queryTimeoutS));
-        tResult.setIs_report_success(isReportSucc);
+        tResult.setIs_report_success(isReportSucc || isCollectCardinalityFeedback());
         tResult.setCodegen_level(codegenLevel);
 
         tResult.setBatch_size(batchSize);
@@ -767,11 +924,16 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     }
 
     public String getJsonString() throws IOException {
+        return getJsonString(Collections.emptySet());
+    }
+
+    // The json of the variables except the excluded ones
+    public String getJsonString(Set<String> excludedNames) throws IOException {
         JSONObject root = new JSONObject();
         try {
             for (Field field : SessionVariable.class.getDeclaredFields()) {
                 VarAttr attr = field.getAnnotation(VarAttr.class);
-                if (attr == null) {
+                if (attr == null || excludedNames.contains(attr.name())) {
                     continue;
                 }
                 switch (field.getType().getSimpleName()) {
@@ -57,9 +57,11 @@ import com.starrocks.analysis.ShowLoadStmt;
 import com.starrocks.analysis.ShowMaterializedViewStmt;
 import com.starrocks.analysis.ShowMigrationsStmt;
 import com.starrocks.analysis.ShowPartitionsStmt;
+import com.starrocks.analysis.ShowPlanCacheStmt;
 import com.starrocks.analysis.ShowPluginsStmt;
 import com.starrocks.analysis.ShowProcStmt;
 import com.starrocks.analysis.ShowProcesslistStmt;
+import com.starrocks.analysis.ShowQueriesStmt;
 import com.starrocks.analysis.ShowRepositoriesStmt;
 import com.starrocks.analysis.ShowResourcesStmt;
 import com.starrocks.analysis.ShowRestoreStmt;
@@ -130,6 +132,7 @@ import com.starrocks.load.routineload.RoutineLoadJob;
 import com.starrocks.meta.BlackListSql;
 import com.starrocks.meta.SqlBlackList;
 import com.starrocks.mysql.privilege.PrivPredicate;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.statistic.AnalyzeJob;
 import com.starrocks.transaction.GlobalTransactionMgr;
 import org.apache.logging.log4j.LogManager;
@@ -183,6 +186,8 @@ public class ShowExecutor {
             handleShowCreateDb();
         } else if (stmt instanceof ShowProcesslistStmt) {
             handleShowProcesslist();
+        } else if (stmt instanceof ShowQueriesStmt) {
+            handleShowQueries();
         } else if (stmt instanceof ShowEnginesStmt) {
             handleShowEngines();
         } else if (stmt instanceof ShowFunctionsStmt) {
@@ -229,6 +234,8 @@ public class ShowExecutor {
             handleShowBackends();
         } else if (stmt instanceof ShowFrontendsStmt) {
             handleShowFrontends();
+        } else if (stmt instanceof ShowPlanCacheStmt) {
+            handleShowPlanCache();
         } else if (stmt instanceof ShowRepositoriesStmt) {
             handleShowRepositories();
         } else if (stmt instanceof ShowSnapshotStmt) {
@@ -340,6 +347,27 @@ public class ShowExecutor {
         resultSet = new ShowResultSet(showStmt.getMetaData(), rowSet);
     }
 
+    private void handleShowQueries() {
+        ShowQueriesStmt showStmt = (ShowQueriesStmt) stmt;
+        List<List<String>> rowSet = Lists.newArrayList();
+
+        QueryQueueManager queueManager = QueryQueueManager.getInstance();
+        List<QueryQueueManager.QueryEntry> entries =
+                showStmt.isQueued() ? queueManager.getQueuedQueries() : queueManager.getRunningQueries();
+        boolean showAll = Catalog.getCurrentCatalog().getAuth().checkGlobalPriv(ConnectContext.get(),
+                PrivPredicate.GRANT);
+        long nowMs = System.currentTimeMillis();
+        for (QueryQueueManager.QueryEntry entry : entries) {
+            // Only show the queries of this user unless the user has grant privilege
+            if (!showAll && !entry.getUser().equals(ctx.getQualifiedUser())) {
+                continue;
+            }
+            rowSet.add(entry.toRow(nowMs));
+        }
+
+        resultSet = new ShowResultSet(showStmt.getMetaData(), rowSet);
+    }
+
     // Handle show authors
     private void handleEmtpy() {
         // Only success
@@ -1271,6 +1299,11 @@ public class ShowExecutor {
         resultSet = new ShowResultSet(showStmt.getMetaData(), infos);
     }
 
+    private void handleShowPlanCache() {
+        final ShowPlanCacheStmt showStmt = (ShowPlanCacheStmt) stmt;
+        resultSet = new ShowResultSet(showStmt.getMetaData(), PlanCache.getInstance().getShowRows());
+    }
+
     private void handleShowRepositories() {
         final ShowRepositoriesStmt showStmt = (ShowRepositoriesStmt) stmt;
         List<List<String>> repoInfos = Catalog.getCurrentCatalog().getBackupHandler().getRepoMgr().getReposInfo();
@@ -83,7 +83,10 @@ import com.starrocks.meta.SqlBlackList;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.metric.TableMetricsEntity;
 import com.starrocks.metric.TableMetricsRegistry;
+import com.starrocks.mysql.MysqlBinaryCodec;
 import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlColType;
+import com.starrocks.mysql.MysqlCommand;
 import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlSerializer;
 import com.starrocks.mysql.privilege.PrivPredicate;
@@ -106,6 +109,8 @@ import com.starrocks.sql.analyzer.SemanticException;
 import com.starrocks.sql.common.StarRocksPlannerException;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.MetaUtils;
+import com.starrocks.sql.optimizer.OptimizerCounters;
+import com.starrocks.sql.optimizer.statistics.CardinalityFeedback;
 import com.starrocks.sql.plan.ExecPlan;
 import com.starrocks.statistic.AnalyzeJob;
 import com.starrocks.statistic.Constants;
@@ -128,11 +133,13 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 // Do one COM_QEURY process.
 // first: Parse receive byte array to statement struct.
@@ -149,12 +156,18 @@ public class StmtExecutor {
     private Analyzer analyzer;
     private RuntimeProfile profile;
     private volatile Coordinator coord = null;
+    // Set while the query holds or waits for the slots of its resource group
+    private volatile QueryQueueManager.QueryEntry queueEntry = null;
     private MasterOpExecutor masterOpExecutor = null;
     private RedirectStatus redirectStatus = null;
     private Planner planner;
+    // the counters of the new planner optimizer, shown in the profile
+    private OptimizerCounters optimizerCounters;
     private final boolean isProxy;
     private ShowResultSet proxyResultSet = null;
     private PQueryStatistics statisticsForAuditLog;
+    // The mysql types of the result columns if the result rows are sent by the binary protocol
+    private int[] binaryResultTypes = null;
 
     // this constructor is mainly for proxy
     public StmtExecutor(ConnectContext context, OriginStatement originStmt, boolean isProxy) {
@@ -197,6 +210,9 @@ public class StmtExecutor {
         summaryProfile.addInfoString(ProfileManager.DEFAULT_DB, context.getDatabase());
         summaryProfile.addInfoString(ProfileManager.SQL_STATEMENT, originStmt.originStmt);
         profile.addChild(summaryProfile);
+        if (optimizerCounters != null) {
+            profile.addChild(optimizerCounters.toProfile());
+        }
         if (coord != null) {
             coord.getQueryProfile().getCounterTotalTime().setValue(TimeUtils.getEstimatedTime(beginTimeInNanoSecond));
             coord.endProfile();
@@ -300,6 +316,7 @@ public class StmtExecutor {
                         context.getDumpInfo().setOriginStmt(parsedStmt.getOrigStmt().originStmt);
                         execPlan = new StatementPlanner().plan(parsedStmt, context);
                         execPlanBuildByNewPlanner = true;
+                        optimizerCounters = execPlan.getOptimizerCounters();
                     }
                 } catch (SemanticException e) {
                     dumpException(e);
@@ -350,6 +367,12 @@ public class StmtExecutor {
                     SqlBlackList.verifying(originSql);
                 }
 
+                // Look up the result cache once, the retries use the same cached rows and scan ranges
+                ResultCache.Lookup cacheLookup = null;
+                if (execPlanBuildByNewPlanner && ResultCache.isEnabled(context)) {
+                    cacheLookup = ResultCache.getInstance().lookup(execPlan, (QueryStmt) parsedStmt, context);
+                }
+
                 int retryTime = Config.max_query_retry_time;
                 for (int i = 0; i < retryTime; i++) {
                     try {
@@ -370,13 +393,14 @@ public class StmtExecutor {
                             }
                             handleQueryStmt(execPlan.getFragments(), execPlan.getScanNodes(),
                                     execPlan.getDescTbl().toThrift(),
-                                    execPlan.getColNames(), execPlan.getOutputExprs(), explainStringBuilder.toString());
+                                    execPlan.getColNames(), execPlan.getOutputExprs(), explainStringBuilder.toString(),
+                                    cacheLookup, execPlan);
                         } else {
                             TExplainLevel level = parsedStmt.isVerbose() ? TExplainLevel.VERBOSE : TExplainLevel.NORMAL;
                             String explainString = planner.getExplainString(planner.getFragments(), level);
                             handleQueryStmt(planner.getFragments(), planner.getScanNodes(),
                                     analyzer.getDescTbl().toThrift(),
-                                    parsedStmt.getColLabels(), parsedStmt.getResultExprs(), explainString);
+                                    parsedStmt.getColLabels(), parsedStmt.getResultExprs(), explainString, null, null);
                         }
 
                         if (context.getSessionVariable().isReportSucc()) {
@@ -393,7 +417,14 @@ public class StmtExecutor {
                             throw e;
                         }
                     } finally {
-                        QeProcessorImpl.INSTANCE.unregisterQuery(context.getExecutionId());
+                        if (coord != null && coord.isProfileDoneListenerPending()) {
+                            // the final reports may arrive after the results are sent, they are needed by the
+                            // cardinality feedback
+                            QeProcessorImpl.INSTANCE.unregisterQueryAfterProfileDone(context.getExecutionId(),
+                                    Config.cardinality_feedback_report_timeout_ms);
+                        } else {
+                            QeProcessorImpl.INSTANCE.unregisterQuery(context.getExecutionId());
+                        }
                     }
                 }
             } else if (parsedStmt instanceof SetStmt) {
@@ -703,6 +734,10 @@ public class StmtExecutor {
 
     // Because this is called by other thread
     public void cancel() {
+        QueryQueueManager.QueryEntry entryRef = queueEntry;
+        if (entryRef != null) {
+            QueryQueueManager.getInstance().cancel(entryRef);
+        }
         Coordinator coordRef = coord;
         if (coordRef != null) {
             coordRef.cancel();
@@ -748,9 +783,10 @@ public class StmtExecutor {
         context.getState().setOk();
     }
 
-    // Process a select statement.
+    // Process a select statement. execPlan is null if the statement is planned by the old planner.
     private void handleQueryStmt(List<PlanFragment> fragments, List<ScanNode> scanNodes, TDescriptorTable descTable,
-                                 List<String> colNames, List<Expr> outputExprs, String explainString) throws Exception {
+                                 List<String> colNames, List<Expr> outputExprs, String explainString,
+                                 ResultCache.Lookup cacheLookup, ExecPlan execPlan) throws Exception {
         // Every time set no send flag and clean all data in buffer
         context.getMysqlChannel().reset();
         QueryStmt queryStmt = (QueryStmt) parsedStmt;
@@ -763,11 +799,43 @@ public class StmtExecutor {
             context.getQueryDetail().setExplain(explainString);
         }
 
+        if (cacheLookup != null && cacheLookup.isHit()) {
+            sendFields(colNames, outputExprs);
+            sendCachedRows(cacheLookup);
+            context.getState().setEof();
+            return;
+        }
+        if (cacheLookup != null) {
+            cacheLookup.reset();
+        }
+
         coord = new Coordinator(context, fragments, scanNodes, descTable);
+        if (execPlan != null && context.getSessionVariable().isCollectCardinalityFeedback()) {
+            coord.setProfileDoneListener(profile -> CardinalityFeedback.getInstance().record(execPlan, profile));
+        }
 
         QeProcessorImpl.INSTANCE.registerQuery(context.getExecutionId(),
                 new QeProcessorImpl.QueryInfo(context, originStmt.originStmt, coord));
 
+        QueryQueueManager queueManager = QueryQueueManager.getInstance();
+        SessionVariable sessionVariable = context.getSessionVariable();
+        QueryQueueManager.QueryEntry entry = queueManager.createEntry(DebugUtil.printId(context.getExecutionId()),
+                context.getConnectionId(), context.getQualifiedUser(), sessionVariable.getResourceGroup(),
+                sessionVariable.getQueryQueuePriority(), sessionVariable.getMaxExecMemByte(), originStmt.originStmt);
+        queueEntry = entry;
+        try {
+            // wait for the slots of the resource group, the slots are held until all the results are sent
+            queueManager.acquire(entry);
+            executeQueryStmt(queryStmt, colNames, outputExprs, cacheLookup);
+        } finally {
+            queueEntry = null;
+            queueManager.release(entry);
+        }
+    }
+
+    private void executeQueryStmt(QueryStmt queryStmt, List<String> colNames, List<Expr> outputExprs,
+                                  ResultCache.Lookup cacheLookup) throws Exception {
+        MysqlChannel channel = context.getMysqlChannel();
         coord.exec();
 
         // send result
@@ -779,7 +847,6 @@ public class StmtExecutor {
         //
         // 2. If this is a query, send the result expr fields first, and send result data back to client.
         RowBatch batch;
-        MysqlChannel channel = context.getMysqlChannel();
         boolean isOutfileQuery = queryStmt.hasOutFileClause();
         boolean isSendFields = false;
         while (true) {
@@ -791,10 +858,14 @@ public class StmtExecutor {
                 if (!isSendFields) {
                     sendFields(colNames, outputExprs);
                     isSendFields = true;
+                    sendCachedRows(cacheLookup);
                 }
-                for (ByteBuffer row : batch.getBatch().getRows()) {
-                    channel.sendOnePacket(row);
+                if (cacheLookup != null) {
+                    for (ByteBuffer row : batch.getBatch().getRows()) {
+                        cacheLookup.addRow(row);
+                    }
                 }
+                channel.sendPackets(toResultRows(batch.getBatch().getRows()));
                 context.updateReturnRows(batch.getBatch().getRows().size());
             }
             if (batch.isEos()) {
@@ -803,6 +874,10 @@ public class StmtExecutor {
         }
         if (!isSendFields && !isOutfileQuery) {
             sendFields(colNames, outputExprs);
+            sendCachedRows(cacheLookup);
+        }
+        if (cacheLookup != null) {
+            cacheLookup.finish();
         }
 
         statisticsForAuditLog = batch.getQueryStatistics();
@@ -829,6 +904,17 @@ public class StmtExecutor {
         }
     }
 
+    private void sendCachedRows(ResultCache.Lookup cacheLookup) throws IOException {
+        if (cacheLookup == null) {
+            return;
+        }
+        MysqlChannel channel = context.getMysqlChannel();
+        // the cached row is shared by the queries
+        channel.sendPackets(toResultRows(cacheLookup.getCachedRows().stream().map(ByteBuffer::duplicate)
+                .collect(Collectors.toList())));
+        context.updateReturnRows(cacheLookup.getCachedRows().size());
+    }
+
     // Process a select statement.
     private void handleInsertStmt(UUID queryId) throws Exception {
         // Every time set no send flag and clean all data in buffer
@@ -1059,8 +1145,13 @@ public class StmtExecutor {
         job.setProperties(analyzeStmt.getProperties());
 
         try {
-            statisticExecutor.collectStatisticSync(db.getId(), table.getId(), analyzeStmt.getColumnNames(),
-                    analyzeStmt.isSample(), job.getSampleCollectRows());
+            if (analyzeStmt.isMultiColumn()) {
+                statisticExecutor.collectMultiColumnStatisticSync(db.getId(), table.getId(),
+                        analyzeStmt.getColumnNames());
+            } else {
+                statisticExecutor.collectStatisticSync(db.getId(), table.getId(), analyzeStmt.getColumnNames(),
+                        analyzeStmt.isSample(), job.getSampleCollectRows());
+            }
             Catalog.getCurrentStatisticStorage().expireColumnStatistics(table, job.getColumns());
         } catch (Exception e) {
             job.setReason(e.getMessage());
@@ -1115,9 +1206,15 @@ public class StmtExecutor {
         for (Column col : metaData.getColumns()) {
             serializer.reset();
             // TODO(zhaochun): only support varchar type
-            serializer.writeField(col.getName(), col.getType());
+            // the values of the show result may not match the column types, send them as strings
+            // if they are encoded by the binary protocol
+            serializer.writeField(col.getName(), isBinaryProtocol() ? Type.VARCHAR : col.getType());
             context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
         }
+        if (isBinaryProtocol()) {
+            binaryResultTypes = new int[metaData.getColumnCount()];
+            Arrays.fill(binaryResultTypes, MysqlColType.MYSQL_TYPE_VAR_STRING.getCode());
+        }
         // send EOF
         serializer.reset();
         MysqlEofPacket eofPacket = new MysqlEofPacket(context.getState());
@@ -1136,6 +1233,12 @@ public class StmtExecutor {
             serializer.writeField(colNames.get(i), exprs.get(i).getOriginType());
             context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
         }
+        if (isBinaryProtocol()) {
+            binaryResultTypes = new int[colNames.size()];
+            for (int i = 0; i < colNames.size(); ++i) {
+                binaryResultTypes[i] = exprs.get(i).getOriginType().getMysqlResultType().getCode();
+            }
+        }
         // send EOF
         serializer.reset();
         MysqlEofPacket eofPacket = new MysqlEofPacket(context.getState());
@@ -1143,6 +1246,30 @@ public class StmtExecutor {
         context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
     }
 
+    // The result rows of the prepared statements are sent by the binary protocol
+    private boolean isBinaryProtocol() {
+        return context.getCommand() == MysqlCommand.COM_STMT_EXECUTE;
+    }
+
+    // Convert the text row to the binary row if the result is sent by the binary protocol
+    private ByteBuffer toResultRow(ByteBuffer row) {
+        if (binaryResultTypes == null) {
+            return row;
+        }
+        return MysqlBinaryCodec.textRowToBinary(row, binaryResultTypes, serializer);
+    }
+
+    private List<ByteBuffer> toResultRows(List<ByteBuffer> rows) {
+        if (binaryResultTypes == null) {
+            return rows;
+        }
+        List<ByteBuffer> binaryRows = Lists.newArrayListWithCapacity(rows.size());
+        for (ByteBuffer row : rows) {
+            binaryRows.add(MysqlBinaryCodec.textRowToBinary(row, binaryResultTypes, serializer));
+        }
+        return binaryRows;
+    }
+
     public void sendShowResult(ShowResultSet resultSet) throws IOException {
         context.updateReturnRows(resultSet.getResultRows().size());
         // Send meta data.
@@ -1158,7 +1285,7 @@ public class StmtExecutor {
                     serializer.writeLenEncodedString(item);
                 }
             }
-            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+            context.getMysqlChannel().sendOnePacket(toResultRow(serializer.toByteBuffer()));
         }
 
         context.getState().setEof();
@@ -1192,7 +1319,7 @@ public class StmtExecutor {
         for (String item : result.split("\n")) {
             serializer.reset();
             serializer.writeLenEncodedString(item);
-            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+            context.getMysqlChannel().sendOnePacket(toResultRow(serializer.toByteBuffer()));
         }
         context.getState().setEof();
     }
@@ -876,18 +876,20 @@ public class FrontendServiceImpl implements FrontendService.Iface {
             }
             throw new UserException("unknown database, database=" + dbName);
         }
+        Table table = db.getTable(request.getTbl());
+        if (table == null) {
+            throw new UserException("unknown table, table=" + request.getTbl());
+        }
+        if (!(table instanceof OlapTable)) {
+            throw new UserException("load table type is not OlapTable, type=" + table.getClass());
+        }
         long timeoutMs = request.isSetThrift_rpc_timeout_ms() ? request.getThrift_rpc_timeout_ms() : 5000;
-        if (!db.tryReadLock(timeoutMs, TimeUnit.MILLISECONDS)) {
-            throw new UserException("get database read lock timeout, database=" + fullDbName);
+        // only lock the load table, not to be blocked by the writers of other tables
+        if (!db.tryReadLockTables(Lists.newArrayList(table), timeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new UserException("get table read lock timeout, database=" + fullDbName
+                    + ", table=" + request.getTbl());
         }
         try {
-            Table table = db.getTable(request.getTbl());
-            if (table == null) {
-                throw new UserException("unknown table, table=" + request.getTbl());
-            }
-            if (!(table instanceof OlapTable)) {
-                throw new UserException("load table type is not OlapTable, type=" + table.getClass());
-            }
             StreamLoadTask streamLoadTask = StreamLoadTask.fromTStreamLoadPutRequest(request, db);
             StreamLoadPlanner planner = new StreamLoadPlanner(db, (OlapTable) table, streamLoadTask);
             TExecPlanFragmentParams plan = planner.plan(streamLoadTask.getId());
@@ -901,7 +903,7 @@ public class FrontendServiceImpl implements FrontendService.Iface {
 
             return plan;
         } finally {
-            db.readUnlock();
+            db.readUnlockTables(Lists.newArrayList(table));
         }
     }
 
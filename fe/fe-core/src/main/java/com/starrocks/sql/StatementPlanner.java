@@ -6,9 +6,11 @@ import com.starrocks.analysis.InsertStmt;
 import com.starrocks.analysis.QueryStmt;
 import com.starrocks.analysis.StatementBase;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.Table;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.planner.PlannerContext;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.AnalyzerUtils;
 import com.starrocks.sql.analyzer.PrivilegeChecker;
 import com.starrocks.sql.analyzer.relation.QueryRelation;
 import com.starrocks.sql.analyzer.relation.Relation;
@@ -19,11 +21,15 @@ import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
 import com.starrocks.sql.optimizer.transformer.LogicalPlan;
 import com.starrocks.sql.optimizer.transformer.RelationTransformer;
+import com.starrocks.sql.plan.ConstantBinder;
 import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.NormalizedSql;
+import com.starrocks.sql.plan.PlanCache;
 import com.starrocks.sql.plan.PlanFragmentBuilder;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 public class StatementPlanner {
     public ExecPlan plan(StatementBase stmt, ConnectContext session) throws AnalysisException {
@@ -38,31 +44,58 @@ public class StatementPlanner {
 
             Map<String, Database> dbs = Maps.newTreeMap();
             queryStmt.getDbs(session, dbs);
+            Map<Database, List<Table>> tables = getTablesOfDbs(dbs, relation);
 
             try {
-                lock(dbs);
-                return createQueryPlan(relation, session);
+                lock(tables);
+                return createQueryPlan(queryStmt, relation, session);
             } finally {
-                unLock(dbs);
+                unLock(tables);
             }
         } else if (stmt instanceof InsertStmt) {
             InsertStmt insertStmt = (InsertStmt) stmt;
             Map<String, Database> dbs = Maps.newTreeMap();
             insertStmt.getDbs(session, dbs);
+            Map<Database, List<Table>> tables = getTablesOfDbs(dbs, relation);
 
             try {
-                lock(dbs);
+                lock(tables);
                 return createInsertPlan(relation, session);
             } finally {
-                unLock(dbs);
+                unLock(tables);
             }
         }
         return null;
     }
 
-    private ExecPlan createQueryPlan(Relation relation, ConnectContext session) {
+    private ExecPlan createQueryPlan(QueryStmt stmt, Relation relation, ConnectContext session) {
         QueryRelation query = (QueryRelation) relation;
         List<String> colNames = query.getColumnOutputNames();
+        PlannerContext plannerContext = new PlannerContext(null, null, session.getSessionVariable().toThrift(), null);
+
+        //0. Reuse the cached plan
+        PlanCache planCache = PlanCache.getInstance();
+        NormalizedSql normalizedSql = null;
+        List<Object> signature = null;
+        String cacheKey = null;
+        if (PlanCache.isEnabled(session) && stmt.getOrigStmt() != null) {
+            normalizedSql = NormalizedSql.of(stmt.getOrigStmt().originStmt);
+            if (normalizedSql.isCacheable()) {
+                // the tables are locked, so the signature is consistent with the plan
+                signature = PlanCache.createSignature(AnalyzerUtils.collectAllTable(relation).values());
+            }
+            if (signature != null) {
+                cacheKey = PlanCache.createKey(normalizedSql, stmt.getOrigStmt().idx, session);
+            }
+        }
+        if (cacheKey != null) {
+            ExecPlan execPlan = planCache.getPlan(cacheKey, normalizedSql, signature, plannerContext, session, colNames);
+            if (execPlan != null) {
+                PlanCache.increaseHit();
+                return execPlan;
+            }
+            PlanCache.increaseMiss();
+        }
 
         //1. Build Logical plan
         ColumnRefFactory columnRefFactory = new ColumnRefFactory();
@@ -78,32 +111,58 @@ public class StatementPlanner {
                 columnRefFactory);
 
         //3. Build fragment exec plan
-        PlannerContext plannerContext = new PlannerContext(null, null, session.getSessionVariable().toThrift(), null);
-        return new PlanFragmentBuilder().createPhysicalPlan(
-                optimizedPlan, plannerContext, session, logicalPlan.getOutputColumn(), columnRefFactory, colNames);
+        if (cacheKey == null) {
+            ExecPlan execPlan = new PlanFragmentBuilder().createPhysicalPlan(
+                    optimizedPlan, plannerContext, session, logicalPlan.getOutputColumn(), columnRefFactory, colNames);
+            execPlan.setOptimizerCounters(optimizer.getContext().getCounters());
+            return execPlan;
+        }
+
+        ConstantBinder constantRecorder = ConstantBinder.createRecorder();
+        session.setConstantBinder(constantRecorder);
+        ExecPlan execPlan;
+        try {
+            execPlan = new PlanFragmentBuilder().createPhysicalPlan(
+                    optimizedPlan, plannerContext, session, logicalPlan.getOutputColumn(), columnRefFactory, colNames);
+        } finally {
+            session.setConstantBinder(null);
+        }
+        execPlan.setOptimizerCounters(optimizer.getContext().getCounters());
+        planCache.putPlan(cacheKey, normalizedSql, signature, optimizedPlan, logicalPlan.getOutputColumn(),
+                columnRefFactory, constantRecorder.getRecordedConstants(), session);
+        return execPlan;
     }
 
     private ExecPlan createInsertPlan(Relation relation, ConnectContext session) {
         return new InsertPlanner().plan(relation, session);
     }
 
-    // Lock all database before analyze
-    private void lock(Map<String, Database> dbs) {
+    // Group the tables referenced by the statement by databases, in the order of database names.
+    // The tables which are not in the given databases are skipped.
+    private Map<Database, List<Table>> getTablesOfDbs(Map<String, Database> dbs, Relation relation) {
+        Map<Database, List<Table>> tables = Maps.newLinkedHashMap();
         if (dbs == null) {
-            return;
+            return tables;
         }
+        Map<Long, Table> allTables = AnalyzerUtils.collectAllTable(relation);
         for (Database db : dbs.values()) {
-            db.readLock();
+            List<Table> tablesOfDb = allTables.values().stream()
+                    .filter(table -> db.getTable(table.getId()) == table).collect(Collectors.toList());
+            tables.put(db, tablesOfDb);
         }
+        return tables;
     }
 
-    // unLock all database after analyze
-    private void unLock(Map<String, Database> dbs) {
-        if (dbs == null) {
-            return;
+    // Lock the referenced tables only, so the planning is not blocked by the writers of other tables
+    private void lock(Map<Database, List<Table>> tables) {
+        for (Map.Entry<Database, List<Table>> entry : tables.entrySet()) {
+            entry.getKey().readLockTables(entry.getValue());
         }
-        for (Database db : dbs.values()) {
-            db.readUnlock();
+    }
+
+    private void unLock(Map<Database, List<Table>> tables) {
+        for (Map.Entry<Database, List<Table>> entry : tables.entrySet()) {
+            entry.getKey().readUnlockTables(entry.getValue());
         }
     }
 }
@@ -15,6 +15,7 @@ import com.starrocks.catalog.Database;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Table;
 import com.starrocks.cluster.ClusterNamespace;
+import com.starrocks.common.Config;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.sql.analyzer.relation.Relation;
 import com.starrocks.sql.common.MetaUtils;
@@ -85,8 +86,17 @@ public class Analyzer {
                 if (!mentionedColumns.add(colName)) {
                     throw new SemanticException("Column '%s' specified twice", colName);
                 }
+                if (node.isMultiColumn() && col.getType().isOnlyMetricType()) {
+                    throw new SemanticException("Column '%s' of type %s can't be analyzed with other columns",
+                            colName, col.getType());
+                }
             }
         }
+        if (node.isMultiColumn() &&
+                (columnNames.size() < 2 || columnNames.size() > Config.statistic_multi_column_max_size)) {
+            throw new SemanticException("The number of the columns analyzed together should be in [2, %d]",
+                    Config.statistic_multi_column_max_size);
+        }
 
         Map<String, String> properties = node.getProperties();
 
@@ -0,0 +1,160 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.sql.analyzer;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.Subquery;
+import com.starrocks.catalog.Table;
+import com.starrocks.sql.analyzer.relation.ExceptRelation;
+import com.starrocks.sql.analyzer.relation.InsertRelation;
+import com.starrocks.sql.analyzer.relation.IntersectRelation;
+import com.starrocks.sql.analyzer.relation.JoinRelation;
+import com.starrocks.sql.analyzer.relation.QueryRelation;
+import com.starrocks.sql.analyzer.relation.QuerySpecification;
+import com.starrocks.sql.analyzer.relation.Relation;
+import com.starrocks.sql.analyzer.relation.RelationVisitor;
+import com.starrocks.sql.analyzer.relation.SetOperationRelation;
+import com.starrocks.sql.analyzer.relation.SubqueryRelation;
+import com.starrocks.sql.analyzer.relation.TableFunctionRelation;
+import com.starrocks.sql.analyzer.relation.TableRelation;
+import com.starrocks.sql.analyzer.relation.UnionRelation;
+import com.starrocks.sql.analyzer.relation.ValuesRelation;
+
+import java.util.List;
+import java.util.Map;
+
+public class AnalyzerUtils {
+    /**
+     * Collect all the tables referenced by an analyzed relation, including the views and the tables in them,
+     * with clauses and subqueries of expressions.
+     *
+     * @return table id -> table
+     */
+    public static Map<Long, Table> collectAllTable(Relation relation) {
+        Map<Long, Table> tables = Maps.newHashMap();
+        new TableCollector(tables).visit(relation);
+        return tables;
+    }
+
+    private static class TableCollector extends RelationVisitor<Void, Void> {
+        private final Map<Long, Table> tables;
+
+        TableCollector(Map<Long, Table> tables) {
+            this.tables = tables;
+        }
+
+        private void visitExpressions(List<? extends Expr> exprs) {
+            if (exprs == null) {
+                return;
+            }
+            for (Expr expr : exprs) {
+                visitExpression(expr);
+            }
+        }
+
+        private void visitExpression(Expr expr) {
+            if (expr == null) {
+                return;
+            }
+            List<Subquery> subqueries = Lists.newArrayList();
+            expr.collect(Subquery.class, subqueries);
+            for (Subquery subquery : subqueries) {
+                if (subquery.getQueryBlock() != null) {
+                    visit(subquery.getQueryBlock());
+                }
+            }
+        }
+
+        @Override
+        public Void visitQuery(QueryRelation node, Void context) {
+            visitExpressions(node.getOutputExpr());
+            return null;
+        }
+
+        @Override
+        public Void visitQuerySpecification(QuerySpecification node, Void context) {
+            visitExpressions(node.getOutputExpr());
+            visitExpression(node.getPredicate());
+            visitExpressions(node.getGroupBy());
+            visitExpressions(node.getAggregate());
+            if (node.getGroupingSetsList() != null) {
+                node.getGroupingSetsList().forEach(this::visitExpressions);
+            }
+            visitExpression(node.getHaving());
+            visitExpressions(node.getOrderSourceExpressions());
+            visitExpressions(node.getOutputAnalytic());
+            visitExpressions(node.getOrderByAnalytic());
+            if (node.getRelation() != null) {
+                visit(node.getRelation());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitTable(TableRelation node, Void context) {
+            tables.put(node.getTable().getId(), node.getTable());
+            return null;
+        }
+
+        @Override
+        public Void visitJoin(JoinRelation node, Void context) {
+            visit(node.getLeft());
+            visit(node.getRight());
+            visitExpression(node.getOnPredicate());
+            return null;
+        }
+
+        @Override
+        public Void visitSubquery(SubqueryRelation node, Void context) {
+            if (node.getView() != null) {
+                tables.put(node.getView().getId(), node.getView());
+            }
+            visit(node.getQuery());
+            return null;
+        }
+
+        private void visitSetOperation(SetOperationRelation node) {
+            for (QueryRelation relation : node.getRelations()) {
+                visit(relation);
+            }
+        }
+
+        @Override
+        public Void visitUnion(UnionRelation node, Void context) {
+            visitSetOperation(node);
+            return null;
+        }
+
+        @Override
+        public Void visitExcept(ExceptRelation node, Void context) {
+            visitSetOperation(node);
+            return null;
+        }
+
+        @Override
+        public Void visitIntersect(IntersectRelation node, Void context) {
+            visitSetOperation(node);
+            return null;
+        }
+
+        @Override
+        public Void visitValues(ValuesRelation node, Void context) {
+            node.getRows().forEach(this::visitExpressions);
+            return null;
+        }
+
+        @Override
+        public Void visitTableFunction(TableFunctionRelation node, Void context) {
+            visitExpressions(node.getChildExpressions());
+            return null;
+        }
+
+        @Override
+        public Void visitInsert(InsertRelation node, Void context) {
+            tables.put(node.getTargetTable().getId(), node.getTargetTable());
+            visit(node.getQueryRelation());
+            return null;
+        }
+    }
+}
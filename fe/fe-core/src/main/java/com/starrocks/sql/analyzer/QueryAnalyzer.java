@@ -735,7 +735,10 @@ public class QueryAnalyzer {
                             originField.getOriginExpression()));
                 }
 
-                return new SubqueryRelation(tableRef.getAlias(), qb, outputFields.build());
+                SubqueryRelation subqueryRelation =
+                        new SubqueryRelation(tableRef.getAlias(), qb, outputFields.build());
+                subqueryRelation.setCte(true);
+                return subqueryRelation;
             }
         }
 
@@ -809,7 +812,9 @@ public class QueryAnalyzer {
                         tableName, field.getOriginExpression()));
             }
 
-            return new SubqueryRelation(tableRef.getAlias(), query, outputFields.build());
+            SubqueryRelation subqueryRelation = new SubqueryRelation(tableRef.getAlias(), query, outputFields.build());
+            subqueryRelation.setView(view);
+            return subqueryRelation;
         } else {
             if (isSupportedTable(table)) {
                 TableRelation tableRelation = new TableRelation(tableName, table, columns.build(), fields.build(),
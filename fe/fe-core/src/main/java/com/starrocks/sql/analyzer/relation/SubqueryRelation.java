@@ -1,6 +1,7 @@
 // This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
 package com.starrocks.sql.analyzer.relation;
 
+import com.starrocks.catalog.View;
 import com.starrocks.sql.analyzer.Field;
 import com.starrocks.sql.analyzer.RelationFields;
 
@@ -9,6 +10,10 @@ import java.util.List;
 public class SubqueryRelation extends Relation {
     private final String name;
     private final QueryRelation query;
+    // the view which the subquery is expanded from, null for the other subqueries
+    private View view;
+    // the references of the same CTE share the same query
+    private boolean cte = false;
 
     public SubqueryRelation(String name, QueryRelation query, List<Field> relationFields) {
         super(new RelationFields(relationFields));
@@ -29,6 +34,22 @@ public class SubqueryRelation extends Relation {
         return query;
     }
 
+    public View getView() {
+        return view;
+    }
+
+    public void setView(View view) {
+        this.view = view;
+    }
+
+    public boolean isCte() {
+        return cte;
+    }
+
+    public void setCte(boolean cte) {
+        this.cte = cte;
+    }
+
     @Override
     public String toString() {
         return name == null ? "anonymous" : name;
@@ -0,0 +1,25 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer;
+
+import com.google.common.collect.Maps;
+import com.starrocks.sql.optimizer.statistics.Statistics;
+
+import java.util.Map;
+
+/**
+ * The context of the reused CTEs. The consumers of a CTE read the result of the CTE producer,
+ * so their statistics are derived from the statistics of the producer, which are estimated
+ * when the CTE is decided to be reused.
+ */
+public class CTEContext {
+    private final Map<Integer, Statistics> produceStatistics = Maps.newHashMap();
+
+    public void addProduceStatistics(int cteId, Statistics statistics) {
+        produceStatistics.put(cteId, statistics);
+    }
+
+    public Statistics getProduceStatistics(int cteId) {
+        return produceStatistics.get(cteId);
+    }
+}
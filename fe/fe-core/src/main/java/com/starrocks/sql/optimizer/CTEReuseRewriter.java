@@ -0,0 +1,225 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.PartitionNames;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.common.Pair;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEProduceOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.statistics.Statistics;
+import com.starrocks.sql.optimizer.statistics.StatisticsCalculator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Decide whether each CTE is computed once and sent to all its consumers, or inlined into
+ * each consumer, before the logical tree is copied into the memo.
+ * <p>
+ * Each reference of the CTE is a consumer whose child is the plan of the CTE. If the CTE is inlined,
+ * the consumers are replaced with the projections of their children. If the CTE is reused, the child
+ * of the first consumer becomes the producer, all the consumers become leaves which read the result
+ * of the producer, and the producer is placed below an anchor on top of the tree:
+ * <pre>
+ *          Join                            CTEAnchor
+ *         /    \                          /         \
+ *   Consume    Consume     =>      CTEProduce       Join
+ *      |          |                    |           /    \
+ *     Agg        Agg                  Agg    Consume    Consume
+ * </pre>
+ * The CTE is reused if computing it repeatedly costs more than sending its result, the cost is
+ * estimated by the rows processed by the CTE plan:
+ * (consumers - 1) * processedRows > consumers * outputRows * cbo_cte_reuse_rate
+ * The partitions aren't pruned yet, the rows of the scans are estimated with all the partitions they may read.
+ */
+public class CTEReuseRewriter {
+    private final OptimizerContext context;
+
+    public CTEReuseRewriter(OptimizerContext context) {
+        this.context = context;
+    }
+
+    public OptExpression rewrite(OptExpression root) {
+        // The reused CTEs in the order of being decided
+        List<Pair<Integer, OptExpression>> producers = Lists.newArrayList();
+
+        while (true) {
+            Map<Integer, List<OptExpression>> consumers = Maps.newTreeMap();
+            Set<Integer> nestedCteIds = Sets.newHashSet();
+            collectConsumers(root, false, consumers, nestedCteIds);
+            for (Pair<Integer, OptExpression> producer : producers) {
+                collectConsumers(producer.second, false, consumers, nestedCteIds);
+            }
+
+            // Decide the outer CTE first, the consumers of the inner CTEs referenced by it
+            // are removed if it is reused
+            Optional<Integer> cteId = consumers.keySet().stream()
+                    .filter(id -> !nestedCteIds.contains(id)).findFirst();
+            if (!cteId.isPresent()) {
+                break;
+            }
+
+            List<OptExpression> cteConsumers = consumers.get(cteId.get());
+            OptExpression producer = cteConsumers.get(0).inputAt(0);
+            List<ColumnRefOperator> producerColumns = null;
+            if (isReuseCheaper(cteId.get(), producer, cteConsumers.size())) {
+                LogicalCTEConsumeOperator consumer = (LogicalCTEConsumeOperator) cteConsumers.get(0).getOp();
+                producerColumns = Lists.newArrayList(consumer.getCteOutputColumnRefMap().values());
+                producers.add(new Pair<>(cteId.get(), producer));
+            }
+
+            root = replaceConsumers(root, cteId.get(), producerColumns);
+            for (Pair<Integer, OptExpression> reused : producers) {
+                reused.second = replaceConsumers(reused.second, cteId.get(), producerColumns);
+            }
+        }
+
+        // The CTE decided later may be referenced by the CTE decided earlier, so its anchor is outer
+        for (Pair<Integer, OptExpression> producer : producers) {
+            root = OptExpression.create(new LogicalCTEAnchorOperator(producer.first),
+                    OptExpression.create(new LogicalCTEProduceOperator(producer.first), producer.second), root);
+        }
+        return root;
+    }
+
+    // Collect the consumers which aren't decided, and the CTEs referenced by the other CTEs
+    private void collectConsumers(OptExpression expression, boolean nested,
+                                  Map<Integer, List<OptExpression>> consumers, Set<Integer> nestedCteIds) {
+        if (expression.getOp() instanceof LogicalCTEConsumeOperator && expression.arity() != 0) {
+            int cteId = ((LogicalCTEConsumeOperator) expression.getOp()).getCteId();
+            consumers.computeIfAbsent(cteId, k -> Lists.newArrayList()).add(expression);
+            if (nested) {
+                nestedCteIds.add(cteId);
+            }
+            nested = true;
+        }
+        for (OptExpression child : expression.getInputs()) {
+            collectConsumers(child, nested, consumers, nestedCteIds);
+        }
+    }
+
+    /*
+     * Replace the consumers of the CTE with the leaf consumers reading the producer columns,
+     * or with the projections of their children if the producer columns are null.
+     */
+    private OptExpression replaceConsumers(OptExpression expression, int cteId,
+                                           List<ColumnRefOperator> producerColumns) {
+        if (expression.getOp() instanceof LogicalCTEConsumeOperator && expression.arity() != 0 &&
+                ((LogicalCTEConsumeOperator) expression.getOp()).getCteId() == cteId) {
+            LogicalCTEConsumeOperator consumer = (LogicalCTEConsumeOperator) expression.getOp();
+            if (producerColumns == null) {
+                Map<ColumnRefOperator, ScalarOperator> projections = Maps.newHashMap();
+                projections.putAll(consumer.getCteOutputColumnRefMap());
+                return OptExpression.create(new LogicalProjectOperator(projections), expression.getInputs());
+            }
+
+            // All the consumers are planned from the same query, their columns are in the same order
+            Map<ColumnRefOperator, ColumnRefOperator> cteOutputColumnRefMap = Maps.newLinkedHashMap();
+            int index = 0;
+            for (ColumnRefOperator consumeColumn : consumer.getCteOutputColumnRefMap().keySet()) {
+                cteOutputColumnRefMap.put(consumeColumn, producerColumns.get(index++));
+            }
+            return OptExpression.create(new LogicalCTEConsumeOperator(cteId, cteOutputColumnRefMap));
+        }
+
+        for (int i = 0; i < expression.arity(); ++i) {
+            expression.setChild(i, replaceConsumers(expression.inputAt(i), cteId, producerColumns));
+        }
+        return expression;
+    }
+
+    private boolean isReuseCheaper(int cteId, OptExpression producer, int consumerNum) {
+        if (!context.getSessionVariable().isCboCteReuse() || consumerNum <= 1) {
+            return false;
+        }
+
+        List<LogicalOlapScanOperator> unprunedScans = Lists.newArrayList();
+        double processedRows = estimateProcessedRows(producer, unprunedScans);
+        Statistics statistics = producer.getStatistics();
+        clearEstimation(producer);
+        unprunedScans.forEach(scan -> scan.setSelectedPartitionId(Lists.newArrayList()));
+        // The statistics of the CTE are unknown, e.g. it contains subqueries
+        if (processedRows < 0) {
+            return false;
+        }
+
+        double outputRows = statistics.getOutputRowCount();
+        if ((consumerNum - 1) * processedRows >
+                consumerNum * outputRows * context.getSessionVariable().getCboCteReuseRate()) {
+            context.getCteContext().addProduceStatistics(cteId, statistics);
+            return true;
+        }
+        return false;
+    }
+
+    // Estimate the statistics bottom up, return -1 if they are unknown
+    private double estimateProcessedRows(OptExpression expression, List<LogicalOlapScanOperator> unprunedScans) {
+        double processedRows = 0;
+        for (OptExpression child : expression.getInputs()) {
+            double childRows = estimateProcessedRows(child, unprunedScans);
+            if (childRows < 0) {
+                return -1;
+            }
+            processedRows += childRows;
+        }
+
+        // The partitions are pruned after the CTEs are decided, the scans read all the partitions they may read
+        if (expression.getOp() instanceof LogicalOlapScanOperator) {
+            LogicalOlapScanOperator scan = (LogicalOlapScanOperator) expression.getOp();
+            if (scan.getSelectedPartitionId().isEmpty()) {
+                scan.setSelectedPartitionId(getCandidatePartitionIds(scan));
+                unprunedScans.add(scan);
+            }
+        }
+
+        expression.deriveLogicalPropertyItself();
+        ExpressionContext expressionContext = new ExpressionContext(expression);
+        StatisticsCalculator statisticsCalculator = new StatisticsCalculator(expressionContext,
+                expression.getOutputColumns(), context.getColumnRefFactory(), context.getDumpInfo(),
+                context.getCteContext());
+        statisticsCalculator.estimatorStats();
+        if (expressionContext.getStatistics() == null) {
+            return -1;
+        }
+        expression.setStatistics(expressionContext.getStatistics());
+        return processedRows + expressionContext.getStatistics().getOutputRowCount();
+    }
+
+    private static List<Long> getCandidatePartitionIds(LogicalOlapScanOperator scan) {
+        OlapTable table = scan.getOlapTable();
+        PartitionNames partitionNames = scan.getPartitionNames();
+        if (partitionNames == null) {
+            return table.getPartitions().stream().map(Partition::getId).collect(Collectors.toList());
+        }
+        List<Long> partitionIds = Lists.newArrayList();
+        for (String name : partitionNames.getPartitionNames()) {
+            Partition partition = table.getPartition(name, partitionNames.isTemp());
+            if (partition != null) {
+                partitionIds.add(partition.getId());
+            }
+        }
+        return partitionIds;
+    }
+
+    // The statistics are derived again in the memo after the tree is rewritten
+    private void clearEstimation(OptExpression expression) {
+        expression.setStatistics(null);
+        expression.setLogicalProperty(null);
+        for (OptExpression child : expression.getInputs()) {
+            clearEstimation(child);
+        }
+    }
+}
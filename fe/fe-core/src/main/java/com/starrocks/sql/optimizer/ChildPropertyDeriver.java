@@ -25,6 +25,9 @@ import com.starrocks.sql.optimizer.operator.OperatorVisitor;
 import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalFilterOperator;
@@ -916,6 +919,39 @@ public class ChildPropertyDeriver extends OperatorVisitor<Void, ExpressionContex
         return visitOperator(node, context);
     }
 
+    @Override
+    public Void visitPhysicalCTEAnchor(PhysicalCTEAnchorOperator node, ExpressionContext context) {
+        // The CTE producer sends its result to the consumers by the exchange, any distribution is ok,
+        // and pass through the requirements to the child which consumes the CTE
+        if (getRequiredLocalDesc().isPresent()) {
+            outputInputProps.add(new Pair<>(distributeRequirements(),
+                    Lists.newArrayList(PhysicalPropertySet.EMPTY, distributeRequirements())));
+            return visitOperator(node, context);
+        }
+        outputInputProps.add(new Pair<>(PhysicalPropertySet.EMPTY,
+                Lists.newArrayList(PhysicalPropertySet.EMPTY, PhysicalPropertySet.EMPTY)));
+        return visitOperator(node, context);
+    }
+
+    @Override
+    public Void visitPhysicalCTEProduce(PhysicalCTEProduceOperator node, ExpressionContext context) {
+        if (getRequiredLocalDesc().isPresent()) {
+            return visitOperator(node, context);
+        }
+        outputInputProps.add(new Pair<>(PhysicalPropertySet.EMPTY, Lists.newArrayList(PhysicalPropertySet.EMPTY)));
+        return visitOperator(node, context);
+    }
+
+    @Override
+    public Void visitPhysicalCTEConsume(PhysicalCTEConsumeOperator node, ExpressionContext context) {
+        // The consumer receives the CTE from the exchange, so it can't satisfy the local distribution
+        if (getRequiredLocalDesc().isPresent()) {
+            return visitOperator(node, context);
+        }
+        outputInputProps.add(new Pair<>(PhysicalPropertySet.EMPTY, Lists.newArrayList()));
+        return visitOperator(node, context);
+    }
+
     private PhysicalPropertySet createLimitGatherProperty(long limit) {
         DistributionSpec distributionSpec = DistributionSpec.createGatherDistributionSpec(limit);
         DistributionProperty distributionProperty = new DistributionProperty(distributionSpec);
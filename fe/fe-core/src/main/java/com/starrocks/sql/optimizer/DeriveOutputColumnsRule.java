@@ -5,6 +5,7 @@ package com.starrocks.sql.optimizer;
 import com.google.common.base.Preconditions;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.OperatorType;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalOperator;
 import com.starrocks.sql.optimizer.rewrite.PhysicalOperatorTreeRewriteRule;
 
@@ -33,6 +34,14 @@ public class DeriveOutputColumnsRule extends OptExpressionVisitor<Void, Void> im
         PhysicalOperator physical = (PhysicalOperator) optExpression.getOp();
         requiredColumns.union(physical.getUsedColumns());
 
+        // The consumers of the CTE are visited before the producer, so the producer outputs the columns they read
+        if (OperatorType.PHYSICAL_CTE_ANCHOR == physical.getOpType()) {
+            for (int i = optExpression.arity() - 1; i >= 0; --i) {
+                visit(optExpression.inputAt(i), context);
+            }
+            return null;
+        }
+
         for (OptExpression child : optExpression.getInputs()) {
             visit(child, context);
         }
@@ -60,6 +60,14 @@ public class ExpressionContext {
         }
     }
 
+    public OptExpression getOptExpression() {
+        return expression;
+    }
+
+    public GroupExpression getGroupExpression() {
+        return groupExpression;
+    }
+
     public Operator getOp() {
         if (expression != null) {
             return expression.getOp();
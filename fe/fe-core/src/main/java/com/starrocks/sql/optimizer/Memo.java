@@ -33,6 +33,8 @@ public class Memo {
     private static final Logger LOG = LogManager.getLogger(Memo.class);
 
     private int nextGroupId = 0;
+    // The number of group merges, the expressions bound before a merge may refer to the deleted groups
+    private int groupMergeCount = 0;
 
     // The group id is same with the group index in groups List
     private final List<Group> groups;
@@ -63,6 +65,10 @@ public class Memo {
         return rootGroup;
     }
 
+    public int getGroupMergeCount() {
+        return groupMergeCount;
+    }
+
     /**
      * Copy an expression into search space, this function will add an GroupExpression for
      * this Expression. If this Expression has children, this function will be called
@@ -149,6 +155,7 @@ public class Memo {
 
     // Merge srcGroup to dstGroup, srcGroup will be deleted
     private void mergeGroup(Group srcGroup, Group dstGroup) {
+        groupMergeCount++;
         groups.remove(srcGroup);
 
         // Reset root group, rewrite rule maybe eliminate the root group
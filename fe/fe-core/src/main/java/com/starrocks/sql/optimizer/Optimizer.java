@@ -51,12 +51,17 @@ public class Optimizer {
                                   ColumnRefFactory columnRefFactory) {
         // Phase 1: none
         // Phase 2: rewrite based on memo and group
+        long startTime = System.nanoTime();
         Memo memo = new Memo();
-        memo.init(logicOperatorTree);
-
         context = new OptimizerContext(memo, columnRefFactory, connectContext.getSessionVariable(),
                 connectContext.getDumpInfo());
 
+        // Decide whether the CTEs are reused or inlined before the rewrite, so the inlined CTEs
+        // are rewritten as the other subqueries
+        logicOperatorTree = new CTEReuseRewriter(context).rewrite(logicOperatorTree);
+        memo.init(logicOperatorTree);
+        OptimizerCounters counters = context.getCounters();
+
         TaskContext rootTaskContext = new TaskContext(context,
                 requiredProperty, (ColumnRefSet) requiredColumns.clone(), Double.MAX_VALUE);
         context.addTaskContext(rootTaskContext);
@@ -128,7 +133,10 @@ public class Optimizer {
         // So we need to explicitly derive all group logic property again
         memo.deriveAllGroupLogicalProperty();
 
+        counters.addPhaseTime("Rewrite", startTime);
+
         // Phase 3: optimize based on memo and group
+        startTime = System.nanoTime();
         tree = memo.getRootGroup().extractLogicalTree();
 
         if (!connectContext.getSessionVariable().isDisableJoinReorder()) {
@@ -141,10 +149,18 @@ public class Optimizer {
             }
         }
 
+        counters.addPhaseTime("JoinReorder", startTime);
+
         if (connectContext.getSessionVariable().isEnableNewPlannerPushDownJoinToAgg()) {
             context.getRuleSet().addPushDownJoinToAggRule();
         }
 
+        if (connectContext.getSessionVariable().isCboEnableEagerAggregation()) {
+            context.getRuleSet().addPushDownAggToJoinRules();
+        }
+
+        startTime = System.nanoTime();
+
         context.getTaskScheduler().pushTask(new OptimizeGroupTask(
                 rootTaskContext, memo.getRootGroup()));
 
@@ -153,7 +169,10 @@ public class Optimizer {
                 memo.getRootGroup().getLogicalProperty().getOutputColumns()));
 
         context.getTaskScheduler().executeTasks(rootTaskContext, memo.getRootGroup());
+        counters.addPhaseTime("MemoOptimize", startTime);
+        counters.setMemoSize(memo.getGroups().size(), memo.getGroupExpressions().size());
 
+        startTime = System.nanoTime();
         OptExpression result = extractBestPlan(requiredProperty, memo.getRootGroup());
         tryOpenPreAggregate(result);
         result = new AddProjectForJoinOnBinaryPredicatesRule().rewrite(result, columnRefFactory);
@@ -164,6 +183,7 @@ public class Optimizer {
 
         // Add project will case output change, re-derive output columns in property
         result = new DeriveOutputColumnsRule((ColumnRefSet) requiredColumns.clone()).rewrite(result, columnRefFactory);
+        counters.addPhaseTime("ExtractPlan", startTime);
         return result;
     }
 
@@ -9,6 +9,7 @@ import com.starrocks.qe.VariableMgr;
 import com.starrocks.sql.optimizer.base.ColumnRefFactory;
 import com.starrocks.sql.optimizer.dump.DumpInfo;
 import com.starrocks.sql.optimizer.rule.RuleSet;
+import com.starrocks.sql.optimizer.task.ParallelTaskScheduler;
 import com.starrocks.sql.optimizer.task.SeriallyTaskScheduler;
 import com.starrocks.sql.optimizer.task.TaskContext;
 import com.starrocks.sql.optimizer.task.TaskScheduler;
@@ -24,6 +25,8 @@ public class OptimizerContext {
     private final ColumnRefFactory columnRefFactory;
     private SessionVariable sessionVariable;
     private DumpInfo dumpInfo;
+    private final OptimizerCounters counters = new OptimizerCounters();
+    private final CTEContext cteContext = new CTEContext();
 
     public OptimizerContext(Memo memo, ColumnRefFactory columnRefFactory) {
         this.memo = memo;
@@ -41,7 +44,8 @@ public class OptimizerContext {
         this.ruleSet = new RuleSet();
         this.catalog = Catalog.getCurrentCatalog();
         this.taskContext = Lists.newArrayList();
-        this.taskScheduler = SeriallyTaskScheduler.create();
+        this.taskScheduler = sessionVariable.isEnableParallelOptimizer() ?
+                ParallelTaskScheduler.create() : SeriallyTaskScheduler.create();
         this.columnRefFactory = columnRefFactory;
         this.sessionVariable = sessionVariable;
         this.dumpInfo = dumpInfo;
@@ -86,4 +90,24 @@ public class OptimizerContext {
     public DumpInfo getDumpInfo() {
         return dumpInfo;
     }
+
+    public OptimizerCounters getCounters() {
+        return counters;
+    }
+
+    public CTEContext getCteContext() {
+        return cteContext;
+    }
+
+    /**
+     * Whether the memo has too many group expressions to explore, then the transformation rules
+     * are not applied anymore, and the best plan is chosen from the explored group expressions.
+     */
+    public boolean isMemoExhausted() {
+        if (!counters.isMemoExhausted() &&
+                memo.getGroupExpressions().size() >= sessionVariable.getCboMaxGroupExpressions()) {
+            counters.setMemoExhausted();
+        }
+        return counters.isMemoExhausted();
+    }
 }
@@ -0,0 +1,77 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer;
+
+import com.google.common.collect.Maps;
+import com.starrocks.common.util.DebugUtil;
+import com.starrocks.common.util.RuntimeProfile;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The counters of the optimizer for one query, which are shown in the query profile.
+ */
+public class OptimizerCounters {
+    private int groups = 0;
+    private int groupExpressions = 0;
+    // The number of the rules applied to the group expressions
+    private int appliedRules = 0;
+    // The number of the group expressions pruned by the upper bound cost
+    private int prunedExpressions = 0;
+    // The memo stopped exploring because it has too many group expressions
+    private boolean memoExhausted = false;
+    // phase name -> elapsed nanoseconds
+    private final Map<String, Long> phaseTimes = Maps.newLinkedHashMap();
+
+    public void setMemoSize(int groups, int groupExpressions) {
+        this.groups = groups;
+        this.groupExpressions = groupExpressions;
+    }
+
+    public void increaseAppliedRules() {
+        appliedRules++;
+    }
+
+    public int getAppliedRules() {
+        return appliedRules;
+    }
+
+    public void increasePrunedExpressions() {
+        prunedExpressions++;
+    }
+
+    public int getPrunedExpressions() {
+        return prunedExpressions;
+    }
+
+    public void setMemoExhausted() {
+        memoExhausted = true;
+    }
+
+    public boolean isMemoExhausted() {
+        return memoExhausted;
+    }
+
+    public void addPhaseTime(String phase, long startNanos) {
+        phaseTimes.merge(phase, System.nanoTime() - startNanos, Long::sum);
+    }
+
+    public Map<String, Long> getPhaseTimes() {
+        return phaseTimes;
+    }
+
+    public RuntimeProfile toProfile() {
+        RuntimeProfile profile = new RuntimeProfile("Optimizer");
+        profile.addInfoString("Groups", String.valueOf(groups));
+        profile.addInfoString("GroupExpressions", String.valueOf(groupExpressions));
+        profile.addInfoString("AppliedRules", String.valueOf(appliedRules));
+        profile.addInfoString("PrunedExpressions", String.valueOf(prunedExpressions));
+        profile.addInfoString("MemoExhausted", String.valueOf(memoExhausted));
+        for (Map.Entry<String, Long> entry : phaseTimes.entrySet()) {
+            profile.addInfoString(entry.getKey() + "Time",
+                    DebugUtil.getPrettyStringMs(TimeUnit.NANOSECONDS.toMillis(entry.getValue())));
+        }
+        return profile;
+    }
+}
@@ -1,6 +1,7 @@
 // This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
 package com.starrocks.sql.optimizer.base;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.analysis.Expr;
@@ -9,10 +10,12 @@ import com.starrocks.analysis.SlotRef;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Table;
 import com.starrocks.catalog.Type;
+import com.starrocks.sql.analyzer.relation.QueryRelation;
 import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +27,10 @@ public class ColumnRefFactory {
     private final List<ColumnRefOperator> columnRefs = Lists.newArrayList();
     private final Map<Integer, Integer> columnToRelationIds = Maps.newHashMap();
     private final Map<ColumnRefOperator, Column> columnRefToColumns = Maps.newHashMap();
+    // The unique id for each CTE, all the references of the same CTE share the same query relation
+    private final Map<QueryRelation, Integer> cteIds = new IdentityHashMap<>();
+    // No column could be created when the optimizer rules are applied in parallel
+    private volatile boolean readOnly = false;
 
     public ColumnRefOperator create(Expr expression, Type type, boolean nullable) {
         String nameHint = "expr";
@@ -32,7 +39,7 @@ public class ColumnRefFactory {
         } else if (expression instanceof FunctionCallExpr) {
             nameHint = ((FunctionCallExpr) expression).getFnName().toString();
         }
-        return create(nextId++, nameHint, type, nullable);
+        return create(nextId(), nameHint, type, nullable);
     }
 
     public ColumnRefOperator create(ScalarOperator operator, Type type, boolean nullable) {
@@ -42,11 +49,20 @@ public class ColumnRefFactory {
         } else if (operator instanceof CallOperator) {
             nameHint = ((CallOperator) operator).getFnName();
         }
-        return create(nextId++, nameHint, type, nullable);
+        return create(nextId(), nameHint, type, nullable);
     }
 
     public ColumnRefOperator create(String name, Type type, boolean nullable) {
-        return create(nextId++, name, type, nullable);
+        return create(nextId(), name, type, nullable);
+    }
+
+    private int nextId() {
+        Preconditions.checkState(!readOnly, "Can't create column when the column ref factory is read only");
+        return nextId++;
+    }
+
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
     }
 
     private ColumnRefOperator create(int id, String name, Type type, boolean nullable) {
@@ -60,6 +76,7 @@ public class ColumnRefFactory {
     }
 
     public void updateColumnRefToColumns(ColumnRefOperator columnRef, Column column, Table table) {
+        Preconditions.checkState(!readOnly);
         columnRefToColumns.put(columnRef, column);
     }
 
@@ -68,6 +85,7 @@ public class ColumnRefFactory {
     }
 
     public void updateColumnToRelationIds(int columnId, int tableId) {
+        Preconditions.checkState(!readOnly);
         columnToRelationIds.put(columnId, tableId);
     }
 
@@ -75,7 +93,13 @@ public class ColumnRefFactory {
         return columnToRelationIds.getOrDefault(id, -1);
     }
 
+    public int getCTEId(QueryRelation cteQuery) {
+        Preconditions.checkState(!readOnly);
+        return cteIds.computeIfAbsent(cteQuery, k -> cteIds.size() + 1);
+    }
+
     public int getNextRelationId() {
+        Preconditions.checkState(!readOnly);
         return nextRelationId++;
     }
 }
@@ -8,6 +8,8 @@ import com.starrocks.sql.optimizer.operator.AggType;
 import com.starrocks.sql.optimizer.operator.Operator;
 import com.starrocks.sql.optimizer.operator.OperatorVisitor;
 import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalIntersectOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
@@ -97,6 +99,20 @@ public class LogicalProperty implements Property {
         public Integer visitLogicalTableFunction(LogicalTableFunctionOperator node, ExpressionContext context) {
             return 1;
         }
+
+        @Override
+        public Integer visitLogicalCTEAnchor(LogicalCTEAnchorOperator node, ExpressionContext context) {
+            return context.getChildLeftMostScanTabletsNum(1);
+        }
+
+        @Override
+        public Integer visitLogicalCTEConsume(LogicalCTEConsumeOperator node, ExpressionContext context) {
+            if (context.arity() != 0) {
+                return context.getChildLeftMostScanTabletsNum(0);
+            }
+            // the CTE is received from the exchange, this is not 1 because avoid to generate 1 phase agg
+            return 2;
+        }
     }
 
     static class OneTabletExecutorVisitor extends OperatorVisitor<Boolean, ExpressionContext> {
@@ -149,6 +165,16 @@ public class LogicalProperty implements Property {
         public Boolean visitLogicalTableFunction(LogicalTableFunctionOperator node, ExpressionContext context) {
             return false;
         }
+
+        @Override
+        public Boolean visitLogicalCTEAnchor(LogicalCTEAnchorOperator node, ExpressionContext context) {
+            return context.isExecuteInOneTablet(1);
+        }
+
+        @Override
+        public Boolean visitLogicalCTEConsume(LogicalCTEConsumeOperator node, ExpressionContext context) {
+            return context.arity() != 0 && context.isExecuteInOneTablet(0);
+        }
     }
 
     // At present, only the case of second phase aggregation is handled.
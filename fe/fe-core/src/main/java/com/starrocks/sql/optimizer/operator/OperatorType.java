@@ -27,6 +27,9 @@ public enum OperatorType {
     LOGICAL_VALUES,
     LOGICAL_REPEAT,
     LOGICAL_TABLE_FUNCTION,
+    LOGICAL_CTE_ANCHOR,
+    LOGICAL_CTE_PRODUCE,
+    LOGICAL_CTE_CONSUME,
 
     /**
      * Physical operator
@@ -52,6 +55,9 @@ public enum OperatorType {
     PHYSICAL_REPEAT,
     PHYSICAL_FILTER,
     PHYSICAL_TABLE_FUNCTION,
+    PHYSICAL_CTE_ANCHOR,
+    PHYSICAL_CTE_PRODUCE,
+    PHYSICAL_CTE_CONSUME,
 
     /**
      * Scalar operator
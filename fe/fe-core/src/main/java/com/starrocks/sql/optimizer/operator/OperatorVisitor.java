@@ -3,6 +3,9 @@ package com.starrocks.sql.optimizer.operator;
 
 import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
@@ -22,6 +25,9 @@ import com.starrocks.sql.optimizer.operator.logical.LogicalValuesOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalWindowOperator;
 import com.starrocks.sql.optimizer.operator.logical.MockOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalDistributionOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalExceptOperator;
@@ -130,6 +136,18 @@ public abstract class OperatorVisitor<R, C> {
         return visitOperator(node, context);
     }
 
+    public R visitLogicalCTEAnchor(LogicalCTEAnchorOperator node, C context) {
+        return visitOperator(node, context);
+    }
+
+    public R visitLogicalCTEProduce(LogicalCTEProduceOperator node, C context) {
+        return visitOperator(node, context);
+    }
+
+    public R visitLogicalCTEConsume(LogicalCTEConsumeOperator node, C context) {
+        return visitOperator(node, context);
+    }
+
     public R visitMockOperator(MockOperator node, C context) {
         return visitOperator(node, context);
     }
@@ -212,4 +230,16 @@ public abstract class OperatorVisitor<R, C> {
     public R visitPhysicalTableFunction(PhysicalTableFunctionOperator node, C context) {
         return visitOperator(node, context);
     }
+
+    public R visitPhysicalCTEAnchor(PhysicalCTEAnchorOperator node, C context) {
+        return visitOperator(node, context);
+    }
+
+    public R visitPhysicalCTEProduce(PhysicalCTEProduceOperator node, C context) {
+        return visitOperator(node, context);
+    }
+
+    public R visitPhysicalCTEConsume(PhysicalCTEConsumeOperator node, C context) {
+        return visitOperator(node, context);
+    }
 }
@@ -0,0 +1,64 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.operator.logical;
+
+import com.starrocks.sql.optimizer.ExpressionContext;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptExpressionVisitor;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.OperatorVisitor;
+
+import java.util.Objects;
+
+/**
+ * The anchor of a reused CTE, the left child is the CTE producer, and the right child
+ * is the plan which consumes the CTE. The output of the anchor is the output of the right child.
+ */
+public class LogicalCTEAnchorOperator extends LogicalOperator {
+    private final int cteId;
+
+    public LogicalCTEAnchorOperator(int cteId) {
+        super(OperatorType.LOGICAL_CTE_ANCHOR);
+        this.cteId = cteId;
+    }
+
+    public int getCteId() {
+        return cteId;
+    }
+
+    @Override
+    public ColumnRefSet getOutputColumns(ExpressionContext expressionContext) {
+        return expressionContext.getChildLogicalProperty(1).getOutputColumns();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        LogicalCTEAnchorOperator that = (LogicalCTEAnchorOperator) o;
+        return cteId == that.cteId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), cteId);
+    }
+
+    @Override
+    public <R, C> R accept(OperatorVisitor<R, C> visitor, C context) {
+        return visitor.visitLogicalCTEAnchor(this, context);
+    }
+
+    @Override
+    public <R, C> R accept(OptExpressionVisitor<R, C> visitor, OptExpression optExpression, C context) {
+        return visitor.visitLogicalCTEAnchor(optExpression, context);
+    }
+}
@@ -0,0 +1,79 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.operator.logical;
+
+import com.starrocks.sql.optimizer.ExpressionContext;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptExpressionVisitor;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.OperatorVisitor;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A reference of the CTE, the columns of the reference are mapped to the output columns of the CTE.
+ * <p>
+ * Before the optimizer decides whether the CTE is reused, the consumer has a child which is the
+ * plan of the CTE, and the columns are mapped to the output columns of the child. After the CTE
+ * is decided to be reused, the consumer is a leaf and the columns are mapped to the output columns
+ * of the CTE producer.
+ */
+public class LogicalCTEConsumeOperator extends LogicalOperator {
+    private final int cteId;
+
+    // consumer column -> CTE output column
+    private final Map<ColumnRefOperator, ColumnRefOperator> cteOutputColumnRefMap;
+
+    public LogicalCTEConsumeOperator(int cteId, Map<ColumnRefOperator, ColumnRefOperator> cteOutputColumnRefMap) {
+        super(OperatorType.LOGICAL_CTE_CONSUME);
+        this.cteId = cteId;
+        this.cteOutputColumnRefMap = cteOutputColumnRefMap;
+    }
+
+    public int getCteId() {
+        return cteId;
+    }
+
+    public Map<ColumnRefOperator, ColumnRefOperator> getCteOutputColumnRefMap() {
+        return cteOutputColumnRefMap;
+    }
+
+    @Override
+    public ColumnRefSet getOutputColumns(ExpressionContext expressionContext) {
+        return new ColumnRefSet(new ArrayList<>(cteOutputColumnRefMap.keySet()));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        LogicalCTEConsumeOperator that = (LogicalCTEConsumeOperator) o;
+        return cteId == that.cteId && Objects.equals(cteOutputColumnRefMap, that.cteOutputColumnRefMap);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), cteId, cteOutputColumnRefMap);
+    }
+
+    @Override
+    public <R, C> R accept(OperatorVisitor<R, C> visitor, C context) {
+        return visitor.visitLogicalCTEConsume(this, context);
+    }
+
+    @Override
+    public <R, C> R accept(OptExpressionVisitor<R, C> visitor, OptExpression optExpression, C context) {
+        return visitor.visitLogicalCTEConsume(optExpression, context);
+    }
+}
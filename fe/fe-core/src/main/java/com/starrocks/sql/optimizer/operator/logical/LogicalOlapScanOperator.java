@@ -17,6 +17,7 @@ import com.starrocks.sql.optimizer.base.HashDistributionSpec;
 import com.starrocks.sql.optimizer.operator.OperatorType;
 import com.starrocks.sql.optimizer.operator.OperatorVisitor;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,6 +31,8 @@ public final class LogicalOlapScanOperator extends LogicalScanOperator {
 
     private PartitionNames partitionNames;
     private List<Long> hintsTabletIds;
+    // the predicates removed by partition pruning, since all the selected partitions meet them
+    private List<ScalarOperator> prunedPartitionPredicates = Lists.newArrayList();
 
     private final ImmutableMap<Column, Integer> columnToIds;
 
@@ -102,6 +105,10 @@ public final class LogicalOlapScanOperator extends LogicalScanOperator {
         return columnToIds;
     }
 
+    public List<ScalarOperator> getPrunedPartitionPredicates() {
+        return prunedPartitionPredicates;
+    }
+
     // TODO(kks): combine this method with PhysicalOlapScan::getDistributionSpec
     public HashDistributionSpec getDistributionSpec() {
         DistributionInfo distributionInfo = ((OlapTable) table).getDefaultDistributionInfo();
@@ -17,6 +17,7 @@ import com.starrocks.sql.optimizer.base.HashDistributionSpec;
 import com.starrocks.sql.optimizer.operator.OperatorType;
 import com.starrocks.sql.optimizer.operator.OperatorVisitor;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -35,6 +36,8 @@ public class PhysicalOlapScanOperator extends PhysicalOperator {
 
     private boolean isPreAggregation;
     private String turnOffReason;
+    // the predicates removed by partition pruning, see LogicalOlapScanOperator
+    private List<ScalarOperator> prunedPartitionPredicates = Collections.emptyList();
 
     public PhysicalOlapScanOperator(OlapTable table,
                                     List<ColumnRefOperator> outputColumns,
@@ -99,6 +102,14 @@ public class PhysicalOlapScanOperator extends PhysicalOperator {
         isPreAggregation = preAggregation;
     }
 
+    public List<ScalarOperator> getPrunedPartitionPredicates() {
+        return prunedPartitionPredicates;
+    }
+
+    public void setPrunedPartitionPredicates(List<ScalarOperator> prunedPartitionPredicates) {
+        this.prunedPartitionPredicates = prunedPartitionPredicates;
+    }
+
     public String getTurnOffReason() {
         return turnOffReason;
     }
@@ -59,6 +59,9 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
 
     private final Object value;
     private final boolean isNull;
+    // Whether the constant is a literal of sql, or cast from it. It's not a part of the value,
+    // but is used by the plan cache to replace the literals of a cached plan.
+    private boolean fromLiteral = false;
 
     private ConstantOperator(Type type) {
         super(OperatorType.CONSTANT, type);
@@ -319,7 +322,21 @@ public final class ConstantOperator extends ScalarOperator implements Comparable
         return type.equals(Type.NULL);
     }
 
+    public boolean isFromLiteral() {
+        return fromLiteral;
+    }
+
+    public void setFromLiteral(boolean fromLiteral) {
+        this.fromLiteral = fromLiteral;
+    }
+
     public ConstantOperator castTo(Type desc) throws Exception {
+        ConstantOperator result = castToType(desc);
+        result.fromLiteral = fromLiteral;
+        return result;
+    }
+
+    private ConstantOperator castToType(Type desc) throws Exception {
         if (type.isTime() || desc.isTime()) {
             // Don't support constant time cast in FE
             throw UnsupportedException
@@ -79,6 +79,14 @@ public class AddProjectForJoinPruneRule implements PhysicalOperatorTreeRewriteRu
             }
         }
 
+        // The consumers of the CTE are visited before the producer, so the producer keeps the columns they read
+        if (OperatorType.PHYSICAL_CTE_ANCHOR == root.getOp().getOpType()) {
+            for (int i = root.arity() - 1; i >= 0; --i) {
+                root.setChild(i, addProject(root.inputAt(i), usedColumns, factory));
+            }
+            return root;
+        }
+
         for (int i = 0; i < root.arity(); ++i) {
             root.setChild(i, addProject(root.inputAt(i), usedColumns, factory));
         }
@@ -6,6 +6,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.sql.optimizer.rule.implementation.AssertOneRowImplementationRule;
+import com.starrocks.sql.optimizer.rule.implementation.CTEAnchorImplementationRule;
+import com.starrocks.sql.optimizer.rule.implementation.CTEConsumeImplementationRule;
+import com.starrocks.sql.optimizer.rule.implementation.CTEProduceImplementationRule;
 import com.starrocks.sql.optimizer.rule.implementation.EsScanImplementationRule;
 import com.starrocks.sql.optimizer.rule.implementation.ExceptImplementationRule;
 import com.starrocks.sql.optimizer.rule.implementation.FilterImplementationRule;
@@ -45,6 +48,7 @@ import com.starrocks.sql.optimizer.rule.transformation.MergeTwoProjectRule;
 import com.starrocks.sql.optimizer.rule.transformation.PartitionPruneRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneAggregateColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneAssertOneRowRule;
+import com.starrocks.sql.optimizer.rule.transformation.PruneCTEConsumeColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneExceptColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneFilterColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneIntersectColumnsRule;
@@ -58,6 +62,7 @@ import com.starrocks.sql.optimizer.rule.transformation.PruneTopNColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneUnionColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneValuesColumnsRule;
 import com.starrocks.sql.optimizer.rule.transformation.PruneWindowColumnsRule;
+import com.starrocks.sql.optimizer.rule.transformation.PushDownAggJoinRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownApplyAggFilterRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownApplyAggProjectFilterRule;
 import com.starrocks.sql.optimizer.rule.transformation.PushDownApplyFilterRule;
@@ -112,7 +117,10 @@ public class RuleSet {
             new ValuesImplementationRule(),
             new RepeatImplementationRule(),
             new FilterImplementationRule(),
-            new TableFunctionImplementationRule()
+            new TableFunctionImplementationRule(),
+            new CTEAnchorImplementationRule(),
+            new CTEProduceImplementationRule(),
+            new CTEConsumeImplementationRule()
     );
 
     private final List<Rule> transformRules = Lists.newArrayList();
@@ -165,7 +173,8 @@ public class RuleSet {
                 new PruneExceptColumnsRule(),
                 new PruneRepeatColumnsRule(),
                 new PruneValuesColumnsRule(),
-                new PruneTableFunctionColumnRule()
+                new PruneTableFunctionColumnRule(),
+                new PruneCTEConsumeColumnsRule()
         ));
 
         rewriteRules.put(RuleSetType.SCALAR_OPERATOR_REUSE, ImmutableList.of(
@@ -237,6 +246,12 @@ public class RuleSet {
         transformRules.add(PushDownJoinAggRule.getInstance());
     }
 
+    // The aggregation above the join is kept, the eager and the lazy aggregations are both in the memo
+    public void addPushDownAggToJoinRules() {
+        transformRules.add(PushDownAggJoinRule.getAggJoinInstance());
+        transformRules.add(PushDownAggJoinRule.getAggProjectJoinInstance());
+    }
+
     public void addJoinCommutativityWithOutInnerRule() {
         transformRules.add(JoinCommutativityWithOutInnerRule.getInstance());
     }
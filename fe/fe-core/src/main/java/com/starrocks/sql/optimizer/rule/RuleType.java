@@ -14,6 +14,8 @@ public enum RuleType {
     TF_SPLIT_AGGREGATE,
     TF_SPLIT_TOPN,
     TF_PUSH_DOWN_JOIN_AGG,
+    TF_PUSH_DOWN_AGG_JOIN,
+    TF_PUSH_DOWN_AGG_PROJECT_JOIN,
 
     TF_MERGE_LIMIT_DIRECT,
     TF_MERGE_LIMIT_WITH_SORT,
@@ -54,6 +56,7 @@ public enum RuleType {
     TF_PRUNE_REPEAT_COLUMNS,
     TF_PRUNE_VALUES_COLUMNS,
     TF_PRUNE_TABLE_FUNCTION_COLUMNS,
+    TF_PRUNE_CTE_CONSUME_COLUMNS,
     TF_MERGE_TWO_PROJECT,
 
     TF_SCALAR_OPERATORS_REUSE,
@@ -103,6 +106,9 @@ public enum RuleType {
     IMP_REPEAT,
     IMP_FILTER,
     IMP_TABLE_FUNCTION,
+    IMP_CTE_ANCHOR,
+    IMP_CTE_PRODUCE,
+    IMP_CTE_CONSUME,
 
     NUM_RULES;
 
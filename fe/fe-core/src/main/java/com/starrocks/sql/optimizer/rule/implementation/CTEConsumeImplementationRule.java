@@ -0,0 +1,31 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.implementation;
+
+import com.google.common.collect.Lists;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.rule.RuleType;
+
+import java.util.Collections;
+import java.util.List;
+
+public class CTEConsumeImplementationRule extends ImplementationRule {
+    public CTEConsumeImplementationRule() {
+        super(RuleType.IMP_CTE_CONSUME, Pattern.create(OperatorType.LOGICAL_CTE_CONSUME));
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        LogicalCTEConsumeOperator logical = (LogicalCTEConsumeOperator) input.getOp();
+        PhysicalCTEConsumeOperator physical =
+                new PhysicalCTEConsumeOperator(logical.getCteId(), logical.getCteOutputColumnRefMap());
+        physical.setPredicate(logical.getPredicate());
+        physical.setLimit(logical.getLimit());
+        return Lists.newArrayList(OptExpression.create(physical, Collections.emptyList()));
+    }
+}
@@ -32,6 +32,7 @@ public class OlapScanImplementationRule extends ImplementationRule {
         physicalOlapScan.setSelectedTabletId(Lists.newArrayList(scan.getSelectedTabletId()));
         physicalOlapScan.setPredicate(scan.getPredicate());
         physicalOlapScan.setLimit(scan.getLimit());
+        physicalOlapScan.setPrunedPartitionPredicates(Lists.newArrayList(scan.getPrunedPartitionPredicates()));
 
         OptExpression result = new OptExpression(physicalOlapScan);
         return Lists.newArrayList(result);
@@ -1,118 +1,192 @@
 // This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
 package com.starrocks.sql.optimizer.rule.join;
 
-import com.google.common.collect.ImmutableList;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Ordering;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.OptimizerContext;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 
-import java.util.ArrayList;
 import java.util.BitSet;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
-import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.collect.ImmutableSet.toImmutableSet;
-import static com.google.common.collect.Sets.powerSet;
-import static java.util.stream.Collectors.toCollection;
 
+/**
+ * Reorder the joins by dynamic programming over the connected sub graphs of the join graph (DPccp,
+ * Moerkotte and Neumann, "Analysis of Two Existing and One New Dynamic Programming Algorithm for the
+ * Generation of Optimal Bushy Join Trees without Cross Products").
+ * <p>
+ * The atoms are the vertexes of the join graph and the predicates are the edges, a predicate on more than
+ * two atoms connects each pair of them. Only the pairs of a connected sub graph and a connected complement
+ * which are adjacent are enumerated, each pair exactly once, so the chain and cycle queries are polynomial
+ * instead of the 3^n of enumerating all the partitions. If the join graph is not connected, the atoms of
+ * different components are adjacent to each other, so the cross joins are only between the components.
+ * <p>
+ * The set of atoms is a long bitmask, so at most {@link #MAX_ATOMS} atoms are supported.
+ */
 public class JoinReorderDP extends JoinOrder {
+    public static final int MAX_ATOMS = Long.SIZE - 1;
+
+    // The adjacent atoms of each atom
+    private long[] neighbors;
+    // The atoms bitmask -> the best plan of the atoms
+    private final Long2ObjectOpenHashMap<GroupInfo> bestPlanMemo = new Long2ObjectOpenHashMap<>();
+
     public JoinReorderDP(OptimizerContext context) {
         super(context);
     }
 
-    private final Map<Set<OptExpression>, GroupInfo> bestPlanMemo = new HashMap<>();
-
     @Override
     protected void enumerate() {
-        Set<OptExpression> joinKeys = new HashSet<>();
-        for (GroupInfo groupInfo : joinLevels.get(1).groups) {
-            joinKeys.add(groupInfo.bestExprInfo.expr);
+        Preconditions.checkState(atomSize <= MAX_ATOMS, "too many atoms to reorder by dp: %s", atomSize);
+        computeNeighbors();
+        for (int i = 0; i < atomSize; i++) {
+            bestPlanMemo.put(1L << i, joinLevels.get(1).groups.get(i));
         }
 
-        getBestExpr(joinKeys, joinLevels.get(1).groups);
+        for (int i = atomSize - 1; i >= 0; i--) {
+            long start = 1L << i;
+            emitCsg(start);
+            // Exclude the atoms whose index is not greater than i, they are enumerated by the other starts
+            enumerateCsgRec(start, (start << 1) - 1);
+        }
     }
 
     @Override
     public List<OptExpression> getResult() {
-        Set<OptExpression> joinKeys = new HashSet<>();
-        for (GroupInfo groupInfo : joinLevels.get(1).groups) {
-            joinKeys.add(groupInfo.bestExprInfo.expr);
-        }
-
-        GroupInfo g = getBestExpr(joinKeys, joinLevels.get(1).groups);
+        GroupInfo g = bestPlanMemo.get(allAtoms());
         return Lists.newArrayList(g.bestExprInfo.expr);
     }
 
-    private GroupInfo getBestExpr(Set<OptExpression> joinKeys, List<GroupInfo> groups) {
-        if (groups.size() == 1) {
-            return groups.get(0);
+    private long allAtoms() {
+        return (1L << atomSize) - 1;
+    }
+
+    private void computeNeighbors() {
+        neighbors = new long[atomSize];
+        for (Edge edge : edges) {
+            long vertexes = toMask(edge.vertexes);
+            for (int i = edge.vertexes.nextSetBit(0); i >= 0; i = edge.vertexes.nextSetBit(i + 1)) {
+                neighbors[i] |= vertexes & ~(1L << i);
+            }
         }
 
-        GroupInfo bestPlan = bestPlanMemo.get(joinKeys);
-        if (bestPlan == null) {
-            Ordering<ExpressionInfo> resultComparator = Ordering.from(Comparator.comparing(ExpressionInfo::getCost));
-
-            List<ExpressionInfo> results = new ArrayList<>();
-            Set<Set<Integer>> partitions = generatePartitions(groups.size());
-            for (Set<Integer> partition : partitions) {
-                List<GroupInfo> sourceList = ImmutableList.copyOf(groups);
-                ArrayList<GroupInfo> leftSources = partition.stream()
-                        .map(sourceList::get)
-                        .collect(toCollection(ArrayList::new));
-                Set<OptExpression> leftJoinKeys =
-                        leftSources.stream().map(g -> g.bestExprInfo.expr).collect(Collectors.toSet());
-
-                ArrayList<GroupInfo> rightSources = groups.stream()
-                        .filter(g -> !leftSources.contains(g))
-                        .collect(toCollection(ArrayList::new));
-                Set<OptExpression> rightJoinKeys =
-                        rightSources.stream().map(g -> g.bestExprInfo.expr).collect(Collectors.toSet());
-
-                GroupInfo leftGroup = getBestExpr(leftJoinKeys, leftSources);
-                if (!results.isEmpty() && leftGroup.bestExprInfo.cost > resultComparator.min(results).cost) {
-                    continue;
-                }
-                GroupInfo rightGroup = getBestExpr(rightJoinKeys, rightSources);
-                if (!results.isEmpty() && rightGroup.bestExprInfo.cost > resultComparator.min(results).cost) {
-                    continue;
-                }
-                ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
+        LongArrayList components = new LongArrayList();
+        long remaining = allAtoms();
+        while (remaining != 0) {
+            long component = Long.lowestOneBit(remaining);
+            long reachable = component | neighbors(component);
+            while (reachable != component) {
+                component = reachable;
+                reachable = component | neighbors(component);
+            }
+            components.add(component);
+            remaining &= ~component;
+        }
 
-                joinExpr.expr.deriveLogicalPropertyItself();
-                calculateStatistics(joinExpr.expr);
-                computeCost(joinExpr, false);
-                results.add(joinExpr);
+        // Cross join the components
+        if (components.size() > 1) {
+            for (int i = 0; i < atomSize; i++) {
+                for (int j = 0; j < components.size(); j++) {
+                    long component = components.getLong(j);
+                    if ((component & (1L << i)) == 0) {
+                        neighbors[i] |= component;
+                    }
+                }
             }
-            ExpressionInfo minCostPlan = resultComparator.min(results);
+        }
+    }
 
-            BitSet atoms = new BitSet();
-            atoms.or(minCostPlan.leftChildExpr.atoms);
-            atoms.or(minCostPlan.rightChildExpr.atoms);
-            GroupInfo g = new GroupInfo(atoms);
-            g.bestExprInfo = minCostPlan;
-            g.lowestExprCost = minCostPlan.cost;
+    private long neighbors(long atoms) {
+        long result = 0;
+        for (long remaining = atoms; remaining != 0; remaining &= remaining - 1) {
+            result |= neighbors[Long.numberOfTrailingZeros(remaining)];
+        }
+        return result & ~atoms;
+    }
 
-            bestPlanMemo.put(joinKeys, g);
-            return g;
+    // The next non-empty subset of the set in increasing order, 0 if the subset is the set itself
+    private static long nextSubset(long subset, long set) {
+        return (subset - set) & set;
+    }
+
+    private void enumerateCsgRec(long csg, long excluded) {
+        long neighbors = neighbors(csg) & ~excluded;
+        if (neighbors == 0) {
+            return;
+        }
+        for (long s = nextSubset(0, neighbors); s != 0; s = nextSubset(s, neighbors)) {
+            emitCsg(csg | s);
+        }
+        for (long s = nextSubset(0, neighbors); s != 0; s = nextSubset(s, neighbors)) {
+            enumerateCsgRec(csg | s, excluded | neighbors);
+        }
+    }
+
+    private void emitCsg(long csg) {
+        // The complement must not contain the atoms before the min atom of the csg,
+        // otherwise the pair is enumerated twice
+        long excluded = csg | ((Long.lowestOneBit(csg) << 1) - 1);
+        long neighbors = neighbors(csg) & ~excluded;
+        for (long remaining = neighbors; remaining != 0; remaining &= ~Long.highestOneBit(remaining)) {
+            long cmp = Long.highestOneBit(remaining);
+            emitCsgCmp(csg, cmp);
+            enumerateCmpRec(csg, cmp, excluded | (((cmp << 1) - 1) & neighbors));
+        }
+    }
+
+    private void enumerateCmpRec(long csg, long cmp, long excluded) {
+        long neighbors = neighbors(cmp) & ~excluded;
+        if (neighbors == 0) {
+            return;
+        }
+        for (long s = nextSubset(0, neighbors); s != 0; s = nextSubset(s, neighbors)) {
+            emitCsgCmp(csg, cmp | s);
+        }
+        for (long s = nextSubset(0, neighbors); s != 0; s = nextSubset(s, neighbors)) {
+            enumerateCmpRec(csg, cmp | s, excluded | neighbors);
         }
+    }
+
+    private void emitCsgCmp(long csg, long cmp) {
+        GroupInfo leftGroup = bestPlanMemo.get(csg);
+        GroupInfo rightGroup = bestPlanMemo.get(cmp);
+        long atoms = csg | cmp;
+        GroupInfo g = bestPlanMemo.get(atoms);
+
+        if (g == null) {
+            ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
+            joinExpr.expr.deriveLogicalPropertyItself();
+            calculateStatistics(joinExpr.expr);
+            computeCost(joinExpr, false);
+
+            g = new GroupInfo(toBitSet(atoms));
+            g.bestExprInfo = joinExpr;
+            g.lowestExprCost = joinExpr.cost;
+            bestPlanMemo.put(atoms, g);
+            return;
+        }
+
+        // The output rows of the same atoms are the same whatever the join order is, so reuse the statistics
+        // and only build the join expression if it's cheaper
+        double cost = g.bestExprInfo.rowCount + leftGroup.bestExprInfo.cost + rightGroup.bestExprInfo.cost;
+        if (cost < g.lowestExprCost) {
+            ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
+            joinExpr.expr.deriveLogicalPropertyItself();
+            joinExpr.expr.setStatistics(g.bestExprInfo.expr.getStatistics());
+            computeCost(joinExpr, false);
+
+            g.bestExprInfo = joinExpr;
+            g.lowestExprCost = joinExpr.cost;
+        }
+    }
 
-        return bestPlan;
+    private static long toMask(BitSet bitSet) {
+        long[] words = bitSet.toLongArray();
+        return words.length == 0 ? 0 : words[0];
     }
 
-    private Set<Set<Integer>> generatePartitions(int totalNodes) {
-        checkArgument(totalNodes > 1, "totalNodes must be greater than 1");
-        Set<Integer> numbers = IntStream.range(0, totalNodes).boxed().collect(toImmutableSet());
-        return powerSet(numbers).stream()
-                .filter(subSet -> subSet.size() > 0)
-                .filter(subSet -> subSet.size() < numbers.size())
-                .collect(toImmutableSet());
+    private static BitSet toBitSet(long mask) {
+        return BitSet.valueOf(new long[] {mask});
     }
-}
\ No newline at end of file
+}
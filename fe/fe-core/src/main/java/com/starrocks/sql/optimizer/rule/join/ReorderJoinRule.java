@@ -82,9 +82,11 @@ public class ReorderJoinRule extends Rule {
                 enumerate(new JoinReorderLeftDeep(context), context, innerJoinRoot, multiJoinNode);
 
                 if (multiJoinNode.getAtoms().size() <= context.getSessionVariable().getCboMaxReorderNodeUseDP()
+                        && multiJoinNode.getAtoms().size() <= JoinReorderDP.MAX_ATOMS
                         && context.getSessionVariable().isCboEnableDPJoinReorder()) {
-                    //10 table join reorder takes more than 100ms,
-                    //so the join reorder using dp is currently controlled below 10.
+                    //The dp only enumerates the connected sub graphs, the chain joins of 20 tables are cheap,
+                    //but the star joins are still exponential, so the join reorder using dp is controlled below 10
+                    //by default.
                     enumerate(new JoinReorderDP(context), context, innerJoinRoot, multiJoinNode);
                 }
 
@@ -199,5 +199,7 @@ public class PartitionPruneRule extends TransformationRule {
 
         allPredicate.removeAll(removePredicate);
         operator.setPredicate(Utils.compoundAnd(allPredicate));
+        // kept for the plan cache, which prunes the partitions again with new literals
+        operator.getPrunedPartitionPredicates().addAll(removePredicate);
     }
 }
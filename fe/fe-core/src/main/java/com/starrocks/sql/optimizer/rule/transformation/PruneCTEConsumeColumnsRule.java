@@ -0,0 +1,60 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.rule.RuleType;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prune columns for the CTE consumer, and require the CTE producer to output the columns
+ * read by the consumer. The consumers are rewritten before the producer, because the producer
+ * is the left child of the CTE anchor.
+ */
+public class PruneCTEConsumeColumnsRule extends TransformationRule {
+    public PruneCTEConsumeColumnsRule() {
+        super(RuleType.TF_PRUNE_CTE_CONSUME_COLUMNS, Pattern.create(OperatorType.LOGICAL_CTE_CONSUME));
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        ColumnRefSet requiredOutputColumns = context.getTaskContext().get(0).getRequiredColumns();
+        LogicalCTEConsumeOperator consumeOperator = (LogicalCTEConsumeOperator) input.getOp();
+
+        Map<ColumnRefOperator, ColumnRefOperator> cteOutputColumnRefMap = Maps.newLinkedHashMap();
+        for (Map.Entry<ColumnRefOperator, ColumnRefOperator> entry :
+                consumeOperator.getCteOutputColumnRefMap().entrySet()) {
+            if (requiredOutputColumns.contains(entry.getKey())) {
+                cteOutputColumnRefMap.put(entry.getKey(), entry.getValue());
+            }
+        }
+        // At least one column is reserved, like the scan operator
+        if (cteOutputColumnRefMap.isEmpty()) {
+            Map.Entry<ColumnRefOperator, ColumnRefOperator> first =
+                    consumeOperator.getCteOutputColumnRefMap().entrySet().iterator().next();
+            cteOutputColumnRefMap.put(first.getKey(), first.getValue());
+        }
+        requiredOutputColumns.union(Lists.newArrayList(cteOutputColumnRefMap.values()));
+
+        if (cteOutputColumnRefMap.size() == consumeOperator.getCteOutputColumnRefMap().size()) {
+            return Collections.emptyList();
+        }
+
+        LogicalCTEConsumeOperator newConsumeOperator =
+                new LogicalCTEConsumeOperator(consumeOperator.getCteId(), cteOutputColumnRefMap);
+        newConsumeOperator.setPredicate(consumeOperator.getPredicate());
+        newConsumeOperator.setLimit(consumeOperator.getLimit());
+        return Lists.newArrayList(OptExpression.create(newConsumeOperator, input.getInputs()));
+    }
+}
@@ -0,0 +1,285 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.Expr;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.Group;
+import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+import com.starrocks.sql.optimizer.rule.RuleType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Push down Aggregation (eager aggregation)
+// Before:
+//      Aggregation
+//          |
+//      (Project)
+//          |
+//         Join
+//        /    \
+//     LEFT    RIGHT
+//
+// After:
+//      Aggregation
+//          |
+//      (Project)
+//          |
+//         Join
+//        /    \
+//  Aggregation  RIGHT
+//       |
+//   (Project)
+//       |
+//     LEFT
+//
+// The partial aggregation below the join groups by the columns of LEFT used by the join predicates
+// and the grouping keys above, so all the rows of a partial group are joined with the same rows of
+// RIGHT, and the aggregation above rolls up the partial results: sum(sum), sum(count), min(min),
+// max(max). The original expression is kept in the memo, the cheaper one is chosen by the cost,
+// which is usually the eager one when the join is many-to-one and the partial aggregation reduces
+// the rows a lot, e.g. a fact table joined with the dimension tables.
+// {@link PushDownJoinAggRule} is the reverse transformation (lazy aggregation).
+//
+// Requirements:
+// 1. Must be Inner-Join
+// 2. Aggregate isn't split, has grouping keys, and only has non-distinct SUM/COUNT/MIN/MAX
+// 3. The arguments of the aggregate functions only use the columns of one side
+// 4. The side doesn't contain an aggregation, avoid pushing down the aggregation repeatedly
+//
+public class PushDownAggJoinRule extends TransformationRule {
+    private static final Set<String> SUPPORTED_FUNCTIONS = ImmutableSet.of(
+            FunctionSet.SUM, FunctionSet.COUNT, FunctionSet.MIN, FunctionSet.MAX);
+
+    private static final PushDownAggJoinRule AGG_JOIN = new PushDownAggJoinRule(RuleType.TF_PUSH_DOWN_AGG_JOIN,
+            Pattern.create(OperatorType.LOGICAL_AGGR).addChildren(
+                    Pattern.create(OperatorType.LOGICAL_JOIN, OperatorType.PATTERN_LEAF,
+                            OperatorType.PATTERN_LEAF)));
+
+    private static final PushDownAggJoinRule AGG_PROJECT_JOIN =
+            new PushDownAggJoinRule(RuleType.TF_PUSH_DOWN_AGG_PROJECT_JOIN,
+                    Pattern.create(OperatorType.LOGICAL_AGGR).addChildren(
+                            Pattern.create(OperatorType.LOGICAL_PROJECT).addChildren(
+                                    Pattern.create(OperatorType.LOGICAL_JOIN, OperatorType.PATTERN_LEAF,
+                                            OperatorType.PATTERN_LEAF))));
+
+    private PushDownAggJoinRule(RuleType type, Pattern pattern) {
+        super(type, pattern);
+    }
+
+    public static PushDownAggJoinRule getAggJoinInstance() {
+        return AGG_JOIN;
+    }
+
+    public static PushDownAggJoinRule getAggProjectJoinInstance() {
+        return AGG_PROJECT_JOIN;
+    }
+
+    @Override
+    public boolean check(OptExpression input, OptimizerContext context) {
+        LogicalAggregationOperator aggregation = (LogicalAggregationOperator) input.getOp();
+        LogicalJoinOperator join = (LogicalJoinOperator) getJoinExpression(input).getOp();
+
+        // The partial aggregation below a join with limit changes the rows kept by the limit
+        if (!join.getJoinType().isInnerJoin() || join.hasLimit() || !aggregation.getType().isGlobal() ||
+                aggregation.isSplit() || aggregation.getGroupingKeys().isEmpty()) {
+            return false;
+        }
+
+        for (CallOperator call : aggregation.getAggregations().values()) {
+            if (call.isDistinct() || !SUPPORTED_FUNCTIONS.contains(call.getFnName())) {
+                return false;
+            }
+            // The type of the decimal v3 sum is derived from the argument, the rollup can't be created here
+            if (call.getFnName().equals(FunctionSet.SUM) && (call.getType().isDecimalV3() ||
+                    call.getChildren().stream().anyMatch(arg -> arg.getType().isDecimalV3()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        LogicalAggregationOperator aggregation = (LogicalAggregationOperator) input.getOp();
+        OptExpression joinExpression = getJoinExpression(input);
+        Map<ColumnRefOperator, ScalarOperator> projectMap = Maps.newHashMap();
+        if (input.inputAt(0).getOp() instanceof LogicalProjectOperator) {
+            projectMap.putAll(((LogicalProjectOperator) input.inputAt(0).getOp()).getColumnRefMap());
+        } else {
+            for (int id : joinExpression.getOutputColumns().getColumnIds()) {
+                ColumnRefOperator column = context.getColumnRefFactory().getColumnRef(id);
+                projectMap.put(column, column);
+            }
+        }
+
+        // The aggregate functions on the output of the join
+        ReplaceColumnRefRewriter rewriter = new ReplaceColumnRefRewriter(projectMap);
+        Map<ColumnRefOperator, CallOperator> aggregations = Maps.newHashMap();
+        ColumnRefSet argumentColumns = new ColumnRefSet();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregation.getAggregations().entrySet()) {
+            CallOperator call = (CallOperator) entry.getValue().clone().accept(rewriter, null);
+            aggregations.put(entry.getKey(), call);
+            argumentColumns.union(call.getUsedColumns());
+        }
+
+        List<OptExpression> result = Lists.newArrayList();
+        for (int side = 0; side < 2; side++) {
+            OptExpression child = joinExpression.inputAt(side);
+            if (!child.getOutputColumns().contains(argumentColumns) ||
+                    hasAggregation(child.getGroupExpression().getGroup())) {
+                continue;
+            }
+            OptExpression pushDown = pushDown(input, joinExpression, side, projectMap, aggregations, context);
+            if (pushDown != null) {
+                result.add(pushDown);
+            }
+        }
+        return result;
+    }
+
+    private OptExpression pushDown(OptExpression input, OptExpression joinExpression, int side,
+                                   Map<ColumnRefOperator, ScalarOperator> projectMap,
+                                   Map<ColumnRefOperator, CallOperator> aggregations,
+                                   OptimizerContext context) {
+        LogicalAggregationOperator aggregation = (LogicalAggregationOperator) input.getOp();
+        LogicalJoinOperator join = (LogicalJoinOperator) joinExpression.getOp();
+        ColumnRefFactory factory = context.getColumnRefFactory();
+        OptExpression child = joinExpression.inputAt(side);
+        ColumnRefSet childOutput = child.getOutputColumns();
+
+        // The partial grouping keys: the columns used by the join and the grouping keys
+        ColumnRefSet usedColumns = new ColumnRefSet();
+        if (join.getOnPredicate() != null) {
+            usedColumns.union(join.getOnPredicate().getUsedColumns());
+        }
+        if (join.getPredicate() != null) {
+            usedColumns.union(join.getPredicate().getUsedColumns());
+        }
+        for (ColumnRefOperator key : aggregation.getGroupingKeys()) {
+            usedColumns.union(projectMap.get(key).getUsedColumns());
+        }
+        usedColumns.intersect(childOutput);
+        List<ColumnRefOperator> partialGroupingKeys = Lists.newArrayList();
+        for (int id : usedColumns.getColumnIds()) {
+            partialGroupingKeys.add(factory.getColumnRef(id));
+        }
+        // The aggregation without grouping keys returns a row for the empty input, which isn't joined
+        if (partialGroupingKeys.isEmpty()) {
+            return null;
+        }
+
+        // The partial aggregations and the final aggregations rolling up the partial results
+        Map<ColumnRefOperator, ScalarOperator> childProjectMap = Maps.newHashMap();
+        partialGroupingKeys.forEach(key -> childProjectMap.put(key, key));
+        Map<ColumnRefOperator, CallOperator> partialAggregations = Maps.newHashMap();
+        Map<ColumnRefOperator, CallOperator> finalAggregations = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregations.entrySet()) {
+            CallOperator call = entry.getValue();
+            List<ScalarOperator> arguments = Lists.newArrayList();
+            for (ScalarOperator argument : call.getChildren()) {
+                ColumnRefOperator column = argument.isColumnRef() ? (ColumnRefOperator) argument :
+                        factory.create(argument, argument.getType(), argument.isNullable());
+                childProjectMap.put(column, argument);
+                arguments.add(column);
+            }
+            CallOperator partialCall = new CallOperator(call.getFnName(), call.getType(), arguments,
+                    call.getFunction());
+            ColumnRefOperator partialColumn = factory.create(partialCall, partialCall.getType(),
+                    partialCall.isNullable());
+            partialAggregations.put(partialColumn, partialCall);
+
+            CallOperator finalCall = createRollupCall(call, partialColumn);
+            if (finalCall == null) {
+                return null;
+            }
+            finalAggregations.put(entry.getKey(), finalCall);
+        }
+
+        OptExpression partialInput = child;
+        if (childProjectMap.values().stream().anyMatch(operator -> !operator.isColumnRef())) {
+            partialInput = OptExpression.create(new LogicalProjectOperator(childProjectMap), child);
+        }
+        OptExpression partialAggregation = OptExpression.create(
+                new LogicalAggregationOperator(AggType.GLOBAL, partialGroupingKeys, partialAggregations),
+                partialInput);
+
+        LogicalJoinOperator newJoin = new LogicalJoinOperator(join.getJoinType(), join.getOnPredicate(),
+                join.getLimit(), join.getJoinHint());
+        newJoin.setPredicate(join.getPredicate());
+        newJoin.setHasPushDownJoinOnClause(join.isHasPushDownJoinOnClause());
+        OptExpression newJoinExpression = side == 0 ?
+                OptExpression.create(newJoin, partialAggregation, joinExpression.inputAt(1)) :
+                OptExpression.create(newJoin, joinExpression.inputAt(0), partialAggregation);
+
+        // The grouping keys are evaluated above the join, and the partial results are passed through
+        Map<ColumnRefOperator, ScalarOperator> topProjectMap = Maps.newHashMap();
+        for (ColumnRefOperator key : aggregation.getGroupingKeys()) {
+            topProjectMap.put(key, projectMap.get(key));
+        }
+        partialAggregations.keySet().forEach(column -> topProjectMap.put(column, column));
+
+        LogicalAggregationOperator finalAggregation = new LogicalAggregationOperator(AggType.GLOBAL,
+                aggregation.getGroupingKeys(), finalAggregations);
+        finalAggregation.setPredicate(aggregation.getPredicate());
+        finalAggregation.setLimit(aggregation.getLimit());
+        return OptExpression.create(finalAggregation,
+                OptExpression.create(new LogicalProjectOperator(topProjectMap), newJoinExpression));
+    }
+
+    private static CallOperator createRollupCall(CallOperator call, ColumnRefOperator partialColumn) {
+        String fnName = call.getFnName();
+        if (fnName.equals(FunctionSet.COUNT)) {
+            fnName = FunctionSet.SUM;
+        }
+        if (fnName.equals(FunctionSet.MIN) || fnName.equals(FunctionSet.MAX)) {
+            return new CallOperator(fnName, call.getType(), Lists.newArrayList(partialColumn), call.getFunction());
+        }
+
+        Function fn = Expr.getBuiltinFunction(fnName, new Type[] {partialColumn.getType()},
+                Function.CompareMode.IS_IDENTICAL);
+        if (fn == null || !fn.getReturnType().equals(call.getType())) {
+            return null;
+        }
+        return new CallOperator(fnName, call.getType(), Lists.newArrayList(partialColumn), fn);
+    }
+
+    private static OptExpression getJoinExpression(OptExpression input) {
+        OptExpression child = input.inputAt(0);
+        return child.getOp() instanceof LogicalProjectOperator ? child.inputAt(0) : child;
+    }
+
+    private static boolean hasAggregation(Group group) {
+        GroupExpression expression = group.getFirstLogicalExpression();
+        if (expression.getOp() instanceof LogicalAggregationOperator) {
+            return true;
+        }
+        for (int i = 0; i < expression.arity(); i++) {
+            if (hasAggregation(expression.inputAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -46,6 +46,11 @@ public class BinaryPredicateStatisticCalculator {
             predicateRange = new StatisticRangeValues(NEGATIVE_INFINITY, POSITIVE_INFINITY, 1);
         }
 
+        if (constant.isPresent() && columnStatistic.hasHistogram()) {
+            double fraction = columnStatistic.getHistogram().getEqualFraction(constant.getAsDouble(),
+                    columnStatistic.getDistinctValuesCount());
+            return estimateByHistogram(columnRefOperator, columnStatistic, predicateRange, fraction, statistics);
+        }
         return estimatePredicateRange(columnRefOperator, columnStatistic, predicateRange, statistics);
     }
 
@@ -60,6 +65,13 @@ public class BinaryPredicateStatisticCalculator {
             predicateRange = new StatisticRangeValues(NEGATIVE_INFINITY, POSITIVE_INFINITY, 1);
         }
 
+        if (constant.isPresent() && columnStatistic.hasHistogram()) {
+            double fraction = 1 - columnStatistic.getHistogram().getEqualFraction(constant.getAsDouble(),
+                    columnStatistic.getDistinctValuesCount());
+            return estimateByHistogram(columnRefOperator, columnStatistic, StatisticRangeValues.from(columnStatistic),
+                    fraction, statistics);
+        }
+
         StatisticRangeValues columnRange = StatisticRangeValues.from(columnStatistic);
         StatisticRangeValues intersectRange = columnRange.intersect(predicateRange);
 
@@ -85,7 +97,7 @@ public class BinaryPredicateStatisticCalculator {
                                                              Statistics statistics) {
         StatisticRangeValues predicateRange =
                 new StatisticRangeValues(NEGATIVE_INFINITY, constant.orElse(POSITIVE_INFINITY), NaN);
-        return estimatePredicateRange(columnRefOperator, columnStatistic, predicateRange, statistics);
+        return estimatePredicateRangeWithHistogram(columnRefOperator, columnStatistic, predicateRange, statistics);
     }
 
     private static Statistics estimateColumnGreaterThanConstant(Optional<ColumnRefOperator> columnRefOperator,
@@ -94,7 +106,7 @@ public class BinaryPredicateStatisticCalculator {
                                                                 Statistics statistics) {
         StatisticRangeValues predicateRange =
                 new StatisticRangeValues(constant.orElse(NEGATIVE_INFINITY), POSITIVE_INFINITY, NaN);
-        return estimatePredicateRange(columnRefOperator, columnStatistic, predicateRange, statistics);
+        return estimatePredicateRangeWithHistogram(columnRefOperator, columnStatistic, predicateRange, statistics);
     }
 
     public static Statistics estimateColumnToColumnComparison(
@@ -171,4 +183,45 @@ public class BinaryPredicateStatisticCalculator {
                 addColumnStatistic(operator, newEstimateColumnStatistics).build()).
                 orElseGet(() -> Statistics.buildFrom(statistics).setOutputRowCount(rowCount).build());
     }
+
+    private static Statistics estimatePredicateRangeWithHistogram(Optional<ColumnRefOperator> columnRefOperator,
+                                                                  ColumnStatistic columnStatistic,
+                                                                  StatisticRangeValues predicateRange,
+                                                                  Statistics statistics) {
+        if (columnStatistic.hasHistogram()) {
+            Optional<Double> fraction = columnStatistic.getHistogram().getRangeFraction(predicateRange.getLow(),
+                    predicateRange.getHigh());
+            if (fraction.isPresent()) {
+                return estimateByHistogram(columnRefOperator, columnStatistic, predicateRange, fraction.get(),
+                        statistics);
+            }
+        }
+        return estimatePredicateRange(columnRefOperator, columnStatistic, predicateRange, statistics);
+    }
+
+    // The fraction is the selectivity of the predicate on the not null rows, which is given by the histogram
+    public static Statistics estimateByHistogram(Optional<ColumnRefOperator> columnRefOperator,
+                                                 ColumnStatistic columnStatistic,
+                                                 StatisticRangeValues predicateRange,
+                                                 double fraction,
+                                                 Statistics statistics) {
+        StatisticRangeValues columnRange = StatisticRangeValues.from(columnStatistic);
+        StatisticRangeValues intersectRange = columnRange.intersect(predicateRange);
+        if (intersectRange.isEmpty()) {
+            intersectRange = columnRange;
+        }
+
+        double rowCount = statistics.getOutputRowCount() * (1 - columnStatistic.getNullsFraction()) * fraction;
+        ColumnStatistic newEstimateColumnStatistics = ColumnStatistic.builder().
+                setAverageRowSize(columnStatistic.getAverageRowSize()).
+                setMaxValue(intersectRange.getHigh()).
+                setMinValue(intersectRange.getLow()).
+                setNullsFraction(0).
+                setDistinctValuesCount(columnStatistic.getDistinctValuesCount()).
+                setType(columnStatistic.getType()).
+                build();
+        return columnRefOperator.map(operator -> Statistics.buildFrom(statistics).setOutputRowCount(rowCount).
+                addColumnStatistic(operator, newEstimateColumnStatistics).build()).
+                orElseGet(() -> Statistics.buildFrom(statistics).setOutputRowCount(rowCount).build());
+    }
 }
@@ -8,6 +8,11 @@ import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.base.Preconditions;
+import com.google.common.io.BaseEncoding;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
@@ -25,10 +30,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -117,6 +124,82 @@ public class CachedStatisticStorage implements StatisticStorage {
             .maximumSize(Config.statistic_cache_columns)
             .buildAsync(loader);
 
+    private final AsyncCacheLoader<CacheKey, Optional<Histogram>> histogramLoader =
+            new AsyncCacheLoader<CacheKey, Optional<Histogram>>() {
+                @Override
+                public @NonNull CompletableFuture<Optional<Histogram>> asyncLoad(@NonNull CacheKey cacheKey,
+                                                                                 @NonNull Executor executor) {
+                    return CompletableFuture.supplyAsync(() -> {
+                        try {
+                            List<TStatisticData> histogramData = statisticExecutor.queryHistogramSync(
+                                    cacheKey.tableId, ImmutableList.of(cacheKey.column));
+                            if (!histogramData.isEmpty()) {
+                                return Optional.of(convert2Histogram(histogramData.get(0)));
+                            } else {
+                                return Optional.empty();
+                            }
+                        } catch (RuntimeException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    }, executor);
+                }
+
+                @Override
+                public CompletableFuture<Map<@NonNull CacheKey, @NonNull Optional<Histogram>>> asyncLoadAll(
+                        @NonNull Iterable<? extends @NonNull CacheKey> keys, @NonNull Executor executor) {
+                    return CompletableFuture.supplyAsync(() -> {
+                        Map<CacheKey, Optional<Histogram>> result = new HashMap<>();
+                        try {
+                            long tableId = -1;
+                            List<String> columns = new ArrayList<>();
+                            for (CacheKey key : keys) {
+                                tableId = key.tableId;
+                                columns.add(key.column);
+                                // put empty for the column which has no histogram
+                                result.put(key, Optional.empty());
+                            }
+                            List<TStatisticData> histogramData = statisticExecutor.queryHistogramSync(tableId, columns);
+                            for (TStatisticData data : histogramData) {
+                                result.put(new CacheKey(data.tableId, data.columnName),
+                                        Optional.of(convert2Histogram(data)));
+                            }
+                            return result;
+                        } catch (RuntimeException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    }, executor);
+                }
+
+                @Override
+                public CompletableFuture<Optional<Histogram>> asyncReload(
+                        @NonNull CacheKey key, @NonNull Optional<Histogram> oldValue,
+                        @NonNull Executor executor) {
+                    return asyncLoad(key, executor);
+                }
+            };
+
+    AsyncLoadingCache<CacheKey, Optional<Histogram>> cachedHistograms = Caffeine.newBuilder()
+            .expireAfterWrite(Config.statistic_collect_interval_sec * 2, TimeUnit.SECONDS)
+            .refreshAfterWrite(Config.statistic_collect_interval_sec, TimeUnit.SECONDS)
+            .maximumSize(Config.statistic_cache_columns)
+            .buildAsync(histogramLoader);
+
+    // table id -> the sorted column names in lower case -> the distinct values of the combination
+    AsyncLoadingCache<Long, Map<List<String>, Double>> cachedMultiColumnStatistics = Caffeine.newBuilder()
+            .expireAfterWrite(Config.statistic_collect_interval_sec * 2, TimeUnit.SECONDS)
+            .refreshAfterWrite(Config.statistic_collect_interval_sec, TimeUnit.SECONDS)
+            .maximumSize(Config.statistic_cache_columns)
+            .buildAsync(tableId -> {
+                Map<List<String>, Double> result = new HashMap<>();
+                statisticExecutor.queryMultiColumnStatisticSync(tableId)
+                        .forEach((columns, distinctValues) -> result.put(columns, (double) distinctValues));
+                return result;
+            });
+
     @Override
     public void expireColumnStatistics(Table table, List<String> columns) {
         List<CacheKey> allKeys = Lists.newArrayList();
@@ -125,6 +208,8 @@ public class CachedStatisticStorage implements StatisticStorage {
             allKeys.add(key);
         }
         cachedStatistics.synchronous().invalidateAll(allKeys);
+        cachedHistograms.synchronous().invalidateAll(allKeys);
+        cachedMultiColumnStatistics.synchronous().invalidate(table.getId());
     }
 
     private List<TStatisticData> queryStatisticsData(long tableId, String column) {
@@ -155,28 +240,12 @@ public class CachedStatisticStorage implements StatisticStorage {
         try {
             if (column.getPrimitiveType().isCharFamily()) {
                 // do nothing
-            } else if (column.getPrimitiveType().equals(PrimitiveType.DATE)) {
-                DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-                if (statisticData.isSetMin() && !statisticData.getMin().isEmpty()) {
-                    minValue = getLongFromDateTime(LocalDate.parse(statisticData.min, dtf).atStartOfDay());
-                }
-                if (statisticData.isSetMax() && !statisticData.getMax().isEmpty()) {
-                    maxValue = getLongFromDateTime(LocalDate.parse(statisticData.max, dtf).atStartOfDay());
-                }
-            } else if (column.getPrimitiveType().equals(PrimitiveType.DATETIME)) {
-                DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-                if (statisticData.isSetMin() && !statisticData.getMin().isEmpty()) {
-                    minValue = getLongFromDateTime(LocalDateTime.parse(statisticData.min, dtf));
-                }
-                if (statisticData.isSetMax() && !statisticData.getMax().isEmpty()) {
-                    maxValue = getLongFromDateTime(LocalDateTime.parse(statisticData.max, dtf));
-                }
             } else {
                 if (statisticData.isSetMin() && !statisticData.getMin().isEmpty()) {
-                    minValue = Double.parseDouble(statisticData.min);
+                    minValue = getDoubleValue(column, statisticData.min);
                 }
                 if (statisticData.isSetMax() && !statisticData.getMax().isEmpty()) {
-                    maxValue = Double.parseDouble(statisticData.max);
+                    maxValue = getDoubleValue(column, statisticData.max);
                 }
             }
         } catch (Exception e) {
@@ -191,6 +260,100 @@ public class CachedStatisticStorage implements StatisticStorage {
                 setNullsFraction(statisticData.nullCount * 1.0 / Math.max(statisticData.rowCount, 1)).build();
     }
 
+    private static double getDoubleValue(Column column, String value) {
+        if (column.getPrimitiveType().equals(PrimitiveType.DATE)) {
+            DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+            return getLongFromDateTime(LocalDate.parse(value, dtf).atStartOfDay());
+        } else if (column.getPrimitiveType().equals(PrimitiveType.DATETIME)) {
+            DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+            return getLongFromDateTime(LocalDateTime.parse(value, dtf));
+        } else {
+            return Double.parseDouble(value);
+        }
+    }
+
+    // The values of the histogram are hex of the string, see StatisticExecutor
+    private static String unhex(String value) {
+        return new String(BaseEncoding.base16().decode(value.toUpperCase()), StandardCharsets.UTF_8);
+    }
+
+    private Histogram convert2Histogram(TStatisticData histogramData) throws AnalysisException {
+        Database db = Catalog.getCurrentCatalog().getDb(histogramData.dbId);
+        if (db == null) {
+            ErrorReport.reportAnalysisException(ErrorCode.ERR_BAD_DB_ERROR, histogramData.dbId);
+        }
+        Table table = db.getTable(histogramData.tableId);
+        if (!(table instanceof OlapTable)) {
+            ErrorReport.reportAnalysisException(ErrorCode.ERR_BAD_TABLE_ERROR, histogramData.tableId);
+        }
+        Column column = table.getColumn(histogramData.columnName);
+        if (column == null) {
+            ErrorReport.reportAnalysisException(ErrorCode.ERR_BAD_FIELD_ERROR, histogramData.columnName);
+        }
+        return parseHistogram(column, histogramData.histogram);
+    }
+
+    static Histogram parseHistogram(Column column, String histogram) {
+        JsonObject json = JsonParser.parseString(histogram).getAsJsonObject();
+        boolean isCharFamily = column.getPrimitiveType().isCharFamily();
+
+        List<Histogram.Bucket> buckets = new ArrayList<>();
+        for (JsonElement element : json.getAsJsonArray("buckets")) {
+            JsonArray bucket = element.getAsJsonArray();
+            buckets.add(new Histogram.Bucket(getDoubleValue(column, unhex(bucket.get(0).getAsString())),
+                    getDoubleValue(column, unhex(bucket.get(1).getAsString())),
+                    bucket.get(2).getAsLong(), bucket.get(3).getAsLong()));
+        }
+
+        Map<String, Long> mcv = new HashMap<>();
+        for (JsonElement element : json.getAsJsonArray("mcv")) {
+            JsonArray value = element.getAsJsonArray();
+            String key = unhex(value.get(0).getAsString());
+            if (!isCharFamily) {
+                key = Histogram.keyOf(getDoubleValue(column, key));
+            }
+            mcv.put(key, value.get(1).getAsLong());
+        }
+        return new Histogram(json.get("rows").getAsLong(), buckets, mcv);
+    }
+
+    private Optional<Histogram> getHistogram(Table table, String column) {
+        if (StatisticUtils.getHistogramStatisticsTable() == null) {
+            return Optional.empty();
+        }
+        CompletableFuture<Optional<Histogram>> result = cachedHistograms.get(new CacheKey(table.getId(), column));
+        if (result.isDone()) {
+            try {
+                return result.get();
+            } catch (Exception e) {
+                LOG.warn(e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Map<CacheKey, Optional<Histogram>> getHistograms(Table table, List<CacheKey> cacheKeys) {
+        if (StatisticUtils.getHistogramStatisticsTable() == null) {
+            return Collections.emptyMap();
+        }
+        CompletableFuture<Map<CacheKey, Optional<Histogram>>> result = cachedHistograms.getAll(cacheKeys);
+        if (result.isDone()) {
+            try {
+                return result.get();
+            } catch (Exception e) {
+                LOG.warn(e);
+            }
+        }
+        return Collections.emptyMap();
+    }
+
+    private static ColumnStatistic attachHistogram(ColumnStatistic columnStatistic, Optional<Histogram> histogram) {
+        if (columnStatistic.isUnknown() || columnStatistic.hasHistogram() || !histogram.isPresent()) {
+            return columnStatistic;
+        }
+        return ColumnStatistic.buildFrom(columnStatistic).setHistogram(histogram.get()).build();
+    }
+
     @Override
     public ColumnStatistic getColumnStatistic(Table table, String column) {
         Preconditions.checkState(table != null);
@@ -214,7 +377,7 @@ public class CachedStatisticStorage implements StatisticStorage {
                 LOG.warn(e);
                 return ColumnStatistic.unknown();
             }
-            return realResult.orElseGet(ColumnStatistic::unknown);
+            return attachHistogram(realResult.orElseGet(ColumnStatistic::unknown), getHistogram(table, column));
         } else {
             return ColumnStatistic.unknown();
         }
@@ -258,11 +421,13 @@ public class CachedStatisticStorage implements StatisticStorage {
                 LOG.warn(e);
                 return getDefaultColumnStatisticList(columns);
             }
+            Map<CacheKey, Optional<Histogram>> histograms = getHistograms(table, cacheKeys);
             for (String column : columns) {
-                Optional<ColumnStatistic> columnStatistic =
-                        realResult.getOrDefault(new CacheKey(tableId, column), Optional.empty());
+                CacheKey cacheKey = new CacheKey(tableId, column);
+                Optional<ColumnStatistic> columnStatistic = realResult.getOrDefault(cacheKey, Optional.empty());
                 if (columnStatistic.isPresent()) {
-                    columnStatistics.add(columnStatistic.get());
+                    columnStatistics.add(attachHistogram(columnStatistic.get(),
+                            histograms.getOrDefault(cacheKey, Optional.empty())));
                 } else {
                     columnStatistics.add(ColumnStatistic.unknown());
                 }
@@ -273,6 +438,23 @@ public class CachedStatisticStorage implements StatisticStorage {
         }
     }
 
+    @Override
+    public Map<List<String>, Double> getMultiColumnDistinctValues(Table table) {
+        if (!(table instanceof OlapTable) || StatisticUtils.statisticTableBlackListCheck(table.getId()) ||
+                StatisticUtils.getMultiColumnStatisticsTable() == null) {
+            return Collections.emptyMap();
+        }
+        CompletableFuture<Map<List<String>, Double>> result = cachedMultiColumnStatistics.get(table.getId());
+        if (result.isDone()) {
+            try {
+                return result.get();
+            } catch (Exception e) {
+                LOG.warn(e);
+            }
+        }
+        return Collections.emptyMap();
+    }
+
     public void addColumnStatistic(Table table, String column, ColumnStatistic columnStatistic) {
         this.cachedStatistics.synchronous().put(new CacheKey(table.getId(), column), Optional.of(columnStatistic));
     }
@@ -0,0 +1,228 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.common.Config;
+import com.starrocks.common.Pair;
+import com.starrocks.common.util.Counter;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.common.util.TimeUtils;
+import com.starrocks.planner.HashJoinNode;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.planner.RuntimeFilterDescription;
+import com.starrocks.sql.plan.ExecPlan;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The actual rows of the plan subtrees learned from the query profiles, used when the session variable
+ * enable_cardinality_feedback is true.
+ * <p>
+ * After a query is executed, the rows returned by the olap scan, hash join and aggregation nodes are collected
+ * from the profile, and recorded with the estimated rows by the {@link CardinalityFingerprint} of the nodes.
+ * When the same subtree is optimized again, {@link StatisticsCalculator} uses the actual rows instead of
+ * the estimated rows.
+ * <p>
+ * The queries with limit are not recorded, because the nodes may stop before returning all the rows.
+ * The nodes filtered by the runtime filters of their parent joins are not recorded either. The scans in
+ * a fingerprint include the visible versions of the partitions, so the rows are learned again after a load.
+ * The rows are only collected from the profile of the non-pipeline engine, when all the instances
+ * have reported their profiles.
+ */
+public class CardinalityFeedback {
+    public static final ImmutableList<String> TITLE_NAMES = new ImmutableList.Builder<String>()
+            .add("Fingerprint").add("Node").add("EstimatedRows").add("ActualRows").add("QError")
+            .add("Executions").add("LastUpdateTime")
+            .build();
+
+    private static final String ROWS_RETURNED = "RowsReturned";
+    private static final Pattern NODE_ID_PATTERN = Pattern.compile("\\(id=(\\d+)\\)");
+
+    private static final CardinalityFeedback INSTANCE = new CardinalityFeedback();
+
+    // fingerprint -> entry, in the order of access
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public static CardinalityFeedback getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the actual rows of the last execution, or null if the subtree has not been executed
+     */
+    public synchronized Double getRowCount(String fingerprint) {
+        Entry entry = entries.get(fingerprint);
+        return entry == null ? null : (double) entry.actualRows;
+    }
+
+    /**
+     * @param estimatedRows the rows estimated by the statistics, or null if the rows are from the feedback
+     */
+    public void record(String fingerprint, String node, Double estimatedRows, long actualRows) {
+        synchronized (this) {
+            Entry entry = entries.get(fingerprint);
+            if (entry == null) {
+                entry = new Entry(fingerprint);
+                entries.put(fingerprint, entry);
+            }
+            entry.update(node, estimatedRows, actualRows);
+
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (entries.size() > Config.cardinality_feedback_max_entries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Record the actual rows of the plan nodes in the profile of the executed query
+     */
+    public void record(ExecPlan plan, RuntimeProfile profile) {
+        if (plan.getCardinalityEstimates().isEmpty() || profile == null) {
+            return;
+        }
+        for (PlanFragment fragment : plan.getFragments()) {
+            if (hasLimit(fragment.getPlanRoot())) {
+                return;
+            }
+        }
+
+        Set<Integer> filteredNodes = Sets.newHashSet();
+        collectOuterRuntimeFilters(plan.getFragments().get(0).getPlanRoot(), filteredNodes);
+        Map<Integer, Long> actualRows = Maps.newHashMap();
+        collectRowsReturned(profile, actualRows);
+        for (Map.Entry<Integer, ExecPlan.CardinalityEstimate> entry : plan.getCardinalityEstimates().entrySet()) {
+            Long rows = actualRows.get(entry.getKey());
+            if (rows != null && !filteredNodes.contains(entry.getKey())) {
+                ExecPlan.CardinalityEstimate estimate = entry.getValue();
+                record(estimate.getFingerprint(), estimate.getNode(), estimate.getEstimatedRows(), rows);
+            }
+        }
+    }
+
+    private static boolean hasLimit(PlanNode node) {
+        if (node.hasLimit()) {
+            return true;
+        }
+        for (PlanNode child : node.getChildren()) {
+            if (hasLimit(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * The runtime filters a node gets from the joins out of its subtree remove the rows not joined by
+     * the parents, the rows returned are fewer than the rows of the subtree, and using them would apply
+     * the selectivity of the joins twice. Collect such nodes to filteredNodes.
+     * Returns the ids of the filters probed in the subtree and built out of it.
+     */
+    private static Set<Integer> collectOuterRuntimeFilters(PlanNode node, Set<Integer> filteredNodes) {
+        Set<Integer> filterIds = Sets.newHashSet();
+        for (PlanNode child : node.getChildren()) {
+            filterIds.addAll(collectOuterRuntimeFilters(child, filteredNodes));
+        }
+        for (RuntimeFilterDescription filter : node.getProbeRuntimeFilters()) {
+            filterIds.add(filter.getFilterId());
+        }
+        if (node instanceof HashJoinNode) {
+            for (RuntimeFilterDescription filter : ((HashJoinNode) node).getBuildRuntimeFilters()) {
+                filterIds.remove(filter.getFilterId());
+            }
+        }
+        if (!filterIds.isEmpty()) {
+            filteredNodes.add(node.getId().asInt());
+        }
+        return filterIds;
+    }
+
+    // The rows of a plan node is the sum of all the instances
+    private static void collectRowsReturned(RuntimeProfile profile, Map<Integer, Long> actualRows) {
+        if (profile.getName() != null) {
+            Matcher matcher = NODE_ID_PATTERN.matcher(profile.getName());
+            Counter counter = profile.getCounterMap().get(ROWS_RETURNED);
+            if (matcher.find() && counter != null) {
+                actualRows.merge(Integer.parseInt(matcher.group(1)), counter.getValue(), Long::sum);
+            }
+        }
+        for (Pair<RuntimeProfile, Boolean> child : profile.getChildList()) {
+            collectRowsReturned(child.first, actualRows);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * The entries ordered by the estimation error, the largest first
+     */
+    public List<List<String>> getShowRows() {
+        List<Entry> snapshot;
+        synchronized (this) {
+            snapshot = Lists.newArrayList(entries.values());
+        }
+        snapshot.sort(Comparator.comparingDouble(Entry::getQError).reversed());
+        List<List<String>> rows = Lists.newArrayList();
+        for (Entry entry : snapshot) {
+            rows.add(Lists.newArrayList(
+                    entry.fingerprint,
+                    entry.node,
+                    String.valueOf((long) entry.estimatedRows),
+                    String.valueOf(entry.actualRows),
+                    String.format("%.2f", entry.getQError()),
+                    String.valueOf(entry.executions),
+                    TimeUtils.longToTimeString(entry.lastUpdateTime)));
+        }
+        return rows;
+    }
+
+    private static class Entry {
+        private final String fingerprint;
+        private String node;
+        private double estimatedRows;
+        private long actualRows;
+        private long executions;
+        private long lastUpdateTime;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        void update(String node, Double estimatedRows, long actualRows) {
+            this.node = node;
+            // Keep the original estimation, so the error is still shown after the feedback is used
+            if (estimatedRows != null) {
+                this.estimatedRows = estimatedRows;
+            }
+            this.actualRows = actualRows;
+            this.executions++;
+            this.lastUpdateTime = System.currentTimeMillis();
+        }
+
+        // The ratio of the larger one to the smaller one of the estimated and actual rows
+        double getQError() {
+            double estimated = Math.max(estimatedRows, 1);
+            double actual = Math.max(actualRows, 1);
+            return Math.max(estimated, actual) / Math.min(estimated, actual);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.starrocks.analysis.JoinOperator;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.sql.optimizer.ExpressionContext;
+import com.starrocks.sql.optimizer.Group;
+import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalLimitOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalDistributionOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalHashAggregateOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalHashJoinOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * The fingerprint of the rows produced by a plan subtree, which is the same for the logical expressions
+ * of a memo group and the physical plan node implementing the group, so the actual rows of a plan node
+ * can be used for the group when the same query is optimized again.
+ * <p>
+ * The subtree is normalized to a set of relations and a set of predicates: the inner and cross joins
+ * are flattened, the predicates of the scans, filters and joins are merged, the projections and
+ * exchanges are ignored. The outer, semi and anti joins, the aggregations and the limits are kept as
+ * nested relations. Only the olap scans, the joins, the filters, the global aggregations and the limits
+ * are supported, the fingerprint of the other subtrees is null.
+ */
+public class CardinalityFingerprint {
+    private static final Joiner JOINER = Joiner.on(",");
+
+    private final List<String> relations;
+    private final List<String> predicates;
+    // The local aggregation has the same fingerprint as its child, but not the same rows
+    private final boolean complete;
+
+    private CardinalityFingerprint(List<String> relations, List<String> predicates, boolean complete) {
+        this.relations = relations;
+        this.predicates = predicates;
+        this.complete = complete;
+    }
+
+    public static String of(ExpressionContext context) {
+        if (context.getGroupExpression() != null) {
+            return hash(of(context.getGroupExpression().getGroup()));
+        }
+        return of(context.getOptExpression());
+    }
+
+    public static String of(OptExpression expression) {
+        return hash(ofExpression(expression));
+    }
+
+    private static String hash(CardinalityFingerprint fingerprint) {
+        if (fingerprint == null || !fingerprint.complete) {
+            return null;
+        }
+        return Hashing.murmur3_128().hashString(fingerprint.toString(), StandardCharsets.UTF_8).toString();
+    }
+
+    // All the expressions of a group produce the same rows, use the first one
+    private static CardinalityFingerprint of(Group group) {
+        GroupExpression expression = group.getFirstLogicalExpression();
+        return compute(expression.getOp(), expression.arity(), i -> of(expression.inputAt(i)));
+    }
+
+    private static CardinalityFingerprint ofExpression(OptExpression expression) {
+        GroupExpression groupExpression = expression.getGroupExpression();
+        // The leaf of the join reorder is a group
+        if (groupExpression != null && expression.arity() < groupExpression.arity()) {
+            return of(groupExpression.getGroup());
+        }
+        return compute(expression.getOp(), expression.arity(), i -> ofExpression(expression.inputAt(i)));
+    }
+
+    private static CardinalityFingerprint compute(Operator op, int arity,
+                                                  IntFunction<CardinalityFingerprint> input) {
+        List<CardinalityFingerprint> children = Lists.newArrayList();
+        for (int i = 0; i < arity; i++) {
+            CardinalityFingerprint child = input.apply(i);
+            if (child == null) {
+                return null;
+            }
+            children.add(child);
+        }
+
+        ScalarOperator predicate;
+        long limit;
+        if (op instanceof LogicalOperator) {
+            predicate = ((LogicalOperator) op).getPredicate();
+            limit = ((LogicalOperator) op).getLimit();
+        } else if (op instanceof PhysicalOperator) {
+            predicate = ((PhysicalOperator) op).getPredicate();
+            limit = ((PhysicalOperator) op).getLimit();
+        } else {
+            return null;
+        }
+
+        if (op instanceof LogicalProjectOperator || op instanceof PhysicalProjectOperator ||
+                op instanceof PhysicalDistributionOperator) {
+            CardinalityFingerprint child = children.get(0);
+            return new CardinalityFingerprint(child.relations, child.predicates, false);
+        }
+
+        CardinalityFingerprint fingerprint;
+        if (op instanceof LogicalOlapScanOperator) {
+            LogicalOlapScanOperator scan = (LogicalOlapScanOperator) op;
+            fingerprint = relation(scan((OlapTable) scan.getTable(), scan.getSelectedPartitionId()), predicate);
+        } else if (op instanceof PhysicalOlapScanOperator) {
+            PhysicalOlapScanOperator scan = (PhysicalOlapScanOperator) op;
+            fingerprint = relation(scan(scan.getTable(), scan.getSelectedPartitionId()), predicate);
+        } else if (op instanceof LogicalFilterOperator || op instanceof PhysicalFilterOperator) {
+            fingerprint = merge(children, predicate);
+        } else if (op instanceof LogicalLimitOperator) {
+            if (((LogicalLimitOperator) op).hasOffset()) {
+                return null;
+            }
+            fingerprint = children.get(0);
+        } else if (op instanceof LogicalJoinOperator || op instanceof PhysicalHashJoinOperator) {
+            JoinOperator joinType = op instanceof LogicalJoinOperator ?
+                    ((LogicalJoinOperator) op).getJoinType() : ((PhysicalHashJoinOperator) op).getJoinType();
+            ScalarOperator onPredicate = op instanceof LogicalJoinOperator ?
+                    ((LogicalJoinOperator) op).getOnPredicate() : ((PhysicalHashJoinOperator) op).getJoinPredicate();
+            if (joinType.isInnerJoin() || joinType.isCrossJoin()) {
+                fingerprint = merge(children, onPredicate, predicate);
+            } else {
+                CardinalityFingerprint left = children.get(0);
+                CardinalityFingerprint right = children.get(1);
+                String name = joinType.toString();
+                // A RIGHT join B is the same as B LEFT join A
+                if (joinType.isRightJoin()) {
+                    left = children.get(1);
+                    right = children.get(0);
+                    name = name.replace("RIGHT", "LEFT");
+                }
+                fingerprint = relation(name + "(" + JOINER.join(normalize(onPredicate)) + ")[" + left + "][" +
+                        right + "]", predicate);
+            }
+        } else if (op instanceof LogicalAggregationOperator || op instanceof PhysicalHashAggregateOperator) {
+            AggType type = op instanceof LogicalAggregationOperator ?
+                    ((LogicalAggregationOperator) op).getType() : ((PhysicalHashAggregateOperator) op).getType();
+            List<ColumnRefOperator> groupBys = op instanceof LogicalAggregationOperator ?
+                    ((LogicalAggregationOperator) op).getGroupingKeys() :
+                    ((PhysicalHashAggregateOperator) op).getGroupBys();
+            CardinalityFingerprint child = children.get(0);
+            if (!type.isGlobal()) {
+                // The intermediate phases of a split aggregation
+                return new CardinalityFingerprint(child.relations, child.predicates, false);
+            }
+            List<String> keys = groupBys.stream().map(ColumnRefOperator::toString).sorted()
+                    .collect(Collectors.toList());
+            fingerprint = relation("AGG(" + JOINER.join(keys) + ")[" + child + "]", predicate);
+        } else {
+            return null;
+        }
+
+        if (limit >= 0) {
+            fingerprint = relation("LIMIT(" + limit + ")[" + fingerprint + "]", null);
+        }
+        return fingerprint;
+    }
+
+    // The visible versions of the scanned partitions are a part of the scan, so the rows learned before
+    // a load are not used after it
+    private static String scan(OlapTable table, Collection<Long> partitionIds) {
+        Collection<Partition> partitions = partitionIds == null ? table.getPartitions() :
+                partitionIds.stream().map(table::getPartition).filter(Objects::nonNull).collect(Collectors.toList());
+        List<String> versions = Lists.newArrayList();
+        for (Partition partition : partitions) {
+            versions.add(partition.getId() + "@" + partition.getVisibleVersion());
+        }
+        Collections.sort(versions);
+        return "SCAN(" + table.getId() + ")(" + JOINER.join(versions) + ")";
+    }
+
+    private static CardinalityFingerprint relation(String relation, ScalarOperator predicate) {
+        return new CardinalityFingerprint(Collections.singletonList(relation), normalize(predicate), true);
+    }
+
+    private static CardinalityFingerprint merge(List<CardinalityFingerprint> children,
+                                                ScalarOperator... conjuncts) {
+        List<String> relations = Lists.newArrayList();
+        List<String> predicates = Lists.newArrayList();
+        for (ScalarOperator conjunct : conjuncts) {
+            predicates.addAll(normalize(conjunct));
+        }
+        for (CardinalityFingerprint child : children) {
+            relations.addAll(child.relations);
+            predicates.addAll(child.predicates);
+        }
+        Collections.sort(relations);
+        return new CardinalityFingerprint(relations,
+                predicates.stream().distinct().sorted().collect(Collectors.toList()), true);
+    }
+
+    private static List<String> normalize(ScalarOperator predicate) {
+        return Utils.extractConjuncts(predicate).stream().map(ScalarOperator::toString).distinct().sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return "{" + JOINER.join(relations) + "|" + JOINER.join(predicates) + "}";
+    }
+}
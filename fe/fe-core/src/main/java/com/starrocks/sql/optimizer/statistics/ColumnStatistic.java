@@ -23,6 +23,8 @@ public class ColumnStatistic {
     private final double averageRowSize;
     private final double distinctValuesCount;
     private final StatisticType type;
+    // The histogram of the not null values, null if it's not collected
+    private final Histogram histogram;
 
     // TODO deal with string max, min
     public ColumnStatistic(
@@ -32,12 +34,24 @@ public class ColumnStatistic {
             double averageRowSize,
             double distinctValuesCount,
             StatisticType type) {
+        this(minValue, maxValue, nullsFraction, averageRowSize, distinctValuesCount, type, null);
+    }
+
+    public ColumnStatistic(
+            double minValue,
+            double maxValue,
+            double nullsFraction,
+            double averageRowSize,
+            double distinctValuesCount,
+            StatisticType type,
+            Histogram histogram) {
         this.minValue = minValue;
         this.maxValue = maxValue;
         this.nullsFraction = nullsFraction;
         this.averageRowSize = averageRowSize;
         this.distinctValuesCount = distinctValuesCount;
         this.type = type;
+        this.histogram = histogram;
     }
 
     public ColumnStatistic(double minValue,
@@ -68,6 +82,14 @@ public class ColumnStatistic {
         return distinctValuesCount;
     }
 
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    public boolean hasHistogram() {
+        return histogram != null;
+    }
+
     public static ColumnStatistic unknown() {
         return UNKNOWN;
     }
@@ -97,7 +119,7 @@ public class ColumnStatistic {
 
     public static Builder buildFrom(ColumnStatistic other) {
         return new Builder(other.minValue, other.maxValue, other.nullsFraction, other.averageRowSize,
-                other.distinctValuesCount, other.type);
+                other.distinctValuesCount, other.type).setHistogram(other.histogram);
     }
 
     public static Builder buildFrom(String columnStatistic) {
@@ -125,6 +147,7 @@ public class ColumnStatistic {
         private double averageRowSize = NaN;
         private double distinctValuesCount = NaN;
         private StatisticType type = StatisticType.ESTIMATE;
+        private Histogram histogram = null;
 
         private Builder() {
         }
@@ -174,8 +197,14 @@ public class ColumnStatistic {
             return this;
         }
 
+        public Builder setHistogram(Histogram histogram) {
+            this.histogram = histogram;
+            return this;
+        }
+
         public ColumnStatistic build() {
-            return new ColumnStatistic(minValue, maxValue, nullsFraction, averageRowSize, distinctValuesCount, type);
+            return new ColumnStatistic(minValue, maxValue, nullsFraction, averageRowSize, distinctValuesCount, type,
+                    histogram);
         }
     }
 }
@@ -0,0 +1,201 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The equi-height histogram and the most common values (MCV) of a column, collected on the sample rows
+ * which are not null.
+ * <p>
+ * The buckets cover all the sample rows including the most common values, they are only collected for
+ * the numeric and date columns, the values are converted to double like {@link ColumnStatistic}.
+ * The most common values are collected for all the types, the key of a numeric value is
+ * {@link #keyOf(double)}, the key of a string value is itself.
+ * <p>
+ * All the estimations return the fraction of the not null rows.
+ */
+public class Histogram {
+    private final long rows;
+    private final List<Bucket> buckets;
+    private final Map<String, Long> mcv;
+    private final long mcvRows;
+    // The rows and distinct values of each bucket without the most common values
+    private final long[] bucketRestRows;
+    private final long[] bucketRestDistinctValues;
+
+    public Histogram(long rows, List<Bucket> buckets, Map<String, Long> mcv) {
+        Preconditions.checkArgument(rows >= 0, "rows should be non-negative, got: %s", rows);
+        this.rows = rows;
+        this.buckets = ImmutableList.sortedCopyOf(Comparator.comparingDouble(Bucket::getLower), buckets);
+        this.mcv = ImmutableMap.copyOf(mcv);
+        this.mcvRows = mcv.values().stream().mapToLong(Long::longValue).sum();
+
+        bucketRestRows = new long[this.buckets.size()];
+        bucketRestDistinctValues = new long[this.buckets.size()];
+        for (int i = 0; i < this.buckets.size(); i++) {
+            bucketRestRows[i] = this.buckets.get(i).count;
+            bucketRestDistinctValues[i] = this.buckets.get(i).distinctValues;
+        }
+        if (!this.buckets.isEmpty()) {
+            for (Map.Entry<String, Long> entry : this.mcv.entrySet()) {
+                int index = findBucket(Double.parseDouble(entry.getKey()));
+                if (index >= 0) {
+                    bucketRestRows[index] -= entry.getValue();
+                    bucketRestDistinctValues[index]--;
+                }
+            }
+        }
+    }
+
+    public static String keyOf(double value) {
+        return Double.toString(value);
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    public Map<String, Long> getMCV() {
+        return mcv;
+    }
+
+    /**
+     * The fraction of the rows equal to the numeric value, the distinct values of the column are used
+     * if the value is not in the buckets.
+     */
+    public double getEqualFraction(double value, double distinctValues) {
+        if (rows == 0) {
+            return 0;
+        }
+        Long count = mcv.get(keyOf(value));
+        if (count != null) {
+            return count * 1.0 / rows;
+        }
+
+        int index = findBucket(value);
+        if (index >= 0) {
+            return Math.max(bucketRestRows[index], 0) * 1.0 /
+                    Math.max(bucketRestDistinctValues[index], 1) / rows;
+        }
+        if (!buckets.isEmpty() &&
+                (value < buckets.get(0).lower || value > buckets.get(buckets.size() - 1).upper)) {
+            // Out of the range of the sample rows, it's rare
+            return Math.min(1.0 / rows, getRestEqualFraction(distinctValues));
+        }
+        return getRestEqualFraction(distinctValues);
+    }
+
+    /**
+     * The fraction of the rows equal to the string value, only the most common values are used.
+     */
+    public double getEqualFraction(String value, double distinctValues) {
+        if (rows == 0) {
+            return 0;
+        }
+        Long count = mcv.get(value);
+        if (count != null) {
+            return count * 1.0 / rows;
+        }
+        return getRestEqualFraction(distinctValues);
+    }
+
+    // The average fraction of the values which are not the most common values
+    private double getRestEqualFraction(double distinctValues) {
+        double restDistinctValues = Math.max(distinctValues - mcv.size(), 1);
+        return Math.max(rows - mcvRows, 0) * 1.0 / restDistinctValues / rows;
+    }
+
+    /**
+     * The fraction of the rows in the range [low, high], the value in a bucket is assumed to be uniform.
+     * Return empty if there is no bucket.
+     */
+    public Optional<Double> getRangeFraction(double low, double high) {
+        if (buckets.isEmpty() || rows == 0) {
+            return Optional.empty();
+        }
+        if (low > high) {
+            return Optional.of(0.0);
+        }
+
+        double count = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.upper < low || bucket.lower > high) {
+                continue;
+            }
+            if (bucket.lower >= low && bucket.upper <= high) {
+                count += bucket.count;
+            } else if (bucket.upper > bucket.lower) {
+                double overlap = Math.min(bucket.upper, high) - Math.max(bucket.lower, low);
+                // A single value range in the bucket
+                overlap = Math.max(overlap, (bucket.upper - bucket.lower) / Math.max(bucket.distinctValues, 1));
+                count += bucket.count * Math.min(overlap / (bucket.upper - bucket.lower), 1);
+            }
+        }
+        return Optional.of(Math.min(count / rows, 1.0));
+    }
+
+    private int findBucket(double value) {
+        int low = 0;
+        int high = buckets.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Bucket bucket = buckets.get(mid);
+            if (value < bucket.lower) {
+                high = mid - 1;
+            } else if (value > bucket.upper) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram{rows=" + rows + ", buckets=" + buckets.size() + ", mcv=" + mcv.size() + "}";
+    }
+
+    public static class Bucket {
+        private final double lower;
+        private final double upper;
+        private final long count;
+        private final long distinctValues;
+
+        public Bucket(double lower, double upper, long count, long distinctValues) {
+            Preconditions.checkArgument(lower <= upper, "lower %s is greater than upper %s", lower, upper);
+            this.lower = lower;
+            this.upper = upper;
+            this.count = count;
+            this.distinctValues = distinctValues;
+        }
+
+        public double getLower() {
+            return lower;
+        }
+
+        public double getUpper() {
+            return upper;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getDistinctValues() {
+            return distinctValues;
+        }
+    }
+}
@@ -5,6 +5,7 @@ package com.starrocks.sql.optimizer.statistics;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.CastOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
@@ -15,9 +16,12 @@ import com.starrocks.sql.optimizer.operator.scalar.IsNullPredicateOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperatorVisitor;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalDouble;
+import java.util.stream.Collectors;
 
 public class PredicateStatisticsCalculator {
     public static Statistics statisticsCalculate(ScalarOperator predicate, Statistics statistics) {
@@ -76,6 +80,18 @@ public class PredicateStatisticsCalculator {
                 return Statistics.buildFrom(statistics).setOutputRowCount(rowCount).build();
             }
             ColumnStatistic inColumnStatistic = statistics.getColumnStatistic((ColumnRefOperator) child);
+            OptionalDouble inFraction = getInFractionByHistogram(inColumnStatistic, predicate);
+            if (inFraction.isPresent()) {
+                double notNullRowCount = statistics.getOutputRowCount() * (1 - inColumnStatistic.getNullsFraction());
+                double rowCount = notNullRowCount *
+                        (predicate.isNotIn() ? 1 - inFraction.getAsDouble() : inFraction.getAsDouble());
+                return Statistics.buildFrom(statistics).setOutputRowCount(rowCount).
+                        addColumnStatistic((ColumnRefOperator) child,
+                                ColumnStatistic.buildFrom(inColumnStatistic).setHistogram(null).setNullsFraction(0).
+                                        setDistinctValuesCount(predicate.isNotIn() ?
+                                                inColumnStatistic.getDistinctValuesCount() : inValueSize).
+                                        build()).build();
+            }
             if (inColumnStatistic.isUnknown()) {
                 selectivity = predicate.isNotIn() ?
                         1 - StatisticsEstimateCoefficient.IN_PREDICATE_DEFAULT_FILTER_COEFFICIENT :
@@ -87,7 +103,7 @@ public class PredicateStatisticsCalculator {
             double rowCount = Math.min(statistics.getOutputRowCount() * selectivity, statistics.getOutputRowCount());
             return Statistics.buildFrom(statistics).setOutputRowCount(rowCount).
                     addColumnStatistic((ColumnRefOperator) child,
-                            ColumnStatistic.buildFrom(inColumnStatistic).setDistinctValuesCount(
+                            ColumnStatistic.buildFrom(inColumnStatistic).setHistogram(null).setDistinctValuesCount(
                                     predicate.isNotIn() ? inColumnStatistic.getDistinctValuesCount() : inValueSize).
                                     build()).build();
         }
@@ -148,6 +164,17 @@ public class PredicateStatisticsCalculator {
                 leftChildOpt = leftChild.isColumnRef() ? Optional.of((ColumnRefOperator) leftChild) : Optional.empty();
 
                 if (rightChild.isConstant()) {
+                    if (rightColumnStatistic.isUnknown() && isEqualOrNotEqual(predicate)) {
+                        // The string constant can only be estimated by the most common values
+                        OptionalDouble fraction = getEqualFractionByHistogram(leftColumnStatistic, rightChild);
+                        if (fraction.isPresent()) {
+                            double selectivity = predicate.getBinaryType() == BinaryPredicateOperator.BinaryType.NE ?
+                                    1 - fraction.getAsDouble() : fraction.getAsDouble();
+                            return BinaryPredicateStatisticCalculator.estimateByHistogram(leftChildOpt,
+                                    leftColumnStatistic, StatisticRangeValues.from(leftColumnStatistic), selectivity,
+                                    statistics);
+                        }
+                    }
                     OptionalDouble constant = rightColumnStatistic.isUnknown() ? OptionalDouble.empty() :
                             OptionalDouble.of(rightColumnStatistic.getMaxValue());
                     return BinaryPredicateStatisticCalculator.estimateColumnToConstantComparison(leftChildOpt,
@@ -172,10 +199,15 @@ public class PredicateStatisticsCalculator {
 
             if (predicate.isAnd()) {
                 Preconditions.checkState(predicate.getChildren().size() == 2);
-                Statistics leftStatistics = predicate.getChild(0).accept(this, null);
-                return predicate.getChild(1)
-                        .accept(new PredicateStatisticsCalculator.PredicateStatisticsCalculatingVisitor(leftStatistics),
-                                null);
+                List<ScalarOperator> conjuncts = new ArrayList<>();
+                extractConjuncts(predicate, conjuncts);
+                Statistics andStatistics = statistics;
+                for (ScalarOperator conjunct : conjuncts) {
+                    andStatistics = conjunct.accept(
+                            new PredicateStatisticsCalculator.PredicateStatisticsCalculatingVisitor(andStatistics),
+                            null);
+                }
+                return adjustByMultiColumnStatistics(conjuncts, andStatistics);
             } else if (predicate.isOr()) {
                 Preconditions.checkState(predicate.getChildren().size() == 2);
                 Statistics leftStatistics = predicate.getChild(0).accept(this, null);
@@ -195,6 +227,78 @@ public class PredicateStatisticsCalculator {
             }
         }
 
+        // The nested AND predicates which are not evaluated are kept as one conjunct
+        private void extractConjuncts(ScalarOperator predicate, List<ScalarOperator> conjuncts) {
+            if (predicate instanceof CompoundPredicateOperator && ((CompoundPredicateOperator) predicate).isAnd() &&
+                    checkNeedEvalEstimate(predicate)) {
+                extractConjuncts(predicate.getChild(0), conjuncts);
+                extractConjuncts(predicate.getChild(1), conjuncts);
+            } else {
+                conjuncts.add(predicate);
+            }
+        }
+
+        /**
+         * The selectivities of the conjuncts are multiplied as they are independent, which underestimates the
+         * equal predicates on the correlated columns, e.g. country = 'China' AND city = 'Beijing'. If the distinct
+         * values of the column combination are known, the product is scaled up by the ratio of the distinct values
+         * assuming the columns are independent to the real distinct values of the combination.
+         */
+        private Statistics adjustByMultiColumnStatistics(List<ScalarOperator> conjuncts, Statistics andStatistics) {
+            if (statistics.getMultiColumnDistinctValues().isEmpty()) {
+                return andStatistics;
+            }
+            ColumnRefSet equalColumns = new ColumnRefSet();
+            for (ScalarOperator conjunct : conjuncts) {
+                if (conjunct instanceof BinaryPredicateOperator &&
+                        ((BinaryPredicateOperator) conjunct).getBinaryType() == BinaryPredicateOperator.BinaryType.EQ &&
+                        conjunct.getChild(0).isColumnRef() && conjunct.getChild(1).isConstant() &&
+                        checkNeedEvalEstimate(conjunct)) {
+                    equalColumns.union((ColumnRefOperator) conjunct.getChild(0));
+                }
+            }
+            if (equalColumns.cardinality() < 2) {
+                return andStatistics;
+            }
+
+            // Prefer the larger column combinations, each column is only adjusted once
+            List<Map.Entry<ColumnRefSet, Double>> multiColumns = statistics.getMultiColumnDistinctValues().entrySet()
+                    .stream().filter(entry -> entry.getKey().cardinality() > 1 && equalColumns.contains(entry.getKey()))
+                    .sorted((a, b) -> Integer.compare(b.getKey().cardinality(), a.getKey().cardinality()))
+                    .collect(Collectors.toList());
+            double correlation = 1;
+            ColumnRefSet adjustedColumns = new ColumnRefSet();
+            for (Map.Entry<ColumnRefSet, Double> entry : multiColumns) {
+                if (adjustedColumns.isIntersect(entry.getKey())) {
+                    continue;
+                }
+                double independentDistinctValues = 1;
+                double maxDistinctValues = 1;
+                boolean hasUnknown = false;
+                for (Map.Entry<ColumnRefOperator, ColumnStatistic> column : statistics.getColumnStatistics()
+                        .entrySet()) {
+                    if (entry.getKey().contains(column.getKey())) {
+                        hasUnknown |= column.getValue().isUnknown();
+                        independentDistinctValues *= column.getValue().getDistinctValuesCount();
+                        maxDistinctValues = Math.max(maxDistinctValues, column.getValue().getDistinctValuesCount());
+                    }
+                }
+                if (hasUnknown) {
+                    continue;
+                }
+                // The combination has at least the distinct values of any column, at most their product
+                double distinctValues = Math.max(Math.min(entry.getValue(), independentDistinctValues),
+                        maxDistinctValues);
+                correlation *= independentDistinctValues / distinctValues;
+                adjustedColumns.union(entry.getKey());
+            }
+            if (correlation == 1) {
+                return andStatistics;
+            }
+            double rowCount = Math.min(andStatistics.getOutputRowCount() * correlation, statistics.getOutputRowCount());
+            return Statistics.buildFrom(andStatistics).setOutputRowCount(rowCount).build();
+        }
+
         public Statistics computeOrPredicateStatistics(Statistics leftStatistics, Statistics rightStatistics,
                                                        Statistics inputStatistics, double rowCount) {
             Statistics.Builder builder = Statistics.buildFrom(inputStatistics);
@@ -218,6 +322,54 @@ public class PredicateStatisticsCalculator {
             }
         }
 
+        private boolean isEqualOrNotEqual(BinaryPredicateOperator predicate) {
+            return predicate.getBinaryType() == BinaryPredicateOperator.BinaryType.EQ ||
+                    predicate.getBinaryType() == BinaryPredicateOperator.BinaryType.EQ_FOR_NULL ||
+                    predicate.getBinaryType() == BinaryPredicateOperator.BinaryType.NE;
+        }
+
+        // The fraction of the not null rows equal to the constant, empty if there is no histogram
+        private OptionalDouble getEqualFractionByHistogram(ColumnStatistic columnStatistic, ScalarOperator operator) {
+            if (!columnStatistic.hasHistogram() || !(operator instanceof ConstantOperator)) {
+                return OptionalDouble.empty();
+            }
+            ConstantOperator constant = (ConstantOperator) operator;
+            if (constant.isNull()) {
+                return OptionalDouble.empty();
+            }
+            Histogram histogram = columnStatistic.getHistogram();
+            if (constant.getType().isStringType()) {
+                // The buckets are only collected for the numeric columns
+                if (!histogram.getBuckets().isEmpty()) {
+                    return OptionalDouble.empty();
+                }
+                return OptionalDouble.of(
+                        histogram.getEqualFraction(constant.getVarchar(), columnStatistic.getDistinctValuesCount()));
+            }
+            ColumnStatistic constantStatistic = getExpressionStatistic(constant);
+            if (constantStatistic.isUnknown()) {
+                return OptionalDouble.empty();
+            }
+            return OptionalDouble.of(histogram.getEqualFraction(constantStatistic.getMaxValue(),
+                    columnStatistic.getDistinctValuesCount()));
+        }
+
+        private OptionalDouble getInFractionByHistogram(ColumnStatistic columnStatistic,
+                                                        InPredicateOperator predicate) {
+            if (!columnStatistic.hasHistogram()) {
+                return OptionalDouble.empty();
+            }
+            double fraction = 0;
+            for (ScalarOperator value : predicate.getChildren().subList(1, predicate.getChildren().size())) {
+                OptionalDouble valueFraction = getEqualFractionByHistogram(columnStatistic, value);
+                if (!valueFraction.isPresent()) {
+                    return OptionalDouble.empty();
+                }
+                fraction += valueFraction.getAsDouble();
+            }
+            return OptionalDouble.of(Math.min(fraction, 1.0));
+        }
+
         private ScalarOperator getChildForCastOperator(ScalarOperator operator) {
             if (operator instanceof CastOperator) {
                 Preconditions.checkState(operator.getChildren().size() == 1);
@@ -4,7 +4,9 @@ package com.starrocks.sql.optimizer.statistics;
 
 import com.starrocks.catalog.Table;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public interface StatisticStorage {
     ColumnStatistic getColumnStatistic(Table table, String column);
@@ -14,4 +16,12 @@ public interface StatisticStorage {
     void expireColumnStatistics(Table table, List<String> columns);
 
     void addColumnStatistic(Table table, String column, ColumnStatistic columnStatistic);
+
+    /**
+     * The distinct values of the column combinations collected by ANALYZE TABLE ... COLUMNS (...),
+     * the key is the sorted column names in lower case.
+     */
+    default Map<List<String>, Double> getMultiColumnDistinctValues(Table table) {
+        return Collections.emptyMap();
+    }
 }
@@ -6,6 +6,7 @@ import com.google.common.base.Preconditions;
 import com.starrocks.sql.optimizer.base.ColumnRefSet;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -14,11 +15,20 @@ import static java.lang.Double.NaN;
 public class Statistics {
     private final double outputRowCount;
     private final Map<ColumnRefOperator, ColumnStatistic> columnStatistics;
+    // The distinct values of the column combinations which are correlated, e.g. (country, city)
+    private final Map<ColumnRefSet, Double> multiColumnDistinctValues;
 
     public Statistics(double outputRowCount,
                       Map<ColumnRefOperator, ColumnStatistic> columnStatistics) {
+        this(outputRowCount, columnStatistics, Collections.emptyMap());
+    }
+
+    public Statistics(double outputRowCount,
+                      Map<ColumnRefOperator, ColumnStatistic> columnStatistics,
+                      Map<ColumnRefSet, Double> multiColumnDistinctValues) {
         this.outputRowCount = outputRowCount;
         this.columnStatistics = columnStatistics;
+        this.multiColumnDistinctValues = multiColumnDistinctValues;
     }
 
     public double getOutputRowCount() {
@@ -40,6 +50,10 @@ public class Statistics {
         return columnStatistics;
     }
 
+    public Map<ColumnRefSet, Double> getMultiColumnDistinctValues() {
+        return multiColumnDistinctValues;
+    }
+
     public ColumnRefSet getUsedColumns() {
         ColumnRefSet usedColumns = new ColumnRefSet();
         for (Map.Entry<ColumnRefOperator, ColumnStatistic> entry : columnStatistics.entrySet()) {
@@ -49,7 +63,7 @@ public class Statistics {
     }
 
     public static Builder buildFrom(Statistics other) {
-        return new Builder(other.getOutputRowCount(), other.columnStatistics);
+        return new Builder(other.getOutputRowCount(), other.columnStatistics, other.multiColumnDistinctValues);
     }
 
     public static Builder builder() {
@@ -59,14 +73,17 @@ public class Statistics {
     public static final class Builder {
         private double outputRowCount;
         private final Map<ColumnRefOperator, ColumnStatistic> columnStatistics;
+        private final Map<ColumnRefSet, Double> multiColumnDistinctValues;
 
         public Builder() {
-            this(NaN, new HashMap<>());
+            this(NaN, new HashMap<>(), new HashMap<>());
         }
 
-        private Builder(double outputRowCount, Map<ColumnRefOperator, ColumnStatistic> columnStatistics) {
+        private Builder(double outputRowCount, Map<ColumnRefOperator, ColumnStatistic> columnStatistics,
+                        Map<ColumnRefSet, Double> multiColumnDistinctValues) {
             this.outputRowCount = outputRowCount;
             this.columnStatistics = new HashMap<>(columnStatistics);
+            this.multiColumnDistinctValues = new HashMap<>(multiColumnDistinctValues);
         }
 
         public Builder setOutputRowCount(double outputRowCount) {
@@ -89,8 +106,29 @@ public class Statistics {
             return this;
         }
 
+        public Builder addMultiColumnDistinctValues(ColumnRefSet columns, double distinctValues) {
+            this.multiColumnDistinctValues.put(columns, distinctValues);
+            return this;
+        }
+
+        public Builder addMultiColumnDistinctValues(Map<ColumnRefSet, Double> multiColumnDistinctValues) {
+            this.multiColumnDistinctValues.putAll(multiColumnDistinctValues);
+            return this;
+        }
+
+        // Only add the column combinations which are all in the output columns
+        public Builder addMultiColumnDistinctValues(Map<ColumnRefSet, Double> multiColumnDistinctValues,
+                                                    ColumnRefSet outputColumns) {
+            multiColumnDistinctValues.forEach((columns, distinctValues) -> {
+                if (outputColumns.contains(columns)) {
+                    this.multiColumnDistinctValues.put(columns, distinctValues);
+                }
+            });
+            return this;
+        }
+
         public Statistics build() {
-            return new Statistics(outputRowCount, columnStatistics);
+            return new Statistics(outputRowCount, columnStatistics, multiColumnDistinctValues);
         }
     }
 }
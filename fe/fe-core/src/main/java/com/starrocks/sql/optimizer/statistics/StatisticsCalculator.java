@@ -24,8 +24,10 @@ import com.starrocks.external.hive.HdfsFileDesc;
 import com.starrocks.external.hive.HiveColumnStats;
 import com.starrocks.external.hive.HivePartition;
 import com.starrocks.external.hive.HiveTableStats;
+import com.starrocks.qe.ConnectContext;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.StarRocksPlannerException;
+import com.starrocks.sql.optimizer.CTEContext;
 import com.starrocks.sql.optimizer.ExpressionContext;
 import com.starrocks.sql.optimizer.Group;
 import com.starrocks.sql.optimizer.Utils;
@@ -36,6 +38,9 @@ import com.starrocks.sql.optimizer.operator.Operator;
 import com.starrocks.sql.optimizer.operator.OperatorVisitor;
 import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
@@ -54,6 +59,9 @@ import com.starrocks.sql.optimizer.operator.logical.LogicalUnionOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalValuesOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalWindowOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalFilterOperator;
@@ -85,11 +93,13 @@ import org.mortbay.log.Log;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.Queue;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -108,19 +118,48 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
     private final ColumnRefSet requiredCols;
     private final ColumnRefFactory columnRefFactory;
     private final DumpInfo dumpInfo;
+    private final CTEContext cteContext;
 
     public StatisticsCalculator(ExpressionContext expressionContext,
                                 ColumnRefSet requiredCols,
                                 ColumnRefFactory columnRefFactory,
                                 DumpInfo dumpInfo) {
+        this(expressionContext, requiredCols, columnRefFactory, dumpInfo, null);
+    }
+
+    public StatisticsCalculator(ExpressionContext expressionContext,
+                                ColumnRefSet requiredCols,
+                                ColumnRefFactory columnRefFactory,
+                                DumpInfo dumpInfo,
+                                CTEContext cteContext) {
         this.expressionContext = expressionContext;
         this.requiredCols = requiredCols;
         this.columnRefFactory = columnRefFactory;
         this.dumpInfo = dumpInfo;
+        this.cteContext = cteContext;
     }
 
     public void estimatorStats() {
         expressionContext.getOp().accept(this, expressionContext);
+        applyCardinalityFeedback();
+    }
+
+    // Prefer the actual rows of the same subtree executed before
+    private void applyCardinalityFeedback() {
+        ConnectContext session = ConnectContext.get();
+        if (session == null || !session.getSessionVariable().isEnableCardinalityFeedback() ||
+                expressionContext.getStatistics() == null) {
+            return;
+        }
+        String fingerprint = CardinalityFingerprint.of(expressionContext);
+        if (fingerprint == null) {
+            return;
+        }
+        Double rowCount = CardinalityFeedback.getInstance().getRowCount(fingerprint);
+        if (rowCount != null) {
+            expressionContext.setStatistics(Statistics.buildFrom(expressionContext.getStatistics())
+                    .setOutputRowCount(Math.max(rowCount, 1)).build());
+        }
     }
 
     @Override
@@ -276,6 +315,18 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
             dumpInfo.addTableStatistics(table, requiredColumns.get(i).getName(), columnStatisticList.get(i));
         }
 
+        Map<List<String>, Double> multiColumnDistinctValues =
+                Catalog.getCurrentStatisticStorage().getMultiColumnDistinctValues(table);
+        if (!multiColumnDistinctValues.isEmpty()) {
+            Map<String, ColumnRefOperator> nameToColumnRef = new HashMap<>();
+            requiredColumns.forEach(columnRef -> nameToColumnRef.put(columnRef.getName().toLowerCase(), columnRef));
+            for (Map.Entry<List<String>, Double> entry : multiColumnDistinctValues.entrySet()) {
+                if (nameToColumnRef.keySet().containsAll(entry.getKey())) {
+                    builder.addMultiColumnDistinctValues(new ColumnRefSet(entry.getKey().stream()
+                            .map(nameToColumnRef::get).collect(Collectors.toList())), entry.getValue());
+                }
+            }
+        }
         return builder;
     }
 
@@ -497,12 +548,17 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
                     .entrySet()) {
                 builder.addColumnStatistic(entry.getKey(), entry.getValue());
             }
+            builder.addMultiColumnDistinctValues(inputStatistics.getMultiColumnDistinctValues());
             context.setStatistics(builder.build());
             return visitOperator(context.getOp(), context);
         }
 
+        ColumnRefSet passThroughColumns = new ColumnRefSet();
         for (int columnId : requiredCols.getColumnIds()) {
             ColumnRefOperator requiredColumnRefOperator = columnRefFactory.getColumnRef(columnId);
+            if (requiredColumnRefOperator.equals(columnRefMap.get(requiredColumnRefOperator))) {
+                passThroughColumns.union(requiredColumnRefOperator);
+            }
             // derive stats from child
             // use clone here because it will be rewrite later
             ScalarOperator mapOperator = columnRefMap.get(requiredColumnRefOperator).clone();
@@ -512,6 +568,7 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
             builder.addColumnStatistic(requiredColumnRefOperator,
                     ExpressionStatisticCalculator.calculate(mapOperator, inputStatistics));
         }
+        builder.addMultiColumnDistinctValues(inputStatistics.getMultiColumnDistinctValues(), passThroughColumns);
         context.setStatistics(builder.build());
         return visitOperator(context.getOp(), context);
     }
@@ -534,8 +591,13 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
 
         Map<ColumnRefOperator, ColumnStatistic> groupStatisticsMap = groupBys.stream().collect(
                 Collectors.toMap(Function.identity(), inputStatistics::getColumnStatistic));
+        ColumnRefSet groupByColumns = new ColumnRefSet(groupBys);
+        Double groupByDistinctValues = inputStatistics.getMultiColumnDistinctValues().get(groupByColumns);
         double rowCount = 1;
-        if (groupStatisticsMap.values().stream().anyMatch(ColumnStatistic::isUnknown)) {
+        if (groupByDistinctValues != null) {
+            // The group by columns are correlated, the distinct values of the combination are known
+            rowCount = groupByDistinctValues;
+        } else if (groupStatisticsMap.values().stream().anyMatch(ColumnStatistic::isUnknown)) {
             // estimate with default column statistics
             for (int groupByIndex = 0; groupByIndex < groupBys.size(); ++groupByIndex) {
                 if (groupByIndex == 0) {
@@ -564,7 +626,11 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
                 }
             }
         }
+        // Each group by value is one row after aggregation, the histogram is invalid
+        groupStatisticsMap.replaceAll((columnRef, columnStatistic) -> columnStatistic.hasHistogram() ?
+                ColumnStatistic.buildFrom(columnStatistic).setHistogram(null).build() : columnStatistic);
         builder.addColumnStatistics(groupStatisticsMap);
+        builder.addMultiColumnDistinctValues(inputStatistics.getMultiColumnDistinctValues(), groupByColumns);
         rowCount = min(inputStatistics.getOutputRowCount(), rowCount);
         builder.setOutputRowCount(rowCount);
 
@@ -599,6 +665,8 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
 
         builder.addColumnStatistics(leftStatistics.getColumnStatistics());
         builder.addColumnStatistics(rightStatistics.getColumnStatistics());
+        builder.addMultiColumnDistinctValues(leftStatistics.getMultiColumnDistinctValues());
+        builder.addMultiColumnDistinctValues(rightStatistics.getMultiColumnDistinctValues());
         List<BinaryPredicateOperator> eqOnPredicates = JoinPredicateUtils.getEqConj(leftStatistics.getUsedColumns(),
                 rightStatistics.getUsedColumns(),
                 Utils.extractConjuncts(joinOnPredicate));
@@ -629,7 +697,10 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
             }
         }
         if (innerRowCount == -1) {
-            innerRowCount = estimateInnerRowCount(builder.build(), eqOnPredicates);
+            OptionalDouble multiColumnRowCount =
+                    estimateInnerRowCountByMultiColumn(leftStatistics, rightStatistics, eqOnPredicates);
+            innerRowCount = multiColumnRowCount.isPresent() ? multiColumnRowCount.getAsDouble() :
+                    estimateInnerRowCount(builder.build(), eqOnPredicates);
         }
 
         switch (joinType) {
@@ -695,6 +766,8 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         Statistics.Builder joinBuilder = Statistics.builder();
         joinBuilder.setOutputRowCount(estimateStatistics.getOutputRowCount());
         joinBuilder.addColumnStatistics(outputColumnStatisticMap);
+        joinBuilder.addMultiColumnDistinctValues(estimateStatistics.getMultiColumnDistinctValues(),
+                new ColumnRefSet(outputColumns));
 
         context.setStatistics(joinBuilder.build());
         return visitOperator(context.getOp(), context);
@@ -862,6 +935,65 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         return visitOperator(context.getOp(), context);
     }
 
+    @Override
+    public Void visitLogicalCTEAnchor(LogicalCTEAnchorOperator node, ExpressionContext context) {
+        return computeCTEChildNode(node, context, 1);
+    }
+
+    @Override
+    public Void visitPhysicalCTEAnchor(PhysicalCTEAnchorOperator node, ExpressionContext context) {
+        return computeCTEChildNode(node, context, 1);
+    }
+
+    @Override
+    public Void visitLogicalCTEProduce(LogicalCTEProduceOperator node, ExpressionContext context) {
+        return computeCTEChildNode(node, context, 0);
+    }
+
+    @Override
+    public Void visitPhysicalCTEProduce(PhysicalCTEProduceOperator node, ExpressionContext context) {
+        return computeCTEChildNode(node, context, 0);
+    }
+
+    private Void computeCTEChildNode(Operator node, ExpressionContext context, int childIndex) {
+        Statistics inputStatistics = context.getChildStatistics(childIndex);
+        Statistics.Builder builder = Statistics.buildFrom(inputStatistics);
+        return visitOperator(node, context, builder);
+    }
+
+    @Override
+    public Void visitLogicalCTEConsume(LogicalCTEConsumeOperator node, ExpressionContext context) {
+        return computeCTEConsumeNode(node, context, node.getCteId(), node.getCteOutputColumnRefMap());
+    }
+
+    @Override
+    public Void visitPhysicalCTEConsume(PhysicalCTEConsumeOperator node, ExpressionContext context) {
+        return computeCTEConsumeNode(node, context, node.getCteId(), node.getCteOutputColumnRefMap());
+    }
+
+    // The consumer which isn't decided to reuse the CTE yet computes the CTE by its child
+    private Void computeCTEConsumeNode(Operator node, ExpressionContext context, int cteId,
+                                       Map<ColumnRefOperator, ColumnRefOperator> cteOutputColumnRefMap) {
+        Statistics cteStatistics;
+        if (context.arity() != 0) {
+            cteStatistics = context.getChildStatistics(0);
+        } else {
+            Preconditions.checkState(cteContext != null, "Unknown statistics of CTE " + cteId);
+            cteStatistics = cteContext.getProduceStatistics(cteId);
+        }
+        if (cteStatistics == null) {
+            return visitOperator(node, context);
+        }
+
+        Statistics.Builder builder = Statistics.builder();
+        builder.setOutputRowCount(cteStatistics.getOutputRowCount());
+        for (Map.Entry<ColumnRefOperator, ColumnRefOperator> entry : cteOutputColumnRefMap.entrySet()) {
+            builder.addColumnStatistic(entry.getKey(), cteStatistics.getColumnStatistics()
+                    .getOrDefault(entry.getValue(), ColumnStatistic.unknown()));
+        }
+        return visitOperator(node, context, builder);
+    }
+
     public double estimateInnerRowCount(Statistics statistics, List<BinaryPredicateOperator> eqOnPredicates) {
         if (eqOnPredicates.isEmpty()) {
             return statistics.getOutputRowCount();
@@ -885,6 +1017,74 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         return result;
     }
 
+    /**
+     * The join keys are usually correlated, e.g. (country, city), estimate the join by the distinct values of the
+     * key combinations instead of the most selective key, if any side has the statistics of its key combination.
+     */
+    private OptionalDouble estimateInnerRowCountByMultiColumn(Statistics leftStatistics, Statistics rightStatistics,
+                                                              List<BinaryPredicateOperator> eqOnPredicates) {
+        if (leftStatistics.getMultiColumnDistinctValues().isEmpty() &&
+                rightStatistics.getMultiColumnDistinctValues().isEmpty()) {
+            return OptionalDouble.empty();
+        }
+        List<ColumnRefOperator> leftKeys = new ArrayList<>();
+        List<ColumnRefOperator> rightKeys = new ArrayList<>();
+        int otherPredicates = 0;
+        for (BinaryPredicateOperator predicate : eqOnPredicates) {
+            if (!predicate.getChild(0).isColumnRef() || !predicate.getChild(1).isColumnRef()) {
+                otherPredicates++;
+                continue;
+            }
+            ColumnRefOperator first = (ColumnRefOperator) predicate.getChild(0);
+            ColumnRefOperator second = (ColumnRefOperator) predicate.getChild(1);
+            if (leftStatistics.getColumnStatistics().containsKey(first)) {
+                leftKeys.add(first);
+                rightKeys.add(second);
+            } else {
+                leftKeys.add(second);
+                rightKeys.add(first);
+            }
+        }
+        if (leftKeys.size() < 2) {
+            return OptionalDouble.empty();
+        }
+
+        Double leftDistinctValues = leftStatistics.getMultiColumnDistinctValues().get(new ColumnRefSet(leftKeys));
+        Double rightDistinctValues = rightStatistics.getMultiColumnDistinctValues().get(new ColumnRefSet(rightKeys));
+        if (leftDistinctValues == null && rightDistinctValues == null) {
+            return OptionalDouble.empty();
+        }
+        OptionalDouble leftKeyDistinctValues = getKeyDistinctValues(leftStatistics, leftKeys, leftDistinctValues);
+        OptionalDouble rightKeyDistinctValues = getKeyDistinctValues(rightStatistics, rightKeys, rightDistinctValues);
+        if (!leftKeyDistinctValues.isPresent() || !rightKeyDistinctValues.isPresent()) {
+            return OptionalDouble.empty();
+        }
+
+        double rowCount = leftStatistics.getOutputRowCount() * rightStatistics.getOutputRowCount() /
+                Math.max(Math.max(leftKeyDistinctValues.getAsDouble(), rightKeyDistinctValues.getAsDouble()), 1);
+        rowCount *= Math.pow(StatisticsEstimateCoefficient.UNKNOWN_AUXILIARY_FILTER_COEFFICIENT, otherPredicates);
+        return OptionalDouble.of(rowCount);
+    }
+
+    // The distinct values of the join keys, which are assumed to be independent without the multi-column statistics
+    private OptionalDouble getKeyDistinctValues(Statistics statistics, List<ColumnRefOperator> keys,
+                                                Double multiColumnDistinctValues) {
+        double distinctValues;
+        if (multiColumnDistinctValues != null) {
+            distinctValues = multiColumnDistinctValues;
+        } else {
+            distinctValues = 1;
+            for (ColumnRefOperator key : keys) {
+                ColumnStatistic columnStatistic = statistics.getColumnStatistic(key);
+                if (columnStatistic.isUnknown()) {
+                    return OptionalDouble.empty();
+                }
+                distinctValues *= columnStatistic.getDistinctValuesCount();
+            }
+        }
+        return OptionalDouble.of(Math.min(distinctValues, statistics.getOutputRowCount()));
+    }
+
     public Statistics estimateByEqOnPredicates(Statistics statistics, BinaryPredicateOperator divingPredicate,
                                                Collection<BinaryPredicateOperator> remainingEqOnPredicate) {
         Statistics estimateStatistics = estimateStatistics(ImmutableList.of(divingPredicate), statistics);
@@ -916,6 +1116,7 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         Statistics.Builder builder = Statistics.builder();
         Statistics inputStatistics = context.getChildStatistics(0);
         builder.addColumnStatistics(inputStatistics.getColumnStatistics());
+        builder.addMultiColumnDistinctValues(inputStatistics.getMultiColumnDistinctValues());
         builder.setOutputRowCount(inputStatistics.getOutputRowCount());
         return visitOperator(node, context, builder);
     }
@@ -956,6 +1157,7 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
 
         Statistics.Builder builder = Statistics.builder();
         builder.addColumnStatistics(inputStatistics.getColumnStatistics());
+        builder.addMultiColumnDistinctValues(inputStatistics.getMultiColumnDistinctValues());
         builder.setOutputRowCount(inputStatistics.getOutputRowCount());
         return visitOperator(node, context, builder);
     }
@@ -976,6 +1178,7 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         Statistics.Builder builder = Statistics.builder();
         Statistics inputStatistics = context.getChildStatistics(0);
         builder.addColumnStatistics(inputStatistics.getColumnStatistics());
+        builder.addMultiColumnDistinctValues(inputStatistics.getMultiColumnDistinctValues());
 
         analyticCall.forEach((key, value) -> builder
                 .addColumnStatistic(key, ExpressionStatisticCalculator.calculate(value, inputStatistics)));
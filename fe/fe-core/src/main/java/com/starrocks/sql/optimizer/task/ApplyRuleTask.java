@@ -53,19 +53,8 @@ public class ApplyRuleTask extends OptimizerTask {
         }
 
         // Apply rule and get all new OptExpressions
-        Pattern pattern = rule.getPattern();
-        Binder binder = new Binder(pattern, groupExpression);
-        OptExpression extractExpr = binder.next();
-        List<OptExpression> newExpressions = Lists.newArrayList();
-        while (extractExpr != null) {
-            if (!rule.check(extractExpr, context.getOptimizerContext())) {
-                extractExpr = binder.next();
-                continue;
-            }
-
-            newExpressions.addAll(rule.transform(extractExpr, context.getOptimizerContext()));
-            extractExpr = binder.next();
-        }
+        List<OptExpression> newExpressions = transform();
+        context.getOptimizerContext().getCounters().increaseAppliedRules();
 
         for (OptExpression expression : newExpressions) {
             // Insert new OptExpression to memo
@@ -93,4 +82,34 @@ public class ApplyRuleTask extends OptimizerTask {
 
         groupExpression.setRuleExplored(rule);
     }
+
+    /**
+     * Bind the rule pattern and transform all the bound expressions.
+     * The memo is not changed, so the transforms of different tasks can run in parallel,
+     * see {@link ParallelTaskScheduler}.
+     */
+    List<OptExpression> transform() {
+        Pattern pattern = rule.getPattern();
+        Binder binder = new Binder(pattern, groupExpression);
+        OptExpression extractExpr = binder.next();
+        List<OptExpression> newExpressions = Lists.newArrayList();
+        while (extractExpr != null) {
+            if (!rule.check(extractExpr, context.getOptimizerContext())) {
+                extractExpr = binder.next();
+                continue;
+            }
+
+            newExpressions.addAll(rule.transform(extractExpr, context.getOptimizerContext()));
+            extractExpr = binder.next();
+        }
+        return newExpressions;
+    }
+
+    GroupExpression getGroupExpression() {
+        return groupExpression;
+    }
+
+    Rule getRule() {
+        return rule;
+    }
 }
@@ -112,6 +112,12 @@ public class EnforceAndCostTask extends OptimizerTask implements Cloneable {
                 }
 
                 if (childBestExpr == null) {
+                    // Branch and bound: the cost is already higher than the upper bound without the
+                    // remaining children, no need to optimize them
+                    if (curTotalCost > context.getUpperBoundCost()) {
+                        context.getOptimizerContext().getCounters().increasePrunedExpressions();
+                        break;
+                    }
                     // We haven't optimized child group
                     prevChildIndex = curChildIndex;
                     optimizeChildGroup(inputProperty, childGroup);
@@ -137,6 +143,7 @@ public class EnforceAndCostTask extends OptimizerTask implements Cloneable {
 
                 curTotalCost += childBestExpr.getCost(inputProperty);
                 if (curTotalCost > context.getUpperBoundCost()) {
+                    context.getOptimizerContext().getCounters().increasePrunedExpressions();
                     break;
                 }
             }
@@ -278,7 +285,8 @@ public class EnforceAndCostTask extends OptimizerTask implements Cloneable {
 
         StatisticsCalculator statisticsCalculator = new StatisticsCalculator(expressionContext,
                 groupExpression.getGroup().getLogicalProperty().getOutputColumns(),
-                context.getOptimizerContext().getColumnRefFactory(), context.getOptimizerContext().getDumpInfo());
+                context.getOptimizerContext().getColumnRefFactory(), context.getOptimizerContext().getDumpInfo(),
+                context.getOptimizerContext().getCteContext());
         statisticsCalculator.estimatorStats();
         groupExpression.getGroup().setStatistics(expressionContext.getStatistics());
         return true;
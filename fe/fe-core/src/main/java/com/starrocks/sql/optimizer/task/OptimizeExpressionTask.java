@@ -34,9 +34,11 @@ public class OptimizeExpressionTask extends OptimizerTask {
 
     private List<Rule> getValidRules() {
         List<Rule> validRules = Lists.newArrayListWithCapacity(RuleType.NUM_RULES.id());
-        List<Rule> logicalRules = context.getOptimizerContext().getRuleSet().
-                getTransformRules();
-        filterInValidRules(groupExpression, logicalRules, validRules);
+        if (!context.getOptimizerContext().isMemoExhausted()) {
+            List<Rule> logicalRules = context.getOptimizerContext().getRuleSet().
+                    getTransformRules();
+            filterInValidRules(groupExpression, logicalRules, validRules);
+        }
 
         if (!exploreOnly) {
             List<Rule> physicalRules = context.getOptimizerContext().getRuleSet().
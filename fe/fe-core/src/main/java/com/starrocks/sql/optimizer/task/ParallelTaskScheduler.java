@@ -0,0 +1,217 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.task;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.starrocks.common.Pair;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.common.ErrorType;
+import com.starrocks.sql.common.StarRocksPlannerException;
+import com.starrocks.sql.optimizer.Group;
+import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.Memo;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.rule.Rule;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The scheduler explores the memo in parallel before the search of the best plan.
+ * <p>
+ * Before the first {@link OptimizeGroupTask} is executed, the transformation rules are applied to
+ * all the logical expressions of the memo round by round, until no new expression is generated.
+ * In each round, the rules are bound and transformed in parallel, which only read the memo,
+ * then the new expressions are copied into the memo by the optimizer thread in the order of the groups
+ * and the rules, so the memo is only changed by one thread and the result doesn't depend on the
+ * thread scheduling. A rule is applied again serially if it needs to create columns, or the groups
+ * are merged by the previous rules of the same round.
+ * <p>
+ * After the exploration, the tasks are executed serially like {@link SeriallyTaskScheduler},
+ * the explored rules are skipped.
+ */
+public class ParallelTaskScheduler implements TaskScheduler {
+    private static final Logger LOG = LogManager.getLogger(ParallelTaskScheduler.class);
+
+    private static final int THREAD_NUM = Runtime.getRuntime().availableProcessors();
+    private static final ThreadPoolExecutor EXECUTOR =
+            ThreadPoolManager.newDaemonFixedThreadPool(THREAD_NUM, 1024, "optimizer-explore-pool", true);
+
+    private final Stack<OptimizerTask> tasks;
+    private boolean explored = false;
+
+    private ParallelTaskScheduler() {
+        tasks = new Stack<>();
+    }
+
+    public static TaskScheduler create() {
+        return new ParallelTaskScheduler();
+    }
+
+    @Override
+    public void executeTasks(TaskContext context, Group group) {
+        long startTime = System.currentTimeMillis();
+        long timeout = context.getOptimizerContext().getSessionVariable().getOptimizerExecuteTimeout();
+        long endTime = startTime + timeout;
+        while (!tasks.empty()) {
+            if (System.currentTimeMillis() >= endTime) {
+                // Should have at least one valid plan
+                if (!group.hasBestExpression(context.getRequiredProperty())) {
+                    throw new StarRocksPlannerException("StarRocks planner use long time " + timeout +
+                            " remaining task num " + tasks.size(), ErrorType.INTERNAL_ERROR);
+                }
+                break;
+            }
+            OptimizerTask task = tasks.pop();
+            if (!explored && task instanceof OptimizeGroupTask) {
+                explored = true;
+                explore(context, endTime);
+            }
+            task.execute();
+        }
+    }
+
+    @Override
+    public void pushTask(OptimizerTask task) {
+        tasks.push(task);
+    }
+
+    private void explore(TaskContext context, long endTime) {
+        Memo memo = context.getOptimizerContext().getMemo();
+        List<ApplyRuleTask> applyRuleTasks = getApplyRuleTasks(context);
+        while (!applyRuleTasks.isEmpty() && System.currentTimeMillis() < endTime) {
+            AtomicReferenceArray<List<OptExpression>> results = transform(context, applyRuleTasks);
+
+            int groupMergeCount = memo.getGroupMergeCount();
+            for (int i = 0; i < applyRuleTasks.size(); i++) {
+                ApplyRuleTask task = applyRuleTasks.get(i);
+                GroupExpression groupExpression = task.getGroupExpression();
+                if (groupExpression.hasRuleExplored(task.getRule()) || groupExpression.isUnused()) {
+                    continue;
+                }
+
+                List<OptExpression> newExpressions = results.get(i);
+                if (newExpressions == null || memo.getGroupMergeCount() != groupMergeCount) {
+                    newExpressions = task.transform();
+                }
+                context.getOptimizerContext().getCounters().increaseAppliedRules();
+                copyIn(context, task, newExpressions);
+            }
+            applyRuleTasks = getApplyRuleTasks(context);
+        }
+    }
+
+    private List<ApplyRuleTask> getApplyRuleTasks(TaskContext context) {
+        OptimizerContext optimizerContext = context.getOptimizerContext();
+        List<Rule> rules = optimizerContext.getRuleSet().getTransformRules();
+        List<ApplyRuleTask> applyRuleTasks = Lists.newArrayList();
+        if (optimizerContext.isMemoExhausted()) {
+            return applyRuleTasks;
+        }
+        for (Group group : optimizerContext.getMemo().getGroups()) {
+            for (GroupExpression expression : group.getLogicalExpressions()) {
+                if (expression.isUnused()) {
+                    continue;
+                }
+                for (Rule rule : rules) {
+                    if (!expression.hasRuleExplored(rule) && rule.getPattern().matchWithoutChild(expression)) {
+                        applyRuleTasks.add(new ApplyRuleTask(context, expression, rule, false));
+                    }
+                }
+            }
+        }
+        return applyRuleTasks;
+    }
+
+    /**
+     * Transform the tasks in parallel, the result is null if the task should be transformed serially.
+     */
+    private AtomicReferenceArray<List<OptExpression>> transform(TaskContext context,
+                                                                List<ApplyRuleTask> applyRuleTasks) {
+        AtomicReferenceArray<List<OptExpression>> results = new AtomicReferenceArray<>(applyRuleTasks.size());
+        int parallelism = Math.min(THREAD_NUM, applyRuleTasks.size());
+        if (parallelism < 2) {
+            return results;
+        }
+
+        ConnectContext connectContext = ConnectContext.get();
+        OptimizerContext optimizerContext = context.getOptimizerContext();
+        List<Future<?>> futures = Lists.newArrayListWithCapacity(parallelism);
+        optimizerContext.getColumnRefFactory().setReadOnly(true);
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                int start = i;
+                futures.add(EXECUTOR.submit(() -> {
+                    if (connectContext != null) {
+                        connectContext.setThreadLocalInfo();
+                    }
+                    try {
+                        for (int j = start; j < applyRuleTasks.size(); j += parallelism) {
+                            try {
+                                results.set(j, applyRuleTasks.get(j).transform());
+                            } catch (Exception e) {
+                                // Transform it serially later, e.g. the rule creates columns
+                            }
+                        }
+                    } finally {
+                        ConnectContext.remove();
+                    }
+                }));
+            }
+        } catch (RejectedExecutionException e) {
+            LOG.warn("failed to submit the rules to transform in parallel", e);
+        } finally {
+            // Wait all the submitted tasks, they read the memo which will be changed after return
+            for (Future<?> future : futures) {
+                try {
+                    Uninterruptibles.getUninterruptibly(future);
+                } catch (ExecutionException e) {
+                    LOG.warn("failed to transform the rules in parallel", e);
+                }
+            }
+            optimizerContext.getColumnRefFactory().setReadOnly(false);
+        }
+        return results;
+    }
+
+    private void copyIn(TaskContext context, ApplyRuleTask task, List<OptExpression> newExpressions) {
+        GroupExpression groupExpression = task.getGroupExpression();
+        for (OptExpression expression : newExpressions) {
+            Pair<Boolean, GroupExpression> result = context.getOptimizerContext().getMemo().
+                    copyIn(groupExpression.getGroup(), expression);
+
+            // The group has been merged
+            if (groupExpression.hasEmptyRootGroup()) {
+                return;
+            }
+
+            GroupExpression newGroupExpression = result.second;
+            if (newGroupExpression.getOp().isLogical()) {
+                deriveStats(context, newGroupExpression);
+            }
+        }
+
+        groupExpression.setRuleExplored(task.getRule());
+    }
+
+    // Derive the statistics of the new expression and its children right now, like the serial search does
+    // before optimizing the expression
+    private void deriveStats(TaskContext context, GroupExpression groupExpression) {
+        int depth = tasks.size();
+        pushTask(new DeriveStatsTask(context, groupExpression,
+                groupExpression.getGroup().getLogicalProperty().getOutputColumns()));
+        while (tasks.size() > depth) {
+            tasks.pop().execute();
+        }
+    }
+}
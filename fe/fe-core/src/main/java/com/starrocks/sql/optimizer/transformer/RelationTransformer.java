@@ -44,6 +44,7 @@ import com.starrocks.sql.optimizer.base.SetQualifier;
 import com.starrocks.sql.optimizer.operator.Operator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalApplyOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalCTEConsumeOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalExceptOperator;
 import com.starrocks.sql.optimizer.operator.logical.LogicalHiveScanOperator;
@@ -269,10 +270,34 @@ public class RelationTransformer extends RelationVisitor<OptExprBuilder, Express
     @Override
     public OptExprBuilder visitSubquery(SubqueryRelation node, ExpressionMapping context) {
         OptExprBuilder builder = visit(node.getQuery());
+        if (node.isCte() && correlation.isEmpty() && ConnectContext.get() != null &&
+                ConnectContext.get().getSessionVariable().isCboCteReuse()) {
+            return buildCTEConsume(node, builder);
+        }
         return new OptExprBuilder(builder.getRoot().getOp(), builder.getInputs(),
                 new ExpressionMapping(new Scope(RelationId.of(node), node.getRelationFields()), outputColumn));
     }
 
+    /*
+     * Each reference of the CTE is a consumer whose child is the plan of the CTE,
+     * the optimizer decides whether the CTE is computed once for all the consumers or inlined.
+     */
+    private OptExprBuilder buildCTEConsume(SubqueryRelation node, OptExprBuilder cteBuilder) {
+        Map<ColumnRefOperator, ColumnRefOperator> cteOutputColumnRefMap = Maps.newLinkedHashMap();
+        List<ColumnRefOperator> consumeOutputColumns = Lists.newArrayList();
+        for (ColumnRefOperator column : outputColumn) {
+            ColumnRefOperator consumeColumn = columnRefFactory.create(column, column.getType(), column.isNullable());
+            cteOutputColumnRefMap.put(consumeColumn, column);
+            consumeOutputColumns.add(consumeColumn);
+        }
+        outputColumn = consumeOutputColumns;
+
+        LogicalCTEConsumeOperator consumeOperator =
+                new LogicalCTEConsumeOperator(columnRefFactory.getCTEId(node.getQuery()), cteOutputColumnRefMap);
+        return new OptExprBuilder(consumeOperator, Lists.newArrayList(cteBuilder),
+                new ExpressionMapping(new Scope(RelationId.of(node), node.getRelationFields()), outputColumn));
+    }
+
     @Override
     public OptExprBuilder visitJoin(JoinRelation node, ExpressionMapping context) {
         if (node.isLateral() || node.getRight() instanceof TableFunctionRelation) {
@@ -305,6 +305,14 @@ public final class SqlToScalarOperatorTranslator {
                 return ConstantOperator.createNull(node.getType());
             }
 
+            ConstantOperator constant = createConstant(node);
+            // TRUE and FALSE are keywords, the other constants are the literals written in sql,
+            // which the plan cache binds to the literals of the queries with the same plan
+            constant.setFromLiteral(!node.getType().isBoolean());
+            return constant;
+        }
+
+        private ConstantOperator createConstant(LiteralExpr node) {
             Object value = node.getRealValue();
             Type type = node.getType();
 
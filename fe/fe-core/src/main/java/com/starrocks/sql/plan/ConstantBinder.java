@@ -0,0 +1,57 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Lists;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Used by {@link ScalarOperatorToExpr} when building the fragments of a cacheable plan.
+ * <p>
+ * When building a new plan, it records the constants which come from the sql literals, so the plan cache can
+ * match them with the literals. When building a cached plan for a query with different literals, it replaces
+ * the constants of the cached plan with the new values.
+ */
+public class ConstantBinder {
+    private final Set<ConstantOperator> recordedConstants = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<ConstantOperator> recordedOrder = Lists.newArrayList();
+    private final Map<ConstantOperator, ConstantOperator> bindings;
+
+    private ConstantBinder(Map<ConstantOperator, ConstantOperator> bindings) {
+        this.bindings = bindings;
+    }
+
+    public static ConstantBinder createRecorder() {
+        return new ConstantBinder(Collections.emptyMap());
+    }
+
+    /**
+     * @param bindings constant of the cached plan -> new constant, compared by identity
+     */
+    public static ConstantBinder createBinder(IdentityHashMap<ConstantOperator, ConstantOperator> bindings) {
+        return new ConstantBinder(bindings);
+    }
+
+    public ConstantOperator bind(ConstantOperator constant) {
+        ConstantOperator bound = bindings.get(constant);
+        if (bound != null) {
+            return bound;
+        }
+        if (constant.isFromLiteral() && recordedConstants.add(constant)) {
+            recordedOrder.add(constant);
+        }
+        return constant;
+    }
+
+    /**
+     * The distinct constants from literals which are used by the plan, in the order of being visited.
+     */
+    public List<ConstantOperator> getRecordedConstants() {
+        return recordedOrder;
+    }
+}
@@ -7,6 +7,7 @@ import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.PlannerContext;
 import com.starrocks.planner.ScanNode;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.optimizer.OptimizerCounters;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
 import com.starrocks.thrift.TExplainLevel;
 
@@ -24,6 +25,9 @@ public class ExecPlan {
     private final DescriptorTable descTbl = new DescriptorTable();
     private final Map<ColumnRefOperator, Expr> colRefToExpr = new HashMap<>();
     private final ArrayList<PlanFragment> fragments = new ArrayList<>();
+    private OptimizerCounters optimizerCounters;
+    // plan node id -> estimate, used to record the cardinality feedback after execution
+    private final Map<Integer, CardinalityEstimate> cardinalityEstimates = new HashMap<>();
 
     public ExecPlan(PlannerContext planCtx, ConnectContext connectContext, List<String> colNames) {
         this.planCtx = planCtx;
@@ -63,6 +67,23 @@ public class ExecPlan {
         return colRefToExpr;
     }
 
+    // null if the plan is not optimized for this query, e.g. from the plan cache
+    public OptimizerCounters getOptimizerCounters() {
+        return optimizerCounters;
+    }
+
+    public void setOptimizerCounters(OptimizerCounters optimizerCounters) {
+        this.optimizerCounters = optimizerCounters;
+    }
+
+    public Map<Integer, CardinalityEstimate> getCardinalityEstimates() {
+        return cardinalityEstimates;
+    }
+
+    public void addCardinalityEstimate(int planNodeId, CardinalityEstimate estimate) {
+        cardinalityEstimates.put(planNodeId, estimate);
+    }
+
     public String getExplainString(TExplainLevel level) {
         StringBuilder str = new StringBuilder();
         for (int i = 0; i < fragments.size(); ++i) {
@@ -84,4 +105,29 @@ public class ExecPlan {
         }
         return str.toString();
     }
-}
\ No newline at end of file
+
+    public static class CardinalityEstimate {
+        private final String fingerprint;
+        private final String node;
+        // null if the rows are from the cardinality feedback
+        private final Double estimatedRows;
+
+        public CardinalityEstimate(String fingerprint, String node, Double estimatedRows) {
+            this.fingerprint = fingerprint;
+            this.node = node;
+            this.estimatedRows = estimatedRows;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getNode() {
+            return node;
+        }
+
+        public Double getEstimatedRows() {
+            return estimatedRows;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The sql text with the numeric and string literals replaced by placeholders, so the queries which
+ * differ only in literals have the same text, e.g.
+ * <pre>
+ *   select * from t where k1 = 10 and k2 = 'a' limit 5  =>  select * from t where k1 = ? and k2 = '?' limit 5
+ * </pre>
+ * The literals after LIMIT and OFFSET are kept because they are not constants of the plan, and so are the decimal
+ * numbers.
+ * The comments (including the hints) and the quoted identifiers are kept as they are, the other
+ * white spaces are collapsed into one space.
+ */
+public class NormalizedSql {
+    // The functions whose results depend on the time or the session, so their plans can't be reused
+    private static final Set<String> NON_DETERMINISTIC_WORDS = ImmutableSet.of(
+            "now", "curdate", "curtime", "current_date", "current_time", "current_timestamp", "localtime",
+            "localtimestamp", "utc_timestamp", "unix_timestamp", "rand", "random", "uuid", "sleep",
+            "database", "schema", "user", "current_user", "current_role", "session_user", "connection_id",
+            "last_insert_id", "last_query_id");
+    // The partition and tablet hints are not kept by the physical plan, so their plans can't be reused
+    private static final Set<String> HINT_WORDS = ImmutableSet.of("partition", "partitions", "temporary", "tablet");
+
+    private final String text;
+    private final List<String> literals;
+    private final boolean cacheable;
+
+    private NormalizedSql(String text, List<String> literals, boolean cacheable) {
+        this.text = text;
+        this.literals = literals;
+        this.cacheable = cacheable;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * The values of the replaced literals in the order of the placeholders, without the quotes.
+     */
+    public List<String> getLiterals() {
+        return literals;
+    }
+
+    /**
+     * Whether the plan of the sql only depends on the sql text and the metadata.
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    public static NormalizedSql of(String sql) {
+        StringBuilder text = new StringBuilder(sql.length());
+        List<String> literals = Lists.newArrayList();
+        boolean cacheable = true;
+        // whether the following numbers are the arguments of LIMIT or OFFSET
+        boolean inLimit = false;
+
+        int i = 0;
+        int length = sql.length();
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                appendSpace(text);
+                continue;
+            }
+
+            int start = i;
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-' || c == '#') {
+                // line comment
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+                text.append(sql, start, i);
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                // block comment or hint
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                text.append(sql, start, i);
+            } else if (c == '`') {
+                i = Math.min(skipQuoted(sql, i, c), length);
+                text.append(sql, start, i);
+            } else if (c == '\'' || c == '"') {
+                i = skipQuoted(sql, i, c);
+                String value = sql.substring(start + 1, Math.max(start + 1, i - 1));
+                if (i > length || value.indexOf('\\') >= 0 || value.indexOf(c) >= 0) {
+                    // keep the strings with escaped characters as they are
+                    i = Math.min(i, length);
+                    text.append(sql, start, i);
+                } else {
+                    text.append(c).append('?').append(c);
+                    literals.add(value);
+                }
+                inLimit = false;
+            } else if (Character.isDigit(c) || (c == '.' && i + 1 < length && Character.isDigit(sql.charAt(i + 1)))) {
+                i = skipNumber(sql, i);
+                String number = sql.substring(start, i);
+                if (inLimit || isWordChar(sql, i) || !isInteger(number)) {
+                    // The arguments of limit, the hex numbers like 0x1F, and the decimal numbers whose types
+                    // depend on their precisions and scales
+                    while (isWordChar(sql, i)) {
+                        i++;
+                    }
+                    text.append(sql, start, i);
+                } else {
+                    text.append('?');
+                    literals.add(number);
+                }
+            } else if (isWordChar(sql, i)) {
+                while (isWordChar(sql, i)) {
+                    i++;
+                }
+                String word = sql.substring(start, i);
+                String lowerWord = word.toLowerCase();
+                if (NON_DETERMINISTIC_WORDS.contains(lowerWord) || HINT_WORDS.contains(lowerWord)) {
+                    cacheable = false;
+                }
+                inLimit = lowerWord.equals("limit") || lowerWord.equals("offset");
+                text.append(word);
+            } else {
+                i++;
+                text.append(c);
+                // LIMIT offset, count
+                inLimit &= c == ',';
+            }
+        }
+
+        int end = text.length();
+        while (end > 0 && (text.charAt(end - 1) == ' ' || text.charAt(end - 1) == ';')) {
+            end--;
+        }
+        text.setLength(end);
+        return new NormalizedSql(text.toString(), literals, cacheable);
+    }
+
+    public static boolean isInteger(String literal) {
+        if (literal.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (!Character.isDigit(literal.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void appendSpace(StringBuilder text) {
+        if (text.length() > 0 && text.charAt(text.length() - 1) != ' ') {
+            text.append(' ');
+        }
+    }
+
+    private static boolean isWordChar(String sql, int i) {
+        if (i >= sql.length()) {
+            return false;
+        }
+        char c = sql.charAt(i);
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    // Return the index after the closing quote, or length + 1 if it's not closed.
+    // The quote is escaped by doubling it or by backslash.
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        // not closed
+        return sql.length() + 1;
+    }
+
+    private static int skipNumber(String sql, int start) {
+        int i = start;
+        while (i < sql.length() && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+            i++;
+        }
+        if (i < sql.length() && (sql.charAt(i) == 'e' || sql.charAt(i) == 'E')) {
+            int exponent = i + 1;
+            if (exponent < sql.length() && (sql.charAt(exponent) == '+' || sql.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < sql.length() && Character.isDigit(sql.charAt(exponent))) {
+                i = exponent;
+                while (i < sql.length() && Character.isDigit(sql.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+}
@@ -0,0 +1,536 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.MaterializedIndexMeta;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.catalog.View;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.TimeUtils;
+import com.starrocks.metric.MetricRepo;
+import com.starrocks.mysql.MysqlCommand;
+import com.starrocks.planner.PartitionColumnFilter;
+import com.starrocks.planner.PlannerContext;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.SessionVariable;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.ColumnFilterConverter;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.PredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rule.transformation.DistributionPruneRule;
+import com.starrocks.sql.optimizer.rule.transformation.PartitionPruneRule;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the optimized plans of queries, so the queries which differ only in literals skip the
+ * transformation and the optimization.
+ * <p>
+ * The key of a plan is the normalized sql, the current database and the session variables which may change
+ * the optimized plan. A cached plan is used only if the signature of the referenced tables (the schema versions
+ * of the indexes and the state of the tables, and the definitions of the views) has not changed.
+ * <p>
+ * The cached plan is shared by the queries which hit it. Every hit builds the fragments from its own copy of the
+ * plan tree, in which the olap scans are new operators whose partitions and tablets are pruned again, so the
+ * loads into partitions and the partitions added or dropped don't invalidate the plan. The other operators and
+ * the column ref factory are only read when building the fragments, and the factory is marked read only.
+ * <p>
+ * A plan can be used for the queries with different literals if every constant of the plan which comes from
+ * the literals matches exactly one literal, and every literal matches some constants. Then the constants are
+ * replaced when building the fragments, and the partitions and tablets of the olap scans are pruned again by
+ * the new predicates. Otherwise, the plan is only used for the queries with the same literals.
+ */
+public class PlanCache {
+    private static final Logger LOG = LogManager.getLogger(PlanCache.class);
+
+    public static final ImmutableList<String> SHOW_TITLE_NAMES = new ImmutableList.Builder<String>()
+            .add("Database").add("Sql").add("Parameterizable").add("HitCount").add("CreateTime").add("LastHitTime")
+            .build();
+
+    private static final PlanCache INSTANCE = new PlanCache();
+
+    // The variables not used by the analyzer, the transformer and the optimizer, they don't change the optimized
+    // plan. The fragments are built for every query with its own session variables.
+    private static final ImmutableSet<String> VARIABLES_NOT_IN_KEY = ImmutableSet.of(
+            SessionVariable.QUERY_TIMEOUT, SessionVariable.MAX_EXECUTION_TIME, SessionVariable.IS_REPORT_SUCCESS,
+            SessionVariable.PROFILING, SessionVariable.RESOURCE_VARIABLE, SessionVariable.QUERY_QUEUE_PRIORITY,
+            SessionVariable.AUTO_COMMIT, SessionVariable.TX_ISOLATION, SessionVariable.CHARACTER_SET_CLIENT,
+            SessionVariable.CHARACTER_SET_CONNNECTION, SessionVariable.CHARACTER_SET_RESULTS,
+            SessionVariable.CHARACTER_SET_SERVER, SessionVariable.COLLATION_CONNECTION,
+            SessionVariable.COLLATION_DATABASE, SessionVariable.COLLATION_SERVER, SessionVariable.MAX_ALLOWED_PACKET,
+            SessionVariable.AUTO_INCREMENT_INCREMENT, SessionVariable.QUERY_CACHE_TYPE,
+            SessionVariable.INTERACTIVE_TIMTOUT, SessionVariable.WAIT_TIMEOUT, SessionVariable.NET_WRITE_TIMEOUT,
+            SessionVariable.NET_READ_TIMEOUT, SessionVariable.SQL_SAFE_UPDATES, SessionVariable.NET_BUFFER_LENGTH,
+            SessionVariable.LOAD_MEM_LIMIT, SessionVariable.ENABLE_INSERT_STRICT,
+            SessionVariable.TRANSACTION_VISIBLE_WAIT_TIMEOUT, SessionVariable.FORWARD_TO_MASTER,
+            SessionVariable.EVENT_SCHEDULER, SessionVariable.STORAGE_ENGINE, SessionVariable.ENABLE_PLAN_CACHE,
+            SessionVariable.ENABLE_PREPARED_PLAN_CACHE, SessionVariable.ENABLE_RESULT_CACHE,
+            SessionVariable.PIPELINE_QUERY_EXPIRE_SECONDS, SessionVariable.TRANSMISSION_COMPRESSION_TYPE);
+
+    // key -> entry, in the order of access
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public static PlanCache getInstance() {
+        return INSTANCE;
+    }
+
+    // The executions of a prepared statement only differ in the parameters, so they are controlled by
+    // enable_prepared_plan_cache instead of enable_plan_cache
+    public static boolean isEnabled(ConnectContext session) {
+        SessionVariable variables = session.getSessionVariable();
+        boolean enabled = session.getCommand() == MysqlCommand.COM_STMT_EXECUTE ?
+                variables.isEnablePreparedPlanCache() : variables.isEnablePlanCache();
+        return enabled && !variables.getEnableQueryDump() && Config.plan_cache_max_entries > 0;
+    }
+
+    public static String createKey(NormalizedSql sql, int stmtIdx, ConnectContext session) {
+        String variables;
+        try {
+            variables = session.getSessionVariable().getJsonString(VARIABLES_NOT_IN_KEY);
+        } catch (Exception e) {
+            return null;
+        }
+        return session.getDatabase() + "\n" + stmtIdx + "\n" + variables + "\n" + sql.getText();
+    }
+
+    /**
+     * The partitions are not in the signature, since the partitions and tablets are pruned again for every hit.
+     * The views are expanded into the plan, so their definitions are checked for the non-deterministic functions
+     * like the outer sql.
+     *
+     * @return the signature of the tables, or null if the plans of the tables can't be cached
+     */
+    public static List<Object> createSignature(Collection<Table> tables) {
+        List<Object> signature = Lists.newArrayList();
+        List<Table> sortedTables = tables.stream().sorted(Comparator.comparingLong(Table::getId))
+                .collect(Collectors.toList());
+        for (Table table : sortedTables) {
+            signature.add(table.getId());
+            if (table instanceof View) {
+                String viewDef = ((View) table).getInlineViewDef();
+                if (!NormalizedSql.of(viewDef).isCacheable()) {
+                    return null;
+                }
+                signature.add(viewDef);
+            } else if (table instanceof OlapTable) {
+                OlapTable olapTable = (OlapTable) table;
+                signature.add(olapTable.getState());
+                for (Map.Entry<Long, MaterializedIndexMeta> entry : olapTable.getIndexIdToMeta().entrySet()) {
+                    signature.add(entry.getKey());
+                    signature.add(entry.getValue().getSchemaVersion());
+                }
+            } else {
+                return null;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Build the exec plan from the cached plan.
+     *
+     * @return null if there is no cached plan for the query
+     */
+    public ExecPlan getPlan(String key, NormalizedSql sql, List<Object> signature, PlannerContext plannerContext,
+                            ConnectContext session, List<String> colNames) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null || !entry.signature.equals(signature)) {
+            return null;
+        }
+
+        IdentityHashMap<ConstantOperator, ConstantOperator> bindings = new IdentityHashMap<>();
+        if (!entry.literals.equals(sql.getLiterals())) {
+            bindings = entry.bind(sql.getLiterals());
+            if (bindings == null) {
+                return null;
+            }
+        }
+        // the copy of this query, the cached plan is not changed
+        OptExpression plan = copyPlan(entry.plan, bindings);
+
+        if (!bindings.isEmpty()) {
+            session.setConstantBinder(ConstantBinder.createBinder(bindings));
+        }
+        try {
+            ExecPlan execPlan = new PlanFragmentBuilder().createPhysicalPlan(plan, plannerContext, session,
+                    entry.outputColumns, entry.columnRefFactory, colNames);
+            entry.hit();
+            return execPlan;
+        } finally {
+            session.setConstantBinder(null);
+        }
+    }
+
+    /**
+     * Cache the plan of the query
+     *
+     * @param constants the constants from literals used by the plan, recorded by {@link ConstantBinder}
+     */
+    public void putPlan(String key, NormalizedSql sql, List<Object> signature, OptExpression plan,
+                        List<ColumnRefOperator> outputColumns, ColumnRefFactory columnRefFactory,
+                        List<ConstantOperator> constants, ConnectContext session) {
+        // no column should be created from the shared plan
+        columnRefFactory.setReadOnly(true);
+        Entry entry = new Entry(session.getDatabase(), sql, signature, plan, outputColumns, columnRefFactory);
+        if (canRebindOlapScans(plan)) {
+            // the constants of the predicates removed by partition pruning don't reach the fragments
+            Set<ConstantOperator> allConstants = Collections.newSetFromMap(new IdentityHashMap<>());
+            allConstants.addAll(constants);
+            collectPrunedConstants(plan, allConstants);
+            entry.matchLiterals(allConstants);
+        }
+        synchronized (this) {
+            entries.put(key, entry);
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (entries.size() > Config.plan_cache_max_entries && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public static void increaseHit() {
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_PLAN_CACHE_HIT.increase(1L);
+        }
+    }
+
+    public static void increaseMiss() {
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_PLAN_CACHE_MISS.increase(1L);
+        }
+    }
+
+    public List<List<String>> getShowRows() {
+        List<Entry> snapshot;
+        synchronized (this) {
+            snapshot = Lists.newArrayList(entries.values());
+        }
+        List<List<String>> rows = Lists.newArrayList();
+        for (Entry entry : snapshot) {
+            rows.add(Lists.newArrayList(
+                    entry.db,
+                    entry.sql,
+                    String.valueOf(entry.isParameterizable()),
+                    String.valueOf(entry.hitCount.get()),
+                    TimeUtils.longToTimeString(entry.createTime),
+                    TimeUtils.longToTimeString(entry.lastHitTime)));
+        }
+        return rows;
+    }
+
+    // The partition pruning of the olap scans depends on the predicates, only the simple predicates are supported
+    private static boolean canRebindOlapScans(OptExpression plan) {
+        if (plan.getOp() instanceof PhysicalOlapScanOperator) {
+            ScalarOperator predicate = getScanPredicate((PhysicalOlapScanOperator) plan.getOp());
+            if (predicate != null && !canRebind(predicate)) {
+                return false;
+            }
+        }
+        for (OptExpression input : plan.getInputs()) {
+            if (!canRebindOlapScans(input)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean canRebind(ScalarOperator operator) {
+        if (operator instanceof ConstantOperator || operator instanceof ColumnRefOperator) {
+            return true;
+        }
+        if (!(operator instanceof CallOperator) && !(operator instanceof PredicateOperator)) {
+            return false;
+        }
+        return operator.getChildren().stream().allMatch(PlanCache::canRebind);
+    }
+
+    private static ScalarOperator rebind(ScalarOperator operator,
+                                         IdentityHashMap<ConstantOperator, ConstantOperator> bindings) {
+        if (operator instanceof ConstantOperator) {
+            return bindings.getOrDefault(operator, (ConstantOperator) operator);
+        }
+        List<ScalarOperator> children = operator.getChildren();
+        List<ScalarOperator> newChildren = Lists.newArrayListWithCapacity(children.size());
+        boolean changed = false;
+        for (ScalarOperator child : children) {
+            ScalarOperator newChild = rebind(child, bindings);
+            changed |= newChild != child;
+            newChildren.add(newChild);
+        }
+        if (!changed) {
+            return operator;
+        }
+        // clone copies the children of call and predicate operators, so the cached operator is not changed
+        ScalarOperator newOperator = operator.clone();
+        for (int i = 0; i < newChildren.size(); i++) {
+            newOperator.setChild(i, newChildren.get(i));
+        }
+        return newOperator;
+    }
+
+    private static void collectPrunedConstants(OptExpression plan, Set<ConstantOperator> constants) {
+        if (plan.getOp() instanceof PhysicalOlapScanOperator) {
+            for (ScalarOperator predicate : ((PhysicalOlapScanOperator) plan.getOp()).getPrunedPartitionPredicates()) {
+                collectLiteralConstants(predicate, constants);
+            }
+        }
+        for (OptExpression input : plan.getInputs()) {
+            collectPrunedConstants(input, constants);
+        }
+    }
+
+    private static void collectLiteralConstants(ScalarOperator operator, Set<ConstantOperator> constants) {
+        if (operator instanceof ConstantOperator) {
+            if (((ConstantOperator) operator).isFromLiteral()) {
+                constants.add((ConstantOperator) operator);
+            }
+            return;
+        }
+        for (ScalarOperator child : operator.getChildren()) {
+            collectLiteralConstants(child, constants);
+        }
+    }
+
+    // The predicate of the scan before partition pruning
+    private static ScalarOperator getScanPredicate(PhysicalOlapScanOperator scan) {
+        if (scan.getPrunedPartitionPredicates().isEmpty()) {
+            return scan.getPredicate();
+        }
+        List<ScalarOperator> conjuncts = Lists.newArrayList(scan.getPrunedPartitionPredicates());
+        conjuncts.addAll(Utils.extractConjuncts(scan.getPredicate()));
+        return Utils.compoundAnd(conjuncts);
+    }
+
+    // Copy the plan tree with the olap scans whose predicates are rebound and partitions are pruned again.
+    // The other operators are shared with the cached plan, their constants are replaced by ConstantBinder.
+    private static OptExpression copyPlan(OptExpression plan,
+                                          IdentityHashMap<ConstantOperator, ConstantOperator> bindings) {
+        OptExpression newPlan;
+        if (plan.getOp() instanceof PhysicalOlapScanOperator) {
+            newPlan = OptExpression.create(rebindOlapScan((PhysicalOlapScanOperator) plan.getOp(), bindings));
+        } else {
+            List<OptExpression> inputs = Lists.newArrayListWithCapacity(plan.arity());
+            for (OptExpression input : plan.getInputs()) {
+                inputs.add(copyPlan(input, bindings));
+            }
+            newPlan = OptExpression.create(plan.getOp(), inputs);
+        }
+        newPlan.setLogicalProperty(plan.getLogicalProperty());
+        newPlan.setStatistics(plan.getStatistics());
+        return newPlan;
+    }
+
+    private static PhysicalOlapScanOperator rebindOlapScan(PhysicalOlapScanOperator scan,
+                                                           IdentityHashMap<ConstantOperator, ConstantOperator> bindings) {
+        ScalarOperator predicate = getScanPredicate(scan);
+        if (predicate != null) {
+            predicate = rebind(predicate, bindings);
+        }
+
+        LogicalOlapScanOperator logicalScan = new LogicalOlapScanOperator(scan.getTable(),
+                Lists.newArrayList(scan.getOutputColumns()), Maps.newHashMap(scan.getColumnRefMap()),
+                scan.getColumnToIds());
+        logicalScan.setSelectedIndexId(scan.getSelectedIndexId());
+        logicalScan.setPredicate(predicate);
+        Map<String, PartitionColumnFilter> columnFilters =
+                ColumnFilterConverter.convertColumnFilter(Utils.extractConjuncts(predicate));
+        logicalScan.setColumnFilters(columnFilters);
+        OptExpression scanExpression = new OptExpression(logicalScan);
+        new PartitionPruneRule().transform(scanExpression, null);
+        new DistributionPruneRule().transform(scanExpression, null);
+
+        PhysicalOlapScanOperator newScan = new PhysicalOlapScanOperator(scan.getTable(),
+                logicalScan.getOutputColumns(), logicalScan.getColumnRefMap(), scan.getColumnToIds());
+        newScan.setSelectedIndexId(scan.getSelectedIndexId());
+        newScan.setSelectedPartitionId(Lists.newArrayList(logicalScan.getSelectedPartitionId()));
+        newScan.setSelectedTabletId(Lists.newArrayList(logicalScan.getSelectedTabletId()));
+        newScan.setPreAggregation(scan.isPreAggregation());
+        newScan.setTurnOffReason(scan.getTurnOffReason());
+        newScan.setLimit(scan.getLimit());
+        // the partition pruning may remove the predicates which all the selected partitions meet
+        newScan.setPredicate(logicalScan.getPredicate());
+        newScan.setPrunedPartitionPredicates(logicalScan.getPrunedPartitionPredicates());
+        return newScan;
+    }
+
+    private static class Entry {
+        private final String db;
+        private final String sql;
+        private final List<String> literals;
+        private final List<Object> signature;
+        private final OptExpression plan;
+        private final List<ColumnRefOperator> outputColumns;
+        private final ColumnRefFactory columnRefFactory;
+        // constant from literal -> index of the literal, null if the plan can't be used for other literals
+        private IdentityHashMap<ConstantOperator, Integer> constantToLiteral;
+
+        private final long createTime = System.currentTimeMillis();
+        private final AtomicLong hitCount = new AtomicLong(0);
+        private volatile long lastHitTime = -1;
+
+        Entry(String db, NormalizedSql sql, List<Object> signature, OptExpression plan,
+              List<ColumnRefOperator> outputColumns, ColumnRefFactory columnRefFactory) {
+            this.db = db;
+            this.sql = sql.getText();
+            this.literals = sql.getLiterals();
+            this.signature = signature;
+            this.plan = plan;
+            this.outputColumns = outputColumns;
+            this.columnRefFactory = columnRefFactory;
+        }
+
+        boolean isParameterizable() {
+            return constantToLiteral != null;
+        }
+
+        void hit() {
+            hitCount.incrementAndGet();
+            lastHitTime = System.currentTimeMillis();
+        }
+
+        void matchLiterals(Collection<ConstantOperator> constants) {
+            IdentityHashMap<ConstantOperator, Integer> matched = new IdentityHashMap<>();
+            boolean[] literalMatched = new boolean[literals.size()];
+            for (ConstantOperator constant : constants) {
+                int literalIndex = -1;
+                for (int i = 0; i < literals.size(); i++) {
+                    if (literalMatches(literals.get(i), constant)) {
+                        if (literalIndex >= 0) {
+                            // can't tell which literal the constant comes from
+                            return;
+                        }
+                        literalIndex = i;
+                    }
+                }
+                if (literalIndex < 0) {
+                    // the constant comes from the literals which are folded or dropped by the optimizer
+                    return;
+                }
+                matched.put(constant, literalIndex);
+                literalMatched[literalIndex] = true;
+            }
+            for (boolean literalUsed : literalMatched) {
+                if (!literalUsed) {
+                    // the literal is folded or dropped by the optimizer, the plan may depend on its value
+                    return;
+                }
+            }
+            constantToLiteral = matched;
+        }
+
+        /**
+         * @return the constants of the plan -> the constants of the new literals, null if the plan can't be
+         * used for the literals
+         */
+        IdentityHashMap<ConstantOperator, ConstantOperator> bind(List<String> newLiterals) {
+            if (constantToLiteral == null) {
+                return null;
+            }
+            IdentityHashMap<ConstantOperator, ConstantOperator> bindings = new IdentityHashMap<>();
+            for (Map.Entry<ConstantOperator, Integer> entry : constantToLiteral.entrySet()) {
+                ConstantOperator constant = entry.getKey();
+                String literal = literals.get(entry.getValue());
+                String newLiteral = newLiterals.get(entry.getValue());
+                if (literal.equals(newLiteral)) {
+                    continue;
+                }
+                if (!isSameType(literal, newLiteral, constant.getType())) {
+                    return null;
+                }
+                try {
+                    ConstantOperator newConstant = ConstantOperator.createVarchar(newLiteral).castTo(constant.getType());
+                    newConstant.setFromLiteral(true);
+                    bindings.put(constant, newConstant);
+                } catch (Exception e) {
+                    LOG.debug("failed to bind literal {} to {}", newLiteral, constant, e);
+                    return null;
+                }
+            }
+            return bindings;
+        }
+    }
+
+    private static boolean literalMatches(String literal, ConstantOperator constant) {
+        try {
+            return ConstantOperator.createVarchar(literal).castTo(constant.getType()).equals(constant);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // The analyzed types of the expressions depend on the types of the literals, so the new literal must have
+    // the same type as the old one, e.g. 100 is TINYINT and 1000 is SMALLINT, '2022-01-01' is cast to DATE
+    // and '2022-01-01 10:00:00' is cast to DATETIME.
+    private static boolean isSameType(String literal, String newLiteral, Type constantType) {
+        if (constantType.isStringType()) {
+            return true;
+        } else if (NormalizedSql.isInteger(literal) && NormalizedSql.isInteger(newLiteral)) {
+            return integerTypeRank(literal) == integerTypeRank(newLiteral);
+        } else {
+            return literalShape(literal).equals(literalShape(newLiteral));
+        }
+    }
+
+    private static int integerTypeRank(String literal) {
+        BigInteger value = new BigInteger(literal);
+        long[] maxValues = {Byte.MAX_VALUE, Short.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE};
+        for (int rank = 0; rank < maxValues.length; rank++) {
+            if (value.compareTo(BigInteger.valueOf(maxValues[rank])) <= 0) {
+                return rank;
+            }
+        }
+        return maxValues.length;
+    }
+
+    private static String literalShape(String literal) {
+        StringBuilder shape = new StringBuilder(literal.length());
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (Character.isDigit(c)) {
+                shape.append('9');
+            } else if (Character.isLetter(c)) {
+                shape.append('a');
+            } else {
+                shape.append(c);
+            }
+        }
+        return shape.toString();
+    }
+}
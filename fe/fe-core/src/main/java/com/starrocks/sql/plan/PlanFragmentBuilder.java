@@ -34,6 +34,7 @@ import com.starrocks.common.UserException;
 import com.starrocks.planner.AggregationNode;
 import com.starrocks.planner.AnalyticEvalNode;
 import com.starrocks.planner.AssertNumRowsNode;
+import com.starrocks.planner.DataStreamSink;
 import com.starrocks.planner.CrossJoinNode;
 import com.starrocks.planner.DataPartition;
 import com.starrocks.planner.EmptySetNode;
@@ -43,6 +44,7 @@ import com.starrocks.planner.ExchangeNode;
 import com.starrocks.planner.HashJoinNode;
 import com.starrocks.planner.HdfsScanNode;
 import com.starrocks.planner.IntersectNode;
+import com.starrocks.planner.MultiCastDataSink;
 import com.starrocks.planner.MysqlScanNode;
 import com.starrocks.planner.OlapScanNode;
 import com.starrocks.planner.PlanFragment;
@@ -72,6 +74,9 @@ import com.starrocks.sql.optimizer.base.OrderSpec;
 import com.starrocks.sql.optimizer.base.Ordering;
 import com.starrocks.sql.optimizer.operator.OperatorType;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalAssertOneRowOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEAnchorOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEConsumeOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalCTEProduceOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalDistributionOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalEsScanOperator;
 import com.starrocks.sql.optimizer.operator.physical.PhysicalFilterOperator;
@@ -94,6 +99,8 @@ import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 import com.starrocks.sql.optimizer.rule.transformation.JoinPredicateUtils;
+import com.starrocks.sql.optimizer.statistics.CardinalityFeedback;
+import com.starrocks.sql.optimizer.statistics.CardinalityFingerprint;
 import com.starrocks.thrift.TPartitionType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -197,11 +204,29 @@ public class PlanFragmentBuilder {
     private static class PhysicalPlanTranslator extends OptExpressionVisitor<PlanFragment, ExecPlan> {
         private final ColumnRefFactory columnRefFactory;
         private final IdGenerator<RuntimeFilterId> runtimeFilterIdIdGenerator = RuntimeFilterId.createGenerator();
+        // The fragments computing the reused CTEs, indexed by the CTE id
+        private final Map<Integer, PlanFragment> cteProduceFragments = Maps.newHashMap();
 
         public PhysicalPlanTranslator(ColumnRefFactory columnRefFactory) {
             this.columnRefFactory = columnRefFactory;
         }
 
+        // Record the fingerprint and the estimated rows of the node, the actual rows are recorded after execution
+        private void addCardinalityEstimate(OptExpression optExpr, PlanNode planNode, String description,
+                                            ExecPlan context) {
+            if (!context.getConnectContext().getSessionVariable().isCollectCardinalityFeedback()) {
+                return;
+            }
+            String fingerprint = CardinalityFingerprint.of(optExpr);
+            if (fingerprint == null) {
+                return;
+            }
+            Double estimatedRows = CardinalityFeedback.getInstance().getRowCount(fingerprint) == null ?
+                    optExpr.getStatistics().getOutputRowCount() : null;
+            context.addCardinalityEstimate(planNode.getId().asInt(),
+                    new ExecPlan.CardinalityEstimate(fingerprint, description, estimatedRows));
+        }
+
         @Override
         public PlanFragment visitPhysicalProject(OptExpression optExpr, ExecPlan context) {
             PhysicalProjectOperator node = (PhysicalProjectOperator) optExpr.getOp();
@@ -276,6 +301,7 @@ public class PlanFragmentBuilder {
                     new OlapScanNode(context.getPlanCtx().getNextNodeId(), tupleDescriptor, "OlapScanNode");
             scanNode.setLimit(node.getLimit());
             scanNode.computeStatistics(optExpr.getStatistics());
+            addCardinalityEstimate(optExpr, scanNode, "OLAP_SCAN " + referenceTable.getName(), context);
 
             // set tablet
             try {
@@ -792,6 +818,7 @@ public class PlanFragmentBuilder {
                     getSessionVariable().getStreamingPreaggregationMode());
             aggregationNode.setHasNullableGenerateChild();
             aggregationNode.computeStatistics(optExpr.getStatistics());
+            addCardinalityEstimate(optExpr, aggregationNode, "AGGREGATE", context);
             inputFragment.setPlanRoot(aggregationNode);
             return inputFragment;
         }
@@ -833,8 +860,13 @@ public class PlanFragmentBuilder {
 
         @Override
         public PlanFragment visitPhysicalDistribution(OptExpression optExpr, ExecPlan context) {
-            PlanFragment inputFragment = visit(optExpr.inputAt(0), context);
             PhysicalDistributionOperator distribution = (PhysicalDistributionOperator) optExpr.getOp();
+            // The CTE consumer already reads through an exchange, send the CTE result as required directly
+            if (optExpr.inputAt(0).getOp() instanceof PhysicalCTEConsumeOperator) {
+                return buildCTEConsumeFragment(optExpr.inputAt(0), distribution.getDistributionSpec(), context);
+            }
+
+            PlanFragment inputFragment = visit(optExpr.inputAt(0), context);
 
             ExchangeNode exchangeNode = new ExchangeNode(context.getPlanCtx().getNextNodeId(),
                     inputFragment.getPlanRoot(), false, distribution.getDistributionSpec().getType());
@@ -1024,6 +1056,7 @@ public class PlanFragmentBuilder {
                         null);
                 joinNode.setLimit(node.getLimit());
                 joinNode.computeStatistics(optExpr.getStatistics());
+                addCardinalityEstimate(optExpr, joinNode, "CROSS JOIN", context);
                 List<Expr> conjuncts = Utils.extractConjuncts(node.getPredicate()).stream()
                         .map(e -> ScalarOperatorToExpr.buildExecExpression(node.getPredicate(),
                                 new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
@@ -1131,6 +1164,7 @@ public class PlanFragmentBuilder {
                 hashJoinNode.getConjuncts().addAll(conjuncts);
                 hashJoinNode.setLimit(node.getLimit());
                 hashJoinNode.computeStatistics(optExpr.getStatistics());
+                addCardinalityEstimate(optExpr, hashJoinNode, joinOperator.toString(), context);
 
                 if (ConnectContext.get().getSessionVariable().getEnableGlobalRuntimeFilter()) {
                     hashJoinNode.buildRuntimeFilters(runtimeFilterIdIdGenerator, hashJoinNode.getChild(1),
@@ -1551,6 +1585,133 @@ public class PlanFragmentBuilder {
             return inputFragment;
         }
 
+        @Override
+        public PlanFragment visitPhysicalCTEAnchor(OptExpression optExpression, ExecPlan context) {
+            PhysicalCTEAnchorOperator anchor = (PhysicalCTEAnchorOperator) optExpression.getOp();
+            visit(optExpression.inputAt(0), context);
+            PlanFragment fragment = visit(optExpression.inputAt(1), context);
+
+            // All the consumers are pruned, e.g. by the empty input of the join, the CTE needn't be computed
+            PlanFragment produceFragment = cteProduceFragments.get(anchor.getCteId());
+            if (((MultiCastDataSink) produceFragment.getSink()).getSinks().isEmpty()) {
+                removeFragments(produceFragment, context);
+            }
+            return fragment;
+        }
+
+        private void removeFragments(PlanFragment fragment, ExecPlan context) {
+            context.getFragments().remove(fragment);
+            for (PlanFragment child : fragment.getChildren()) {
+                removeFragments(child, context);
+            }
+        }
+
+        @Override
+        public PlanFragment visitPhysicalCTEProduce(OptExpression optExpression, ExecPlan context) {
+            PhysicalCTEProduceOperator produce = (PhysicalCTEProduceOperator) optExpression.getOp();
+            PlanFragment fragment = visit(optExpression.inputAt(0), context);
+            fragment.setSink(new MultiCastDataSink());
+            cteProduceFragments.put(produce.getCteId(), fragment);
+            return fragment;
+        }
+
+        @Override
+        public PlanFragment visitPhysicalCTEConsume(OptExpression optExpression, ExecPlan context) {
+            return buildCTEConsumeFragment(optExpression, null, context);
+        }
+
+        /*
+         * Build the fragment which reads the result of the CTE from an exchange node, the result is sent
+         * by the multicast sink of the produce fragment as the distribution required, and the consumer
+         * columns are projected from the producer columns.
+         */
+        private PlanFragment buildCTEConsumeFragment(OptExpression optExpression, DistributionSpec distributionSpec,
+                                                     ExecPlan context) {
+            PhysicalCTEConsumeOperator consume = (PhysicalCTEConsumeOperator) optExpression.getOp();
+            PlanFragment produceFragment = cteProduceFragments.get(consume.getCteId());
+            Preconditions.checkState(produceFragment != null, "The CTE %s isn't produced", consume.getCteId());
+            Map<ColumnRefOperator, ColumnRefOperator> columnRefMap = consume.getCteOutputColumnRefMap();
+
+            DistributionSpec.DistributionType distributionType =
+                    distributionSpec == null ? null : distributionSpec.getType();
+            ExchangeNode exchangeNode = new ExchangeNode(context.getPlanCtx().getNextNodeId(),
+                    produceFragment.getPlanRoot(), false, distributionType);
+            exchangeNode.setNumInstances(produceFragment.getPlanRoot().getNumInstances());
+            // The multicast sink sends each chunk to the consumers one by one, the consumers may be read one
+            // after another, e.g. by a join which reads its build side to the end first. If a consumer which
+            // isn't read yet held back the sink, the consumer being read would never get the rest of the result.
+            exchangeNode.setUnlimitedBuffer(true);
+
+            DataPartition dataPartition;
+            if (distributionSpec == null) {
+                dataPartition = DataPartition.RANDOM;
+            } else if (DistributionSpec.DistributionType.GATHER.equals(distributionType)) {
+                exchangeNode.setNumInstances(1);
+                dataPartition = DataPartition.UNPARTITIONED;
+                GatherDistributionSpec spec = (GatherDistributionSpec) distributionSpec;
+                if (spec.hasLimit()) {
+                    exchangeNode.setLimit(spec.getLimit());
+                }
+            } else if (DistributionSpec.DistributionType.BROADCAST.equals(distributionType)) {
+                dataPartition = DataPartition.UNPARTITIONED;
+            } else if (DistributionSpec.DistributionType.SHUFFLE.equals(distributionType)) {
+                List<Integer> columnRefSet =
+                        ((HashDistributionSpec) distributionSpec).getHashDistributionDesc().getColumns();
+                Preconditions.checkState(!columnRefSet.isEmpty());
+                // The result of the CTE is partitioned by the producer columns
+                List<Expr> distributeExpressions = columnRefSet.stream()
+                        .map(columnId -> columnRefMap.get(columnRefFactory.getColumnRef(columnId)))
+                        .map(e -> ScalarOperatorToExpr.buildExecExpression(e,
+                                new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                        .collect(Collectors.toList());
+                dataPartition = DataPartition.hashPartitioned(distributeExpressions);
+            } else {
+                throw new StarRocksPlannerException("Unsupport exchange type : " + distributionType, INTERNAL_ERROR);
+            }
+
+            PlanFragment consumeFragment =
+                    new PlanFragment(context.getPlanCtx().getNextFragmentId(), exchangeNode, dataPartition);
+            consumeFragment.addChild(produceFragment);
+            DataStreamSink streamSink = new DataStreamSink(exchangeNode.getId());
+            streamSink.setPartition(dataPartition);
+            ((MultiCastDataSink) produceFragment.getSink()).addSink(streamSink, exchangeNode);
+
+            TupleDescriptor tupleDescriptor = context.getDescTbl().createTupleDescriptor();
+            Map<SlotId, Expr> projectMap = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ColumnRefOperator> entry : columnRefMap.entrySet()) {
+                Expr expr = ScalarOperatorToExpr.buildExecExpression(entry.getValue(),
+                        new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr()));
+                projectMap.put(new SlotId(entry.getKey().getId()), expr);
+
+                SlotDescriptor slotDescriptor =
+                        context.getDescTbl().addSlotDescriptor(tupleDescriptor, new SlotId(entry.getKey().getId()));
+                slotDescriptor.setIsNullable(expr.isNullable());
+                slotDescriptor.setIsMaterialized(true);
+                slotDescriptor.setType(expr.getType());
+                context.getColRefToExpr().put(entry.getKey(), new SlotRef(entry.getKey().toString(), slotDescriptor));
+            }
+            ProjectNode projectNode = new ProjectNode(context.getPlanCtx().getNextNodeId(), tupleDescriptor,
+                    exchangeNode, projectMap, Maps.newHashMap());
+            projectNode.computeStatistics(optExpression.getStatistics());
+            tupleDescriptor.computeMemLayout();
+            consumeFragment.setPlanRoot(projectNode);
+
+            if (consume.getPredicate() != null || consume.getLimit() != -1) {
+                List<Expr> predicates = Utils.extractConjuncts(consume.getPredicate()).stream()
+                        .map(d -> ScalarOperatorToExpr.buildExecExpression(d,
+                                new ScalarOperatorToExpr.FormatterContext(context.getColRefToExpr())))
+                        .collect(Collectors.toList());
+                SelectNode selectNode =
+                        new SelectNode(context.getPlanCtx().getNextNodeId(), projectNode, predicates);
+                selectNode.setLimit(consume.getLimit());
+                selectNode.computeStatistics(optExpression.getStatistics());
+                consumeFragment.setPlanRoot(selectNode);
+            }
+
+            context.getFragments().add(consumeFragment);
+            return consumeFragment;
+        }
+
         @Override
         public PlanFragment visitPhysicalTableFunction(OptExpression optExpression, ExecPlan context) {
             PlanFragment inputFragment = visit(optExpression.inputAt(0), context);
@@ -29,6 +29,7 @@ import com.starrocks.analysis.NullLiteral;
 import com.starrocks.analysis.StringLiteral;
 import com.starrocks.catalog.Function;
 import com.starrocks.catalog.Type;
+import com.starrocks.qe.ConnectContext;
 import com.starrocks.sql.optimizer.operator.scalar.ArrayElementOperator;
 import com.starrocks.sql.optimizer.operator.scalar.ArrayOperator;
 import com.starrocks.sql.optimizer.operator.scalar.BetweenPredicateOperator;
@@ -111,7 +112,12 @@ public class ScalarOperatorToExpr {
         }
 
         @Override
-        public Expr visitConstant(ConstantOperator literal, FormatterContext context) {
+        public Expr visitConstant(ConstantOperator constant, FormatterContext context) {
+            ConnectContext session = ConnectContext.get();
+            ConstantOperator literal = constant;
+            if (session != null && session.getConstantBinder() != null) {
+                literal = session.getConstantBinder().bind(constant);
+            }
             try {
                 Type type = literal.getType();
                 if (literal.isNull()) {
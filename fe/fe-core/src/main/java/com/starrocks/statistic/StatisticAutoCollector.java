@@ -9,6 +9,7 @@ import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.PartitionType;
 import com.starrocks.catalog.Table;
 import com.starrocks.common.Config;
 import com.starrocks.common.util.MasterDaemon;
@@ -44,12 +45,26 @@ public class StatisticAutoCollector extends MasterDaemon {
         public List<String> columns;
 
         private void tryCollect() throws Exception {
-            if (AnalyzeType.FULL == job.getType()) {
+            if (isCollectOnPartition()) {
+                statisticExecutor.collectPartitionStatisticSync(db.getId(), table.getId(), columns);
+            } else if (AnalyzeType.FULL == job.getType()) {
                 statisticExecutor.fullCollectStatisticSync(db.getId(), table.getId(), columns);
             } else if (AnalyzeType.SAMPLE == job.getType()) {
                 statisticExecutor
                         .sampleCollectStatisticSync(db.getId(), table.getId(), columns, job.getSampleCollectRows());
             }
+            // Keep the column combinations analyzed manually consistent with the statistics of each column
+            if (StatisticUtils.getMultiColumnStatisticsTable() != null) {
+                statisticExecutor.refreshMultiColumnStatisticSync(db.getId(), table.getId());
+            }
+        }
+
+        // The partitions of the range partitioned table are usually appended, only collect the new partitions.
+        // The partitions are scanned in full, the SAMPLE jobs keep sampling the whole table.
+        private boolean isCollectOnPartition() {
+            return Config.enable_statistic_collect_on_partition && AnalyzeType.FULL == job.getType() &&
+                    StatisticUtils.getPartitionStatisticsTable() != null &&
+                    ((OlapTable) table).getPartitionInfo().getType() == PartitionType.RANGE;
         }
     }
 
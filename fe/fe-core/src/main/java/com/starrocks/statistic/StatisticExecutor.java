@@ -2,6 +2,7 @@
 
 package com.starrocks.statistic;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -14,8 +15,12 @@ import com.starrocks.catalog.Column;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.ScalarType;
+import com.starrocks.catalog.Type;
 import com.starrocks.cluster.ClusterNamespace;
+import com.starrocks.common.Config;
 import com.starrocks.common.DdlException;
+import com.starrocks.common.Pair;
 import com.starrocks.common.util.SqlParserUtils;
 import com.starrocks.planner.PlannerContext;
 import com.starrocks.qe.ConnectContext;
@@ -55,9 +60,12 @@ import java.nio.charset.CharsetDecoder;
 import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -66,6 +74,8 @@ public class StatisticExecutor {
 
     private static final int STATISTIC_DATA_VERSION = 1;
 
+    private static final int STATISTIC_HISTOGRAM_VERSION = 2;
+
     private static final String QUERY_STATISTIC_TEMPLATE =
             "SELECT cast(" + STATISTIC_DATA_VERSION + " as INT), update_time, db_id, table_id, column_name,"
                     + " row_count, data_size, distinct_count, null_count, max, min"
@@ -95,8 +105,115 @@ public class StatisticExecutor {
                     + "    GROUP BY t0.`$columnName` "
                     + ") as t1";
 
+    private static final String QUERY_HISTOGRAM_TEMPLATE =
+            "SELECT cast(" + STATISTIC_HISTOGRAM_VERSION + " as INT), update_time, db_id, table_id, column_name,"
+                    + " histogram"
+                    + " FROM " + Constants.HistogramStatisticsTableName
+                    + " WHERE 1 = 1";
+
+    private static final String INSERT_HISTOGRAM_TEMPLATE = "INSERT INTO " + Constants.HistogramStatisticsTableName;
+
+    // The histogram is a json: {"rows": 1, "buckets": [["lower", "upper", count, ndv]], "mcv": [["value", count]]},
+    // the values are hex of the string, so needn't be escaped
+    private static final String INSERT_SELECT_HISTOGRAM_TEMPLATE =
+            "SELECT $tableId, '$columnName', $dbId, '$tableName', '$dbName', "
+                    + "CONCAT('{\"rows\":', CAST(IFNULL(b.row_count, 0) AS VARCHAR), "
+                    + "       ',\"buckets\":[', IFNULL(b.buckets, ''), '],\"mcv\":[', IFNULL(m.mcv, ''), ']}'), NOW() "
+                    + "FROM ($bucketQuery) b CROSS JOIN ($mcvQuery) m";
+
+    // Split the sorted values into the buckets with the same rows
+    private static final String HISTOGRAM_BUCKET_TEMPLATE =
+            "SELECT SUM(t2.cnt) AS row_count, "
+                    + "       GROUP_CONCAT(CONCAT('[\"', HEX(CAST(t2.lower AS VARCHAR)), '\",\"', "
+                    + "           HEX(CAST(t2.upper AS VARCHAR)), '\",', CAST(t2.cnt AS VARCHAR), ',', "
+                    + "           CAST(t2.ndv AS VARCHAR), ']')) AS buckets "
+                    + "FROM ( "
+                    + "    SELECT t1.bucket, MIN(t1.c) AS lower, MAX(t1.c) AS upper, COUNT(1) AS cnt, "
+                    + "           COUNT(DISTINCT t1.c) AS ndv "
+                    + "    FROM ( "
+                    + "        SELECT t0.c, "
+                    + "               (ROW_NUMBER() OVER (ORDER BY t0.c) - 1) * $bucketSize DIV COUNT(1) OVER () "
+                    + "               AS bucket "
+                    + "        FROM $sampleTable t0 "
+                    + "    ) t1 "
+                    + "    GROUP BY t1.bucket "
+                    + ") t2";
+
+    private static final String HISTOGRAM_ROWS_TEMPLATE =
+            "SELECT COUNT(1) AS row_count, '' AS buckets FROM $sampleTable t0";
+
+    // The values appear only once are not common
+    private static final String HISTOGRAM_MCV_TEMPLATE =
+            "SELECT GROUP_CONCAT(CONCAT('[\"', HEX(CAST(t3.c AS VARCHAR)), '\",', CAST(t3.cnt AS VARCHAR), ']')) "
+                    + "       AS mcv "
+                    + "FROM ( "
+                    + "    SELECT t0.c, COUNT(1) AS cnt "
+                    + "    FROM $sampleTable t0 $mcvFilter "
+                    + "    GROUP BY t0.c "
+                    + "    HAVING COUNT(1) > 1 "
+                    + "    ORDER BY cnt DESC "
+                    + "    LIMIT $mcvSize "
+                    + ") t3";
+
+    // The rows of the random tablets are sampled again by rand(), so the sample is spread over the whole table
+    // instead of being the first rows read, which are from the first partitions and tablets
+    private static final String HISTOGRAM_SAMPLE_TABLE_TEMPLATE =
+            "(SELECT `$columnName` AS c FROM $tableName $tablets WHERE `$columnName` IS NOT NULL $sampleFilter)";
+
+    // The sampled tablets have about this times the sample rows, to read a bounded part of a large table
+    private static final int HISTOGRAM_SAMPLE_TABLET_ROWS_FACTOR = 4;
+
+    // The long strings are rarely the common values, skip them to limit the size of the histogram
+    private static final int HISTOGRAM_MCV_MAX_LENGTH = 64;
+
+    private static final String INSERT_PARTITION_STATISTIC_TEMPLATE =
+            "INSERT INTO " + Constants.PartitionStatisticsTableName;
+
+    // The ndv is a hll sketch, which can be merged into the table statistics
+    private static final String INSERT_SELECT_PARTITION_TEMPLATE =
+            "SELECT $tableId, $partitionId, '$columnName', $dbId, '$tableName', '$partitionName', COUNT(1), "
+                    + "$dataSize, $hllFunction, $countNullFunction, $maxFunction, $minFunction, $version, NOW() "
+                    + "FROM $tableName PARTITION(`$partitionName`)";
+
+    private static final String INSERT_SELECT_MERGE_PARTITION_TEMPLATE =
+            "SELECT $tableId, '$columnName', $dbId, '$tableName', '$dbName', IFNULL(SUM(row_count), 0), "
+                    + "IFNULL(SUM(data_size), 0), IFNULL(HLL_UNION_AGG(ndv), 0), IFNULL(SUM(null_count), 0), "
+                    + "IFNULL($maxFunction, ''), IFNULL($minFunction, ''), NOW() "
+                    + "FROM " + Constants.PartitionStatisticsTableName + " "
+                    + "WHERE table_id = $tableId AND column_name = '$columnName' AND partition_id IN ($partitionIds)";
+
+    // partition_id:version of the partitions which all the columns are collected
+    private static final String SELECT_COLLECTED_PARTITION_TEMPLATE =
+            "SELECT CONCAT(CAST(partition_id AS VARCHAR), ':', CAST(MIN(version) AS VARCHAR))"
+                    + " FROM " + Constants.PartitionStatisticsTableName
+                    + " WHERE table_id = $tableId AND column_name IN ($columnNames)"
+                    + " GROUP BY partition_id HAVING COUNT(1) = $columnCount";
+
+    private static final String INSERT_MULTI_COLUMN_TEMPLATE =
+            "INSERT INTO " + Constants.MultiColumnStatisticsTableName;
+
+    // The values are joined by hex, so the null and the comma in the values are not ambiguous
+    private static final String INSERT_SELECT_MULTI_COLUMN_TEMPLATE =
+            "SELECT $tableId, '$columnNames', $dbId, '$tableName', '$dbName', COUNT(1), "
+                    + "approx_count_distinct(CONCAT_WS(',', $columnValues)), NOW() "
+                    + "FROM $tableName";
+
+    private static final String SELECT_MULTI_COLUMN_TEMPLATE =
+            "SELECT CONCAT(column_names, ':', CAST(distinct_count AS VARCHAR))"
+                    + " FROM " + Constants.MultiColumnStatisticsTableName
+                    + " WHERE table_id = $tableId";
+
     private static final String DELETE_TEMPLATE = "DELETE FROM " + Constants.StatisticsTableName + " WHERE ";
 
+    private static final String DELETE_MULTI_COLUMN_TEMPLATE =
+            "DELETE FROM " + Constants.MultiColumnStatisticsTableName + " WHERE ";
+
+    private static final String DELETE_PARTITION_TEMPLATE =
+            "DELETE FROM " + Constants.PartitionStatisticsTableName + " WHERE ";
+
+    private static final String DELETE_HISTOGRAM_TEMPLATE =
+            "DELETE FROM " + Constants.HistogramStatisticsTableName + " WHERE ";
+
     private static final String SELECT_EXPIRE_TABLE_TEMPLATE =
             "SELECT DISTINCT table_id" + " FROM " + Constants.StatisticsTableName + " WHERE 1 = 1 ";
 
@@ -139,6 +256,31 @@ public class StatisticExecutor {
         return Collections.emptyList();
     }
 
+    public List<TStatisticData> queryHistogramSync(Long tableId, List<String> columnNames) {
+        String sql = buildQueryHistogramSQL(tableId, columnNames);
+        Map<String, Database> dbs = Maps.newHashMap();
+
+        ConnectContext context = StatisticUtils.buildConnectContext();
+        StatementBase parsedStmt;
+        try {
+            parsedStmt = parseSQL(sql, context);
+            ((QueryStmt) parsedStmt).getDbs(context, dbs);
+        } catch (Exception e) {
+            LOG.warn("Parse histogram table query fail.", e);
+            return Collections.emptyList();
+        }
+
+        try {
+            ExecPlan execPlan = getExecutePlan(dbs, context, parsedStmt, true);
+            List<TResultBatch> sqlResult = executeStmt(context, execPlan);
+            return deserializerStatisticData(sqlResult);
+        } catch (Exception e) {
+            LOG.warn("Execute histogram table query fail.", e);
+        }
+
+        return Collections.emptyList();
+    }
+
     private List<TStatisticData> deserializerStatisticData(List<TResultBatch> sqlResult) throws TException {
         List<TStatisticData> statistics = Lists.newArrayList();
 
@@ -151,7 +293,7 @@ public class StatisticExecutor {
             return statistics;
         }
 
-        if (version == STATISTIC_DATA_VERSION) {
+        if (version == STATISTIC_DATA_VERSION || version == STATISTIC_HISTOGRAM_VERSION) {
             TDeserializer deserializer = new TDeserializer(new TCompactProtocol.Factory());
             for (TResultBatch resultBatch : sqlResult) {
                 for (ByteBuffer bb : resultBatch.rows) {
@@ -198,10 +340,193 @@ public class StatisticExecutor {
                 throw new DdlException(context.getState().getErrorMessage());
             }
         }
+
+        if (Config.enable_collect_histogram && StatisticUtils.getHistogramStatisticsTable() != null) {
+            collectHistogramSync(dbId, tableId, columnNames);
+        }
+    }
+
+    /**
+     * Collect the statistics of the partitions whose visible version changed since the last collection,
+     * then merge the statistics of all the partitions into the table statistics, so the cost is
+     * proportional to the new data. The statistics of the dropped partitions are deleted.
+     */
+    public void collectPartitionStatisticSync(Long dbId, Long tableId, List<String> columnNames) throws Exception {
+        Database db = Catalog.getCurrentCatalog().getDb(dbId);
+        OlapTable table = (OlapTable) db.getTable(tableId);
+
+        Map<Long, Long> collectedVersions = queryCollectedPartitionSync(tableId, columnNames);
+        List<Partition> partitions;
+        List<Long> partitionIds;
+        db.readLock();
+        try {
+            partitionIds = table.getPartitions().stream().map(Partition::getId).collect(Collectors.toList());
+            partitions = getChangedPartitions(table.getPartitions(), collectedVersions);
+        } finally {
+            db.readUnlock();
+        }
+        LOG.debug("Collect statistic on {} of {} partitions of table {}", partitions.size(), partitionIds.size(),
+                table.getName());
+
+        if (!partitions.isEmpty()) {
+            String columns = columnNames.stream().map(s -> "'" + s + "'").collect(Collectors.joining(","));
+            executeDMLSync(DELETE_PARTITION_TEMPLATE + " table_id = " + tableId + " AND partition_id IN (" +
+                    partitions.stream().map(p -> String.valueOf(p.getId())).collect(Collectors.joining(",")) +
+                    ") AND column_name IN (" + columns + ")");
+        }
+        for (Partition partition : partitions) {
+            for (List<String> list : Lists.partition(columnNames, splitColumnsByRows(partition))) {
+                executeDMLSync(buildPartitionInsertSQL(db, table, partition, list));
+            }
+        }
+        if (!partitionIds.isEmpty() && !Sets.newHashSet(partitionIds).containsAll(collectedVersions.keySet())) {
+            executeDMLSync(DELETE_PARTITION_TEMPLATE + " table_id = " + tableId + " AND partition_id NOT IN (" +
+                    StringUtils.join(partitionIds, ",") + ")");
+        }
+
+        if (!partitionIds.isEmpty()) {
+            executeDMLSync(buildMergePartitionInsertSQL(db, table, columnNames, partitionIds));
+        }
+
+        if (Config.enable_collect_histogram && StatisticUtils.getHistogramStatisticsTable() != null) {
+            collectHistogramSync(dbId, tableId, columnNames);
+        }
+    }
+
+    /**
+     * The partitions which are not collected, or whose visible version changed since they were collected.
+     *
+     * @param collectedVersions partition id -> the visible version when the partition was collected
+     */
+    static List<Partition> getChangedPartitions(Collection<Partition> partitions, Map<Long, Long> collectedVersions) {
+        List<Partition> changed = Lists.newArrayList();
+        for (Partition partition : partitions) {
+            Long version = collectedVersions.get(partition.getId());
+            if (version == null || version != partition.getVisibleVersion()) {
+                changed.add(partition);
+            }
+        }
+        return changed;
+    }
+
+    // partition id -> the min visible version of the columns when they are collected
+    private Map<Long, Long> queryCollectedPartitionSync(Long tableId, List<String> columnNames) throws Exception {
+        VelocityContext context = new VelocityContext();
+        context.put("tableId", tableId);
+        context.put("columnNames", columnNames.stream().map(s -> "'" + s + "'").collect(Collectors.joining(",")));
+        context.put("columnCount", columnNames.size());
+
+        StringWriter sw = new StringWriter();
+        DEFAULT_VELOCITY_ENGINE.evaluate(context, sw, "", SELECT_COLLECTED_PARTITION_TEMPLATE);
+        LOG.debug("Query collected partition SQL: {}", sw);
+
+        Map<Long, Long> result = Maps.newHashMap();
+        for (String row : queryStringSync(sw.toString())) {
+            String[] values = row.split(":");
+            result.put(Long.parseLong(values[0]), Long.parseLong(values[1]));
+        }
+        return result;
+    }
+
+    private void executeDMLSync(String sql) throws Exception {
+        LOG.debug("Collect statistic SQL: {}", sql);
+
+        ConnectContext context = StatisticUtils.buildConnectContext();
+        StatementBase parsedStmt = parseSQL(sql, context);
+        StmtExecutor executor = new StmtExecutor(context, parsedStmt);
+        executor.execute();
+
+        if (context.getState().getStateType() == QueryState.MysqlStateType.ERR) {
+            throw new DdlException(context.getState().getErrorMessage());
+        }
+    }
+
+    // The histograms are always collected on the sample rows, the sort of all the rows is too expensive
+    public void collectHistogramSync(Long dbId, Long tableId, List<String> columnNames) throws Exception {
+        for (String name : columnNames) {
+            String sql = buildHistogramInsertSQL(dbId, tableId, name);
+            if (sql == null) {
+                continue;
+            }
+
+            LOG.debug("Collect histogram SQL: {}", sql);
+
+            ConnectContext context = StatisticUtils.buildConnectContext();
+            StatementBase parsedStmt = parseSQL(sql, context);
+            StmtExecutor executor = new StmtExecutor(context, parsedStmt);
+            executor.execute();
+
+            if (context.getState().getStateType() == QueryState.MysqlStateType.ERR) {
+                throw new DdlException(context.getState().getErrorMessage());
+            }
+        }
+    }
+
+    /**
+     * Collect the distinct values of the column combination, which are used to estimate the predicates and the joins
+     * on the correlated columns. They are always collected on all the rows, because the distinct values of
+     * the combination can't be estimated well from the sample rows.
+     */
+    public void collectMultiColumnStatisticSync(Long dbId, Long tableId, List<String> columnNames) throws Exception {
+        Database db = Catalog.getCurrentCatalog().getDb(dbId);
+        OlapTable table = (OlapTable) db.getTable(tableId);
+        executeDMLSync(buildMultiColumnInsertSQL(db, table, columnNames));
+    }
+
+    // Collect the column combinations which were collected before again
+    public void refreshMultiColumnStatisticSync(Long dbId, Long tableId) throws Exception {
+        Database db = Catalog.getCurrentCatalog().getDb(dbId);
+        OlapTable table = (OlapTable) db.getTable(tableId);
+        for (List<String> columnNames : queryMultiColumnStatisticSync(tableId).keySet()) {
+            // The column may be dropped
+            if (columnNames.stream().allMatch(name -> table.getColumn(name) != null)) {
+                collectMultiColumnStatisticSync(dbId, tableId, columnNames);
+            }
+        }
+    }
+
+    // The sorted column names in lower case -> the distinct values of the combination
+    public Map<List<String>, Long> queryMultiColumnStatisticSync(Long tableId) throws Exception {
+        VelocityContext context = new VelocityContext();
+        context.put("tableId", tableId);
+
+        StringWriter sw = new StringWriter();
+        DEFAULT_VELOCITY_ENGINE.evaluate(context, sw, "", SELECT_MULTI_COLUMN_TEMPLATE);
+        LOG.debug("Query multi-column statistic SQL: {}", sw);
+
+        return parseMultiColumnStatistic(queryStringSync(sw.toString()));
+    }
+
+    // The rows are "column_names:distinct_count", the column names are joined by comma
+    static Map<List<String>, Long> parseMultiColumnStatistic(List<String> rows) {
+        Map<List<String>, Long> result = Maps.newHashMap();
+        for (String row : rows) {
+            int index = row.lastIndexOf(':');
+            result.put(ImmutableList.copyOf(row.substring(0, index).split(",")),
+                    Long.parseLong(row.substring(index + 1)));
+        }
+        return result;
+    }
+
+    public static String getMultiColumnKey(List<String> columnNames) {
+        return columnNames.stream().map(String::toLowerCase).sorted().collect(Collectors.joining(","));
     }
 
     public void expireStatisticSync(List<String> tableIds) {
-        StringBuilder sql = new StringBuilder(DELETE_TEMPLATE);
+        expireStatisticSync(DELETE_TEMPLATE, tableIds);
+        if (StatisticUtils.getHistogramStatisticsTable() != null) {
+            expireStatisticSync(DELETE_HISTOGRAM_TEMPLATE, tableIds);
+        }
+        if (StatisticUtils.getPartitionStatisticsTable() != null) {
+            expireStatisticSync(DELETE_PARTITION_TEMPLATE, tableIds);
+        }
+        if (StatisticUtils.getMultiColumnStatisticsTable() != null) {
+            expireStatisticSync(DELETE_MULTI_COLUMN_TEMPLATE, tableIds);
+        }
+    }
+
+    private void expireStatisticSync(String template, List<String> tableIds) {
+        StringBuilder sql = new StringBuilder(template);
         sql.append(" table_id IN (").append(StringUtils.join(tableIds, ",")).append(")");
         LOG.debug("Expire statistic SQL: {}", sql);
 
@@ -220,12 +545,16 @@ public class StatisticExecutor {
         StringBuilder sql = new StringBuilder(SELECT_EXPIRE_TABLE_TEMPLATE);
         sql.append(" AND table_id NOT IN (").append(StringUtils.join(tableIds, ",")).append(")");
         LOG.debug("Query expire statistic SQL: {}", sql);
+        return queryStringSync(sql.toString());
+    }
 
+    // Query the rows of one short string column
+    private List<String> queryStringSync(String sql) throws Exception {
         Map<String, Database> dbs = Maps.newHashMap();
         ConnectContext context = StatisticUtils.buildConnectContext();
         StatementBase parsedStmt;
         try {
-            parsedStmt = parseSQL(sql.toString(), context);
+            parsedStmt = parseSQL(sql, context);
             ((QueryStmt) parsedStmt).getDbs(context, dbs);
         } catch (Exception e) {
             LOG.warn("Parse statistic table query fail.", e);
@@ -309,6 +638,15 @@ public class StatisticExecutor {
         return where.toString();
     }
 
+    private String buildQueryHistogramSQL(Long tableId, List<String> columnNames) {
+        StringBuilder where = new StringBuilder(QUERY_HISTOGRAM_TEMPLATE);
+        where.append(" AND table_id = ").append(tableId);
+        where.append(" AND column_name IN (");
+        where.append(columnNames.stream().map(s -> "'" + s + "'").collect(Collectors.joining(",")));
+        where.append(")");
+        return where.toString();
+    }
+
     public static StatementBase parseSQL(String sql, ConnectContext context) throws Exception {
         SqlScanner scanner = new SqlScanner(new StringReader(sql), context.getSessionVariable().getSqlMode());
         StatementBase parsedStmt = SqlParserUtils.getStmt(new SqlParser(scanner), 0);
@@ -348,6 +686,100 @@ public class StatisticExecutor {
         return (int) (5000000L / count + 1);
     }
 
+    private int splitColumnsByRows(Partition partition) {
+        long count = Math.max(partition.getBaseIndex().getRowCount(), 1L);
+        // 500w data per query
+        return (int) (5000000L / count + 1);
+    }
+
+    private String buildPartitionInsertSQL(Database db, OlapTable table, Partition partition,
+                                           List<String> columnNames) {
+        StringBuilder builder = new StringBuilder(INSERT_PARTITION_STATISTIC_TEMPLATE).append(" ");
+
+        for (String name : columnNames) {
+            VelocityContext context = new VelocityContext();
+            Column column = table.getColumn(name);
+
+            context.put("dbId", db.getId());
+            context.put("tableId", table.getId());
+            context.put("partitionId", partition.getId());
+            context.put("columnName", name);
+            context.put("tableName", ClusterNamespace.getNameFromFullName(db.getFullName()) + "." + table.getName());
+            context.put("partitionName", partition.getName());
+            context.put("version", partition.getVisibleVersion());
+            context.put("dataSize", getDataSize(column, false));
+
+            if (column.getType().isOnlyMetricType()) {
+                context.put("hllFunction", "hll_empty()");
+                context.put("countNullFunction", "0");
+                context.put("maxFunction", "''");
+                context.put("minFunction", "''");
+            } else {
+                context.put("hllFunction", "hll_raw_agg(hll_hash(CAST(`" + name + "` AS VARCHAR)))");
+                context.put("countNullFunction", "COUNT(1) - COUNT(`" + name + "`)");
+                context.put("maxFunction", "IFNULL(MAX(`" + name + "`), '')");
+                context.put("minFunction", "IFNULL(MIN(`" + name + "`), '')");
+            }
+
+            StringWriter sw = new StringWriter();
+            DEFAULT_VELOCITY_ENGINE.evaluate(context, sw, "", INSERT_SELECT_PARTITION_TEMPLATE);
+
+            builder.append(sw.toString());
+            builder.append(" UNION ALL ");
+        }
+
+        return builder.substring(0, builder.length() - "UNION ALL ".length());
+    }
+
+    String buildMergePartitionInsertSQL(Database db, OlapTable table, List<String> columnNames,
+                                        List<Long> partitionIds) {
+        StringBuilder builder = new StringBuilder(INSERT_STATISTIC_TEMPLATE).append(" ");
+
+        for (String name : columnNames) {
+            VelocityContext context = new VelocityContext();
+            Column column = table.getColumn(name);
+
+            context.put("dbId", db.getId());
+            context.put("tableId", table.getId());
+            context.put("columnName", name);
+            context.put("dbName", db.getFullName());
+            context.put("tableName", ClusterNamespace.getNameFromFullName(db.getFullName()) + "." + table.getName());
+            context.put("partitionIds", StringUtils.join(partitionIds, ","));
+
+            // The max and min are strings, the numbers can't be compared as strings, the date strings can.
+            // The numbers are compared in the type of the column, a double loses the precision of the big integers
+            String numericType = getNumericCompareType(column.getType());
+            if (numericType != null) {
+                context.put("maxFunction", "CAST(MAX(CAST(NULLIF(`max`, '') AS " + numericType + ")) AS VARCHAR)");
+                context.put("minFunction", "CAST(MIN(CAST(NULLIF(`min`, '') AS " + numericType + ")) AS VARCHAR)");
+            } else {
+                context.put("maxFunction", "MAX(NULLIF(`max`, ''))");
+                context.put("minFunction", "MIN(NULLIF(`min`, ''))");
+            }
+
+            StringWriter sw = new StringWriter();
+            DEFAULT_VELOCITY_ENGINE.evaluate(context, sw, "", INSERT_SELECT_MERGE_PARTITION_TEMPLATE);
+
+            builder.append(sw.toString());
+            builder.append(" UNION ALL ");
+        }
+
+        return builder.substring(0, builder.length() - "UNION ALL ".length());
+    }
+
+    // Return null if the type is not numeric
+    private static String getNumericCompareType(Type type) {
+        if (type.isFixedPointType()) {
+            return type.getPrimitiveType().toString();
+        } else if (type.isDecimalOfAnyVersion()) {
+            ScalarType scalarType = (ScalarType) type;
+            return "DECIMAL(" + scalarType.getScalarPrecision() + ", " + scalarType.getScalarScale() + ")";
+        } else if (type.isFloatingPointType()) {
+            return "DOUBLE";
+        }
+        return null;
+    }
+
     private String buildFullInsertSQL(Long dbId, Long tableId, List<String> columnNames) {
         StringBuilder builder = new StringBuilder(INSERT_STATISTIC_TEMPLATE).append(" ");
 
@@ -488,6 +920,119 @@ public class StatisticExecutor {
         return builder.substring(0, builder.length() - "UNION ALL ".length());
     }
 
+    // Return null if the histogram of the column type isn't supported
+    private String buildHistogramInsertSQL(Long dbId, Long tableId, String columnName) {
+        Database db = Catalog.getCurrentCatalog().getDb(dbId);
+        OlapTable table = (OlapTable) db.getTable(tableId);
+        Column column = table.getColumn(columnName);
+
+        boolean hasBuckets;
+        if (column.getType().isNumericType() || column.getType().isDateType()) {
+            hasBuckets = true;
+        } else if (column.getType().isStringType()) {
+            hasBuckets = false;
+        } else {
+            return null;
+        }
+
+        VelocityContext context = new VelocityContext();
+        context.put("dbId", dbId);
+        context.put("tableId", tableId);
+        context.put("columnName", columnName);
+        context.put("dbName", db.getFullName());
+        context.put("tableName", ClusterNamespace.getNameFromFullName(db.getFullName()) + "." + table.getName());
+        context.put("bucketSize", Config.histogram_buckets_size);
+        context.put("mcvSize", Config.histogram_mcv_size);
+        context.put("mcvFilter", hasBuckets ? "" : "WHERE LENGTH(t0.c) <= " + HISTOGRAM_MCV_MAX_LENGTH);
+
+        Pair<List<Long>, Double> sample =
+                sampleHistogramTablets(table.getPartitions(), Config.histogram_sample_rows, new Random());
+        context.put("tablets", sample.first.isEmpty() ? "" : "TABLET(" + sample.first.stream()
+                .map(String::valueOf).collect(Collectors.joining(", ")) + ")");
+        context.put("sampleFilter", sample.second >= 1 ? "" : String.format(Locale.ROOT, "AND rand() < %.10f", sample.second));
+
+        StringWriter sampleTable = new StringWriter();
+        DEFAULT_VELOCITY_ENGINE.evaluate(context, sampleTable, "", HISTOGRAM_SAMPLE_TABLE_TEMPLATE);
+        context.put("sampleTable", sampleTable.toString());
+
+        StringWriter bucketQuery = new StringWriter();
+        DEFAULT_VELOCITY_ENGINE.evaluate(context, bucketQuery, "",
+                hasBuckets ? HISTOGRAM_BUCKET_TEMPLATE : HISTOGRAM_ROWS_TEMPLATE);
+        context.put("bucketQuery", bucketQuery.toString());
+
+        StringWriter mcvQuery = new StringWriter();
+        DEFAULT_VELOCITY_ENGINE.evaluate(context, mcvQuery, "", HISTOGRAM_MCV_TEMPLATE);
+        context.put("mcvQuery", mcvQuery.toString());
+
+        StringWriter sw = new StringWriter();
+        DEFAULT_VELOCITY_ENGINE.evaluate(context, sw, "", INSERT_SELECT_HISTOGRAM_TEMPLATE);
+        return INSERT_HISTOGRAM_TEMPLATE + " " + sw;
+    }
+
+    /**
+     * Choose the tablets to sample about sampleRows rows of the partitions for the histogram. The tablets are
+     * chosen randomly from all the partitions, and the ratio of their rows to keep is returned with them.
+     * Every tablet is chosen with the same probability, so every row is sampled with about the same probability
+     * however the rows are spread over the partitions.
+     *
+     * @return the tablets to scan and the ratio of their rows to sample, no tablet means all the tablets
+     */
+    static Pair<List<Long>, Double> sampleHistogramTablets(Collection<Partition> partitions, long sampleRows,
+                                                           Random random) {
+        // [tablet id, average rows of the tablet in its partition]
+        List<long[]> tablets = Lists.newArrayList();
+        long totalRows = 0;
+        for (Partition partition : partitions) {
+            List<Long> ids = partition.getBaseIndex().getTabletIdsInOrder();
+            long partitionRows = partition.getBaseIndex().getRowCount();
+            if (ids.isEmpty() || partitionRows <= 0) {
+                continue;
+            }
+            long avgRowsPerTablet = Math.max(partitionRows / ids.size(), 1);
+            for (Long id : ids) {
+                tablets.add(new long[] {id, avgRowsPerTablet});
+            }
+            totalRows += partitionRows;
+        }
+
+        sampleRows = Math.max(sampleRows, 1);
+        if (totalRows <= sampleRows * HISTOGRAM_SAMPLE_TABLET_ROWS_FACTOR) {
+            // the row counts may not be reported yet, the whole table is small or its size is unknown
+            return Pair.create(Collections.emptyList(), Math.min((double) sampleRows / Math.max(totalRows, 1), 1));
+        }
+
+        Collections.shuffle(tablets, random);
+        List<Long> sampleTablets = Lists.newArrayList();
+        long tabletRows = 0;
+        for (long[] tablet : tablets) {
+            if (tabletRows >= sampleRows * HISTOGRAM_SAMPLE_TABLET_ROWS_FACTOR) {
+                break;
+            }
+            sampleTablets.add(tablet[0]);
+            tabletRows += tablet[1];
+        }
+        if (sampleTablets.size() == tablets.size()) {
+            sampleTablets.clear();
+        }
+        return Pair.create(sampleTablets, Math.min((double) sampleRows / tabletRows, 1));
+    }
+
+    String buildMultiColumnInsertSQL(Database db, OlapTable table, List<String> columnNames) {
+        VelocityContext context = new VelocityContext();
+        context.put("dbId", db.getId());
+        context.put("tableId", table.getId());
+        context.put("columnNames", getMultiColumnKey(columnNames));
+        context.put("dbName", db.getFullName());
+        context.put("tableName", ClusterNamespace.getNameFromFullName(db.getFullName()) + "." + table.getName());
+        context.put("columnValues", columnNames.stream()
+                .map(name -> "IFNULL(HEX(CAST(`" + table.getColumn(name).getName() + "` AS VARCHAR)), 'N')")
+                .collect(Collectors.joining(", ")));
+
+        StringWriter sw = new StringWriter();
+        DEFAULT_VELOCITY_ENGINE.evaluate(context, sw, "", INSERT_SELECT_MULTI_COLUMN_TEMPLATE);
+        return INSERT_MULTI_COLUMN_TEMPLATE + " " + sw;
+    }
+
     private String getDataSize(Column column, boolean isSample) {
         if (column.getPrimitiveType().isCharFamily()) {
             if (isSample) {
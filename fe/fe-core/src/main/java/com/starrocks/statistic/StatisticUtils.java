@@ -48,6 +48,33 @@ public class StatisticUtils {
         }
     }
 
+    public static Table getHistogramStatisticsTable() {
+        Database db = Catalog.getCurrentCatalog().getDb(Constants.StatisticsDBName);
+        if (db != null) {
+            return db.getTable(Constants.HistogramStatisticsTableName);
+        } else {
+            return null;
+        }
+    }
+
+    public static Table getPartitionStatisticsTable() {
+        Database db = Catalog.getCurrentCatalog().getDb(Constants.StatisticsDBName);
+        if (db != null) {
+            return db.getTable(Constants.PartitionStatisticsTableName);
+        } else {
+            return null;
+        }
+    }
+
+    public static Table getMultiColumnStatisticsTable() {
+        Database db = Catalog.getCurrentCatalog().getDb(Constants.StatisticsDBName);
+        if (db != null) {
+            return db.getTable(Constants.MultiColumnStatisticsTableName);
+        } else {
+            return null;
+        }
+    }
+
     // check database in black list
     public static boolean statisticDatabaseBlackListCheck(String databaseName) {
         if (null == databaseName) {
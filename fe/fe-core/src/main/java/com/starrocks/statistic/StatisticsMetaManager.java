@@ -13,6 +13,7 @@ import com.starrocks.analysis.HashDistributionDesc;
 import com.starrocks.analysis.KeysDesc;
 import com.starrocks.analysis.TableName;
 import com.starrocks.analysis.TypeDef;
+import com.starrocks.catalog.AggregateType;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.Database;
 import com.starrocks.catalog.KeysType;
@@ -40,6 +41,7 @@ public class StatisticsMetaManager extends MasterDaemon {
         ScalarType dbNameType = ScalarType.createVarcharType(65530);
         ScalarType maxType = ScalarType.createVarcharType(65530);
         ScalarType minType = ScalarType.createVarcharType(65530);
+        ScalarType histogramType = ScalarType.createVarcharType(65530);
 
         // varchar type column need call setAssignedStrLenInColDefinition here,
         // otherwise it will be set length to 1 at analyze
@@ -48,6 +50,7 @@ public class StatisticsMetaManager extends MasterDaemon {
         dbNameType.setAssignedStrLenInColDefinition();
         maxType.setAssignedStrLenInColDefinition();
         minType.setAssignedStrLenInColDefinition();
+        histogramType.setAssignedStrLenInColDefinition();
 
         COLUMNS = ImmutableList.of(
                 new ColumnDef("table_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
@@ -63,10 +66,62 @@ public class StatisticsMetaManager extends MasterDaemon {
                 new ColumnDef("min", new TypeDef(minType)),
                 new ColumnDef("update_time", new TypeDef(ScalarType.createType(PrimitiveType.DATETIME)))
         );
+
+        HISTOGRAM_COLUMNS = ImmutableList.of(
+                new ColumnDef("table_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("column_name", new TypeDef(columnNameType)),
+                new ColumnDef("db_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("table_name", new TypeDef(tableNameType)),
+                new ColumnDef("db_name", new TypeDef(dbNameType)),
+                new ColumnDef("histogram", new TypeDef(histogramType)),
+                new ColumnDef("update_time", new TypeDef(ScalarType.createType(PrimitiveType.DATETIME)))
+        );
+
+        PARTITION_COLUMNS = ImmutableList.of(
+                new ColumnDef("table_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("partition_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("column_name", new TypeDef(columnNameType)),
+                replaceColumn("db_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                replaceColumn("table_name", new TypeDef(tableNameType)),
+                replaceColumn("partition_name", new TypeDef(tableNameType)),
+                replaceColumn("row_count", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                replaceColumn("data_size", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("ndv", new TypeDef(ScalarType.createType(PrimitiveType.HLL)), false,
+                        AggregateType.HLL_UNION, false, ColumnDef.DefaultValue.NOT_SET, ""),
+                replaceColumn("null_count", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                replaceColumn("max", new TypeDef(maxType)),
+                replaceColumn("min", new TypeDef(minType)),
+                replaceColumn("version", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                replaceColumn("update_time", new TypeDef(ScalarType.createType(PrimitiveType.DATETIME)))
+        );
+
+        MULTI_COLUMN_COLUMNS = ImmutableList.of(
+                new ColumnDef("table_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("column_names", new TypeDef(columnNameType)),
+                new ColumnDef("db_id", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("table_name", new TypeDef(tableNameType)),
+                new ColumnDef("db_name", new TypeDef(dbNameType)),
+                new ColumnDef("row_count", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("distinct_count", new TypeDef(ScalarType.createType(PrimitiveType.BIGINT))),
+                new ColumnDef("update_time", new TypeDef(ScalarType.createType(PrimitiveType.DATETIME)))
+        );
+    }
+
+    private static ColumnDef replaceColumn(String name, TypeDef typeDef) {
+        return new ColumnDef(name, typeDef, false, AggregateType.REPLACE, false, ColumnDef.DefaultValue.NOT_SET, "");
     }
 
     private static final List<ColumnDef> COLUMNS;
 
+    // The equi-height histogram and the most common values of the column, see StatisticExecutor
+    private static final List<ColumnDef> HISTOGRAM_COLUMNS;
+
+    // The statistics of each partition, the ndv is a hll which can be merged into the table statistics
+    private static final List<ColumnDef> PARTITION_COLUMNS;
+
+    // The distinct values of the column combinations, the column names are sorted and joined by comma
+    private static final List<ColumnDef> MULTI_COLUMN_COLUMNS;
+
     public StatisticsMetaManager() {
         super("statistics meta manager", 60 * 1000);
     }
@@ -89,29 +144,40 @@ public class StatisticsMetaManager extends MasterDaemon {
         return checkDatabaseExist();
     }
 
-    private boolean checkTableExist() {
+    private boolean checkTableExist(String tableName) {
         Database db = Catalog.getCurrentCatalog().getDb(Constants.StatisticsDBName);
         Preconditions.checkState(db != null);
-        return db.getTable(Constants.StatisticsTableName) != null;
+        return db.getTable(tableName) != null;
     }
 
     private static final List<String> keyColumnNames = ImmutableList.of(
             "table_id", "column_name", "db_id"
     );
 
-    private boolean createTable() {
-        LOG.info("create statistics table start");
-        TableName tableName = new TableName(Constants.StatisticsDBName,
-                Constants.StatisticsTableName);
+    private static final List<String> partitionKeyColumnNames = ImmutableList.of(
+            "table_id", "partition_id", "column_name"
+    );
+
+    private static final List<String> multiColumnKeyColumnNames = ImmutableList.of(
+            "table_id", "column_names", "db_id"
+    );
+
+    private boolean createTable(String table, List<ColumnDef> columns) {
+        return createTable(table, columns, KeysType.UNIQUE_KEYS, keyColumnNames);
+    }
+
+    private boolean createTable(String table, List<ColumnDef> columns, KeysType keysType, List<String> keys) {
+        LOG.info("create statistics table {} start", table);
+        TableName tableName = new TableName(Constants.StatisticsDBName, table);
         Map<String, String> properties = Maps.newHashMap();
         int defaultReplicationNum = Math.min(3,
                 Catalog.getCurrentSystemInfo().getBackendIds(true).size());
         properties.put(PropertyAnalyzer.PROPERTIES_REPLICATION_NUM, Integer.toString(defaultReplicationNum));
         CreateTableStmt stmt = new CreateTableStmt(false, false,
-                tableName, COLUMNS, "olap",
-                new KeysDesc(KeysType.UNIQUE_KEYS, keyColumnNames),
+                tableName, columns, "olap",
+                new KeysDesc(keysType, keys),
                 null,
-                new HashDistributionDesc(10, keyColumnNames),
+                new HashDistributionDesc(10, keys),
                 properties,
                 null,
                 "");
@@ -129,8 +195,8 @@ public class StatisticsMetaManager extends MasterDaemon {
             LOG.warn("Failed to create table" + e.getMessage());
             return false;
         }
-        LOG.info("create statistics table done");
-        return checkTableExist();
+        LOG.info("create statistics table {} done", table);
+        return checkTableExist(table);
     }
 
     private void trySleep(long millis) {
@@ -151,8 +217,28 @@ public class StatisticsMetaManager extends MasterDaemon {
             }
             trySleep(10000);
         }
-        while (!checkTableExist()) {
-            if (createTable()) {
+        while (!checkTableExist(Constants.StatisticsTableName)) {
+            if (createTable(Constants.StatisticsTableName, COLUMNS)) {
+                break;
+            }
+            trySleep(10000);
+        }
+        while (!checkTableExist(Constants.HistogramStatisticsTableName)) {
+            if (createTable(Constants.HistogramStatisticsTableName, HISTOGRAM_COLUMNS)) {
+                break;
+            }
+            trySleep(10000);
+        }
+        while (!checkTableExist(Constants.PartitionStatisticsTableName)) {
+            if (createTable(Constants.PartitionStatisticsTableName, PARTITION_COLUMNS, KeysType.AGG_KEYS,
+                    partitionKeyColumnNames)) {
+                break;
+            }
+            trySleep(10000);
+        }
+        while (!checkTableExist(Constants.MultiColumnStatisticsTableName)) {
+            if (createTable(Constants.MultiColumnStatisticsTableName, MULTI_COLUMN_COLUMNS, KeysType.UNIQUE_KEYS,
+                    multiColumnKeyColumnNames)) {
                 break;
             }
             trySleep(10000);
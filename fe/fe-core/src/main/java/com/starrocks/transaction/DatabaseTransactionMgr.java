@@ -134,6 +134,8 @@ public class DatabaseTransactionMgr {
     // not realtime usedQuota value to make a fast check for database data quota
     private volatile long usedQuotaDataBytes = -1;
 
+    private final TransactionMergeCommitter mergeCommitter = new TransactionMergeCommitter(this);
+
     protected void readLock() {
         this.transactionLock.readLock().lock();
     }
@@ -157,6 +159,10 @@ public class DatabaseTransactionMgr {
         this.editLog = catalog.getEditLog();
     }
 
+    public TransactionMergeCommitter getMergeCommitter() {
+        return mergeCommitter;
+    }
+
     public long getDbId() {
         return dbId;
     }
@@ -359,6 +365,58 @@ public class DatabaseTransactionMgr {
             throw new MetaNotFoundException("could not find db [" + dbId + "]");
         }
 
+        CommitInfo commitInfo = checkCommitTransaction(db, transactionId, tabletCommitInfos, txnCommitAttachment);
+        if (commitInfo == null) {
+            return;
+        }
+        TransactionState transactionState = commitInfo.transactionState;
+        Set<Long> errorReplicaIds = commitInfo.errorReplicaIds;
+        Map<Long, Set<Long>> tableToPartition = commitInfo.tableToPartition;
+        Set<Long> totalInvolvedBackends = commitInfo.totalInvolvedBackends;
+
+        // before state transform
+        transactionState.beforeStateTransform(TransactionStatus.COMMITTED);
+        // transaction state transform
+        boolean txnOperated = false;
+        writeLock();
+        try {
+            unprotectedCommitTransaction(transactionState, errorReplicaIds, tableToPartition, totalInvolvedBackends,
+                    db);
+            txnOperated = true;
+        } finally {
+            writeUnlock();
+            // after state transform
+            transactionState.afterStateTransform(TransactionStatus.COMMITTED, txnOperated);
+        }
+
+        // 6. update nextVersion because of the failure of persistent transaction resulting in error version
+        updateCatalogAfterCommitted(transactionState, db);
+        LOG.info("transaction:[{}] successfully committed", transactionState);
+    }
+
+    // the result of the check before committing a transaction
+    private static class CommitInfo {
+        private final TransactionState transactionState;
+        private final Set<Long> errorReplicaIds;
+        private final Map<Long, Set<Long>> tableToPartition;
+        private final Set<Long> totalInvolvedBackends;
+
+        CommitInfo(TransactionState transactionState, Set<Long> errorReplicaIds,
+                   Map<Long, Set<Long>> tableToPartition, Set<Long> totalInvolvedBackends) {
+            this.transactionState = transactionState;
+            this.errorReplicaIds = errorReplicaIds;
+            this.tableToPartition = tableToPartition;
+            this.totalInvolvedBackends = totalInvolvedBackends;
+        }
+    }
+
+    /*
+     * Step 1~3 of commit: check the transaction, and validate the tables, partitions and replicas it loaded.
+     * Return null if the transaction is already committed or visible.
+     */
+    private CommitInfo checkCommitTransaction(Database db, long transactionId,
+                                              List<TabletCommitInfo> tabletCommitInfos,
+                                              TxnCommitAttachment txnCommitAttachment) throws UserException {
         TransactionState transactionState = null;
         readLock();
         try {
@@ -374,11 +432,11 @@ public class DatabaseTransactionMgr {
 
         if (transactionState.getTransactionStatus() == TransactionStatus.VISIBLE) {
             LOG.debug("transaction is already visible: {}", transactionId);
-            return;
+            return null;
         }
         if (transactionState.getTransactionStatus() == TransactionStatus.COMMITTED) {
             LOG.debug("transaction is already committed: {}", transactionId);
-            return;
+            return null;
         }
 
         if (tabletCommitInfos == null || tabletCommitInfos.isEmpty()) {
@@ -503,25 +561,73 @@ public class DatabaseTransactionMgr {
                 }
             }
         }
+        return new CommitInfo(transactionState, errorReplicaIds, tableToPartition, totalInvolvedBackends);
+    }
+
+    /**
+     * Commit a batch of transactions of this database with one edit log record, used by merge commit.
+     * Every transaction is checked as commitTransaction does, the failed ones are reported to their requests
+     * and do not affect the others. The partition versions are assigned in the order of requests, each
+     * transaction still takes its own version.
+     * The state change callbacks are not called here, every requester calls the callbacks of its own
+     * transaction in its own thread, since the callbacks may hold locks from before to after the commit.
+     * The caller should hold the database write lock.
+     */
+    void commitTransactionBatch(List<TransactionMergeCommitter.CommitRequest> requests) {
+        Database db = catalog.getDb(dbId);
+        if (db == null) {
+            requests.forEach(r -> r.finish(new MetaNotFoundException("could not find db [" + dbId + "]")));
+            return;
+        }
+        List<TransactionMergeCommitter.CommitRequest> checkedRequests = Lists.newArrayList();
+        List<CommitInfo> commitInfos = Lists.newArrayList();
+        for (TransactionMergeCommitter.CommitRequest request : requests) {
+            try {
+                CommitInfo commitInfo = checkCommitTransaction(db, request.getTransactionId(),
+                        request.getTabletCommitInfos(), request.getTxnCommitAttachment());
+                if (commitInfo == null) {
+                    request.finish(null);
+                    continue;
+                }
+                checkedRequests.add(request);
+                commitInfos.add(commitInfo);
+            } catch (UserException e) {
+                request.finish(e);
+            }
+        }
+        if (commitInfos.isEmpty()) {
+            return;
+        }
 
-        // before state transform
-        transactionState.beforeStateTransform(TransactionStatus.COMMITTED);
-        // transaction state transform
-        boolean txnOperated = false;
         writeLock();
         try {
-            unprotectedCommitTransaction(transactionState, errorReplicaIds, tableToPartition, totalInvolvedBackends,
-                    db);
-            txnOperated = true;
+            List<TransactionState> transactionStates = Lists.newArrayList();
+            for (int i = 0; i < commitInfos.size(); i++) {
+                CommitInfo commitInfo = commitInfos.get(i);
+                TransactionState transactionState = commitInfo.transactionState;
+                // the same transaction may be committed twice in the batch
+                if (transactionState.getTransactionStatus() != TransactionStatus.PREPARE) {
+                    continue;
+                }
+                unprotectedCommitTransaction(transactionState, commitInfo.errorReplicaIds,
+                        commitInfo.tableToPartition, commitInfo.totalInvolvedBackends, db, false);
+                // next versions must be updated before the next transaction of the batch takes its version
+                updateCatalogAfterCommitted(transactionState, db);
+                transactionStates.add(transactionState);
+                checkedRequests.get(i).setTxnOperated();
+            }
+            if (!transactionStates.isEmpty()) {
+                editLog.logBatchUpsertTransactionStates(new TransactionStateBatch(transactionStates));
+            }
         } finally {
             writeUnlock();
-            // after state transform
-            transactionState.afterStateTransform(TransactionStatus.COMMITTED, txnOperated);
         }
-
-        // 6. update nextVersion because of the failure of persistent transaction resulting in error version
-        updateCatalogAfterCommitted(transactionState, db);
-        LOG.info("transaction:[{}] successfully committed", transactionState);
+        for (int i = 0; i < checkedRequests.size(); i++) {
+            if (checkedRequests.get(i).isTxnOperated()) {
+                LOG.info("transaction:[{}] successfully committed", commitInfos.get(i).transactionState);
+            }
+            checkedRequests.get(i).finish(null);
+        }
     }
 
     public boolean publishTransaction(Database db, long transactionId, long timeoutMillis)
@@ -610,7 +716,7 @@ public class DatabaseTransactionMgr {
         if (db == null) {
             return true;
         }
-        db.readLock();
+        List<Table> tables = lockTablesOfTransaction(db, txn, false);
 
         try {
             // check each table involved in transaction
@@ -656,11 +762,50 @@ public class DatabaseTransactionMgr {
                 }
             }
         } finally {
-            db.readUnlock();
+            db.readUnlockTables(tables);
         }
         return true;
     }
 
+    private List<Table> lockTablesOfTransaction(Database db, TransactionState transactionState, boolean isWrite) {
+        return lockTablesOfTransactions(db, Lists.newArrayList(transactionState), isWrite);
+    }
+
+    // Lock the tables of transactions, and return the locked tables.
+    // Tables may be dropped or recovered before locked, so check them again after locked.
+    private List<Table> lockTablesOfTransactions(Database db, List<TransactionState> transactionStates,
+                                                 boolean isWrite) {
+        while (true) {
+            List<Table> tables = getTablesOfTransactions(db, transactionStates);
+            if (isWrite) {
+                db.writeLockTables(tables);
+            } else {
+                db.readLockTables(tables);
+            }
+            if (tables.equals(getTablesOfTransactions(db, transactionStates))) {
+                return tables;
+            }
+            if (isWrite) {
+                db.writeUnlockTables(tables);
+            } else {
+                db.readUnlockTables(tables);
+            }
+        }
+    }
+
+    private List<Table> getTablesOfTransactions(Database db, List<TransactionState> transactionStates) {
+        List<Table> tables = Lists.newArrayList();
+        for (TransactionState transactionState : transactionStates) {
+            for (long tableId : transactionState.getIdToTableCommitInfos().keySet()) {
+                Table table = db.getTable(tableId);
+                if (table != null && !tables.contains(table)) {
+                    tables.add(table);
+                }
+            }
+        }
+        return tables;
+    }
+
     public void finishTransaction(long transactionId, Set<Long> errorReplicaIds) throws UserException {
         TransactionState transactionState = null;
         readLock();
@@ -669,7 +814,54 @@ public class DatabaseTransactionMgr {
         } finally {
             readUnlock();
         }
-        // add all commit errors and publish errors to a single set
+        errorReplicaIds = mergeErrorReplicas(transactionState, errorReplicaIds);
+
+        Database db = catalog.getDb(transactionState.getDbId());
+        if (db == null) {
+            abortTransactionOfDroppedDb(transactionState);
+            return;
+        }
+        // only lock the tables of this transaction, so publish of different tables can be done concurrently
+        List<Table> tables = lockTablesOfTransaction(db, transactionState, true);
+        try {
+            unprotectedFinishTransaction(transactionState, errorReplicaIds, db);
+        } finally {
+            db.writeUnlockTables(tables);
+        }
+    }
+
+    /**
+     * Finish several committed transactions under one acquisition of their table write locks.
+     * The transactions are finished in the given order, which must be their commit order, so the
+     * consecutive versions of a partition become visible one after another in this batch.
+     * A transaction which can not be finished is left committed and retried in the next round.
+     *
+     * @param txnIdToErrorReplicas transaction id -> replicas failed in publish
+     */
+    public void finishTransactionBatch(List<TransactionState> transactionStates,
+                                       Map<Long, Set<Long>> txnIdToErrorReplicas) {
+        if (transactionStates.isEmpty()) {
+            return;
+        }
+        Database db = catalog.getDb(dbId);
+        if (db == null) {
+            transactionStates.forEach(this::abortTransactionOfDroppedDb);
+            return;
+        }
+        List<Table> tables = lockTablesOfTransactions(db, transactionStates, true);
+        try {
+            for (TransactionState transactionState : transactionStates) {
+                Set<Long> errorReplicaIds = mergeErrorReplicas(transactionState,
+                        txnIdToErrorReplicas.get(transactionState.getTransactionId()));
+                unprotectedFinishTransaction(transactionState, errorReplicaIds, db);
+            }
+        } finally {
+            db.writeUnlockTables(tables);
+        }
+    }
+
+    // add all commit errors and publish errors to a single set
+    private Set<Long> mergeErrorReplicas(TransactionState transactionState, Set<Long> errorReplicaIds) {
         if (errorReplicaIds == null) {
             errorReplicaIds = Sets.newHashSet();
         }
@@ -677,161 +869,165 @@ public class DatabaseTransactionMgr {
         if (originalErrorReplicas != null) {
             errorReplicaIds.addAll(originalErrorReplicas);
         }
+        return errorReplicaIds;
+    }
 
-        Database db = catalog.getDb(transactionState.getDbId());
-        if (db == null) {
-            writeLock();
-            try {
-                transactionState.setTransactionStatus(TransactionStatus.ABORTED);
-                transactionState.setReason("db is dropped");
-                LOG.warn("db is dropped during transaction, abort transaction {}", transactionState);
-                unprotectUpsertTransactionState(transactionState, false);
-                return;
-            } finally {
-                writeUnlock();
-            }
-        }
-        db.writeLock();
+    private void abortTransactionOfDroppedDb(TransactionState transactionState) {
+        writeLock();
         try {
-            boolean hasError = false;
-            for (TableCommitInfo tableCommitInfo : transactionState.getIdToTableCommitInfos().values()) {
-                long tableId = tableCommitInfo.getTableId();
-                OlapTable table = (OlapTable) db.getTable(tableId);
-                // table maybe dropped between commit and publish, ignore this error
-                if (table == null) {
-                    transactionState.removeTable(tableId);
-                    LOG.warn("table {} is dropped, skip version check and remove it from transaction state {}",
-                            tableId,
+            transactionState.setTransactionStatus(TransactionStatus.ABORTED);
+            transactionState.setReason("db is dropped");
+            LOG.warn("db is dropped during transaction, abort transaction {}", transactionState);
+            unprotectUpsertTransactionState(transactionState, false);
+        } finally {
+            writeUnlock();
+        }
+    }
+
+    // the caller should hold the write locks of the tables of the transaction
+    private void unprotectedFinishTransaction(TransactionState transactionState, Set<Long> errorReplicaIds,
+                                              Database db) {
+        long transactionId = transactionState.getTransactionId();
+        boolean hasError = false;
+        for (TableCommitInfo tableCommitInfo : transactionState.getIdToTableCommitInfos().values()) {
+            long tableId = tableCommitInfo.getTableId();
+            OlapTable table = (OlapTable) db.getTable(tableId);
+            // table maybe dropped between commit and publish, ignore this error
+            if (table == null) {
+                transactionState.removeTable(tableId);
+                LOG.warn("table {} is dropped, skip version check and remove it from transaction state {}",
+                        tableId,
+                        transactionState);
+                continue;
+            }
+            PartitionInfo partitionInfo = table.getPartitionInfo();
+            for (PartitionCommitInfo partitionCommitInfo : tableCommitInfo.getIdToPartitionCommitInfo().values()) {
+                long partitionId = partitionCommitInfo.getPartitionId();
+                Partition partition = table.getPartition(partitionId);
+                // partition maybe dropped between commit and publish version, ignore this error
+                if (partition == null) {
+                    tableCommitInfo.removePartition(partitionId);
+                    LOG.warn("partition {} is dropped, skip version check and remove it from transaction state {}",
+                            partitionId,
                             transactionState);
                     continue;
                 }
-                PartitionInfo partitionInfo = table.getPartitionInfo();
-                for (PartitionCommitInfo partitionCommitInfo : tableCommitInfo.getIdToPartitionCommitInfo().values()) {
-                    long partitionId = partitionCommitInfo.getPartitionId();
-                    Partition partition = table.getPartition(partitionId);
-                    // partition maybe dropped between commit and publish version, ignore this error
-                    if (partition == null) {
-                        tableCommitInfo.removePartition(partitionId);
-                        LOG.warn("partition {} is dropped, skip version check and remove it from transaction state {}",
-                                partitionId,
-                                transactionState);
-                        continue;
+                if (partition.getVisibleVersion() != partitionCommitInfo.getVersion() - 1) {
+                    // prevent excessive logging
+                    if (transactionState.getLastErrTimeMs() + 3000 < System.nanoTime() / 1000000) {
+                        LOG.debug("transactionId {} partition commitInfo version {} is not equal with " +
+                                        "partition visible version {} plus one, need wait",
+                                transactionId,
+                                partitionCommitInfo.getVersion(),
+                                partition.getVisibleVersion());
                     }
-                    if (partition.getVisibleVersion() != partitionCommitInfo.getVersion() - 1) {
-                        // prevent excessive logging
-                        if (transactionState.getLastErrTimeMs() + 3000 < System.nanoTime() / 1000000) {
-                            LOG.debug("transactionId {} partition commitInfo version {} is not equal with " +
-                                            "partition visible version {} plus one, need wait",
-                                    transactionId,
-                                    partitionCommitInfo.getVersion(),
-                                    partition.getVisibleVersion());
-                        }
-                        String errMsg =
-                                String.format("wait for publishing partition %d version %d. self version: %d. table %d",
-                                        partitionId, partition.getVisibleVersion() + 1,
-                                        partitionCommitInfo.getVersion(), tableId);
-                        transactionState.setErrorMsg(errMsg);
-                        return;
-                    }
-                    int quorumReplicaNum = partitionInfo.getQuorumNum(partitionId);
+                    String errMsg =
+                            String.format("wait for publishing partition %d version %d. self version: %d. table %d",
+                                    partitionId, partition.getVisibleVersion() + 1,
+                                    partitionCommitInfo.getVersion(), tableId);
+                    transactionState.setErrorMsg(errMsg);
+                    return;
+                }
+                int quorumReplicaNum = partitionInfo.getQuorumNum(partitionId);
 
-                    List<MaterializedIndex> allIndices =
-                            transactionState.getPartitionLoadedTblIndexes(tableId, partition);
-                    for (MaterializedIndex index : allIndices) {
-                        for (Tablet tablet : index.getTablets()) {
-                            int healthReplicaNum = 0;
-                            for (Replica replica : tablet.getReplicas()) {
-                                if (!errorReplicaIds.contains(replica.getId())
-                                        && replica.getLastFailedVersion() < 0) {
-                                    // this means the replica is a healthy replica,
-                                    // it is healthy in the past and does not have error in current load
-                                    if (replica.checkVersionCatchUp(partition.getVisibleVersion(),
-                                            partition.getVisibleVersionHash(), true)) {
-                                        // during rollup, the rollup replica's last failed version < 0,
-                                        // it may be treated as a normal replica.
-                                        // the replica is not failed during commit or publish
-                                        // during upgrade, one replica's last version maybe invalid,
-                                        // has to compare version hash.
-
-                                        // Here we still update the replica's info even if we failed to publish
-                                        // this txn, for the following case:
-                                        // replica A,B,C is successfully committed, but only A is successfully
-                                        // published,
-                                        // B and C is crashed, now we need a Clone task to repair this tablet.
-                                        // So, here we update A's version info, so that clone task will clone
-                                        // the latest version of data.
-
-                                        replica.updateVersionInfo(partitionCommitInfo.getVersion(),
-                                                partitionCommitInfo.getVersionHash(),
-                                                replica.getDataSize(), replica.getRowCount());
-                                        ++healthReplicaNum;
-                                    } else {
-                                        // this means the replica has error in the past, but we did not observe it
-                                        // during upgrade, one job maybe in quorum finished state, for example, A,B,C 3 replica
-                                        // A,B 's version is 10, C's version is 10 but C' 10 is abnormal should be rollback
-                                        // then we will detect this and set C's last failed version to 10 and last success version to 11
-                                        // this logic has to be replayed in checkpoint thread
-                                        replica.updateVersionInfo(replica.getVersion(), replica.getVersionHash(),
-                                                partition.getVisibleVersion(), partition.getVisibleVersionHash(),
-                                                partitionCommitInfo.getVersion(), partitionCommitInfo.getVersionHash());
-                                        LOG.warn(
-                                                "transaction state {} has error, the replica [{}] not appeared in error replica list "
-                                                        +
-                                                        " and its version not equal to partition commit version or commit version - 1"
-                                                        + " if its not a upgrate stage, its a fatal error. ",
-                                                transactionState, replica);
-                                    }
-                                } else if (replica.getVersion() >= partitionCommitInfo.getVersion()) {
-                                    // the replica's version is larger than or equal to current transaction partition's version
-                                    // the replica is normal, then remove it from error replica ids
-                                    errorReplicaIds.remove(replica.getId());
+                List<MaterializedIndex> allIndices =
+                        transactionState.getPartitionLoadedTblIndexes(tableId, partition);
+                for (MaterializedIndex index : allIndices) {
+                    for (Tablet tablet : index.getTablets()) {
+                        int healthReplicaNum = 0;
+                        for (Replica replica : tablet.getReplicas()) {
+                            if (!errorReplicaIds.contains(replica.getId())
+                                    && replica.getLastFailedVersion() < 0) {
+                                // this means the replica is a healthy replica,
+                                // it is healthy in the past and does not have error in current load
+                                if (replica.checkVersionCatchUp(partition.getVisibleVersion(),
+                                        partition.getVisibleVersionHash(), true)) {
+                                    // during rollup, the rollup replica's last failed version < 0,
+                                    // it may be treated as a normal replica.
+                                    // the replica is not failed during commit or publish
+                                    // during upgrade, one replica's last version maybe invalid,
+                                    // has to compare version hash.
+
+                                    // Here we still update the replica's info even if we failed to publish
+                                    // this txn, for the following case:
+                                    // replica A,B,C is successfully committed, but only A is successfully
+                                    // published,
+                                    // B and C is crashed, now we need a Clone task to repair this tablet.
+                                    // So, here we update A's version info, so that clone task will clone
+                                    // the latest version of data.
+
+                                    replica.updateVersionInfo(partitionCommitInfo.getVersion(),
+                                            partitionCommitInfo.getVersionHash(),
+                                            replica.getDataSize(), replica.getRowCount());
                                     ++healthReplicaNum;
+                                } else {
+                                    // this means the replica has error in the past, but we did not observe it
+                                    // during upgrade, one job maybe in quorum finished state, for example, A,B,C 3 replica
+                                    // A,B 's version is 10, C's version is 10 but C' 10 is abnormal should be rollback
+                                    // then we will detect this and set C's last failed version to 10 and last success version to 11
+                                    // this logic has to be replayed in checkpoint thread
+                                    replica.updateVersionInfo(replica.getVersion(), replica.getVersionHash(),
+                                            partition.getVisibleVersion(), partition.getVisibleVersionHash(),
+                                            partitionCommitInfo.getVersion(), partitionCommitInfo.getVersionHash());
+                                    LOG.warn(
+                                            "transaction state {} has error, the replica [{}] not appeared in error replica list "
+                                                    +
+                                                    " and its version not equal to partition commit version or commit version - 1"
+                                                    + " if its not a upgrate stage, its a fatal error. ",
+                                            transactionState, replica);
                                 }
+                            } else if (replica.getVersion() >= partitionCommitInfo.getVersion()) {
+                                // the replica's version is larger than or equal to current transaction partition's version
+                                // the replica is normal, then remove it from error replica ids
+                                errorReplicaIds.remove(replica.getId());
+                                ++healthReplicaNum;
                             }
+                        }
 
-                            if (healthReplicaNum < quorumReplicaNum) {
-                                // prevent excessive logging
-                                if (transactionState.getLastErrTimeMs() + 3000 < System.nanoTime() / 1000000) {
-                                    LOG.info(
-                                            "publish version failed for transaction {} on tablet {}, with only {} replicas less than quorum {}",
-                                            transactionState, tablet, healthReplicaNum, quorumReplicaNum);
-                                }
-                                String errMsg = String.format(
-                                        "publish on tablet %d failed. succeed replica num %d less than quorum %d."
-                                                + " table: %d, partition: %d, publish version: %d",
-                                        tablet.getId(), healthReplicaNum, quorumReplicaNum, tableId, partitionId,
-                                        partition.getVisibleVersion() + 1);
-                                transactionState.setErrorMsg(errMsg);
-                                hasError = true;
+                        if (healthReplicaNum < quorumReplicaNum) {
+                            // prevent excessive logging
+                            if (transactionState.getLastErrTimeMs() + 3000 < System.nanoTime() / 1000000) {
+                                LOG.info(
+                                        "publish version failed for transaction {} on tablet {}, with only {} replicas less than quorum {}",
+                                        transactionState, tablet, healthReplicaNum, quorumReplicaNum);
                             }
+                            String errMsg = String.format(
+                                    "publish on tablet %d failed. succeed replica num %d less than quorum %d."
+                                            + " table: %d, partition: %d, publish version: %d",
+                                    tablet.getId(), healthReplicaNum, quorumReplicaNum, tableId, partitionId,
+                                    partition.getVisibleVersion() + 1);
+                            transactionState.setErrorMsg(errMsg);
+                            hasError = true;
                         }
                     }
                 }
             }
-            if (hasError) {
-                return;
-            }
-            boolean txnOperated = false;
-            writeLock();
-            try {
-                transactionState.setErrorReplicas(errorReplicaIds);
-                transactionState.setFinishTime(System.currentTimeMillis());
-                transactionState.clearErrorMsg();
-                transactionState.setTransactionStatus(TransactionStatus.VISIBLE);
-                unprotectUpsertTransactionState(transactionState, false);
-                txnOperated = true;
-                // TODO(cmy): We found a very strange problem. When delete-related transactions are processed here,
-                // subsequent `updateCatalogAfterVisible()` is called, but it does not seem to be executed here
-                // (because the relevant editlog does not see the log of visible transactions).
-                // So I add a log here for observation.
-                LOG.debug("after set transaction {} to visible", transactionState);
-            } finally {
-                writeUnlock();
-                transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
-            }
-            updateCatalogAfterVisible(transactionState, db);
+        }
+        if (hasError) {
+            return;
+        }
+        boolean txnOperated = false;
+        writeLock();
+        try {
+            transactionState.setErrorReplicas(errorReplicaIds);
+            transactionState.setFinishTime(System.currentTimeMillis());
+            transactionState.clearErrorMsg();
+            transactionState.setTransactionStatus(TransactionStatus.VISIBLE);
+            unprotectUpsertTransactionState(transactionState, false);
+            txnOperated = true;
+            // TODO(cmy): We found a very strange problem. When delete-related transactions are processed here,
+            // subsequent `updateCatalogAfterVisible()` is called, but it does not seem to be executed here
+            // (because the relevant editlog does not see the log of visible transactions).
+            // So I add a log here for observation.
+            LOG.debug("after set transaction {} to visible", transactionState);
         } finally {
-            db.writeUnlock();
+            writeUnlock();
+            transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
+        }
+        updateCatalogAfterVisible(transactionState, db);
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_TXN_VISIBLE_LATENCY.update(
+                    transactionState.getFinishTime() - transactionState.getCommitTime());
         }
         LOG.info("finish transaction {} successfully", transactionState);
     }
@@ -839,6 +1035,14 @@ public class DatabaseTransactionMgr {
     protected void unprotectedCommitTransaction(TransactionState transactionState, Set<Long> errorReplicaIds,
                                                 Map<Long, Set<Long>> tableToPartition, Set<Long> totalInvolvedBackends,
                                                 Database db) {
+        unprotectedCommitTransaction(transactionState, errorReplicaIds, tableToPartition, totalInvolvedBackends, db,
+                true);
+    }
+
+    // if persist is false, the caller persists the transaction state
+    private void unprotectedCommitTransaction(TransactionState transactionState, Set<Long> errorReplicaIds,
+                                              Map<Long, Set<Long>> tableToPartition, Set<Long> totalInvolvedBackends,
+                                              Database db, boolean persist) {
         // transaction state is modified during check if the transaction could committed
         if (transactionState.getTransactionStatus() != TransactionStatus.PREPARE) {
             return;
@@ -860,7 +1064,7 @@ public class DatabaseTransactionMgr {
             transactionState.putIdToTableCommitInfo(tableId, tableCommitInfo);
         }
         // persist transactionState
-        unprotectUpsertTransactionState(transactionState, false);
+        unprotectUpsertTransactionState(transactionState, !persist);
 
         // add publish version tasks. set task to null as a placeholder.
         // tasks will be created when publishing version.
@@ -351,13 +351,24 @@ public class GlobalTransactionMgr implements Writable {
             throws UserException {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        if (!db.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
-            throw new UserException("get database write lock timeout, database=" + db.getFullName());
+        if (Config.disable_load_job) {
+            throw new TransactionCommitFailedException("disable_load_job is set to true, all load jobs are prevented");
         }
-        try {
-            commitTransaction(db.getId(), transactionId, tabletCommitInfos, txnCommitAttachment);
-        } finally {
-            db.writeUnlock();
+        LOG.debug("try to commit transaction: {}", transactionId);
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(db.getId());
+        if (Config.enable_merge_commit) {
+            // commit together with the concurrent commits of the same database
+            dbTransactionMgr.getMergeCommitter()
+                    .commit(db, transactionId, tabletCommitInfos, txnCommitAttachment, timeoutMillis);
+        } else {
+            if (!db.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new UserException("get database write lock timeout, database=" + db.getFullName());
+            }
+            try {
+                dbTransactionMgr.commitTransaction(transactionId, tabletCommitInfos, txnCommitAttachment);
+            } finally {
+                db.writeUnlock();
+            }
         }
         stopWatch.stop();
         long publishTimeoutMillis = timeoutMillis - stopWatch.getTime();
@@ -366,7 +377,6 @@ public class GlobalTransactionMgr implements Writable {
             // so we just return false to indicate publish timeout
             return false;
         }
-        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(db.getId());
         return dbTransactionMgr.publishTransaction(db, transactionId, publishTimeoutMillis);
     }
 
@@ -428,6 +438,12 @@ public class GlobalTransactionMgr implements Writable {
         dbTransactionMgr.finishTransaction(transactionId, errorReplicaIds);
     }
 
+    public void finishTransactionBatch(long dbId, List<TransactionState> transactionStates,
+                                       Map<Long, Set<Long>> txnIdToErrorReplicas) throws UserException {
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(dbId);
+        dbTransactionMgr.finishTransactionBatch(transactionStates, txnIdToErrorReplicas);
+    }
+
     public boolean canTxnFinished(TransactionState txn, Set<Long> errReplicas) throws UserException {
         DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(txn.getDbId());
         return dbTransactionMgr.canTxnFinished(txn, errReplicas);
@@ -21,9 +21,13 @@
 
 package com.starrocks.transaction;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.common.Config;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.MasterDaemon;
 import com.starrocks.task.AgentBatchTask;
@@ -37,11 +41,17 @@ import org.apache.logging.log4j.Logger;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 
 public class PublishVersionDaemon extends MasterDaemon {
 
     private static final Logger LOG = LogManager.getLogger(PublishVersionDaemon.class);
 
+    // threads to finish transactions concurrently, created on first use
+    private ThreadPoolExecutor executor = null;
+
     public PublishVersionDaemon() {
         super("PUBLISH_VERSION", Config.publish_version_interval_ms);
     }
@@ -90,43 +100,149 @@ public class PublishVersionDaemon extends MasterDaemon {
             AgentTaskExecutor.submit(batchTask);
         }
 
+        if (Config.enable_concurrent_publish) {
+            finishTransactionsConcurrently(readyTransactionStates);
+            return;
+        }
         // try to finish the transaction, if failed just retry in next loop
         for (TransactionState transactionState : readyTransactionStates) {
-            Map<Long, PublishVersionTask> transTasks = transactionState.getPublishVersionTasks();
             Set<Long> publishErrorReplicaIds = Sets.newHashSet();
-            boolean allTaskFinished = true;
-            for (PublishVersionTask publishVersionTask : transTasks.values()) {
-                if (publishVersionTask.isFinished()) {
-                    // sometimes backend finish publish version task, but it maybe failed to change transactionid to version for some tablets
-                    // and it will upload the failed tabletinfo to fe and fe will deal with them
-                    Set<Long> errReplicas = publishVersionTask.collectErrorReplicas();
-                    if (!errReplicas.isEmpty()) {
-                        publishErrorReplicaIds.addAll(errReplicas);
-                    }
-                } else {
-                    allTaskFinished = false;
+            if (canFinishTransaction(transactionState, publishErrorReplicaIds)) {
+                globalTransactionMgr.finishTransaction(transactionState.getDbId(), transactionState.getTransactionId(),
+                        publishErrorReplicaIds);
+                afterFinishTransaction(transactionState, publishErrorReplicaIds);
+            }
+        } // end for readyTransactionStates
+    }
+
+    // collect the error replicas of finished publish tasks, and check whether the transaction can be finished
+    private boolean canFinishTransaction(TransactionState transactionState, Set<Long> publishErrorReplicaIds)
+            throws UserException {
+        Map<Long, PublishVersionTask> transTasks = transactionState.getPublishVersionTasks();
+        boolean allTaskFinished = true;
+        for (PublishVersionTask publishVersionTask : transTasks.values()) {
+            if (publishVersionTask.isFinished()) {
+                // sometimes backend finish publish version task, but it maybe failed to change transactionid to version for some tablets
+                // and it will upload the failed tabletinfo to fe and fe will deal with them
+                Set<Long> errReplicas = publishVersionTask.collectErrorReplicas();
+                if (!errReplicas.isEmpty()) {
+                    publishErrorReplicaIds.addAll(errReplicas);
                 }
+            } else {
+                allTaskFinished = false;
             }
-            boolean shouldFinishTxn = true;
-            if (!allTaskFinished) {
-                shouldFinishTxn = globalTransactionMgr.canTxnFinished(transactionState, publishErrorReplicaIds);
+        }
+        if (!allTaskFinished) {
+            return Catalog.getCurrentGlobalTransactionMgr().canTxnFinished(transactionState, publishErrorReplicaIds);
+        }
+        return true;
+    }
+
+    private void afterFinishTransaction(TransactionState transactionState, Set<Long> publishErrorReplicaIds) {
+        if (transactionState.getTransactionStatus() != TransactionStatus.VISIBLE) {
+            // if finish transaction state failed, then update publish version time, should check 
+            // to finish after some interval
+            transactionState.updateSendTaskTime();
+            LOG.debug("publish version for transation {} failed, has {} error replicas during publish",
+                    transactionState, publishErrorReplicaIds.size());
+        } else {
+            for (PublishVersionTask task : transactionState.getPublishVersionTasks().values()) {
+                AgentTaskQueue.removeTask(task.getBackendId(), TTaskType.PUBLISH_VERSION, task.getSignature());
             }
+        }
+    }
 
-            if (shouldFinishTxn) {
-                globalTransactionMgr.finishTransaction(transactionState.getDbId(), transactionState.getTransactionId(),
-                        publishErrorReplicaIds);
-                if (transactionState.getTransactionStatus() != TransactionStatus.VISIBLE) {
-                    // if finish transaction state failed, then update publish version time, should check 
-                    // to finish after some interval
-                    transactionState.updateSendTaskTime();
-                    LOG.debug("publish version for transation {} failed, has {} error replicas during publish",
-                            transactionState, publishErrorReplicaIds.size());
-                } else {
-                    for (PublishVersionTask task : transactionState.getPublishVersionTasks().values()) {
-                        AgentTaskQueue.removeTask(task.getBackendId(), TTaskType.PUBLISH_VERSION, task.getSignature());
-                    }
+    /*
+     * Transactions sharing no table are independent, they are finished concurrently by the publish threads.
+     * The dependent transactions are finished by one thread in commit order, and the consecutive transactions
+     * which can be finished are finished in one batch, so the tables are locked once for the batch.
+     */
+    private void finishTransactionsConcurrently(List<TransactionState> readyTransactionStates) {
+        if (executor == null) {
+            executor = ThreadPoolManager.newDaemonFixedThreadPool(Config.publish_version_thread_num,
+                    Integer.MAX_VALUE, "publish-version", true);
+        }
+        List<Future<?>> futures = Lists.newArrayList();
+        for (List<TransactionState> group : groupDependentTransactions(readyTransactionStates)) {
+            futures.add(executor.submit(() -> finishDependentTransactions(group)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                LOG.warn("failed to finish transactions", e.getCause());
+            }
+        }
+    }
+
+    private void finishDependentTransactions(List<TransactionState> transactionStates) {
+        GlobalTransactionMgr globalTransactionMgr = Catalog.getCurrentGlobalTransactionMgr();
+        List<TransactionState> batch = Lists.newArrayList();
+        Map<Long, Set<Long>> txnIdToErrorReplicas = Maps.newHashMap();
+        try {
+            for (TransactionState transactionState : transactionStates) {
+                Set<Long> publishErrorReplicaIds = Sets.newHashSet();
+                boolean allTaskFinished = transactionState.getPublishVersionTasks().values().stream()
+                        .allMatch(PublishVersionTask::isFinished);
+                if (!allTaskFinished) {
+                    // canTxnFinished checks the visible version, so the previous transactions must be finished
+                    finishBatch(globalTransactionMgr, batch, txnIdToErrorReplicas);
+                }
+                if (canFinishTransaction(transactionState, publishErrorReplicaIds)) {
+                    batch.add(transactionState);
+                    txnIdToErrorReplicas.put(transactionState.getTransactionId(), publishErrorReplicaIds);
                 }
             }
-        } // end for readyTransactionStates
+            finishBatch(globalTransactionMgr, batch, txnIdToErrorReplicas);
+        } catch (Throwable t) {
+            LOG.warn("errors while finish transactions", t);
+        }
+    }
+
+    private void finishBatch(GlobalTransactionMgr globalTransactionMgr, List<TransactionState> batch,
+                             Map<Long, Set<Long>> txnIdToErrorReplicas) throws UserException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        globalTransactionMgr.finishTransactionBatch(batch.get(0).getDbId(), batch, txnIdToErrorReplicas);
+        for (TransactionState transactionState : batch) {
+            afterFinishTransaction(transactionState, txnIdToErrorReplicas.get(transactionState.getTransactionId()));
+        }
+        batch.clear();
+        txnIdToErrorReplicas.clear();
+    }
+
+    // Group the transactions sharing tables, keep the commit order of transactions in each group.
+    // Table ids are unique among databases, so the transactions in a group are of the same database.
+    @VisibleForTesting
+    static List<List<TransactionState>> groupDependentTransactions(List<TransactionState> transactionStates) {
+        // union find on the index of transactions
+        int[] parents = new int[transactionStates.size()];
+        Map<Long, Integer> tableToTxnIndex = Maps.newHashMap();
+        for (int i = 0; i < transactionStates.size(); i++) {
+            parents[i] = i;
+            for (long tableId : transactionStates.get(i).getTableIdList()) {
+                Integer other = tableToTxnIndex.putIfAbsent(tableId, i);
+                if (other != null) {
+                    parents[findRoot(parents, other)] = findRoot(parents, i);
+                }
+            }
+        }
+        Map<Integer, List<TransactionState>> groups = Maps.newLinkedHashMap();
+        for (int i = 0; i < transactionStates.size(); i++) {
+            groups.computeIfAbsent(findRoot(parents, i), k -> Lists.newArrayList()).add(transactionStates.get(i));
+        }
+        return Lists.newArrayList(groups.values());
+    }
+
+    private static int findRoot(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
     }
 }
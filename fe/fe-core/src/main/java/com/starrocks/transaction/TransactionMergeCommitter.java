@@ -0,0 +1,167 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.transaction;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Database;
+import com.starrocks.common.Config;
+import com.starrocks.common.UserException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * Merge commit of the transactions of one database.
+ *
+ * Many small loads commit concurrently, each of them takes the database write lock and writes an edit log.
+ * Here the committing threads put their requests into a queue, and one of them becomes the leader, which takes
+ * the database write lock once, commits all the queued requests, and persists them in one edit log.
+ * The other threads wait for the leader, and find their requests done or become the next leader.
+ *
+ * Every requester calls the state change callbacks of its own transaction, before putting its request into
+ * the queue and after the request is done, because the callbacks (eg. routine load jobs) may hold their locks
+ * from before to after the commit.
+ *
+ * Only the locking and the edit logs are merged, each transaction still takes its own partition version.
+ * Publishing several transactions as one version needs the backends to merge the rowsets of different
+ * transactions, which is not supported.
+ */
+public class TransactionMergeCommitter {
+    private static final Logger LOG = LogManager.getLogger(TransactionMergeCommitter.class);
+
+    private final DatabaseTransactionMgr dbTransactionMgr;
+    private final LinkedBlockingQueue<CommitRequest> pendingRequests = new LinkedBlockingQueue<>();
+    // held by the leader
+    private final ReentrantLock leaderLock = new ReentrantLock();
+
+    public TransactionMergeCommitter(DatabaseTransactionMgr dbTransactionMgr) {
+        this.dbTransactionMgr = dbTransactionMgr;
+    }
+
+    public void commit(Database db, long transactionId, List<TabletCommitInfo> tabletCommitInfos,
+                       TxnCommitAttachment txnCommitAttachment, long timeoutMillis) throws UserException {
+        TransactionState transactionState = dbTransactionMgr.getTransactionState(transactionId);
+        if (transactionState == null
+                || transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
+            throw new TransactionCommitFailedException(
+                    transactionState == null ? "transaction not found" : transactionState.getReason());
+        }
+        if (transactionState.getTransactionStatus() == TransactionStatus.COMMITTED
+                || transactionState.getTransactionStatus() == TransactionStatus.VISIBLE) {
+            LOG.debug("transaction is already {}: {}", transactionState.getTransactionStatus(), transactionId);
+            return;
+        }
+
+        transactionState.beforeStateTransform(TransactionStatus.COMMITTED);
+        CommitRequest request = new CommitRequest(transactionId, tabletCommitInfos, txnCommitAttachment);
+        try {
+            commitRequest(db, request, timeoutMillis);
+        } finally {
+            transactionState.afterStateTransform(TransactionStatus.COMMITTED, request.isTxnOperated());
+        }
+        if (request.getError() != null) {
+            throw request.getError();
+        }
+    }
+
+    private void commitRequest(Database db, CommitRequest request, long timeoutMillis) throws UserException {
+        pendingRequests.add(request);
+        boolean locked = false;
+        try {
+            locked = leaderLock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!locked) {
+            if (pendingRequests.remove(request)) {
+                throw new UserException("get database write lock timeout, database=" + db.getFullName());
+            }
+            // the request is being committed by current leader, wait for it
+            leaderLock.lock();
+        }
+        try {
+            while (!request.isDone()) {
+                List<CommitRequest> batch = Lists.newArrayList();
+                pendingRequests.drainTo(batch, Math.max(Config.merge_commit_max_batch_size, 1));
+                commitBatch(db, batch, timeoutMillis);
+            }
+        } finally {
+            leaderLock.unlock();
+        }
+    }
+
+    private void commitBatch(Database db, List<CommitRequest> batch, long timeoutMillis) {
+        if (!db.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            UserException e = new UserException("get database write lock timeout, database=" + db.getFullName());
+            batch.forEach(r -> r.finish(e));
+            return;
+        }
+        try {
+            dbTransactionMgr.commitTransactionBatch(batch);
+            LOG.debug("merge commit {} transactions of database {}", batch.size(), db.getId());
+        } catch (Throwable t) {
+            LOG.warn("failed to merge commit transactions of database {}", db.getId(), t);
+            UserException e = new UserException("merge commit failed: " + t.getMessage());
+            batch.forEach(r -> r.finish(e));
+        } finally {
+            db.writeUnlock();
+        }
+    }
+
+    static class CommitRequest {
+        private final long transactionId;
+        private final List<TabletCommitInfo> tabletCommitInfos;
+        private final TxnCommitAttachment txnCommitAttachment;
+        // guarded by the leader lock
+        private boolean done = false;
+        private boolean txnOperated = false;
+        private UserException error = null;
+
+        CommitRequest(long transactionId, List<TabletCommitInfo> tabletCommitInfos,
+                      TxnCommitAttachment txnCommitAttachment) {
+            this.transactionId = transactionId;
+            this.tabletCommitInfos = tabletCommitInfos;
+            this.txnCommitAttachment = txnCommitAttachment;
+        }
+
+        long getTransactionId() {
+            return transactionId;
+        }
+
+        List<TabletCommitInfo> getTabletCommitInfos() {
+            return tabletCommitInfos;
+        }
+
+        TxnCommitAttachment getTxnCommitAttachment() {
+            return txnCommitAttachment;
+        }
+
+        // only the first result takes effect
+        void finish(UserException error) {
+            if (!done) {
+                done = true;
+                this.error = error;
+            }
+        }
+
+        void setTxnOperated() {
+            txnOperated = true;
+        }
+
+        boolean isTxnOperated() {
+            return txnOperated;
+        }
+
+        boolean isDone() {
+            return done;
+        }
+
+        UserException getError() {
+            return error;
+        }
+    }
+}
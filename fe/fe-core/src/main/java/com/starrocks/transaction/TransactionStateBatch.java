@@ -0,0 +1,46 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.transaction;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * used for persisting the transaction states committed together by merge commit in one edit log
+ */
+public class TransactionStateBatch implements Writable {
+
+    private final List<TransactionState> transactionStates;
+
+    public TransactionStateBatch(List<TransactionState> transactionStates) {
+        this.transactionStates = transactionStates;
+    }
+
+    public List<TransactionState> getTransactionStates() {
+        return transactionStates;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(transactionStates.size());
+        for (TransactionState transactionState : transactionStates) {
+            transactionState.write(out);
+        }
+    }
+
+    public static TransactionStateBatch read(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<TransactionState> transactionStates = Lists.newArrayListWithCapacity(size);
+        for (int i = 0; i < size; i++) {
+            TransactionState transactionState = new TransactionState();
+            transactionState.readFields(in);
+            transactionStates.add(transactionState);
+        }
+        return new TransactionStateBatch(transactionStates);
+    }
+}
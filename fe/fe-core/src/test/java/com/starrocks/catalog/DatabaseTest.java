@@ -42,6 +42,9 @@ import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 public class DatabaseTest {
@@ -98,6 +101,80 @@ public class DatabaseTest {
         }
     }
 
+    private boolean tryInOtherThread(Callable<Boolean> task) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(task).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void tableLockTest() throws Exception {
+        Table table1 = new Table(1L, "t1", Table.TableType.OLAP, Lists.newArrayList());
+        Table table2 = new Table(2L, "t2", Table.TableType.OLAP, Lists.newArrayList());
+
+        db.writeLockTables(Lists.newArrayList(table1));
+        try {
+            // readers and writers of other tables are not blocked
+            Assert.assertTrue(tryInOtherThread(() -> {
+                if (db.tryReadLockTables(Lists.newArrayList(table2), 0, TimeUnit.SECONDS)) {
+                    db.readUnlockTables(Lists.newArrayList(table2));
+                    return true;
+                }
+                return false;
+            }));
+            Assert.assertTrue(tryInOtherThread(() -> {
+                db.writeLockTables(Lists.newArrayList(table2));
+                db.writeUnlockTables(Lists.newArrayList(table2));
+                return true;
+            }));
+            // readers of the same table and database readers are blocked
+            Assert.assertFalse(tryInOtherThread(() -> db.tryReadLockTables(Lists.newArrayList(table1, table2),
+                    10, TimeUnit.MILLISECONDS)));
+            Assert.assertFalse(tryInOtherThread(() -> db.tryReadLock(10, TimeUnit.MILLISECONDS)));
+        } finally {
+            db.writeUnlockTables(Lists.newArrayList(table1));
+        }
+
+        db.readLockTables(Lists.newArrayList(table1, table2));
+        try {
+            Assert.assertFalse(tryInOtherThread(() -> db.tryWriteLock(10, TimeUnit.MILLISECONDS)));
+            Assert.assertTrue(tryInOtherThread(() -> {
+                if (db.tryReadLock(0, TimeUnit.SECONDS)) {
+                    db.readUnlock();
+                    return true;
+                }
+                return false;
+            }));
+        } finally {
+            db.readUnlockTables(Lists.newArrayList(table1, table2));
+        }
+        Assert.assertTrue(tryInOtherThread(() -> {
+            if (db.tryWriteLock(0, TimeUnit.SECONDS)) {
+                db.writeUnlock();
+                return true;
+            }
+            return false;
+        }));
+
+        // a database reader gets table write locks only when no other thread reads the database
+        db.readLock();
+        try {
+            Assert.assertTrue(tryInOtherThread(() -> {
+                db.readLock();
+                db.readUnlock();
+                return true;
+            }));
+            db.writeLockTables(Lists.newArrayList(table1));
+            Assert.assertFalse(tryInOtherThread(() -> db.tryReadLock(10, TimeUnit.MILLISECONDS)));
+            db.writeUnlockTables(Lists.newArrayList(table1));
+        } finally {
+            db.readUnlock();
+        }
+    }
+
     @Test
     public void createAndDropPartitionTest() {
         Assert.assertEquals("dbTest", db.getFullName());
@@ -31,6 +31,7 @@ import com.starrocks.persist.ModifyTablePropertyOperationLog;
 import com.starrocks.persist.RoutineLoadOperation;
 import com.starrocks.system.Backend;
 import com.starrocks.transaction.TransactionState;
+import com.starrocks.transaction.TransactionStateBatch;
 import mockit.Mock;
 import mockit.MockUp;
 
@@ -40,6 +41,7 @@ import java.util.Map;
 public class FakeEditLog extends MockUp<EditLog> {
 
     private Map<Long, TransactionState> allTransactionState = new HashMap<>();
+    private int batchUpsertNum = 0;
 
     @Mock
     public void $init(String nodeName) {
@@ -50,6 +52,18 @@ public class FakeEditLog extends MockUp<EditLog> {
         allTransactionState.put(transactionState.getTransactionId(), transactionState);
     }
 
+    @Mock
+    public void logBatchUpsertTransactionStates(TransactionStateBatch batch) {
+        batchUpsertNum++;
+        for (TransactionState transactionState : batch.getTransactionStates()) {
+            allTransactionState.put(transactionState.getTransactionId(), transactionState);
+        }
+    }
+
+    public int getBatchUpsertNum() {
+        return batchUpsertNum;
+    }
+
     @Mock
     public void logDeleteTransactionState(TransactionState transactionState) {
         allTransactionState.remove(transactionState.getTransactionId());
@@ -0,0 +1,83 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Replica.ReplicaState;
+import com.starrocks.thrift.TStorageMedium;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TabletInvertedIndexTest {
+    private TabletInvertedIndex invertedIndex;
+
+    @Mocked
+    private Catalog catalog;
+
+    @Before
+    public void setUp() {
+        invertedIndex = new TabletInvertedIndex();
+        new Expectations(catalog) {
+            {
+                Catalog.isCheckpointThread();
+                minTimes = 0;
+                result = false;
+            }
+        };
+    }
+
+    private Replica newReplica(long replicaId, long backendId) {
+        return new Replica(replicaId, backendId, 1L, 0L, 0, 0L, 0L, ReplicaState.NORMAL, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void testAddAndDelete() {
+        // tablets spread over different stripes, and replicas with ids in different stripes from their tablets
+        int tabletNum = 200;
+        for (long tabletId = 1; tabletId <= tabletNum; tabletId++) {
+            TStorageMedium medium = tabletId % 2 == 0 ? TStorageMedium.HDD : TStorageMedium.SSD;
+            invertedIndex.addTablet(tabletId, new TabletMeta(1, 2, 3, 4, 5, medium));
+            for (long backendId = 1; backendId <= 3; backendId++) {
+                invertedIndex.addReplica(tabletId, newReplica(tabletId * 1000 + backendId, backendId));
+            }
+        }
+
+        Assert.assertEquals(tabletNum, invertedIndex.getTabletNumByBackendId(1));
+        Assert.assertEquals(tabletNum, invertedIndex.getTabletIdsByBackendId(2).size());
+        Assert.assertEquals(tabletNum / 2,
+                invertedIndex.getTabletIdsByBackendIdAndStorageMedium(3, TStorageMedium.SSD).size());
+        Assert.assertEquals(tabletNum / 2,
+                (long) invertedIndex.getReplicaNumByBeIdAndStorageMedium(3).get(TStorageMedium.HDD));
+        Assert.assertEquals(0, invertedIndex.getTabletNumByBackendId(4));
+        Assert.assertEquals(1, invertedIndex.getAllPartitionIndex().size());
+
+        Assert.assertEquals(Long.valueOf(7), invertedIndex.getTabletIdByReplica(7002));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(7004));
+        Assert.assertEquals(7002, invertedIndex.getReplica(7, 2).getId());
+        Assert.assertEquals(3, invertedIndex.getReplicasByTabletId(7).size());
+
+        List<TabletMeta> metas = invertedIndex.getTabletMetaList(Lists.newArrayList(7L, 1000L));
+        Assert.assertEquals(TStorageMedium.SSD, metas.get(0).getStorageMedium());
+        Assert.assertSame(TabletInvertedIndex.NOT_EXIST_TABLET_META, metas.get(1));
+
+        invertedIndex.deleteReplica(7, 2);
+        Assert.assertNull(invertedIndex.getReplica(7, 2));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(7002));
+        Assert.assertEquals(tabletNum - 1, invertedIndex.getTabletNumByBackendId(2));
+
+        invertedIndex.deleteTablet(8);
+        Assert.assertNull(invertedIndex.getTabletMeta(8));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(8001));
+        Assert.assertTrue(invertedIndex.getReplicasByTabletId(8).isEmpty());
+        Assert.assertEquals(tabletNum - 1, invertedIndex.getTabletNumByBackendId(1));
+
+        invertedIndex.clear();
+        Assert.assertEquals(0, invertedIndex.getTabletNumByBackendId(1));
+        Assert.assertTrue(invertedIndex.getAllPartitionIndex().isEmpty());
+    }
+}
@@ -0,0 +1,131 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class GroupMutexLockTest {
+    private boolean tryLockInOtherThread(GroupMutexLock lock, int group) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(() -> {
+                if (lock.tryLock(group, 10, TimeUnit.MILLISECONDS)) {
+                    lock.unlock(group);
+                    return true;
+                }
+                return false;
+            }).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testGroupExclusive() throws Exception {
+        GroupMutexLock lock = new GroupMutexLock(2);
+        lock.lock(0);
+        Assert.assertTrue(lock.isHeldByCurrentThread(0));
+        Assert.assertTrue(tryLockInOtherThread(lock, 0));
+        Assert.assertFalse(tryLockInOtherThread(lock, 1));
+
+        // reentrant, and the only holder can get the other group
+        lock.lock(0);
+        lock.lock(1);
+        Assert.assertTrue(lock.isHeldByCurrentThread(1));
+        lock.unlock(1);
+        lock.unlock(0);
+        Assert.assertFalse(tryLockInOtherThread(lock, 1));
+        lock.unlock(0);
+        Assert.assertFalse(lock.isHeldByCurrentThread(0));
+
+        Assert.assertTrue(tryLockInOtherThread(lock, 1));
+    }
+
+    @Test(expected = IllegalMonitorStateException.class)
+    public void testUnlockNotHeld() {
+        GroupMutexLock lock = new GroupMutexLock(2);
+        lock.unlock(0);
+    }
+
+    @Test
+    public void testWaiterNotStarved() throws Exception {
+        GroupMutexLock lock = new GroupMutexLock(2);
+        lock.lock(0);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> waiter = executor.submit(() -> {
+                lock.lock(1);
+                lock.unlock(1);
+            });
+            // wait until the thread is waiting for group 1
+            while (!lock.hasWaiter(1)) {
+                Thread.sleep(1);
+            }
+            // new thread of group 0 gives way to the waiter of group 1
+            Assert.assertFalse(executor.submit(() -> lock.tryLock(0, 10, TimeUnit.MILLISECONDS)).get());
+            lock.unlock(0);
+            waiter.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testUpgradeWaitsForOtherHolders() throws Exception {
+        GroupMutexLock lock = new GroupMutexLock(2);
+        CountDownLatch otherLocked = new CountDownLatch(1);
+        CountDownLatch releaseOther = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> other = executor.submit(() -> {
+                lock.lock(0);
+                otherLocked.countDown();
+                releaseOther.await();
+                lock.unlock(0);
+                return null;
+            });
+            otherLocked.await();
+            lock.lock(0);
+            // another thread holds group 0, so group 1 is not granted to a holder of group 0
+            Assert.assertFalse(lock.tryLock(1, 10, TimeUnit.MILLISECONDS));
+
+            Future<Boolean> upgrade = executor.submit(() -> {
+                lock.lock(0);
+                try {
+                    if (lock.tryLock(1, 10, TimeUnit.SECONDS)) {
+                        lock.unlock(1);
+                        return true;
+                    }
+                    return false;
+                } finally {
+                    lock.unlock(0);
+                }
+            });
+            // wait until the thread is waiting for group 1
+            while (!lock.hasWaiter(1)) {
+                Thread.sleep(1);
+            }
+            // the second holder waiting for group 1 would dead lock
+            try {
+                lock.lock(1);
+                Assert.fail("concurrent upgrade should be rejected");
+            } catch (IllegalMonitorStateException e) {
+                // expected
+            }
+            lock.unlock(0);
+            releaseOther.countDown();
+            other.get(10, TimeUnit.SECONDS);
+            Assert.assertTrue(upgrade.get(10, TimeUnit.SECONDS));
+            Assert.assertTrue(tryLockInOtherThread(lock, 1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.mysql;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class MysqlBinaryCodecTest {
+    private ByteBuffer textRow(String... values) {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        for (String value : values) {
+            if (value == null) {
+                serializer.writeNull();
+            } else {
+                serializer.writeLenEncodedString(value);
+            }
+        }
+        return serializer.toByteBuffer();
+    }
+
+    @Test
+    public void testReadParams() {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        // null bitmap, the 3rd parameter is null
+        serializer.writeInt1(0x04);
+        // new params bound
+        serializer.writeInt1(1);
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_LONGLONG.getCode());
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_VAR_STRING.getCode());
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_LONG.getCode());
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_TINY.getCode() | 0x8000);
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_DOUBLE.getCode());
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_DATETIME.getCode());
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_NEWDECIMAL.getCode());
+        // values
+        serializer.writeInt8(-5);
+        serializer.writeLenEncodedString("it's \\");
+        serializer.writeInt1(200);
+        serializer.writeInt8(Double.doubleToLongBits(1.5));
+        serializer.writeInt1(7);
+        serializer.writeInt2(2021);
+        serializer.writeInt1(1);
+        serializer.writeInt1(2);
+        serializer.writeInt1(3);
+        serializer.writeInt1(4);
+        serializer.writeInt1(5);
+        serializer.writeLenEncodedString("12.30");
+
+        int[] paramTypes = new int[7];
+        List<String> literals = Lists.newArrayList();
+        MysqlBinaryCodec.readParams(serializer.toByteBuffer(), paramTypes, literals);
+        Assert.assertEquals(Lists.newArrayList("-5", "'it\\'s \\\\'", "NULL", "200", "1.5",
+                "'2021-01-02 03:04:05'", "12.30"), literals);
+
+        // the types are reused by the following executions
+        serializer.reset();
+        serializer.writeInt1(0x7f);
+        serializer.writeInt1(0);
+        literals.clear();
+        MysqlBinaryCodec.readParams(serializer.toByteBuffer(), paramTypes, literals);
+        Assert.assertEquals(7, literals.size());
+        Assert.assertTrue(literals.stream().allMatch(literal -> literal.equals("NULL")));
+    }
+
+    @Test
+    public void testTextRowToBinary() {
+        int[] colTypes = {MysqlColType.MYSQL_TYPE_LONG.getCode(), MysqlColType.MYSQL_TYPE_VAR_STRING.getCode(),
+                MysqlColType.MYSQL_TYPE_LONGLONG.getCode(), MysqlColType.MYSQL_TYPE_DOUBLE.getCode(),
+                MysqlColType.MYSQL_TYPE_DATE.getCode(), MysqlColType.MYSQL_TYPE_DATETIME.getCode()};
+        ByteBuffer row = textRow("-7", "abc", null, "inf", "2021-01-02", "2021-01-02 03:04:05.5");
+        ByteBuffer binary = MysqlBinaryCodec.textRowToBinary(row, colTypes, MysqlSerializer.newInstance());
+        // the text row isn't consumed
+        Assert.assertEquals(0, row.position());
+
+        Assert.assertEquals(0, MysqlProto.readInt1(binary));
+        // null bitmap with the offset of 2 bits, the 3rd column is null
+        Assert.assertEquals(0x10, MysqlProto.readInt1(binary));
+        Assert.assertEquals(-7, MysqlProto.readInt4(binary));
+        Assert.assertEquals("abc", new String(MysqlProto.readLenEncodedString(binary)));
+        Assert.assertEquals(Double.POSITIVE_INFINITY, Double.longBitsToDouble(MysqlProto.readInt8(binary)), 0);
+        Assert.assertEquals(4, MysqlProto.readInt1(binary));
+        Assert.assertEquals(2021, MysqlProto.readInt2(binary));
+        Assert.assertEquals(1, MysqlProto.readInt1(binary));
+        Assert.assertEquals(2, MysqlProto.readInt1(binary));
+        Assert.assertEquals(11, MysqlProto.readInt1(binary));
+        Assert.assertEquals(2021, MysqlProto.readInt2(binary));
+        Assert.assertEquals(1, MysqlProto.readInt1(binary));
+        Assert.assertEquals(2, MysqlProto.readInt1(binary));
+        Assert.assertEquals(3, MysqlProto.readInt1(binary));
+        Assert.assertEquals(4, MysqlProto.readInt1(binary));
+        Assert.assertEquals(5, MysqlProto.readInt1(binary));
+        Assert.assertEquals(500000, MysqlProto.readInt4(binary));
+        Assert.assertFalse(binary.hasRemaining());
+    }
+
+    @Test
+    public void testTimeToBinary() {
+        int[] colTypes = {MysqlColType.MYSQL_TYPE_TIME.getCode()};
+        ByteBuffer binary = MysqlBinaryCodec.textRowToBinary(textRow("-49:02:03"), colTypes,
+                MysqlSerializer.newInstance());
+        Assert.assertEquals(0, MysqlProto.readInt1(binary));
+        Assert.assertEquals(0, MysqlProto.readInt1(binary));
+        Assert.assertEquals(8, MysqlProto.readInt1(binary));
+        // negative, 2 days and 1 hour
+        Assert.assertEquals(1, MysqlProto.readInt1(binary));
+        Assert.assertEquals(2, MysqlProto.readInt4(binary));
+        Assert.assertEquals(1, MysqlProto.readInt1(binary));
+        Assert.assertEquals(2, MysqlProto.readInt1(binary));
+        Assert.assertEquals(3, MysqlProto.readInt1(binary));
+        Assert.assertFalse(binary.hasRemaining());
+    }
+}
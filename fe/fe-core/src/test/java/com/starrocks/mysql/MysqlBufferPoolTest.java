@@ -0,0 +1,37 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.mysql;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class MysqlBufferPoolTest {
+    @Test
+    public void testAcquireAndRelease() {
+        MysqlBufferPool pool = new MysqlBufferPool(1024, 2);
+        ByteBuffer buffer1 = pool.acquire();
+        ByteBuffer buffer2 = pool.acquire();
+        Assert.assertTrue(buffer1.isDirect());
+        Assert.assertTrue(buffer2.isDirect());
+        Assert.assertEquals(1024, buffer1.capacity());
+
+        // exceed the max num of direct buffers
+        ByteBuffer buffer3 = pool.acquire();
+        Assert.assertFalse(buffer3.isDirect());
+        Assert.assertEquals(2, pool.getDirectBufferNum());
+
+        buffer1.put((byte) 1);
+        pool.release(buffer1);
+        pool.release(buffer3);
+        Assert.assertEquals(1, pool.getFreeBufferNum());
+
+        // the released buffer is reused and cleared
+        ByteBuffer buffer4 = pool.acquire();
+        Assert.assertSame(buffer1, buffer4);
+        Assert.assertEquals(0, buffer4.position());
+        Assert.assertEquals(0, pool.getFreeBufferNum());
+        Assert.assertEquals(2, pool.getDirectBufferNum());
+    }
+}
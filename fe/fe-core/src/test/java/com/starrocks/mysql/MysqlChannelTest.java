@@ -28,10 +28,12 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
 
 public class MysqlChannelTest {
     int packetId = 0;
@@ -300,4 +302,52 @@ public class MysqlChannelTest {
         Assert.fail("No Exception throws.");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testSendPackets() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        // mock
+        new Expectations() {
+            {
+                channel.write((ByteBuffer) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    int fakeWrite(ByteBuffer buffer) {
+                        int writeLen = buffer.remaining();
+                        while (buffer.hasRemaining()) {
+                            output.write(buffer.get());
+                        }
+                        return writeLen;
+                    }
+                };
+            }
+        };
+
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        channel1.sendPackets(Arrays.asList(ByteBuffer.wrap("a".getBytes()), ByteBuffer.wrap("bb".getBytes())));
+        // the small packets are kept in the send buffer until it's flushed
+        Assert.assertEquals(0, output.size());
+        channel1.flush();
+        Assert.assertTrue(channel1.isSend());
+        Assert.assertArrayEquals(new byte[] {1, 0, 0, 0, 'a', 2, 0, 0, 1, 'b', 'b'}, output.toByteArray());
+        channel1.releaseSendBuffer();
+    }
+
+    @Test(expected = IOException.class)
+    public void testSendPacketsFail() throws IOException {
+        // mock
+        new Expectations() {
+            {
+                channel.write((ByteBuffer) any);
+                minTimes = 0;
+                result = 0;
+            }
+        };
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        try {
+            channel1.sendPackets(Arrays.asList(ByteBuffer.allocate(100), ByteBuffer.allocate(100)));
+            channel1.flush();
+        } finally {
+            channel1.releaseSendBuffer();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.io.Text;
+import com.starrocks.journal.Journal;
+import com.starrocks.journal.JournalEntity;
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EditLogGroupCommitterTest {
+    @Test
+    public void testConcurrentSubmit(@Mocked Journal journal) throws Exception {
+        List<String> written = Collections.synchronizedList(Lists.newArrayList());
+        AtomicInteger batchNum = new AtomicInteger(0);
+        new Expectations() {
+            {
+                journal.batchWrite((List<JournalEntity>) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    void fakeBatchWrite(List<JournalEntity> entities) throws InterruptedException {
+                        batchNum.incrementAndGet();
+                        for (JournalEntity entity : entities) {
+                            written.add(entity.getOpCode() + ":" + entity.getData().toString());
+                        }
+                        // a slow write lets the following journals pile up in the queue
+                        Thread.sleep(1);
+                    }
+                };
+            }
+        };
+
+        AtomicInteger afterWritten = new AtomicInteger(0);
+        EditLogGroupCommitter committer = new EditLogGroupCommitter(journal, afterWritten::addAndGet);
+        committer.start();
+
+        int threadNum = 8;
+        int journalPerThread = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+        List<Future<Integer>> futures = Lists.newArrayList();
+        for (int i = 0; i < threadNum; i++) {
+            final int threadId = i;
+            futures.add(executor.submit(() -> {
+                int writtenWhenReturn = 0;
+                for (int j = 0; j < journalPerThread; j++) {
+                    String value = threadId + "_" + j;
+                    committer.submitAndWait(OperationType.OP_SAVE_NEXTID, new Text(value));
+                    // the journal must be written when submitAndWait returns
+                    if (written.contains(OperationType.OP_SAVE_NEXTID + ":" + value)) {
+                        writtenWhenReturn++;
+                    }
+                }
+                return writtenWhenReturn;
+            }));
+        }
+        for (Future<Integer> future : futures) {
+            Assert.assertEquals(journalPerThread, future.get().intValue());
+        }
+        executor.shutdown();
+        committer.stop();
+
+        int total = threadNum * journalPerThread;
+        Assert.assertEquals(total, written.size());
+        Assert.assertEquals(total, afterWritten.get());
+        // journals of concurrent callers are written in batches
+        Assert.assertTrue("batch num " + batchNum.get(), batchNum.get() < total);
+        // journals of one thread keep their order
+        for (int i = 0; i < threadNum; i++) {
+            int last = -1;
+            for (String value : written) {
+                String[] parts = value.substring(value.indexOf(':') + 1).split("_");
+                if (Integer.parseInt(parts[0]) == i) {
+                    Assert.assertEquals(last + 1, Integer.parseInt(parts[1]));
+                    last++;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStop(@Mocked Journal journal) throws Exception {
+        List<String> written = Collections.synchronizedList(Lists.newArrayList());
+        new Expectations() {
+            {
+                journal.batchWrite((List<JournalEntity>) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    void fakeBatchWrite(List<JournalEntity> entities) throws InterruptedException {
+                        Thread.sleep(10);
+                        for (JournalEntity entity : entities) {
+                            written.add(entity.getData().toString());
+                        }
+                    }
+                };
+            }
+        };
+
+        EditLogGroupCommitter committer = new EditLogGroupCommitter(journal, n -> { });
+        committer.start();
+
+        int threadNum = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+        List<Future<Boolean>> futures = Lists.newArrayList();
+        for (int i = 0; i < threadNum; i++) {
+            final String value = String.valueOf(i);
+            futures.add(executor.submit(() -> {
+                try {
+                    committer.submitAndWait(OperationType.OP_SAVE_NEXTID, new Text(value));
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }));
+        }
+        committer.stop();
+
+        // every caller returns, either written or rejected
+        int succeeded = 0;
+        for (Future<Boolean> future : futures) {
+            if (future.get()) {
+                succeeded++;
+            }
+        }
+        executor.shutdown();
+        Assert.assertEquals(succeeded, written.size());
+
+        // submissions after stop are rejected
+        try {
+            committer.submitAndWait(OperationType.OP_SAVE_NEXTID, new Text("after_stop"));
+            Assert.fail("submission after stop should be rejected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Assert.assertFalse(written.contains("after_stop"));
+    }
+}
@@ -0,0 +1,131 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.starrocks.common.io.Text;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SectionedImageTest {
+    private File file = new File("./sectionedImageTest");
+    private File newFile = new File("./sectionedImageTest.new");
+
+    @After
+    public void tearDown() {
+        file.delete();
+        newFile.delete();
+    }
+
+    private void writeImage() throws IOException {
+        try (SectionedImage.Writer writer = new SectionedImage.Writer(file)) {
+            writer.writeSection("first", (dos, checksum) -> {
+                dos.writeLong(100L);
+                return checksum ^ 100L;
+            });
+            writer.writeSection("second", (dos, checksum) -> {
+                Text.writeString(dos, "starrocks");
+                return checksum;
+            });
+            writer.finish();
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        writeImage();
+        Assert.assertTrue(SectionedImage.isSectionedImage(file));
+
+        SectionedImage.Reader reader = new SectionedImage.Reader(file);
+        Assert.assertEquals(2, reader.getIndex().size());
+        Assert.assertEquals("first", reader.getIndex().get(0).getName());
+        Assert.assertEquals(8, reader.getIndex().get(0).getLength());
+
+        // load in a different order from written
+        AtomicReference<String> second = new AtomicReference<>();
+        reader.loadSection("second", (dis, checksum) -> {
+            second.set(Text.readString(dis));
+            return checksum;
+        });
+        AtomicLong first = new AtomicLong();
+        reader.loadSection("first", (dis, checksum) -> {
+            first.set(dis.readLong());
+            return checksum ^ first.get();
+        });
+        // section not exist is skipped
+        reader.loadSection("third", (dis, checksum) -> {
+            Assert.fail();
+            return checksum;
+        });
+
+        Assert.assertEquals(100L, first.get());
+        Assert.assertEquals("starrocks", second.get());
+        Assert.assertEquals(2, reader.getLoadTimeMs().size());
+    }
+
+    @Test
+    public void testCopySection() throws Exception {
+        writeImage();
+        SectionedImage.Reader baseImage = new SectionedImage.Reader(file);
+        Assert.assertArrayEquals(new byte[] {0, 0, 0, 100}, baseImage.readBytes("first", 4, 4));
+
+        try (SectionedImage.Writer writer = new SectionedImage.Writer(newFile)) {
+            writer.writeSection("first", (dos, checksum) -> {
+                dos.writeLong(200L);
+                return checksum ^ 200L;
+            });
+            writer.copySection(baseImage, "second");
+            writer.finish();
+        }
+
+        SectionedImage.Reader reader = new SectionedImage.Reader(newFile);
+        AtomicLong first = new AtomicLong();
+        reader.loadSection("first", (dis, checksum) -> {
+            first.set(dis.readLong());
+            return checksum ^ first.get();
+        });
+        AtomicReference<String> second = new AtomicReference<>();
+        reader.loadSection("second", (dis, checksum) -> {
+            second.set(Text.readString(dis));
+            return checksum;
+        });
+        Assert.assertEquals(200L, first.get());
+        Assert.assertEquals("starrocks", second.get());
+    }
+
+    @Test
+    public void testOldFormat() throws Exception {
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(file))) {
+            dos.writeInt(-1);
+            dos.writeLong(0L);
+        }
+        Assert.assertFalse(SectionedImage.isSectionedImage(file));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptedSection() throws Exception {
+        writeImage();
+        // the first section starts after the magic
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(Integer.BYTES);
+            raf.writeLong(101L);
+        }
+        SectionedImage.Reader reader = new SectionedImage.Reader(file);
+        reader.loadSection("first", (dis, checksum) -> checksum ^ dis.readLong());
+    }
+
+    @Test(expected = IOException.class)
+    public void testSectionNotFullyRead() throws Exception {
+        writeImage();
+        SectionedImage.Reader reader = new SectionedImage.Reader(file);
+        reader.loadSection("first", (dis, checksum) -> checksum ^ dis.readInt());
+    }
+}
@@ -0,0 +1,79 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.planner;
+
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.SlotDescriptor;
+import com.starrocks.analysis.SlotId;
+import com.starrocks.analysis.SlotRef;
+import com.starrocks.analysis.TupleDescriptor;
+import com.starrocks.analysis.TupleId;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
+import com.starrocks.sql.optimizer.statistics.Statistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RuntimeFilterDescriptionTest {
+    private PlanNode probeNode;
+    private SlotRef probeExpr;
+
+    // 1000000 probe rows with 1000 distinct keys
+    @Before
+    public void setUp() {
+        TupleDescriptor tuple = new TupleDescriptor(new TupleId(0));
+        probeExpr = new SlotRef(new SlotDescriptor(new SlotId(1), tuple));
+        probeNode = new EmptySetNode(new PlanNodeId(1), Lists.newArrayList(tuple.getId()));
+        probeNode.computeStatistics(Statistics.builder().setOutputRowCount(1000000)
+                .addColumnStatistic(new ColumnRefOperator(1, Type.INT, "k", true),
+                        ColumnStatistic.builder().setMinValue(1).setMaxValue(1000).setDistinctValuesCount(1000)
+                                .setNullsFraction(0).setAverageRowSize(4).build())
+                .build());
+    }
+
+    private static RuntimeFilterDescription createFilter(long buildRows, double buildDistinctValues) {
+        RuntimeFilterDescription rf = new RuntimeFilterDescription();
+        rf.setJoinMode(HashJoinNode.DistributionMode.BROADCAST);
+        rf.setBuildCardinality(buildRows);
+        rf.setBuildDistinctValues(buildDistinctValues);
+        rf.setCostBased(true);
+        return rf;
+    }
+
+    @Test
+    public void testLocalFilter() {
+        // 99% rows are filtered
+        Assert.assertTrue(createFilter(10, 10).canProbeUse(probeNode, probeExpr));
+        // All the keys are in the build side
+        Assert.assertFalse(createFilter(1000, 1000).canProbeUse(probeNode, probeExpr));
+        // Unknown statistics, the local filter is always used
+        Assert.assertTrue(createFilter(1000, -1).canProbeUse(probeNode, probeExpr));
+    }
+
+    @Test
+    public void testGlobalFilter() {
+        RuntimeFilterDescription rf = createFilter(1000, 100);
+        rf.enterExchangeNode();
+        Assert.assertTrue(rf.canProbeUse(probeNode, probeExpr));
+
+        // Filters 900000 rows, but sends a filter of 900000 rows
+        rf = createFilter(900000, 100);
+        rf.enterExchangeNode();
+        Assert.assertFalse(rf.canProbeUse(probeNode, probeExpr));
+
+        // Filters only 40% rows
+        rf = createFilter(600, 600);
+        rf.enterExchangeNode();
+        Assert.assertFalse(rf.canProbeUse(probeNode, probeExpr));
+    }
+
+    @Test
+    public void testOnlyLocal() {
+        RuntimeFilterDescription rf = createFilter(10, 10);
+        Assert.assertTrue(rf.canPushAcrossExchangeNode());
+        rf.setOnlyLocal(true);
+        Assert.assertFalse(rf.canPushAcrossExchangeNode());
+    }
+}
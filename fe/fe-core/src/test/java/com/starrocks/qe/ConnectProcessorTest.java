@@ -21,20 +21,26 @@
 
 package com.starrocks.qe;
 
+import com.google.common.collect.Lists;
 import com.starrocks.analysis.AccessTestUtil;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.common.jmockit.Deencapsulation;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.mysql.MysqlCapability;
 import com.starrocks.mysql.MysqlChannel;
+import com.starrocks.mysql.MysqlColType;
 import com.starrocks.mysql.MysqlCommand;
 import com.starrocks.mysql.MysqlEofPacket;
 import com.starrocks.mysql.MysqlErrPacket;
 import com.starrocks.mysql.MysqlOkPacket;
+import com.starrocks.mysql.MysqlProto;
 import com.starrocks.mysql.MysqlSerializer;
 import com.starrocks.plugin.AuditEvent.AuditEventBuilder;
 import com.starrocks.proto.PQueryStatistics;
+import com.starrocks.thrift.TResultBatch;
 import com.starrocks.thrift.TUniqueId;
+import com.starrocks.utframe.StarRocksAssert;
+import com.starrocks.utframe.UtFrameUtils;
 import mockit.Expectations;
 import mockit.Mocked;
 import org.junit.Assert;
@@ -45,8 +51,14 @@ import org.junit.Test;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
 
 public class ConnectProcessorTest {
+    private static final String RUNNING_DIR = "fe/mocked/ConnectProcessorTest/" + UUID.randomUUID().toString() + "/";
+
     private static ByteBuffer initDbPacket;
     private static ByteBuffer changeUserPacket;
     private static ByteBuffer resetConnectionPacket;
@@ -517,6 +529,169 @@ public class ConnectProcessorTest {
         Assert.assertFalse(myContext.isKilled());
     }
 
+    // The packets of the commands are fetched in order, the sent packets are captured
+    private static MysqlChannel captureChannel(Queue<ByteBuffer> packets, List<ByteBuffer> sentPackets) {
+        return new MysqlChannel(socketChannel) {
+            @Override
+            public ByteBuffer fetchOnePacket() {
+                return packets.poll();
+            }
+
+            @Override
+            public void sendOnePacket(ByteBuffer packet) {
+                ByteBuffer copy = ByteBuffer.allocate(packet.remaining());
+                copy.put(packet).flip();
+                sentPackets.add(copy);
+            }
+
+            @Override
+            public void sendAndFlush(ByteBuffer packet) {
+                sendOnePacket(packet);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public String getRemoteHostPortString() {
+                return "127.0.0.1:12345";
+            }
+        };
+    }
+
+    // returns the type of Protocol::ColumnDefinition41
+    private static int readColumnType(ByteBuffer packet) {
+        // catalog, schema, table, origin table, name and origin name
+        for (int i = 0; i < 6; ++i) {
+            MysqlProto.readLenEncodedString(packet);
+        }
+        MysqlProto.readVInt(packet);
+        // character set and column length
+        MysqlProto.readInt2(packet);
+        MysqlProto.readInt4(packet);
+        return MysqlProto.readInt1(packet);
+    }
+
+    private static boolean isEofPacket(ByteBuffer packet) {
+        return packet.remaining() == 5 && MysqlProto.readInt1(packet) == 0xfe;
+    }
+
+    @Test
+    public void testPreparedStatement(@Mocked Coordinator coordinator) throws Exception {
+        UtFrameUtils.createMinStarRocksCluster(RUNNING_DIR);
+        ConnectContext context = UtFrameUtils.createDefaultCtx();
+        StarRocksAssert starRocksAssert = new StarRocksAssert(context);
+        starRocksAssert.withDatabase("test").useDatabase("test");
+        starRocksAssert.enableNewPlanner();
+        starRocksAssert.withTable("CREATE TABLE `pstmt` (\n"
+                + "  `k` int(11) NOT NULL COMMENT \"\",\n"
+                + "  `v` varchar(10) NULL COMMENT \"\"\n"
+                + ") ENGINE=OLAP\n"
+                + "DUPLICATE KEY(`k`)\n"
+                + "DISTRIBUTED BY HASH(`k`) BUCKETS 2\n"
+                + "PROPERTIES (\n"
+                + "\"replication_num\" = \"1\"\n"
+                + ");");
+
+        Queue<ByteBuffer> packets = new ArrayDeque<>();
+        List<ByteBuffer> sentPackets = Lists.newArrayList();
+        Deencapsulation.setField(context, "mysqlChannel", captureChannel(packets, sentPackets));
+        // negotiated by the handshake
+        context.setCapability(MysqlCapability.DEFAULT_CAPABILITY);
+        context.getSerializer().setCapability(MysqlCapability.DEFAULT_CAPABILITY);
+        ConnectProcessor processor = new ConnectProcessor(context);
+
+        // COM_STMT_PREPARE
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt1(MysqlCommand.COM_STMT_PREPARE.getCommandCode());
+        serializer.writeEofString("select k, v from pstmt where k = ?");
+        packets.add(serializer.toByteBuffer());
+        processor.processOnce();
+        Assert.assertEquals(QueryState.MysqlStateType.EOF, context.getState().getStateType());
+        // COM_STMT_PREPARE_OK, the definition of the parameter and the EOF after it
+        Assert.assertEquals(3, sentPackets.size());
+        ByteBuffer packet = sentPackets.get(0);
+        Assert.assertEquals(12, packet.remaining());
+        Assert.assertEquals(0, MysqlProto.readInt1(packet));
+        int stmtId = MysqlProto.readInt4(packet);
+        Assert.assertNotNull(context.getPreparedStatement(stmtId));
+        // the columns are sent by the executions
+        Assert.assertEquals(0, MysqlProto.readInt2(packet));
+        Assert.assertEquals(1, MysqlProto.readInt2(packet));
+        // reserved and the warning count
+        Assert.assertEquals(0, MysqlProto.readInt1(packet));
+        Assert.assertEquals(0, MysqlProto.readInt2(packet));
+        Assert.assertEquals(MysqlColType.MYSQL_TYPE_STRING.getCode(), readColumnType(sentPackets.get(1)));
+        Assert.assertTrue(isEofPacket(sentPackets.get(2)));
+
+        // COM_STMT_EXECUTE, the text rows returned by the backends are sent as the binary rows
+        TResultBatch resultBatch = new TResultBatch(Lists.newArrayList(), false, 0);
+        serializer.reset();
+        serializer.writeLenEncodedString("1");
+        serializer.writeLenEncodedString("abc");
+        resultBatch.addToRows(serializer.toByteBuffer());
+        serializer.reset();
+        serializer.writeLenEncodedString("1");
+        serializer.writeNull();
+        resultBatch.addToRows(serializer.toByteBuffer());
+        RowBatch rowBatch = new RowBatch();
+        rowBatch.setBatch(resultBatch);
+        rowBatch.setEos(true);
+        new Expectations() {
+            {
+                coordinator.getNext();
+                result = rowBatch;
+            }
+        };
+
+        sentPackets.clear();
+        serializer.reset();
+        serializer.writeInt1(MysqlCommand.COM_STMT_EXECUTE.getCommandCode());
+        serializer.writeInt4(stmtId);
+        // flags and iteration count
+        serializer.writeInt1(0);
+        serializer.writeInt4(1);
+        // null bitmap, new params bound, the type and the value of the parameter
+        serializer.writeInt1(0);
+        serializer.writeInt1(1);
+        serializer.writeInt2(MysqlColType.MYSQL_TYPE_LONGLONG.getCode());
+        serializer.writeInt8(1);
+        packets.add(serializer.toByteBuffer());
+        processor.processOnce();
+        Assert.assertEquals(context.getState().getErrorMessage(), QueryState.MysqlStateType.EOF,
+                context.getState().getStateType());
+        // the column count, the column definitions, EOF, the rows and EOF
+        Assert.assertEquals(7, sentPackets.size());
+        Assert.assertEquals(2, MysqlProto.readVInt(sentPackets.get(0)));
+        Assert.assertEquals(MysqlColType.MYSQL_TYPE_LONG.getCode(), readColumnType(sentPackets.get(1)));
+        Assert.assertEquals(MysqlColType.MYSQL_TYPE_VAR_STRING.getCode(), readColumnType(sentPackets.get(2)));
+        Assert.assertTrue(isEofPacket(sentPackets.get(3)));
+        packet = sentPackets.get(4);
+        Assert.assertEquals(0, MysqlProto.readInt1(packet));
+        Assert.assertEquals(0, MysqlProto.readInt1(packet));
+        Assert.assertEquals(1, MysqlProto.readInt4(packet));
+        Assert.assertEquals("abc", new String(MysqlProto.readLenEncodedString(packet)));
+        Assert.assertFalse(packet.hasRemaining());
+        packet = sentPackets.get(5);
+        Assert.assertEquals(0, MysqlProto.readInt1(packet));
+        // null bitmap with the offset of 2 bits, the 2nd column is null
+        Assert.assertEquals(0x08, MysqlProto.readInt1(packet));
+        Assert.assertEquals(1, MysqlProto.readInt4(packet));
+        Assert.assertFalse(packet.hasRemaining());
+        Assert.assertTrue(isEofPacket(sentPackets.get(6)));
+
+        // COM_STMT_CLOSE, nothing is sent
+        sentPackets.clear();
+        serializer.reset();
+        serializer.writeInt1(MysqlCommand.COM_STMT_CLOSE.getCommandCode());
+        serializer.writeInt4(stmtId);
+        packets.add(serializer.toByteBuffer());
+        processor.processOnce();
+        Assert.assertTrue(sentPackets.isEmpty());
+        Assert.assertNull(context.getPreparedStatement(stmtId));
+    }
+
     @Test
     public void testNullPacket() throws Exception {
         ConnectContext ctx = initMockContext(mockChannel(null), AccessTestUtil.fetchAdminCatalog());
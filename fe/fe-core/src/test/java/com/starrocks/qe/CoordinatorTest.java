@@ -39,6 +39,7 @@ import com.starrocks.planner.DataPartition;
 import com.starrocks.planner.DataStreamSink;
 import com.starrocks.planner.EmptySetNode;
 import com.starrocks.planner.ExchangeNode;
+import com.starrocks.planner.ExportSink;
 import com.starrocks.planner.HashJoinNode;
 import com.starrocks.planner.HdfsScanNode;
 import com.starrocks.planner.OlapScanNode;
@@ -48,9 +49,16 @@ import com.starrocks.planner.PlanNodeId;
 import com.starrocks.planner.Planner;
 import com.starrocks.service.FrontendOptions;
 import com.starrocks.system.Backend;
+import com.starrocks.thrift.InternalServiceVersion;
+import com.starrocks.thrift.TDataPartition;
+import com.starrocks.thrift.TDescriptorTable;
+import com.starrocks.thrift.TExecBatchPlanFragmentsParams;
+import com.starrocks.thrift.TExecPlanFragmentParams;
 import com.starrocks.thrift.THdfsScanRange;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TPartitionType;
+import com.starrocks.thrift.TPlanFragment;
+import com.starrocks.thrift.TPlanFragmentExecParams;
 import com.starrocks.thrift.TScanRange;
 import com.starrocks.thrift.TScanRangeLocation;
 import com.starrocks.thrift.TScanRangeLocations;
@@ -292,6 +300,91 @@ public class CoordinatorTest extends Coordinator {
         Assert.assertEquals(0, shuffleFragmentParam.destinations.get(2).getServer().port);
     }
 
+    @Test
+    public void testComputeFragmentLevels() {
+        // f2 is the input of both f0 and f1, e.g. the reused CTE
+        List<PlanFragment> fragments = Lists.newArrayList();
+        Map<PlanFragmentId, FragmentExecParams> fragmentExecParamsMap = Maps.newHashMap();
+        for (int i = 0; i < 4; i++) {
+            PlanFragment fragment = new PlanFragment(new PlanFragmentId(i), null, null);
+            fragments.add(fragment);
+            fragmentExecParamsMap.put(fragment.getFragmentId(), new FragmentExecParams(fragment));
+        }
+        fragmentExecParamsMap.get(new PlanFragmentId(0)).inputFragments
+                .addAll(Lists.newArrayList(new PlanFragmentId(1), new PlanFragmentId(2)));
+        fragmentExecParamsMap.get(new PlanFragmentId(1)).inputFragments.add(new PlanFragmentId(2));
+        fragmentExecParamsMap.get(new PlanFragmentId(2)).inputFragments.add(new PlanFragmentId(3));
+
+        Coordinator coordinator = new Coordinator(context, fragments, Lists.newArrayList(), null);
+        Deencapsulation.setField(coordinator, "fragmentExecParamsMap", fragmentExecParamsMap);
+        Map<PlanFragmentId, Integer> levels = Deencapsulation.invoke(coordinator, "computeFragmentLevels");
+        // the fragment is sent after all the fragments receiving its data
+        Assert.assertEquals(0, (int) levels.get(new PlanFragmentId(0)));
+        Assert.assertEquals(1, (int) levels.get(new PlanFragmentId(1)));
+        Assert.assertEquals(2, (int) levels.get(new PlanFragmentId(2)));
+        Assert.assertEquals(3, (int) levels.get(new PlanFragmentId(3)));
+    }
+
+    @Test
+    public void testCreateBatchParams() {
+        Coordinator coordinator = new Coordinator(context, Lists.newArrayList(), Lists.newArrayList(), null);
+        TNetworkAddress address = new TNetworkAddress("host1", 9060);
+        Deencapsulation.setField(coordinator, "idToBackend", ImmutableMap.of(10L, new Backend(10L, "host1", 9050)));
+        Map<TNetworkAddress, Long> addressToBackendID = ImmutableMap.of(address, 10L);
+        Map<PlanFragmentId, FragmentExecParams> fragmentExecParamsMap =
+                Deencapsulation.getField(coordinator, "fragmentExecParamsMap");
+
+        // two instances of each fragment, f1 exports the data
+        List<BackendExecState> execStates = Lists.newArrayList();
+        for (int i = 0; i < 2; i++) {
+            PlanFragment fragment = new PlanFragment(new PlanFragmentId(i), null, null);
+            if (i == 1) {
+                fragment.setSink(new ExportSink("hdfs://export/", ",", "\n", null));
+            }
+            FragmentExecParams params = new FragmentExecParams(fragment);
+            fragmentExecParamsMap.put(fragment.getFragmentId(), params);
+            for (int j = 0; j < 2; j++) {
+                params.instanceExecParams.add(new FInstanceExecParam(new TUniqueId(i, j), address, j, params));
+                TExecPlanFragmentParams rpcParams = new TExecPlanFragmentParams();
+                rpcParams.setProtocol_version(InternalServiceVersion.V1);
+                rpcParams.setDesc_tbl(new TDescriptorTable());
+                TPlanFragment tFragment = new TPlanFragment(new TDataPartition(TPartitionType.RANDOM));
+                tFragment.setMin_reservation_bytes(i * 10 + j);
+                rpcParams.setFragment(tFragment);
+                rpcParams.setParams(new TPlanFragmentExecParams());
+                rpcParams.getParams().setFragment_instance_id(new TUniqueId(i, j));
+                rpcParams.setBackend_num(i * 2 + j);
+                rpcParams.setIs_pipeline(i == 0);
+                execStates.add(coordinator.new BackendExecState(fragment.getFragmentId(), j, i, rpcParams,
+                        addressToBackendID));
+            }
+        }
+
+        TExecBatchPlanFragmentsParams batchParams =
+                Deencapsulation.invoke(coordinator, "createBatchParams", execStates);
+        Assert.assertTrue(batchParams.getCommon_param().isSetDesc_tbl());
+        Assert.assertFalse(batchParams.getCommon_param().isSetFragment());
+        Assert.assertFalse(batchParams.getCommon_param().isSetParams());
+        // the fragment of f0 is sent once, the fragment of each instance of the export sink has a different
+        // file name prefix, so it's sent for each instance
+        Assert.assertEquals(3, batchParams.getFragmentsSize());
+        Assert.assertEquals(Lists.newArrayList(0, 0, 1, 2), batchParams.getFragment_indexes());
+        Assert.assertEquals(0, batchParams.getFragments().get(0).getMin_reservation_bytes());
+        Assert.assertEquals(10, batchParams.getFragments().get(1).getMin_reservation_bytes());
+        Assert.assertEquals(11, batchParams.getFragments().get(2).getMin_reservation_bytes());
+
+        Assert.assertEquals(4, batchParams.getUnique_paramsSize());
+        for (int i = 0; i < 4; i++) {
+            TExecPlanFragmentParams uniqueParams = batchParams.getUnique_params().get(i);
+            Assert.assertEquals(new TUniqueId(i / 2, i % 2), uniqueParams.getParams().getFragment_instance_id());
+            Assert.assertEquals(i, uniqueParams.getBackend_num());
+            Assert.assertTrue(uniqueParams.isSetIs_pipeline());
+            Assert.assertEquals(i < 2, uniqueParams.isIs_pipeline());
+            Assert.assertFalse(uniqueParams.isSetFragment());
+            Assert.assertFalse(uniqueParams.isSetDesc_tbl());
+        }
+    }
+
     private TScanRangeLocations createScanRangeLocations(String fileName, List<String> hosts, long scanRangeBytes) {
         TScanRangeLocations scanRangeLocations = new TScanRangeLocations();
 
@@ -0,0 +1,250 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.starrocks.common.Config;
+import com.starrocks.common.UserException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class QueryQueueManagerTest {
+    private final boolean defaultEnable = Config.enable_query_queue;
+    private final int defaultConcurrencyLimit = Config.query_queue_concurrency_limit;
+    private final String defaultConcurrencyLimitByGroup = Config.query_queue_concurrency_limit_by_group;
+    private final long defaultMemLimit = Config.query_queue_mem_limit_bytes;
+    private final String defaultMemLimitByGroup = Config.query_queue_mem_limit_bytes_by_group;
+    private final int defaultMaxQueued = Config.query_queue_max_queued_queries;
+    private final int defaultTimeout = Config.query_queue_pending_timeout_second;
+
+    private QueryQueueManager manager;
+
+    @Before
+    public void setUp() {
+        Config.enable_query_queue = true;
+        Config.query_queue_concurrency_limit = 1;
+        Config.query_queue_concurrency_limit_by_group = "";
+        Config.query_queue_mem_limit_bytes = 0;
+        Config.query_queue_mem_limit_bytes_by_group = "";
+        Config.query_queue_max_queued_queries = 1024;
+        Config.query_queue_pending_timeout_second = 300;
+        manager = new QueryQueueManager();
+    }
+
+    @After
+    public void tearDown() {
+        Config.enable_query_queue = defaultEnable;
+        Config.query_queue_concurrency_limit = defaultConcurrencyLimit;
+        Config.query_queue_concurrency_limit_by_group = defaultConcurrencyLimitByGroup;
+        Config.query_queue_mem_limit_bytes = defaultMemLimit;
+        Config.query_queue_mem_limit_bytes_by_group = defaultMemLimitByGroup;
+        Config.query_queue_max_queued_queries = defaultMaxQueued;
+        Config.query_queue_pending_timeout_second = defaultTimeout;
+    }
+
+    private QueryQueueManager.QueryEntry createEntry(String queryId, String group, int priority, long memLimit) {
+        return manager.createEntry(queryId, 1, "root", group, priority, memLimit, "select 1");
+    }
+
+    private Future<Void> acquireAsync(QueryQueueManager.QueryEntry entry) throws InterruptedException {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        new Thread(() -> {
+            try {
+                manager.acquire(entry);
+                future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }).start();
+        // wait until the query is put into the queue
+        while (!future.isDone() && !manager.getQueuedQueries().contains(entry)) {
+            Thread.sleep(10);
+        }
+        return future;
+    }
+
+    private List<String> queryIds(List<QueryQueueManager.QueryEntry> entries) {
+        return entries.stream().map(QueryQueueManager.QueryEntry::getQueryId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        QueryQueueManager.QueryEntry q1 = createEntry("q1", "normal", 0, 0);
+        manager.acquire(q1);
+        // the other groups have their own slots
+        QueryQueueManager.QueryEntry q2 = createEntry("q2", "high", 0, 0);
+        manager.acquire(q2);
+        Assert.assertEquals(1, manager.getRunningNum("normal"));
+        Assert.assertEquals(1, manager.getRunningNum("high"));
+
+        QueryQueueManager.QueryEntry q3 = createEntry("q3", "normal", 0, 0);
+        Future<Void> future = acquireAsync(q3);
+        Assert.assertFalse(future.isDone());
+        Assert.assertEquals(1, manager.getQueuedNum("normal"));
+
+        manager.release(q1);
+        future.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(0, manager.getQueuedNum("normal"));
+        Assert.assertEquals(Arrays.asList("q2", "q3"), queryIds(manager.getRunningQueries()));
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        QueryQueueManager.QueryEntry running = createEntry("running", "normal", 0, 0);
+        manager.acquire(running);
+
+        QueryQueueManager.QueryEntry low = createEntry("low", "normal", 0, 0);
+        QueryQueueManager.QueryEntry high = createEntry("high", "normal", 10, 0);
+        Future<Void> lowFuture = acquireAsync(low);
+        Future<Void> highFuture = acquireAsync(high);
+        Assert.assertEquals(Arrays.asList("high", "low"), queryIds(manager.getQueuedQueries()));
+
+        manager.release(running);
+        highFuture.get(10, TimeUnit.SECONDS);
+        Assert.assertFalse(lowFuture.isDone());
+
+        manager.release(high);
+        lowFuture.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testMemLimit() throws Exception {
+        Config.query_queue_concurrency_limit = 0;
+        Config.query_queue_mem_limit_bytes = 100;
+        // a query larger than the limit runs alone
+        QueryQueueManager.QueryEntry large = createEntry("large", "normal", 0, 200);
+        manager.acquire(large);
+
+        QueryQueueManager.QueryEntry small1 = createEntry("small1", "normal", 0, 50);
+        QueryQueueManager.QueryEntry small2 = createEntry("small2", "normal", 0, 50);
+        QueryQueueManager.QueryEntry small3 = createEntry("small3", "normal", 0, 50);
+        Future<Void> future1 = acquireAsync(small1);
+        Future<Void> future2 = acquireAsync(small2);
+        Future<Void> future3 = acquireAsync(small3);
+
+        manager.release(large);
+        future1.get(10, TimeUnit.SECONDS);
+        future2.get(10, TimeUnit.SECONDS);
+        Assert.assertFalse(future3.isDone());
+        Assert.assertEquals(2, manager.getRunningNum("normal"));
+
+        manager.release(small1);
+        future3.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testGroupLimit() throws Exception {
+        Config.query_queue_concurrency_limit_by_group = "high:2, low:0";
+        Config.query_queue_mem_limit_bytes_by_group = "normal:100";
+        Assert.assertEquals(2, QueryQueueManager.getGroupLimit(Config.query_queue_concurrency_limit_by_group,
+                "high", 1));
+        Assert.assertEquals(1, QueryQueueManager.getGroupLimit(Config.query_queue_concurrency_limit_by_group,
+                "normal", 1));
+        Assert.assertEquals(1, QueryQueueManager.getGroupLimit("high:x", "high", 1));
+
+        manager.acquire(createEntry("high1", "high", 0, 0));
+        manager.acquire(createEntry("high2", "high", 0, 0));
+        // no limit of the low group
+        for (int i = 0; i < 3; i++) {
+            manager.acquire(createEntry("low" + i, "low", 0, 0));
+        }
+        Assert.assertEquals(2, manager.getRunningNum("high"));
+        Assert.assertEquals(3, manager.getRunningNum("low"));
+        Future<Void> highFuture = acquireAsync(createEntry("high3", "high", 0, 0));
+        Assert.assertFalse(highFuture.isDone());
+
+        // the normal group uses the default concurrency limit and its own memory limit
+        Config.query_queue_concurrency_limit = 0;
+        manager.acquire(createEntry("normal1", "normal", 0, 60));
+        Future<Void> normalFuture = acquireAsync(createEntry("normal2", "normal", 0, 60));
+        Assert.assertFalse(normalFuture.isDone());
+        Assert.assertEquals(1, manager.getRunningNum("normal"));
+
+        // the queued queries are admitted once the queue is disabled
+        Config.enable_query_queue = false;
+        highFuture.get(10, TimeUnit.SECONDS);
+        normalFuture.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testRaiseLimit() throws Exception {
+        manager.acquire(createEntry("q1", "normal", 0, 0));
+        Future<Void> future = acquireAsync(createEntry("q2", "normal", 0, 0));
+        Assert.assertFalse(future.isDone());
+
+        // the queued query is admitted without any query being released
+        Config.query_queue_concurrency_limit_by_group = "normal:2";
+        future.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, manager.getRunningNum("normal"));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        Config.query_queue_pending_timeout_second = 1;
+        manager.acquire(createEntry("q1", "normal", 0, 0));
+        try {
+            manager.acquire(createEntry("q2", "normal", 0, 0));
+            Assert.fail();
+        } catch (UserException e) {
+            Assert.assertTrue(e.getMessage().contains("for more than 1 seconds"));
+        }
+        Assert.assertEquals(0, manager.getQueuedNum("normal"));
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        manager.acquire(createEntry("q1", "normal", 0, 0));
+        QueryQueueManager.QueryEntry q2 = createEntry("q2", "normal", 0, 0);
+        Future<Void> future = acquireAsync(q2);
+        manager.cancel(q2);
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof UserException);
+            Assert.assertTrue(e.getCause().getMessage().contains("cancelled"));
+        }
+        Assert.assertEquals(0, manager.getQueuedNum("normal"));
+        Assert.assertEquals(1, manager.getRunningNum("normal"));
+    }
+
+    @Test
+    public void testRejectAndDisable() throws Exception {
+        Config.query_queue_max_queued_queries = 1;
+        QueryQueueManager.QueryEntry q1 = createEntry("q1", "normal", 0, 0);
+        manager.acquire(q1);
+        QueryQueueManager.QueryEntry q2 = createEntry("q2", "normal", 0, 0);
+        Future<Void> future = acquireAsync(q2);
+        try {
+            manager.acquire(createEntry("q3", "normal", 0, 0));
+            Assert.fail();
+        } catch (UserException e) {
+            Assert.assertTrue(e.getMessage().contains("Too many queries"));
+        }
+
+        // the queries are not limited when the queue is disabled
+        Config.enable_query_queue = false;
+        manager.acquire(createEntry("q4", "normal", 0, 0));
+        Assert.assertEquals(2, manager.getRunningNum("normal"));
+        // the queued query is admitted once it is woken up
+        manager.release(q1);
+        future.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, manager.getRunningNum("normal"));
+    }
+
+    @Test
+    public void testUnknownGroup() throws Exception {
+        manager.acquire(createEntry("q1", "unknown", 0, 0));
+        Assert.assertEquals(1, manager.getRunningNum("normal"));
+        Assert.assertEquals("normal", manager.getRunningQueries().get(0).getGroup());
+    }
+}
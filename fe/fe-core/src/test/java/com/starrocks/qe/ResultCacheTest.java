@@ -0,0 +1,286 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+package com.starrocks.qe;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.QueryStmt;
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.Replica;
+import com.starrocks.catalog.Tablet;
+import com.starrocks.common.Config;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.thrift.TScanRangeLocations;
+import com.starrocks.utframe.StarRocksAssert;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class ResultCacheTest {
+    private static final String RUNNING_DIR = "fe/mocked/ResultCacheTest/" + UUID.randomUUID().toString() + "/";
+
+    private static ConnectContext connectContext;
+
+    private final long maxSizeMb = Config.result_cache_max_size_mb;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        UtFrameUtils.createMinStarRocksCluster(RUNNING_DIR);
+        // the empty partitions are not pruned
+        FeConstants.runningUnitTest = true;
+        connectContext = UtFrameUtils.createDefaultCtx();
+        StarRocksAssert starRocksAssert = new StarRocksAssert(connectContext);
+        starRocksAssert.withDatabase("test").useDatabase("test");
+        starRocksAssert.enableNewPlanner();
+        starRocksAssert.withTable("CREATE TABLE `rcache` (\n"
+                + "  `d` date NOT NULL COMMENT \"\",\n"
+                + "  `k` int(11) NOT NULL COMMENT \"\",\n"
+                + "  `v` int(11) NULL COMMENT \"\"\n"
+                + ") ENGINE=OLAP\n"
+                + "DUPLICATE KEY(`d`, `k`)\n"
+                + "PARTITION BY RANGE(`d`)\n"
+                + "(PARTITION p1 VALUES [('2020-01-01'), ('2020-02-01')),\n"
+                + "PARTITION p2 VALUES [('2020-02-01'), ('2020-03-01')),\n"
+                + "PARTITION p3 VALUES [('2020-03-01'), ('2020-04-01')))\n"
+                + "DISTRIBUTED BY HASH(`k`) BUCKETS 2\n"
+                + "PROPERTIES (\n"
+                + "\"replication_num\" = \"1\"\n"
+                + ");");
+        connectContext.getSessionVariable().setEnableResultCache(true);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        FeConstants.runningUnitTest = false;
+        File file = new File(RUNNING_DIR);
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        Config.result_cache_max_size_mb = maxSizeMb;
+        ResultCache.getInstance().clear();
+    }
+
+    private static ByteBuffer createRow(String... values) {
+        ByteBuffer row = ByteBuffer.allocate(1024);
+        for (String value : values) {
+            if (value == null) {
+                row.put((byte) 0xFB);
+                continue;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < 0xFB) {
+                row.put((byte) bytes.length);
+            } else {
+                row.put((byte) 0xFC);
+                row.put((byte) (bytes.length & 0xFF));
+                row.put((byte) (bytes.length >> 8));
+            }
+            row.put(bytes);
+        }
+        row.flip();
+        return row;
+    }
+
+    @Test
+    public void testReadColumn() {
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            longValue.append('a');
+        }
+        ByteBuffer row = createRow("2021-01-01", null, longValue.toString(), "10");
+        Assert.assertEquals("2021-01-01", ResultCache.readColumn(row, 0));
+        Assert.assertNull(ResultCache.readColumn(row, 1));
+        Assert.assertEquals(longValue.toString(), ResultCache.readColumn(row, 2));
+        Assert.assertEquals("10", ResultCache.readColumn(row, 3));
+        // the position of the row is not changed
+        Assert.assertEquals(0, row.position());
+    }
+
+    @Test
+    public void testInvalidateByVersion() {
+        ResultCache cache = ResultCache.getInstance();
+        List<ByteBuffer> rows = Lists.newArrayList(createRow("1"));
+        cache.put("q1", ImmutableList.of(1L, 10L), rows, 2);
+
+        Assert.assertEquals(rows, cache.get("q1", ImmutableList.of(1L, 10L)));
+        Assert.assertNull(cache.get("q2", ImmutableList.of(1L, 10L)));
+        // the partition is loaded
+        Assert.assertNull(cache.get("q1", ImmutableList.of(1L, 11L)));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getUsedBytes());
+    }
+
+    @Test
+    public void testEvict() {
+        Config.result_cache_max_size_mb = 1;
+        ResultCache cache = ResultCache.getInstance();
+        long entryBytes = 400 * 1024;
+        cache.put("q1", ImmutableList.of(1L), Lists.newArrayList(), entryBytes);
+        cache.put("q2", ImmutableList.of(1L), Lists.newArrayList(), entryBytes);
+        // q1 is the most recently used one
+        Assert.assertNotNull(cache.get("q1", ImmutableList.of(1L)));
+        cache.put("q3", ImmutableList.of(1L), Lists.newArrayList(), entryBytes);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(2 * entryBytes, cache.getUsedBytes());
+        Assert.assertNotNull(cache.get("q1", ImmutableList.of(1L)));
+        Assert.assertNull(cache.get("q2", ImmutableList.of(1L)));
+        Assert.assertNotNull(cache.get("q3", ImmutableList.of(1L)));
+    }
+
+    private static ResultCache.Lookup lookup(String sql) throws Exception {
+        return lookup(sql, UtFrameUtils.getNewPlanAndFragment(connectContext, sql).second);
+    }
+
+    private static ResultCache.Lookup lookup(String sql, ExecPlan plan) throws Exception {
+        SqlScanner input = new SqlScanner(new StringReader(sql), connectContext.getSessionVariable().getSqlMode());
+        QueryStmt stmt = (QueryStmt) SqlParserUtils.getFirstStmt(new SqlParser(input));
+        stmt.setOrigStmt(new OriginStatement(sql, 0));
+        return ResultCache.getInstance().lookup(plan, stmt, connectContext);
+    }
+
+    private static ResultCache.Lookup lookupAndRun(String sql, List<ByteBuffer> rows) throws Exception {
+        ResultCache.Lookup lookup = lookup(sql);
+        Assert.assertNotNull(lookup);
+        if (!lookup.isHit()) {
+            lookup.reset();
+            rows.forEach(lookup::addRow);
+            lookup.finish();
+        }
+        return lookup;
+    }
+
+    private static Partition getPartition(String name) {
+        OlapTable table = (OlapTable) Catalog.getCurrentCatalog().getDb("default_cluster:test").getTable("rcache");
+        return table.getPartition(name);
+    }
+
+    // a load into the partition
+    private static void loadPartition(String name) {
+        Partition partition = getPartition(name);
+        long version = partition.getVisibleVersion() + 1;
+        long versionHash = partition.getVisibleVersionHash();
+        for (Tablet tablet : partition.getBaseIndex().getTablets()) {
+            for (Replica replica : tablet.getReplicas()) {
+                replica.updateVersionInfo(version, versionHash, replica.getDataSize(), replica.getRowCount());
+            }
+        }
+        partition.updateVisibleVersionAndVersionHash(version, versionHash);
+    }
+
+    private static List<String> readColumn(List<ByteBuffer> rows, int columnIndex) {
+        return rows.stream().map(row -> ResultCache.readColumn(row, columnIndex)).sorted()
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testLookup() throws Exception {
+        // not grouped by the partition column, the result is cached as a whole
+        String sql = "select v, count(*) from rcache group by v";
+        ResultCache.Lookup lookup = lookupAndRun(sql, Lists.newArrayList(createRow("1", "10"), createRow("2", "20")));
+        Assert.assertFalse(lookup.isHit());
+        Assert.assertFalse(lookup.isPartialHit());
+        Assert.assertEquals(1, ResultCache.getInstance().size());
+
+        lookup = lookup(sql);
+        Assert.assertTrue(lookup.isHit());
+        Assert.assertEquals(Lists.newArrayList("10", "20"), readColumn(lookup.getCachedRows(), 1));
+
+        // other queries don't use it
+        lookup = lookup("select v, count(*) from rcache where k > 1 group by v");
+        Assert.assertFalse(lookup.isHit());
+        lookup = lookup("select v, count(*) from rcache group by v limit 1");
+        Assert.assertFalse(lookup.isHit());
+
+        // the load into any partition invalidates it
+        loadPartition("p1");
+        lookup = lookup(sql);
+        Assert.assertFalse(lookup.isHit());
+        Assert.assertFalse(lookup.isPartialHit());
+
+        // the result of a non-deterministic query is not cached
+        Assert.assertNull(lookup("select v, rand() from rcache"));
+    }
+
+    @Test
+    public void testPartitionMode() throws Exception {
+        String sql = "select d, count(*) from rcache group by d";
+        List<ByteBuffer> rows = Lists.newArrayList(createRow("2020-01-15", "1"), createRow("2020-02-15", "2"),
+                createRow("2020-03-15", "3"), createRow("2020-03-16", "4"));
+        ResultCache.Lookup lookup = lookupAndRun(sql, rows);
+        Assert.assertFalse(lookup.isHit());
+        Assert.assertFalse(lookup.isPartialHit());
+        // cached by partition
+        Assert.assertEquals(3, ResultCache.getInstance().size());
+
+        lookup = lookup(sql);
+        Assert.assertTrue(lookup.isHit());
+        Assert.assertEquals(Lists.newArrayList("1", "2", "3", "4"), readColumn(lookup.getCachedRows(), 1));
+
+        // the rows which are not in the scanned partitions are not cached
+        ResultCache.getInstance().clear();
+        lookupAndRun(sql, Lists.newArrayList(createRow("2020-01-15", "1"), createRow("2021-01-15", "2")));
+        Assert.assertEquals(0, ResultCache.getInstance().size());
+        lookupAndRun(sql, Lists.newArrayList(createRow(null, "1")));
+        Assert.assertEquals(0, ResultCache.getInstance().size());
+
+        // the rows don't depend on one partition, the result is cached as a whole
+        ResultCache.getInstance().clear();
+        lookupAndRun("select d, count(*) from rcache group by d limit 10", rows);
+        Assert.assertEquals(1, ResultCache.getInstance().size());
+        lookupAndRun("select count(*) from rcache", Lists.newArrayList(createRow("10")));
+        Assert.assertEquals(2, ResultCache.getInstance().size());
+    }
+
+    @Test
+    public void testPartialHit() throws Exception {
+        String sql = "select d, sum(v) from rcache group by d";
+        lookupAndRun(sql, Lists.newArrayList(createRow("2020-01-15", "1"), createRow("2020-02-15", "2"),
+                createRow("2020-03-15", "3")));
+
+        loadPartition("p3");
+        ExecPlan plan = UtFrameUtils.getNewPlanAndFragment(connectContext, sql).second;
+        ResultCache.Lookup lookup = lookup(sql, plan);
+        Assert.assertFalse(lookup.isHit());
+        Assert.assertTrue(lookup.isPartialHit());
+        Assert.assertEquals(Lists.newArrayList("1", "2"), readColumn(lookup.getCachedRows(), 1));
+
+        // only the loaded partition is scanned
+        long p3 = getPartition("p3").getId();
+        OlapScanNode scanNode = (OlapScanNode) plan.getScanNodes().get(0);
+        Assert.assertEquals(Lists.newArrayList(p3), Lists.newArrayList(scanNode.getSelectedPartitionIds()));
+        List<TScanRangeLocations> scanRanges = scanNode.getScanRangeLocations(0);
+        Assert.assertEquals(2, scanRanges.size());
+        for (TScanRangeLocations locations : scanRanges) {
+            long tabletId = locations.getScan_range().getInternal_scan_range().getTablet_id();
+            Assert.assertEquals(p3, Catalog.getCurrentInvertedIndex().getTabletMeta(tabletId).getPartitionId());
+        }
+
+        // the new rows of the partition are cached
+        lookup.reset();
+        lookup.addRow(createRow("2020-03-15", "30"));
+        lookup.finish();
+        lookup = lookup(sql);
+        Assert.assertTrue(lookup.isHit());
+        Assert.assertEquals(Lists.newArrayList("1", "2", "30"), readColumn(lookup.getCachedRows(), 1));
+    }
+}
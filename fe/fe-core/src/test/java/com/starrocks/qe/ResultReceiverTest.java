@@ -0,0 +1,148 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.common.Status;
+import com.starrocks.proto.PFetchDataResult;
+import com.starrocks.proto.PStatus;
+import com.starrocks.rpc.BackendServiceProxy;
+import com.starrocks.rpc.PFetchDataRequest;
+import com.starrocks.thrift.TNetworkAddress;
+import com.starrocks.thrift.TResultBatch;
+import com.starrocks.thrift.TStatusCode;
+import com.starrocks.thrift.TUniqueId;
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+import org.apache.thrift.TSerializer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+public class ResultReceiverTest {
+    private static final int BATCH_NUM = 5;
+
+    @Mocked
+    private BackendServiceProxy proxy;
+
+    private final int defaultPrefetchDepth = Config.result_prefetch_depth;
+    private int requestNum = 0;
+
+    @After
+    public void tearDown() {
+        Config.result_prefetch_depth = defaultPrefetchDepth;
+    }
+
+    // The backend fills the requests in the given order of packet sequences, the requests after eos get eos
+    private void mockBackend(List<Long> packetSeqs) throws Exception {
+        new Expectations() {
+            {
+                BackendServiceProxy.getInstance();
+                minTimes = 0;
+                result = proxy;
+
+                proxy.fetchDataAsync((TNetworkAddress) any, (PFetchDataRequest) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    Future<PFetchDataResult> fetchDataAsync(TNetworkAddress address, PFetchDataRequest request)
+                            throws Exception {
+                        long packetSeq = requestNum < packetSeqs.size() ? packetSeqs.get(requestNum) : BATCH_NUM;
+                        requestNum++;
+
+                        PFetchDataResult result = new PFetchDataResult();
+                        result.status = new PStatus();
+                        result.status.status_code = TStatusCode.OK.getValue();
+                        result.packet_seq = packetSeq;
+                        result.eos = packetSeq == BATCH_NUM;
+                        if (!result.eos) {
+                            TResultBatch batch = new TResultBatch();
+                            batch.setRows(Lists.newArrayList(ByteBuffer.wrap(String.valueOf(packetSeq).getBytes())));
+                            batch.setIs_compressed(false);
+                            batch.setPacket_seq(packetSeq);
+                            request.setSerializedResult(new TSerializer().serialize(batch));
+                        }
+                        return CompletableFuture.completedFuture(result);
+                    }
+                };
+            }
+        };
+    }
+
+    private List<String> receiveAll(ResultReceiver receiver) throws Exception {
+        List<String> rows = Lists.newArrayList();
+        while (true) {
+            Status status = new Status();
+            RowBatch batch = receiver.getNext(status);
+            Assert.assertTrue(status.ok());
+            if (batch.isEos()) {
+                Assert.assertNull(batch.getBatch());
+                return rows;
+            }
+            for (ByteBuffer row : batch.getBatch().getRows()) {
+                byte[] bytes = new byte[row.remaining()];
+                row.get(bytes);
+                rows.add(new String(bytes));
+            }
+        }
+    }
+
+    private ResultReceiver createReceiver() {
+        return new ResultReceiver(new TUniqueId(1, 2), 1L, new TNetworkAddress("127.0.0.1", 8060), 10000);
+    }
+
+    @Test
+    public void testNoPrefetch() throws Exception {
+        Config.result_prefetch_depth = 0;
+        mockBackend(Lists.newArrayList(0L, 1L, 2L, 3L, 4L));
+        Assert.assertEquals(Lists.newArrayList("0", "1", "2", "3", "4"), receiveAll(createReceiver()));
+        // one request per batch and one for eos
+        Assert.assertEquals(BATCH_NUM + 1, requestNum);
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        Config.result_prefetch_depth = 3;
+        mockBackend(Lists.newArrayList(0L, 1L, 2L, 3L, 4L));
+        ResultReceiver receiver = createReceiver();
+
+        Status status = new Status();
+        RowBatch batch = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        Assert.assertEquals(1, batch.getBatch().getRowsSize());
+        // the next batches are being fetched while the first batch is being sent
+        Assert.assertEquals(4, requestNum);
+
+        Assert.assertEquals(Lists.newArrayList("1", "2", "3", "4"), receiveAll(receiver));
+    }
+
+    @Test
+    public void testPrefetchOutOfOrder() throws Exception {
+        Config.result_prefetch_depth = 3;
+        // the requests arrive at the backend in a different order from being sent
+        mockBackend(Lists.newArrayList(0L, 2L, 1L, 4L, 3L));
+        Assert.assertEquals(Lists.newArrayList("0", "1", "2", "3", "4"), receiveAll(createReceiver()));
+    }
+
+    @Test
+    public void testPrefetchMemoryLimit() throws Exception {
+        Config.result_prefetch_depth = 3;
+        long defaultMaxBytes = Config.result_prefetch_max_bytes;
+        Config.result_prefetch_max_bytes = 1;
+        try {
+            mockBackend(Lists.newArrayList(0L, 1L, 2L, 3L, 4L));
+            ResultReceiver receiver = createReceiver();
+            receiver.getNext(new Status());
+            // the batch is larger than the memory limit, nothing is prefetched
+            Assert.assertEquals(1, requestNum);
+        } finally {
+            Config.result_prefetch_max_bytes = defaultMaxBytes;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ServerPreparedStatementTest {
+    @Test
+    public void testBind() {
+        ServerPreparedStatement stmt = ServerPreparedStatement.create(1,
+                "select * from t where a = ? and b in (?, '?') and `c?` = \"it\\\"s ?\" limit ?");
+        Assert.assertEquals(3, stmt.getParamNum());
+        Assert.assertEquals("select * from t where a = 1 and b in ('x', '?') and `c?` = \"it\\\"s ?\" limit 10",
+                stmt.bind(Lists.newArrayList("1", "'x'", "10")));
+    }
+
+    @Test
+    public void testComments() {
+        ServerPreparedStatement stmt = ServerPreparedStatement.create(1,
+                "select /* ? */ a -- ?\n from t # ?\n where a = ? and b = 'it''s ?'");
+        Assert.assertEquals(1, stmt.getParamNum());
+        Assert.assertEquals("select /* ? */ a -- ?\n from t # ?\n where a = NULL and b = 'it''s ?'",
+                stmt.bind(Lists.newArrayList("NULL")));
+    }
+
+    @Test
+    public void testNegativeLiteral() {
+        ServerPreparedStatement stmt = ServerPreparedStatement.create(1, "select a -? from t");
+        Assert.assertEquals("select a - -1 from t", stmt.bind(Lists.newArrayList("-1")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParamNumMismatch() {
+        ServerPreparedStatement.create(1, "select ?").bind(Lists.newArrayList());
+    }
+}
@@ -46,10 +46,14 @@ import com.starrocks.planner.Planner;
 import com.starrocks.rewrite.ExprRewriter;
 import com.starrocks.service.FrontendOptions;
 import com.starrocks.thrift.TQueryOptions;
+import com.starrocks.thrift.TReportExecStatusParams;
+import com.starrocks.thrift.TReportExecStatusResult;
+import com.starrocks.thrift.TStatusCode;
 import com.starrocks.thrift.TUniqueId;
 import java_cup.runtime.Symbol;
 import mockit.Expectations;
 import mockit.Mocked;
+import mockit.Verifications;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -249,6 +253,83 @@ public class StmtExecutorTest {
         Assert.assertEquals(QueryState.MysqlStateType.EOF, state.getStateType());
     }
 
+    @Test
+    public void testSelectReportAfterFinished(@Mocked QueryStmt queryStmt,
+                                              @Mocked SqlParser parser,
+                                              @Mocked Planner planner,
+                                              @Mocked Coordinator coordinator) throws Exception {
+        Catalog catalog = Catalog.getCurrentCatalog();
+        Deencapsulation.setField(catalog, "canRead", new AtomicBoolean(true));
+
+        new Expectations() {
+            {
+                queryStmt.getColLabels();
+                minTimes = 0;
+                result = Lists.<String>newArrayList();
+
+                queryStmt.getResultExprs();
+                minTimes = 0;
+                result = Lists.<Expr>newArrayList();
+
+                queryStmt.isExplain();
+                minTimes = 0;
+                result = false;
+
+                queryStmt.getRedirectStatus();
+                minTimes = 0;
+                result = RedirectStatus.NO_FORWARD;
+
+                Symbol symbol = new Symbol(0, Lists.newArrayList(queryStmt));
+                parser.parse();
+                minTimes = 0;
+                result = symbol;
+
+                coordinator.getQueryProfile();
+                minTimes = 0;
+                result = new RuntimeProfile();
+
+                coordinator.getNext();
+                minTimes = 0;
+                result = new RowBatch();
+
+                coordinator.getJobId();
+                minTimes = 0;
+                result = -1L;
+
+                // the final report of an instance arrives after the results are sent
+                coordinator.isProfileDoneListenerPending();
+                result = true;
+
+                coordinator.isDone();
+                result = false;
+                result = true;
+
+                Catalog.getCurrentCatalog();
+                minTimes = 0;
+                result = catalog;
+            }
+        };
+
+        StmtExecutor stmtExecutor = new StmtExecutor(ctx, "");
+        stmtExecutor.execute();
+        Assert.assertEquals(QueryState.MysqlStateType.EOF, state.getStateType());
+
+        TUniqueId queryId = ctx.getExecutionId();
+        Assert.assertNotNull(QeProcessorImpl.INSTANCE.getCoordinator(queryId));
+        TReportExecStatusParams params = new TReportExecStatusParams();
+        params.setQuery_id(queryId);
+        TReportExecStatusResult result = QeProcessorImpl.INSTANCE.reportExecStatus(params, null);
+        Assert.assertEquals(TStatusCode.OK, result.getStatus().getStatus_code());
+        new Verifications() {
+            {
+                coordinator.updateFragmentExecStatus(params);
+                times = 1;
+            }
+        };
+        // unregistered once all the reports arrive
+        Assert.assertNull(QeProcessorImpl.INSTANCE.getCoordinator(queryId));
+    }
+
     @Test
     public void testShow(@Mocked ShowStmt showStmt, @Mocked SqlParser parser, @Mocked ShowExecutor executor)
             throws Exception {
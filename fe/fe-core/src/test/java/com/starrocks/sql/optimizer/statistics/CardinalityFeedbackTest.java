@@ -0,0 +1,74 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.starrocks.common.Config;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class CardinalityFeedbackTest {
+    private int maxEntries;
+
+    @Before
+    public void setUp() {
+        maxEntries = Config.cardinality_feedback_max_entries;
+        CardinalityFeedback.getInstance().clear();
+    }
+
+    @After
+    public void tearDown() {
+        Config.cardinality_feedback_max_entries = maxEntries;
+        CardinalityFeedback.getInstance().clear();
+    }
+
+    @Test
+    public void testRecord() {
+        CardinalityFeedback feedback = CardinalityFeedback.getInstance();
+        Assert.assertNull(feedback.getRowCount("a"));
+
+        feedback.record("a", "OLAP_SCAN t0", 100.0, 1000);
+        Assert.assertEquals(1000, feedback.getRowCount("a"), 0.001);
+
+        // The rows from the feedback don't replace the original estimation
+        feedback.record("a", "OLAP_SCAN t0", null, 2000);
+        Assert.assertEquals(2000, feedback.getRowCount("a"), 0.001);
+        List<String> row = feedback.getShowRows().get(0);
+        Assert.assertEquals("100", row.get(2));
+        Assert.assertEquals("2000", row.get(3));
+        Assert.assertEquals("20.00", row.get(4));
+        Assert.assertEquals("2", row.get(5));
+    }
+
+    @Test
+    public void testLargestErrorFirst() {
+        CardinalityFeedback feedback = CardinalityFeedback.getInstance();
+        feedback.record("a", "OLAP_SCAN t0", 100.0, 200);
+        feedback.record("b", "INNER JOIN", 10.0, 100000);
+        feedback.record("c", "AGGREGATE", 5000.0, 50);
+
+        List<List<String>> rows = feedback.getShowRows();
+        Assert.assertEquals(3, rows.size());
+        Assert.assertEquals("b", rows.get(0).get(0));
+        Assert.assertEquals("c", rows.get(1).get(0));
+        Assert.assertEquals("a", rows.get(2).get(0));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        Config.cardinality_feedback_max_entries = 2;
+        CardinalityFeedback feedback = CardinalityFeedback.getInstance();
+        feedback.record("a", "OLAP_SCAN t0", 100.0, 200);
+        feedback.record("b", "OLAP_SCAN t1", 100.0, 200);
+        feedback.getRowCount("a");
+        feedback.record("c", "OLAP_SCAN t2", 100.0, 200);
+
+        Assert.assertEquals(2, feedback.size());
+        Assert.assertNotNull(feedback.getRowCount("a"));
+        Assert.assertNull(feedback.getRowCount("b"));
+        Assert.assertNotNull(feedback.getRowCount("c"));
+    }
+}
@@ -0,0 +1,138 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.InPredicateOperator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramTest {
+    // 1000 rows of [1, 100], the value 7 is 500 rows
+    private static Histogram skewHistogram() {
+        return new Histogram(1000, ImmutableList.of(
+                new Histogram.Bucket(1, 7, 600, 7),
+                new Histogram.Bucket(8, 50, 200, 43),
+                new Histogram.Bucket(51, 100, 200, 50)),
+                ImmutableMap.of(Histogram.keyOf(7), 500L, Histogram.keyOf(60), 10L));
+    }
+
+    private static Statistics skewStatistics(ColumnRefOperator column, Histogram histogram) {
+        return Statistics.builder().setOutputRowCount(1000).addColumnStatistic(column,
+                ColumnStatistic.builder().setMinValue(1).setMaxValue(100).setDistinctValuesCount(100).
+                        setNullsFraction(0).setAverageRowSize(4).setHistogram(histogram).build()).build();
+    }
+
+    @Test
+    public void testEqualFraction() {
+        Histogram histogram = skewHistogram();
+        Assert.assertEquals(0.5, histogram.getEqualFraction(7, 100), 0.0001);
+        Assert.assertEquals(0.01, histogram.getEqualFraction(60, 100), 0.0001);
+        // (600 - 500) / (7 - 1) rows in the first bucket
+        Assert.assertEquals(100.0 / 6 / 1000, histogram.getEqualFraction(3, 100), 0.0001);
+        // (200 - 10) / (50 - 1) rows in the last bucket
+        Assert.assertEquals(190.0 / 49 / 1000, histogram.getEqualFraction(70, 100), 0.0001);
+        // out of range
+        Assert.assertEquals(0.001, histogram.getEqualFraction(1000, 100), 0.0001);
+    }
+
+    @Test
+    public void testRangeFraction() {
+        Histogram histogram = skewHistogram();
+        Assert.assertEquals(0.6, histogram.getRangeFraction(Double.NEGATIVE_INFINITY, 7).get(), 0.0001);
+        Assert.assertEquals(0.4, histogram.getRangeFraction(8, Double.POSITIVE_INFINITY).get(), 0.0001);
+        Assert.assertEquals(0.2 + 0.2 * 24 / 49, histogram.getRangeFraction(8, 75).get(), 0.0001);
+        Assert.assertEquals(0, histogram.getRangeFraction(200, 300).get(), 0.0001);
+        Assert.assertFalse(new Histogram(10, ImmutableList.of(), ImmutableMap.of()).getRangeFraction(1, 2)
+                .isPresent());
+    }
+
+    @Test
+    public void testStringEqualFraction() {
+        Histogram histogram = new Histogram(1000, ImmutableList.of(), ImmutableMap.of("OK", 900L, "ERROR", 50L));
+        Assert.assertEquals(0.9, histogram.getEqualFraction("OK", 10), 0.0001);
+        Assert.assertEquals(0.05, histogram.getEqualFraction("ERROR", 10), 0.0001);
+        Assert.assertEquals(50.0 / 8 / 1000, histogram.getEqualFraction("TIMEOUT", 10), 0.0001);
+    }
+
+    @Test
+    public void testBinaryPredicate() {
+        ColumnRefOperator column = new ColumnRefOperator(0, Type.INT, "status", true);
+        Statistics statistics = skewStatistics(column, skewHistogram());
+
+        BinaryPredicateOperator eq = new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ,
+                column, ConstantOperator.createInt(7));
+        Assert.assertEquals(500, PredicateStatisticsCalculator.statisticsCalculate(eq, statistics)
+                .getOutputRowCount(), 0.001);
+
+        BinaryPredicateOperator ne = new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.NE,
+                column, ConstantOperator.createInt(7));
+        Assert.assertEquals(500, PredicateStatisticsCalculator.statisticsCalculate(ne, statistics)
+                .getOutputRowCount(), 0.001);
+
+        BinaryPredicateOperator le = new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.LE,
+                column, ConstantOperator.createInt(7));
+        Statistics leStatistics = PredicateStatisticsCalculator.statisticsCalculate(le, statistics);
+        Assert.assertEquals(600, leStatistics.getOutputRowCount(), 0.001);
+        // The histogram isn't valid after filter
+        Assert.assertFalse(leStatistics.getColumnStatistic(column).hasHistogram());
+
+        // Without histogram, the values are assumed to be uniform
+        Statistics uniform = skewStatistics(column, null);
+        Assert.assertEquals(10, PredicateStatisticsCalculator.statisticsCalculate(eq, uniform)
+                .getOutputRowCount(), 0.001);
+    }
+
+    @Test
+    public void testInPredicate() {
+        ColumnRefOperator column = new ColumnRefOperator(0, Type.INT, "status", true);
+        Statistics statistics = skewStatistics(column, skewHistogram());
+
+        InPredicateOperator in = new InPredicateOperator(false, column, ConstantOperator.createInt(7),
+                ConstantOperator.createInt(60));
+        Assert.assertEquals(510, PredicateStatisticsCalculator.statisticsCalculate(in, statistics)
+                .getOutputRowCount(), 0.001);
+
+        InPredicateOperator notIn = new InPredicateOperator(true, column, ConstantOperator.createInt(7),
+                ConstantOperator.createInt(60));
+        Assert.assertEquals(490, PredicateStatisticsCalculator.statisticsCalculate(notIn, statistics)
+                .getOutputRowCount(), 0.001);
+    }
+
+    @Test
+    public void testStringBinaryPredicate() {
+        ColumnRefOperator column = new ColumnRefOperator(0, Type.VARCHAR, "code", true);
+        Histogram histogram = new Histogram(1000, ImmutableList.of(), ImmutableMap.of("OK", 900L, "ERROR", 50L));
+        Statistics statistics = Statistics.builder().setOutputRowCount(1000).addColumnStatistic(column,
+                ColumnStatistic.builder().setDistinctValuesCount(10).setNullsFraction(0.5).setAverageRowSize(4).
+                        setHistogram(histogram).build()).build();
+
+        BinaryPredicateOperator eq = new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ,
+                column, ConstantOperator.createVarchar("OK"));
+        Assert.assertEquals(450, PredicateStatisticsCalculator.statisticsCalculate(eq, statistics)
+                .getOutputRowCount(), 0.001);
+    }
+
+    @Test
+    public void testParseHistogram() {
+        // 1, 5, 7 and 100 in hex
+        String json = "{\"rows\":1000,\"buckets\":[[\"31\",\"35\",400,5],[\"37\",\"313030\",600,94]]," +
+                "\"mcv\":[[\"37\",300]]}";
+        Histogram histogram = CachedStatisticStorage.parseHistogram(new Column("v", Type.INT), json);
+        Assert.assertEquals(1000, histogram.getRows());
+        Assert.assertEquals(2, histogram.getBuckets().size());
+        Assert.assertEquals(7, histogram.getBuckets().get(1).getLower(), 0.0001);
+        Assert.assertEquals(100, histogram.getBuckets().get(1).getUpper(), 0.0001);
+        Assert.assertEquals(0.3, histogram.getEqualFraction(7, 100), 0.0001);
+
+        json = "{\"rows\":10,\"buckets\":[],\"mcv\":[[\"4f4b\",8]]}";
+        histogram = CachedStatisticStorage.parseHistogram(new Column("s", Type.VARCHAR), json);
+        Assert.assertEquals(0.8, histogram.getEqualFraction("OK", 3), 0.0001);
+    }
+}
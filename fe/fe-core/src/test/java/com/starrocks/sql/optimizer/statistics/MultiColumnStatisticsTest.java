@@ -0,0 +1,162 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.JoinOperator;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.ExpressionContext;
+import com.starrocks.sql.optimizer.Group;
+import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.dump.MockDumpInfo;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CompoundPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+public class MultiColumnStatisticsTest {
+    private final ColumnRefOperator country = new ColumnRefOperator(0, Type.INT, "country", true);
+    private final ColumnRefOperator city = new ColumnRefOperator(1, Type.INT, "city", true);
+    private final ColumnRefOperator hour = new ColumnRefOperator(2, Type.INT, "hour", true);
+
+    private Statistics.Builder builder;
+
+    // 1000000 rows, each city belongs to one country
+    @Before
+    public void setUp() {
+        builder = Statistics.builder().setOutputRowCount(1000000)
+                .addColumnStatistic(country, ColumnStatistic.builder().setMinValue(1).setMaxValue(100)
+                        .setDistinctValuesCount(100).setNullsFraction(0).setAverageRowSize(4).build())
+                .addColumnStatistic(city, ColumnStatistic.builder().setMinValue(1).setMaxValue(1000)
+                        .setDistinctValuesCount(1000).setNullsFraction(0).setAverageRowSize(4).build())
+                .addColumnStatistic(hour, ColumnStatistic.builder().setMinValue(0).setMaxValue(23)
+                        .setDistinctValuesCount(24).setNullsFraction(0).setAverageRowSize(4).build());
+    }
+
+    private static BinaryPredicateOperator eq(ColumnRefOperator column, int value) {
+        return new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, column,
+                ConstantOperator.createInt(value));
+    }
+
+    @Test
+    public void testCorrelatedEqualPredicates() {
+        CompoundPredicateOperator predicate = new CompoundPredicateOperator(
+                CompoundPredicateOperator.CompoundType.AND, eq(country, 10), eq(city, 100));
+
+        // The columns are assumed to be independent without the multi-column statistics
+        Assert.assertEquals(10, PredicateStatisticsCalculator.statisticsCalculate(predicate, builder.build())
+                .getOutputRowCount(), 0.001);
+
+        builder.addMultiColumnDistinctValues(new ColumnRefSet(ImmutableList.of(country, city)), 1000);
+        Assert.assertEquals(1000, PredicateStatisticsCalculator.statisticsCalculate(predicate, builder.build())
+                .getOutputRowCount(), 0.001);
+    }
+
+    @Test
+    public void testPartialCorrelatedPredicates() {
+        builder.addMultiColumnDistinctValues(new ColumnRefSet(ImmutableList.of(country, city)), 1000);
+        CompoundPredicateOperator predicate = new CompoundPredicateOperator(
+                CompoundPredicateOperator.CompoundType.AND,
+                new CompoundPredicateOperator(CompoundPredicateOperator.CompoundType.AND, eq(country, 10),
+                        eq(hour, 8)),
+                eq(city, 100));
+        // The hour is still independent
+        Assert.assertEquals(1000.0 / 24, PredicateStatisticsCalculator.statisticsCalculate(predicate,
+                builder.build()).getOutputRowCount(), 0.001);
+    }
+
+    @Test
+    public void testMultiColumnStatisticsBounds() {
+        // The combination has at least the distinct values of each column
+        builder.addMultiColumnDistinctValues(new ColumnRefSet(ImmutableList.of(country, city)), 10);
+        CompoundPredicateOperator predicate = new CompoundPredicateOperator(
+                CompoundPredicateOperator.CompoundType.AND, eq(country, 10), eq(city, 100));
+        Assert.assertEquals(1000, PredicateStatisticsCalculator.statisticsCalculate(predicate, builder.build())
+                .getOutputRowCount(), 0.001);
+    }
+
+    @Test
+    public void testOutputColumns() {
+        Statistics statistics = Statistics.builder()
+                .addMultiColumnDistinctValues(new ColumnRefSet(ImmutableList.of(country, city)), 1000)
+                .addMultiColumnDistinctValues(new ColumnRefSet(ImmutableList.of(city, hour)), 5000)
+                .build();
+        Statistics pruned = Statistics.builder()
+                .addMultiColumnDistinctValues(statistics.getMultiColumnDistinctValues(),
+                        new ColumnRefSet(ImmutableList.of(country, city)))
+                .build();
+        Assert.assertEquals(1, pruned.getMultiColumnDistinctValues().size());
+        Assert.assertEquals(1000, pruned.getMultiColumnDistinctValues()
+                .get(new ColumnRefSet(ImmutableList.of(country, city))), 0.001);
+    }
+
+    private static Statistics estimate(Operator operator, Statistics... childStatistics) {
+        List<Group> children = Lists.newArrayList();
+        for (Statistics statistics : childStatistics) {
+            Group group = new Group(children.size());
+            group.setStatistics(statistics);
+            children.add(group);
+        }
+        GroupExpression groupExpression = new GroupExpression(operator, children);
+        groupExpression.setGroup(new Group(children.size()));
+        ExpressionContext expressionContext = new ExpressionContext(groupExpression);
+        new StatisticsCalculator(expressionContext, new ColumnRefSet(), new ColumnRefFactory(), new MockDumpInfo())
+                .estimatorStats();
+        return expressionContext.getStatistics();
+    }
+
+    private static BinaryPredicateOperator eq(ColumnRefOperator left, ColumnRefOperator right) {
+        return new BinaryPredicateOperator(BinaryPredicateOperator.BinaryType.EQ, left, right);
+    }
+
+    @Test
+    public void testJoinOnCorrelatedKeys() {
+        // the dimension table of the cities, 1000 rows
+        ColumnRefOperator dimCountry = new ColumnRefOperator(10, Type.INT, "dim_country", true);
+        ColumnRefOperator dimCity = new ColumnRefOperator(11, Type.INT, "dim_city", true);
+        Statistics.Builder dimBuilder = Statistics.builder().setOutputRowCount(1000)
+                .addColumnStatistic(dimCountry, ColumnStatistic.builder().setMinValue(1).setMaxValue(100)
+                        .setDistinctValuesCount(100).setNullsFraction(0).setAverageRowSize(4).build())
+                .addColumnStatistic(dimCity, ColumnStatistic.builder().setMinValue(1).setMaxValue(1000)
+                        .setDistinctValuesCount(1000).setNullsFraction(0).setAverageRowSize(4).build());
+        LogicalJoinOperator join = new LogicalJoinOperator(JoinOperator.INNER_JOIN,
+                new CompoundPredicateOperator(CompoundPredicateOperator.CompoundType.AND,
+                        eq(country, dimCountry), eq(city, dimCity)));
+
+        double independentRowCount = estimate(join, builder.build(), dimBuilder.build()).getOutputRowCount();
+
+        // every fact row matches one city
+        builder.addMultiColumnDistinctValues(new ColumnRefSet(ImmutableList.of(country, city)), 1000);
+        Statistics statistics = estimate(join, builder.build(), dimBuilder.build());
+        Assert.assertEquals(1000000, statistics.getOutputRowCount(), 0.001);
+        Assert.assertTrue(independentRowCount < statistics.getOutputRowCount());
+
+        // a single key is not estimated by the combinations
+        LogicalJoinOperator singleKeyJoin = new LogicalJoinOperator(JoinOperator.INNER_JOIN, eq(city, dimCity));
+        Assert.assertEquals(1000000,
+                estimate(singleKeyJoin, builder.build(), dimBuilder.build()).getOutputRowCount(), 0.001);
+    }
+
+    @Test
+    public void testGroupByCorrelatedColumns() {
+        LogicalAggregationOperator aggregation =
+                new LogicalAggregationOperator(Lists.newArrayList(country, city), new HashMap<>());
+        double independentRowCount = estimate(aggregation, builder.build()).getOutputRowCount();
+
+        builder.addMultiColumnDistinctValues(new ColumnRefSet(ImmutableList.of(country, city)), 1000);
+        Assert.assertEquals(1000, estimate(aggregation, builder.build()).getOutputRowCount(), 0.001);
+        Assert.assertNotEquals(1000, independentRowCount, 0.001);
+    }
+}
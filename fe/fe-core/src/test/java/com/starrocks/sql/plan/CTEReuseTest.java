@@ -0,0 +1,106 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.common.FeConstants;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CTEReuseTest extends PlanTestBase {
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+
+        Catalog catalog = connectContext.getCatalog();
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t0"), 1000000);
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t1"), 1000000);
+        FeConstants.runningUnitTest = true;
+    }
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setCboCteReuse(false);
+        connectContext.getSessionVariable().setCboCteReuseRate(1.5);
+    }
+
+    private String getPlan(String sql, boolean reuse) throws Exception {
+        connectContext.getSessionVariable().setCboCteReuse(reuse);
+        return getFragmentPlan(sql);
+    }
+
+    @Test
+    public void testReuseDisabled() throws Exception {
+        String sql = "with x as (select v1, sum(v2) as s from t0 group by v1) " +
+                "select * from x a join x b on a.v1 = b.v1";
+        String plan = getPlan(sql, false);
+        Assert.assertFalse(plan, plan.contains("MultiCastDataSinks"));
+    }
+
+    @Test
+    public void testReuseMultipleConsumers() throws Exception {
+        // The rate 0 reuses every CTE with multiple consumers, to check the rewritten plan
+        connectContext.getSessionVariable().setCboCteReuseRate(0);
+        String sql = "with x as (select v1, sum(v2) as s from t0 group by v1) " +
+                "select * from x a join x b on a.v1 = b.v1";
+        String plan = getPlan(sql, true);
+        Assert.assertTrue(plan, plan.contains("MultiCastDataSinks"));
+        // The aggregation is computed once instead of once per consumer
+        String inlinePlan = getPlan(sql, false);
+        Assert.assertEquals(plan, inlinePlan.split("AGGREGATE").length - 1, 2 * (plan.split("AGGREGATE").length - 1));
+
+        sql = "with x as (select v4, v5 from t1 where v6 > 1) " +
+                "select v4 from x union all select v5 from x union all select v4 + v5 from x";
+        plan = getPlan(sql, true);
+        Assert.assertTrue(plan, plan.contains("MultiCastDataSinks"));
+    }
+
+    @Test
+    public void testConsumerUnlimitedBuffer() throws Exception {
+        // The build side of the join is read to the end before the probe side. If the result of the CTE is
+        // larger than exchg_node_buffer_size_bytes, the multicast sink would be held back by the probe side
+        // receiver and never finish sending to the build side, so each consumer buffers all its data.
+        connectContext.getSessionVariable().setCboCteReuseRate(0);
+        String sql = "with x as (select v1, sum(v2) as s from t0 group by v1) " +
+                "select * from x a join x b on a.v1 = b.v1";
+        String plan = getPlan(sql, true);
+        Assert.assertTrue(plan, plan.contains("MultiCastDataSinks"));
+        Assert.assertEquals(plan, 2, plan.split("unlimited buffer").length - 1);
+
+        // The other exchange nodes hold back their senders as before
+        plan = getPlan(sql, false);
+        Assert.assertFalse(plan, plan.contains("unlimited buffer"));
+    }
+
+    @Test
+    public void testInlineSingleConsumer() throws Exception {
+        connectContext.getSessionVariable().setCboCteReuseRate(0);
+        String sql = "with x as (select v1, sum(v2) as s from t0 group by v1) select * from x where s > 1";
+        Assert.assertEquals(getPlan(sql, false), getPlan(sql, true));
+    }
+
+    @Test
+    public void testReuseExpensiveCTE() throws Exception {
+        // The aggregation of 1000000 rows returns one row
+        String sql = "with x as (select count(*) as c from t0 where v2 > 1) " +
+                "select * from x a join x b on a.c = b.c";
+        String plan = getPlan(sql, true);
+        Assert.assertTrue(plan, plan.contains("MultiCastDataSinks"));
+
+        // The filter is evaluated once for the three consumers
+        sql = "with x as (select v4, v5 from t1 where v6 > 1) " +
+                "select v4 from x union all select v5 from x union all select v4 + v5 from x";
+        plan = getPlan(sql, true);
+        Assert.assertTrue(plan, plan.contains("MultiCastDataSinks"));
+    }
+
+    @Test
+    public void testInlineCheapCTE() throws Exception {
+        // Sending the result of a plain scan costs more than scanning it again
+        String sql = "with x as (select v1, v2 from t0) select * from x a join x b on a.v1 = b.v1";
+        Assert.assertEquals(getPlan(sql, false), getPlan(sql, true));
+    }
+}
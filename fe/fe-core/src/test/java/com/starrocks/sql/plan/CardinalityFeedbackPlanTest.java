@@ -0,0 +1,162 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.sql.optimizer.statistics.CardinalityFeedback;
+import com.starrocks.thrift.TUnit;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class CardinalityFeedbackPlanTest extends PlanTestBase {
+    private static final String JOIN_SQL = "select v2, count(*) from t0 join t1 on v1 = v4 where v3 > 1 group by v2";
+
+    @Before
+    public void setUp() {
+        connectContext.getSessionVariable().setEnableCardinalityFeedback(true);
+        CardinalityFeedback.getInstance().clear();
+    }
+
+    @After
+    public void tearDown() {
+        connectContext.getSessionVariable().setEnableCardinalityFeedback(false);
+        CardinalityFeedback.getInstance().clear();
+    }
+
+    private static ExecPlan plan(String sql) throws Exception {
+        return UtFrameUtils.getNewPlanAndFragment(connectContext, sql).second;
+    }
+
+    private static PlanNode findNode(PlanNode node, int id) {
+        if (node.getId().asInt() == id) {
+            return node;
+        }
+        for (PlanNode child : node.getChildren()) {
+            PlanNode found = findNode(child, id);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static PlanNode findNode(ExecPlan plan, int id) {
+        return findNode(plan.getFragments().get(0).getPlanRoot(), id);
+    }
+
+    @Test
+    public void testMemoGroupMatchesPlanNode() throws Exception {
+        ExecPlan plan = plan(JOIN_SQL);
+        Map<Integer, ExecPlan.CardinalityEstimate> estimates = plan.getCardinalityEstimates();
+        // the scans, the join and the aggregation
+        Assert.assertTrue(estimates.toString(), estimates.size() >= 4);
+
+        // The fingerprints of the plan nodes are recorded, the optimizer finds them by the fingerprints of
+        // the memo groups
+        for (Map.Entry<Integer, ExecPlan.CardinalityEstimate> entry : estimates.entrySet()) {
+            CardinalityFeedback.getInstance().record(entry.getValue().getFingerprint(), entry.getValue().getNode(),
+                    entry.getValue().getEstimatedRows(), 1000 + entry.getKey());
+        }
+
+        ExecPlan replanned = plan(JOIN_SQL);
+        Assert.assertEquals(estimates.size(), replanned.getCardinalityEstimates().size());
+        for (Map.Entry<Integer, ExecPlan.CardinalityEstimate> entry : estimates.entrySet()) {
+            String fingerprint = entry.getValue().getFingerprint();
+            ExecPlan.CardinalityEstimate estimate = replanned.getCardinalityEstimates().values().stream()
+                    .filter(e -> e.getFingerprint().equals(fingerprint)).findFirst().orElse(null);
+            Assert.assertNotNull(entry.getValue().getNode(), estimate);
+            Assert.assertNull(estimate.getEstimatedRows());
+        }
+        for (Map.Entry<Integer, ExecPlan.CardinalityEstimate> entry : replanned.getCardinalityEstimates().entrySet()) {
+            double rows = CardinalityFeedback.getInstance().getRowCount(entry.getValue().getFingerprint());
+            Assert.assertEquals(entry.getValue().getNode(), (long) rows,
+                    findNode(replanned, entry.getKey()).getCardinality());
+        }
+    }
+
+    @Test
+    public void testFeedbackChangesEstimation() throws Exception {
+        String sql = "select * from t0 where v1 > 1";
+        ExecPlan plan = plan(sql);
+        ExecPlan.CardinalityEstimate estimate = plan.getCardinalityEstimates().values().iterator().next();
+        Assert.assertNotNull(estimate.getEstimatedRows());
+        Assert.assertNotEquals(12345, estimate.getEstimatedRows(), 0.001);
+
+        CardinalityFeedback.getInstance().record(estimate.getFingerprint(), estimate.getNode(),
+                estimate.getEstimatedRows(), 12345);
+        plan = plan(sql);
+        Map.Entry<Integer, ExecPlan.CardinalityEstimate> entry =
+                plan.getCardinalityEstimates().entrySet().iterator().next();
+        Assert.assertEquals(estimate.getFingerprint(), entry.getValue().getFingerprint());
+        Assert.assertEquals(12345, findNode(plan, entry.getKey()).getCardinality());
+    }
+
+    @Test
+    public void testLoadChangesFingerprint() throws Exception {
+        String sql = "select * from t0 where v1 > 1";
+        String fingerprint = plan(sql).getCardinalityEstimates().values().iterator().next().getFingerprint();
+        Assert.assertEquals(fingerprint,
+                plan(sql).getCardinalityEstimates().values().iterator().next().getFingerprint());
+
+        OlapTable t0 = (OlapTable) connectContext.getCatalog().getDb("default_cluster:test").getTable("t0");
+        Partition partition = t0.getPartitions().iterator().next();
+        long version = partition.getVisibleVersion();
+        try {
+            partition.setVisibleVersion(version + 1, System.currentTimeMillis(), 0);
+            Assert.assertNotEquals(fingerprint,
+                    plan(sql).getCardinalityEstimates().values().iterator().next().getFingerprint());
+        } finally {
+            partition.setVisibleVersion(version, System.currentTimeMillis(), 0);
+        }
+    }
+
+    @Test
+    public void testSkipRuntimeFilterProbe() throws Exception {
+        ExecPlan plan = plan("select * from t0 join t1 on v1 = v4");
+        PlanNode probeNode = null;
+        RuntimeProfile profile = new RuntimeProfile("Execution Profile");
+        for (PlanFragment fragment : plan.getFragments()) {
+            RuntimeProfile fragmentProfile = new RuntimeProfile("Fragment " + fragment.getFragmentId());
+            profile.addChild(fragmentProfile);
+            probeNode = addNodeProfiles(fragment.getPlanRoot(), fragmentProfile, probeNode);
+        }
+        Assert.assertNotNull(probeNode);
+
+        CardinalityFeedback.getInstance().record(plan, profile);
+        for (Map.Entry<Integer, ExecPlan.CardinalityEstimate> entry : plan.getCardinalityEstimates().entrySet()) {
+            Double rows = CardinalityFeedback.getInstance().getRowCount(entry.getValue().getFingerprint());
+            if (entry.getKey() == probeNode.getId().asInt()) {
+                // The rows are filtered by the join above the scan
+                Assert.assertNull(rows);
+            } else {
+                Assert.assertNotNull(entry.getValue().getNode(), rows);
+            }
+        }
+    }
+
+    // Returns a node probing the runtime filters
+    private static PlanNode addNodeProfiles(PlanNode node, RuntimeProfile parent, PlanNode probeNode) {
+        RuntimeProfile nodeProfile = new RuntimeProfile("PLAN_NODE (id=" + node.getId() + ")");
+        nodeProfile.addCounter("RowsReturned", TUnit.UNIT, "").setValue(10);
+        parent.addChild(nodeProfile);
+        if (!node.getProbeRuntimeFilters().isEmpty()) {
+            probeNode = node;
+        }
+        for (PlanNode child : node.getChildren()) {
+            // the children in the other fragments are added with their fragments
+            if (child.getFragment() == node.getFragment()) {
+                probeNode = addNodeProfiles(child, nodeProfile, probeNode);
+            }
+        }
+        return probeNode;
+    }
+}
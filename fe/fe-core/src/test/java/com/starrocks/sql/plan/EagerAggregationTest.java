@@ -0,0 +1,133 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.ImmutableList;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.common.FeConstants;
+import com.starrocks.planner.AggregationNode;
+import com.starrocks.planner.HashJoinNode;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.PlanNode;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+
+public class EagerAggregationTest extends PlanTestBase {
+    // The aggregation can't be pushed down below the join
+    private static final List<String> UNCHANGED_QUERIES = ImmutableList.of(
+            "select t0.v1, sum(t1.v5) from t0 left join t1 on t0.v1 = t1.v4 group by t0.v1",
+            "select t0.v1, count(distinct t1.v5) from t0 join t1 on t0.v1 = t1.v4 group by t0.v1",
+            "select sum(t1.v5) from t0 join t1 on t0.v1 = t1.v4",
+            "select t0.v1, sum(t0.v2 + t1.v5) from t0 join t1 on t0.v1 = t1.v4 group by t0.v1"
+    );
+
+    // The aggregate functions of t1 are pushed down to the large t1 side
+    private static final List<String> QUERIES = ImmutableList.of(
+            "select t0.v1, sum(t1.v5), count(t1.v6), min(t1.v5), max(t1.v6) " +
+                    "from t0 join t1 on t0.v1 = t1.v4 group by t0.v1",
+            "select t0.v2 + 1, sum(t1.v5 * 2) from t0 join t1 on t0.v1 = t1.v4 and t0.v3 < t1.v6 " +
+                    "group by t0.v2 + 1 having sum(t1.v5 * 2) > 10"
+    );
+
+    private static boolean runningUnitTest;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+
+        Catalog catalog = connectContext.getCatalog();
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t0"), 100);
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t1"), 1000000000);
+        runningUnitTest = FeConstants.runningUnitTest;
+        FeConstants.runningUnitTest = true;
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        FeConstants.runningUnitTest = runningUnitTest;
+    }
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setCboEnableEagerAggregation(false);
+    }
+
+    private String getPlan(String sql, boolean eager) throws Exception {
+        connectContext.getSessionVariable().setCboEnableEagerAggregation(eager);
+        return getFragmentPlan(sql);
+    }
+
+    private PlanNode getPlanRoot(String sql, boolean eager) throws Exception {
+        connectContext.getSessionVariable().setCboEnableEagerAggregation(eager);
+        return UtFrameUtils.getNewPlanAndFragment(connectContext, sql).second.getFragments().get(0).getPlanRoot();
+    }
+
+    private static HashJoinNode findJoin(PlanNode node) {
+        if (node instanceof HashJoinNode) {
+            return (HashJoinNode) node;
+        }
+        for (PlanNode child : node.getChildren()) {
+            HashJoinNode join = findJoin(child);
+            if (join != null) {
+                return join;
+            }
+        }
+        return null;
+    }
+
+    // Whether there is an aggregation over the scan of the table in the subtree, any table if it's null
+    private static boolean hasAggregation(PlanNode node, String table, boolean belowAggregation) {
+        if (belowAggregation && node instanceof OlapScanNode &&
+                (table == null || ((OlapScanNode) node).getOlapTable().getName().equals(table))) {
+            return true;
+        }
+        for (PlanNode child : node.getChildren()) {
+            if (hasAggregation(child, table, belowAggregation || node instanceof AggregationNode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAggregationBelowJoin(PlanNode root, String table) {
+        HashJoinNode join = findJoin(root);
+        Assert.assertNotNull(join);
+        return hasAggregation(join, table, false);
+    }
+
+    @Test
+    public void testUnchanged() throws Exception {
+        for (String sql : UNCHANGED_QUERIES) {
+            Assert.assertEquals(sql, getPlan(sql, false), getPlan(sql, true));
+        }
+    }
+
+    @Test
+    public void testEagerAggregation() throws Exception {
+        for (String sql : QUERIES) {
+            Assert.assertFalse(sql, hasAggregationBelowJoin(getPlanRoot(sql, false), null));
+            Assert.assertTrue(sql, hasAggregationBelowJoin(getPlanRoot(sql, true), "t1"));
+            Assert.assertFalse(sql, hasAggregationBelowJoin(getPlanRoot(sql, true), "t0"));
+        }
+
+        // count(*) can be pushed down to either side
+        String sql = "select t0.v2, count(*) from t0 join t1 on t0.v1 = t1.v4 group by t0.v2";
+        Assert.assertFalse(sql, hasAggregationBelowJoin(getPlanRoot(sql, false), null));
+        Assert.assertTrue(sql, hasAggregationBelowJoin(getPlanRoot(sql, true), null));
+    }
+
+    @Test
+    public void testKeepJoinHint() throws Exception {
+        // The join with the partial aggregation keeps the hint of the original join
+        String sql = "select t0.v1, sum(t1.v5) from t0 join [broadcast] t1 on t0.v1 = t1.v4 group by t0.v1";
+        String plan = getPlan(sql, true);
+        Assert.assertTrue(plan, plan.contains("join op: INNER JOIN (BROADCAST)"));
+    }
+}
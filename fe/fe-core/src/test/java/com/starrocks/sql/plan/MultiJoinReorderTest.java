@@ -485,4 +485,25 @@ public class MultiJoinReorderTest extends PlanTestBase {
                 "  |  equal join conjunct: 4: v1 = 1: v4\n" +
                 "  |  use vectorized: true"));
     }
+
+    @Test
+    public void testChainJoinReorderDP() throws Exception {
+        connectContext.getSessionVariable().enableDPJoinReorder();
+        connectContext.getSessionVariable().disableGreedyJoinReorder();
+        connectContext.getSessionVariable().setCboMaxReorderNodeUseDP(20);
+        try {
+            int tableNum = 16;
+            StringBuilder sql = new StringBuilder("select * from t0 a0");
+            for (int i = 1; i < tableNum; i++) {
+                sql.append(" join t0 a").append(i).append(" on a").append(i - 1).append(".v2 = a")
+                        .append(i).append(".v1");
+            }
+            String planFragment = getFragmentPlan(sql.toString());
+            Assert.assertFalse(planFragment.contains("CROSS JOIN"));
+            Assert.assertEquals(tableNum, planFragment.split("TABLE: t0").length - 1);
+        } finally {
+            connectContext.getSessionVariable().setCboMaxReorderNodeUseDP(10);
+            connectContext.getSessionVariable().enableGreedyJoinReorder();
+        }
+    }
 }
@@ -0,0 +1,50 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NormalizedSqlTest {
+    @Test
+    public void testNormalize() {
+        NormalizedSql sql = NormalizedSql.of("select  *\n from t0 where v1 = 10 and v2 in ('a', \"b\") limit 5;");
+        Assert.assertEquals("select * from t0 where v1 = ? and v2 in ('?', \"?\") limit 5", sql.getText());
+        Assert.assertEquals(Lists.newArrayList("10", "a", "b"), sql.getLiterals());
+        Assert.assertTrue(sql.isCacheable());
+
+        // the queries with different literals have the same text
+        NormalizedSql other = NormalizedSql.of("select * from t0 where v1 = 200 and v2 in ('c', \"d\") limit 5");
+        Assert.assertEquals(sql.getText(), other.getText());
+        Assert.assertEquals(Lists.newArrayList("200", "c", "d"), other.getLiterals());
+
+        // limit and offset are not parameterized
+        Assert.assertNotEquals(sql.getText(), NormalizedSql.of("select * from t0 where v1 = 10 limit 6").getText());
+        Assert.assertEquals("select * from t0 limit 1, 2",
+                NormalizedSql.of("select * from t0 limit 1, 2").getText());
+        Assert.assertEquals("select * from t0 limit 2 offset 1",
+                NormalizedSql.of("select * from t0 limit 2 offset 1").getText());
+    }
+
+    @Test
+    public void testKeepAsItIs() {
+        // identifiers, decimals, hex numbers, escaped strings and comments
+        String text = "select /*+ SET_VAR(query_timeout = 10) */ `a1`, t1.v2 from t1 "
+                + "where v1 = 1.5 and v2 = 0x1F and v3 = 'it''s' and v4 = 'a\\tb' -- 123";
+        NormalizedSql sql = NormalizedSql.of(text);
+        Assert.assertEquals(text, sql.getText());
+        Assert.assertTrue(sql.getLiterals().isEmpty());
+    }
+
+    @Test
+    public void testNotCacheable() {
+        Assert.assertFalse(NormalizedSql.of("select * from t0 where v1 > unix_timestamp()").isCacheable());
+        Assert.assertFalse(NormalizedSql.of("select now(), rand()").isCacheable());
+        Assert.assertFalse(NormalizedSql.of("select current_role(), session_user()").isCacheable());
+        Assert.assertFalse(NormalizedSql.of("select last_insert_id(), connection_id()").isCacheable());
+        Assert.assertFalse(NormalizedSql.of("select * from t0 partition (p1)").isCacheable());
+        Assert.assertFalse(NormalizedSql.of("select * from t0 tablet (10001)").isCacheable());
+        Assert.assertTrue(NormalizedSql.of("select * from t0 where `now` = 1").isCacheable());
+    }
+}
@@ -0,0 +1,70 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.common.FeConstants;
+import com.starrocks.sql.optimizer.OptimizerCounters;
+import com.starrocks.thrift.TExplainLevel;
+import com.starrocks.utframe.UtFrameUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class OptimizerBudgetTest extends PlanTestBase {
+    private static final String JOIN_SQL = "select * from t1 " +
+            "join t3 on t1.v4 = t3.v1 " +
+            "join t0 on t1.v4 = t0.v2 " +
+            "join t2 on t1.v5 = t2.v8";
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+
+        Catalog catalog = connectContext.getCatalog();
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t0"), 1);
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t1"), 10);
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t2"), 100000);
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t3"), 1000000000);
+        FeConstants.runningUnitTest = true;
+    }
+
+    @Test
+    public void testCounters() throws Exception {
+        ExecPlan execPlan = UtFrameUtils.getNewPlanAndFragment(connectContext, JOIN_SQL).second;
+        OptimizerCounters counters = execPlan.getOptimizerCounters();
+        Assert.assertTrue(counters.getAppliedRules() > 0);
+        Assert.assertTrue(counters.getPrunedExpressions() > 0);
+        Assert.assertFalse(counters.isMemoExhausted());
+        Assert.assertTrue(counters.getPhaseTimes().containsKey("Rewrite"));
+        Assert.assertTrue(counters.getPhaseTimes().containsKey("MemoOptimize"));
+
+        String profile = counters.toProfile().toString();
+        Assert.assertTrue(profile, profile.contains("GroupExpressions"));
+        Assert.assertTrue(profile, profile.contains("MemoOptimizeTime"));
+    }
+
+    @Test
+    public void testMemoExhausted() throws Exception {
+        int appliedRules = UtFrameUtils.getNewPlanAndFragment(connectContext, JOIN_SQL).second
+                .getOptimizerCounters().getAppliedRules();
+
+        int maxGroupExpressions = connectContext.getSessionVariable().getCboMaxGroupExpressions();
+        connectContext.getSessionVariable().setCboMaxGroupExpressions(20);
+        try {
+            ExecPlan execPlan = UtFrameUtils.getNewPlanAndFragment(connectContext, JOIN_SQL).second;
+            OptimizerCounters counters = execPlan.getOptimizerCounters();
+            Assert.assertTrue(counters.isMemoExhausted());
+            Assert.assertTrue(counters.getAppliedRules() < appliedRules);
+
+            // Still a valid plan of all the tables
+            String plan = execPlan.getExplainString(TExplainLevel.NORMAL);
+            for (String table : new String[] {"t0", "t1", "t2", "t3"}) {
+                Assert.assertTrue(plan, plan.contains("TABLE: " + table + "\n"));
+            }
+        } finally {
+            connectContext.getSessionVariable().setCboMaxGroupExpressions(maxGroupExpressions);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.ImmutableList;
+import com.starrocks.catalog.Catalog;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.common.FeConstants;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+
+public class ParallelOptimizerTest extends PlanTestBase {
+    private static final List<String> QUERIES = ImmutableList.of(
+            "select * from t0 join t1 on t0.v1 = t1.v4 join t2 on t1.v5 = t2.v7",
+            "select * from t1 join t3 on t1.v4 = t3.v1 join t0 on t1.v4 = t0.v2 join t2 on t1.v5 = t2.v8",
+            "select * from t0 a join t1 b on a.v1 = b.v4 join t2 c on b.v5 = c.v7 join t3 d on c.v8 = d.v10 " +
+                    "join t0 e on d.v11 = e.v2 join t1 f on e.v3 = f.v6",
+            "select t0.v1, sum(t1.v5) from t0 join t1 on t0.v1 = t1.v4 group by t0.v1",
+            "select count(distinct v2), sum(v3) from t0 join t2 on t0.v1 = t2.v7",
+            "select n_name, sum(l_extendedprice) from lineitem join orders on l_orderkey = o_orderkey " +
+                    "join customer on o_custkey = c_custkey join nation on c_nationkey = n_nationkey " +
+                    "where o_orderdate >= '1994-01-01' group by n_name order by n_name"
+    );
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+
+        Catalog catalog = connectContext.getCatalog();
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t0"), 1);
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t1"), 10);
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t2"), 100000);
+        setTableStatistics((OlapTable) catalog.getDb("default_cluster:test").getTable("t3"), 1000000000);
+        FeConstants.runningUnitTest = true;
+    }
+
+    @After
+    public void after() {
+        connectContext.getSessionVariable().setEnableParallelOptimizer(false);
+    }
+
+    private String getPlan(String sql, boolean parallel) throws Exception {
+        connectContext.getSessionVariable().setEnableParallelOptimizer(parallel);
+        return getFragmentPlan(sql);
+    }
+
+    @Test
+    public void testSameAsSerial() throws Exception {
+        for (String sql : QUERIES) {
+            Assert.assertEquals(sql, getPlan(sql, false), getPlan(sql, true));
+        }
+    }
+
+    @Test
+    public void testDeterministic() throws Exception {
+        for (String sql : QUERIES) {
+            String plan = getPlan(sql, true);
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals(sql, plan, getPlan(sql, true));
+            }
+        }
+    }
+}
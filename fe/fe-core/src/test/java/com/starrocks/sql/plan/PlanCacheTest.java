@@ -0,0 +1,210 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.util.SqlParserUtils;
+import com.starrocks.mysql.MysqlCommand;
+import com.starrocks.qe.OriginStatement;
+import com.starrocks.sql.StatementPlanner;
+import com.starrocks.thrift.TExplainLevel;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+public class PlanCacheTest extends PlanTestBase {
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+        FeConstants.runningUnitTest = true;
+        starRocksAssert.withTable("CREATE TABLE `pcache` (\n"
+                + "  `k1` int(11) NOT NULL COMMENT \"\",\n"
+                + "  `d2` date NOT NULL COMMENT \"\",\n"
+                + "  `v1` int(11) NULL COMMENT \"\"\n"
+                + ") ENGINE=OLAP\n"
+                + "DUPLICATE KEY(`k1`, `d2`)\n"
+                + "COMMENT \"OLAP\"\n"
+                + "PARTITION BY RANGE(`d2`)\n"
+                + "(PARTITION p202001 VALUES [('0000-01-01'), ('2020-01-01')),\n"
+                + "PARTITION p202004 VALUES [('2020-01-01'), ('2020-04-01')),\n"
+                + "PARTITION p202007 VALUES [('2020-04-01'), ('2020-07-01')),\n"
+                + "PARTITION p202012 VALUES [('2020-07-01'), ('2020-12-01')))\n"
+                + "DISTRIBUTED BY HASH(`k1`) BUCKETS 10\n"
+                + "PROPERTIES (\n"
+                + "\"replication_num\" = \"1\",\n"
+                + "\"in_memory\" = \"false\",\n"
+                + "\"storage_format\" = \"DEFAULT\"\n"
+                + ");");
+        connectContext.getSessionVariable().setEnablePlanCache(true);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        connectContext.getSessionVariable().setEnablePlanCache(false);
+        FeConstants.runningUnitTest = false;
+        PlanCache.getInstance().clear();
+    }
+
+    @Before
+    public void setUp() {
+        PlanCache.getInstance().clear();
+    }
+
+    private String plan(String sql) throws Exception {
+        SqlScanner input = new SqlScanner(new StringReader(sql), connectContext.getSessionVariable().getSqlMode());
+        StatementBase statement = SqlParserUtils.getFirstStmt(new SqlParser(input));
+        statement.setOrigStmt(new OriginStatement(sql, 0));
+        return new StatementPlanner().plan(statement, connectContext).getExplainString(TExplainLevel.NORMAL);
+    }
+
+    private List<String> getOnlyEntry() {
+        List<List<String>> rows = PlanCache.getInstance().getShowRows();
+        Assert.assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+
+    @Test
+    public void testRebindLiterals() throws Exception {
+        String plan = plan("select k1, v1 from pcache where d2 = '2020-02-01' and k1 = 5");
+        Assert.assertTrue(plan, plan.contains("partitions=1/4"));
+        Assert.assertEquals("true", getOnlyEntry().get(2));
+        Assert.assertEquals("0", getOnlyEntry().get(3));
+
+        plan = plan("select k1, v1 from pcache where d2 = '2020-05-01' and k1 = 6");
+        Assert.assertEquals("1", getOnlyEntry().get(3));
+        Assert.assertTrue(plan, plan.contains("d2 = '2020-05-01'"));
+        Assert.assertTrue(plan, plan.contains("k1 = 6"));
+        Assert.assertTrue(plan, plan.contains("partitions=1/4"));
+        Assert.assertTrue(plan, plan.contains("tabletRatio=1/10"));
+
+        // the same literals
+        plan("select k1, v1 from pcache where d2 = '2020-05-01' and k1 = 6");
+        Assert.assertEquals("2", getOnlyEntry().get(3));
+
+        // the hits work on their own copies, the cached plan is not changed by them
+        plan = plan("select k1, v1 from pcache where d2 = '2020-02-01' and k1 = 5");
+        Assert.assertEquals("3", getOnlyEntry().get(3));
+        Assert.assertTrue(plan, plan.contains("d2 = '2020-02-01'"));
+        Assert.assertTrue(plan, plan.contains("k1 = 5"));
+    }
+
+    @Test
+    public void testRebindPrunedPredicate() throws Exception {
+        // the predicate on partition column is removed by partition pruning, and added back to prune again
+        String plan = plan("select k1 from pcache where d2 >= '2020-01-01'");
+        Assert.assertTrue(plan, plan.contains("partitions=3/4"));
+        Assert.assertEquals("true", getOnlyEntry().get(2));
+
+        plan = plan("select k1 from pcache where d2 >= '2020-04-01'");
+        Assert.assertTrue(plan, plan.contains("partitions=2/4"));
+        Assert.assertFalse(plan, plan.contains("PREDICATES"));
+        Assert.assertEquals("1", getOnlyEntry().get(3));
+
+        // not all the selected partitions meet the predicate, it is kept
+        plan = plan("select k1 from pcache where d2 >= '2020-05-01'");
+        Assert.assertTrue(plan, plan.contains("partitions=2/4"));
+        Assert.assertTrue(plan, plan.contains("d2 >= '2020-05-01'"));
+        Assert.assertEquals("2", getOnlyEntry().get(3));
+    }
+
+    @Test
+    public void testSessionVariablesNotInKey() throws Exception {
+        plan("select k1 from pcache where v1 = 1");
+        long queryTimeout = connectContext.getSessionVariable().getQueryTimeoutS();
+        connectContext.getSessionVariable().setQueryTimeoutS((int) queryTimeout + 100);
+        try {
+            // the variables not used by the optimizer don't change the key
+            plan("select k1 from pcache where v1 = 2");
+            Assert.assertEquals("1", getOnlyEntry().get(3));
+        } finally {
+            connectContext.getSessionVariable().setQueryTimeoutS((int) queryTimeout);
+        }
+        connectContext.getSessionVariable().disableJoinReorder();
+        try {
+            plan("select k1 from pcache where v1 = 3");
+            Assert.assertEquals(2, PlanCache.getInstance().size());
+        } finally {
+            connectContext.getSessionVariable().enableJoinReorder();
+        }
+    }
+
+    @Test
+    public void testNotParameterizable() throws Exception {
+        // the literal is folded
+        plan("select k1 from pcache where v1 = 5 + 1");
+        Assert.assertEquals("false", getOnlyEntry().get(2));
+        plan("select k1 from pcache where v1 = 5 + 2");
+        Assert.assertEquals(2, PlanCache.getInstance().size());
+        Assert.assertTrue(PlanCache.getInstance().getShowRows().stream().allMatch(row -> row.get(2).equals("false")));
+    }
+
+    @Test
+    public void testNotCacheable() throws Exception {
+        plan("select k1 from pcache where d2 < now()");
+        plan("select * from t0 where v1 = 1");
+        Assert.assertEquals(1, PlanCache.getInstance().size());
+        connectContext.getSessionVariable().setEnablePlanCache(false);
+        try {
+            plan("select * from t0 where v1 = 2");
+            Assert.assertEquals(1, PlanCache.getInstance().size());
+        } finally {
+            connectContext.getSessionVariable().setEnablePlanCache(true);
+        }
+    }
+
+    @Test
+    public void testNotCacheableView() throws Exception {
+        starRocksAssert.withView("create view pcache_today as select k1, v1 from pcache where d2 = curdate()");
+        // curdate() in the view definition is folded into the plan like the one in the outer sql
+        plan("select * from pcache_today where k1 = 1");
+        Assert.assertEquals(0, PlanCache.getInstance().size());
+        plan("select * from pcache where k1 = 1");
+        Assert.assertEquals(1, PlanCache.getInstance().size());
+    }
+
+    @Test
+    public void testPreparedStatement() throws Exception {
+        connectContext.getSessionVariable().setEnablePlanCache(false);
+        connectContext.getSessionVariable().setEnablePreparedPlanCache(true);
+        connectContext.setCommand(MysqlCommand.COM_STMT_EXECUTE);
+        try {
+            // the executions of the prepared statements are controlled by enable_prepared_plan_cache
+            plan("select * from t0 where v1 = 1");
+            Assert.assertEquals(1, PlanCache.getInstance().size());
+            connectContext.getSessionVariable().setEnablePreparedPlanCache(false);
+            // the plan is neither used nor cached
+            plan("select * from t0 where v1 = 2");
+            Assert.assertEquals("0", getOnlyEntry().get(3));
+        } finally {
+            connectContext.getSessionVariable().setEnablePreparedPlanCache(false);
+            connectContext.getSessionVariable().setEnablePlanCache(true);
+            connectContext.setCommand(MysqlCommand.COM_SLEEP);
+        }
+    }
+
+    @Test
+    public void testPreparedStatementOverView() throws Exception {
+        starRocksAssert.withView("create view pcache_yesterday as "
+                + "select k1, v1 from pcache where d2 = date_sub(curdate(), interval 1 day)");
+        connectContext.getSessionVariable().setEnablePlanCache(false);
+        connectContext.getSessionVariable().setEnablePreparedPlanCache(true);
+        connectContext.setCommand(MysqlCommand.COM_STMT_EXECUTE);
+        try {
+            plan("select * from pcache_yesterday where k1 = 1");
+            plan("select * from pcache_yesterday where k1 = 2");
+            Assert.assertEquals(0, PlanCache.getInstance().size());
+        } finally {
+            connectContext.getSessionVariable().setEnablePreparedPlanCache(false);
+            connectContext.getSessionVariable().setEnablePlanCache(true);
+            connectContext.setCommand(MysqlCommand.COM_SLEEP);
+        }
+    }
+}
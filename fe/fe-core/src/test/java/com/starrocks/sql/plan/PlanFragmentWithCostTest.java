@@ -469,4 +469,26 @@ public class PlanFragmentWithCostTest extends PlanTestBase {
                 "  |  <slot 15> : 15: mv_bitmap_union_k8"));
         Assert.assertTrue(planFragment.contains("rollup: bitmap_mv"));
     }
+
+    @Test
+    public void testShuffleJoinRuntimeFilterWithLargeBuildSide() throws Exception {
+        Catalog catalog = connectContext.getCatalog();
+        OlapTable t0 = (OlapTable) catalog.getDb("default_cluster:test").getTable("t0");
+        OlapTable t1 = (OlapTable) catalog.getDb("default_cluster:test").getTable("t1");
+        long t1Rows = t1.getPartitions().iterator().next().getBaseIndex().getRowCount();
+        setTableStatistics(t0, 100000000);
+        setTableStatistics(t1, 2000000);
+        connectContext.getSessionVariable().setEnableCostBasedRuntimeFilter(true);
+        try {
+            // The shuffle join has no local probe side, the filter of the large build side is still merged
+            String plan = getCostExplain("select * from t0 join [shuffle] t1 on t0.v2 = t1.v5");
+            Assert.assertTrue(plan, plan.contains("build_rows = 2000000"));
+            Assert.assertTrue(plan, plan.contains("merge = GLOBAL"));
+            Assert.assertFalse(plan, plan.contains("skipped"));
+        } finally {
+            connectContext.getSessionVariable().setEnableCostBasedRuntimeFilter(false);
+            setTableStatistics(t0, 10000);
+            setTableStatistics(t1, t1Rows);
+        }
+    }
 }
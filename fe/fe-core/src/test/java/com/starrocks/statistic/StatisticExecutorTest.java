@@ -0,0 +1,178 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.statistic;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.InsertStmt;
+import com.starrocks.analysis.SqlParser;
+import com.starrocks.analysis.SqlScanner;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.KeysType;
+import com.starrocks.catalog.MaterializedIndex;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.ScalarType;
+import com.starrocks.catalog.Tablet;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.Pair;
+import com.starrocks.common.util.SqlParserUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class StatisticExecutorTest {
+    private static long nextId = 1000;
+
+    private static Partition createPartition(long rows, int tabletNum) {
+        MaterializedIndex index = new MaterializedIndex(nextId++, MaterializedIndex.IndexState.NORMAL);
+        for (int i = 0; i < tabletNum; i++) {
+            index.addTablet(new Tablet(nextId++), null, true);
+        }
+        index.setRowCount(rows);
+        return new Partition(nextId++, "p" + nextId, index, null);
+    }
+
+    @Test
+    public void testSampleSmallTable() {
+        List<Partition> partitions = Lists.newArrayList(createPartition(1000, 3), createPartition(0, 3));
+        Pair<List<Long>, Double> sample = StatisticExecutor.sampleHistogramTablets(partitions, 300, new Random(0));
+        // all the tablets
+        Assert.assertTrue(sample.first.isEmpty());
+        Assert.assertEquals(0.3, sample.second, 0.0001);
+
+        sample = StatisticExecutor.sampleHistogramTablets(partitions, 2000, new Random(0));
+        Assert.assertTrue(sample.first.isEmpty());
+        Assert.assertEquals(1, sample.second, 0.0001);
+
+        // the row counts are not reported yet
+        partitions = Lists.newArrayList(createPartition(0, 3));
+        sample = StatisticExecutor.sampleHistogramTablets(partitions, 100, new Random(0));
+        Assert.assertTrue(sample.first.isEmpty());
+        Assert.assertEquals(1, sample.second, 0.0001);
+    }
+
+    @Test
+    public void testSampleSkewedPartitions() {
+        // the first partition is tiny, the second one has most of the rows
+        List<Partition> partitions = Lists.newArrayList(createPartition(100, 10),
+                createPartition(10000000, 10), createPartition(1000000, 10));
+        Map<Long, Integer> tabletToPartition = Maps.newHashMap();
+        for (int i = 0; i < partitions.size(); i++) {
+            for (Long tabletId : partitions.get(i).getBaseIndex().getTabletIdsInOrder()) {
+                tabletToPartition.put(tabletId, i);
+            }
+        }
+        long[] tabletRows = {10, 1000000, 100000};
+        long sampleRows = 100000;
+
+        int runs = 1000;
+        double[] sampledShares = new double[partitions.size()];
+        for (int run = 0; run < runs; run++) {
+            Pair<List<Long>, Double> sample =
+                    StatisticExecutor.sampleHistogramTablets(partitions, sampleRows, new Random(run));
+            Assert.assertFalse(sample.first.isEmpty());
+
+            long scannedRows = 0;
+            for (Long tabletId : sample.first) {
+                scannedRows += tabletRows[tabletToPartition.get(tabletId)];
+            }
+            // a bounded part of the table is scanned
+            Assert.assertTrue(scannedRows < 4 * sampleRows + 1000000);
+            // the expected number of sampled rows
+            Assert.assertEquals(sampleRows, scannedRows * sample.second, 1);
+
+            for (Long tabletId : sample.first) {
+                int partition = tabletToPartition.get(tabletId);
+                sampledShares[partition] += tabletRows[partition] * sample.second / sampleRows / runs;
+            }
+        }
+        // the rows of each partition are sampled by their share of the table
+        Assert.assertEquals(100.0 / 11000100, sampledShares[0], 0.001);
+        Assert.assertEquals(10000000.0 / 11000100, sampledShares[1], 0.03);
+        Assert.assertEquals(1000000.0 / 11000100, sampledShares[2], 0.03);
+    }
+
+    @Test
+    public void testChangedPartitions() {
+        Partition collected = createPartition(100, 1);
+        Partition loaded = createPartition(100, 1);
+        Partition added = createPartition(0, 1);
+        List<Partition> partitions = Lists.newArrayList(collected, loaded, added);
+        Map<Long, Long> collectedVersions = ImmutableMap.of(collected.getId(), collected.getVisibleVersion(),
+                loaded.getId(), loaded.getVisibleVersion(), 1L, 5L);
+
+        loaded.updateVisibleVersionAndVersionHash(loaded.getVisibleVersion() + 1, 0);
+        List<Partition> changed = StatisticExecutor.getChangedPartitions(partitions, collectedVersions);
+        Assert.assertEquals(Lists.newArrayList(loaded.getId(), added.getId()),
+                changed.stream().map(Partition::getId).collect(Collectors.toList()));
+
+        Assert.assertEquals(partitions, StatisticExecutor.getChangedPartitions(partitions, ImmutableMap.of()));
+    }
+
+    @Test
+    public void testMergePartitionSQL() throws Exception {
+        Database db = new Database(1, "default_cluster:db");
+        List<Column> columns = Lists.newArrayList(new Column("k", Type.BIGINT), new Column("l", Type.LARGEINT),
+                new Column("f", Type.DOUBLE), new Column("m", ScalarType.createDecimalV2Type(20, 3)),
+                new Column("d", Type.DATE), new Column("s", Type.VARCHAR));
+        OlapTable table = new OlapTable(2, "t", columns, KeysType.DUP_KEYS, null, null, 0, null);
+
+        String sql = new StatisticExecutor().buildMergePartitionInsertSQL(db, table,
+                Lists.newArrayList("k", "l", "f", "m", "d", "s"), Lists.newArrayList(10L, 11L));
+        // the statistics of the partitions are merged
+        Assert.assertTrue(sql, sql.contains("HLL_UNION_AGG(ndv)"));
+        Assert.assertTrue(sql, sql.contains("IFNULL(SUM(row_count), 0)"));
+        Assert.assertTrue(sql, sql.contains("partition_id IN (10,11)"));
+        // the numbers are compared in their types
+        Assert.assertTrue(sql, sql.contains("CAST(MAX(CAST(NULLIF(`max`, '') AS BIGINT)) AS VARCHAR)"));
+        Assert.assertTrue(sql, sql.contains("CAST(MIN(CAST(NULLIF(`min`, '') AS LARGEINT)) AS VARCHAR)"));
+        Assert.assertTrue(sql, sql.contains("CAST(MAX(CAST(NULLIF(`max`, '') AS DOUBLE)) AS VARCHAR)"));
+        Assert.assertTrue(sql, sql.contains("CAST(MAX(CAST(NULLIF(`max`, '') AS DECIMAL(20, 3))) AS VARCHAR)"));
+        // the dates and the strings are compared as strings
+        Assert.assertTrue(sql, sql.contains("IFNULL(MAX(NULLIF(`max`, '')), '')"));
+
+        SqlScanner input = new SqlScanner(new StringReader(sql));
+        Assert.assertTrue(SqlParserUtils.getFirstStmt(new SqlParser(input)) instanceof InsertStmt);
+    }
+
+    @Test
+    public void testMultiColumnSQL() throws Exception {
+        Database db = new Database(1, "default_cluster:db");
+        List<Column> columns = Lists.newArrayList(new Column("Country", Type.VARCHAR), new Column("city", Type.INT));
+        OlapTable table = new OlapTable(2, "t", columns, KeysType.DUP_KEYS, null, null, 0, null);
+
+        String sql = new StatisticExecutor().buildMultiColumnInsertSQL(db, table,
+                Lists.newArrayList("country", "city"));
+        // the key is the sorted column names in lower case
+        Assert.assertTrue(sql, sql.contains("SELECT 2, 'city,country', 1, 'db.t', 'default_cluster:db', COUNT(1)"));
+        // the values are joined by hex, the nulls are not skipped
+        Assert.assertTrue(sql, sql.contains("approx_count_distinct(CONCAT_WS(',', "
+                + "IFNULL(HEX(CAST(`Country` AS VARCHAR)), 'N'), IFNULL(HEX(CAST(`city` AS VARCHAR)), 'N')))"));
+        Assert.assertTrue(sql, sql.endsWith("FROM db.t"));
+
+        SqlScanner input = new SqlScanner(new StringReader(sql));
+        Assert.assertTrue(SqlParserUtils.getFirstStmt(new SqlParser(input)) instanceof InsertStmt);
+    }
+
+    @Test
+    public void testParseMultiColumnStatistic() {
+        Map<List<String>, Long> result = StatisticExecutor.parseMultiColumnStatistic(
+                Lists.newArrayList("city,country:1000", "day,hour,region:52000", "a:b,c:7"));
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals(1000L, (long) result.get(Lists.newArrayList("city", "country")));
+        Assert.assertEquals(52000L, (long) result.get(Lists.newArrayList("day", "hour", "region")));
+        // the column name may have a colon
+        Assert.assertEquals(7L, (long) result.get(Lists.newArrayList("a:b", "c")));
+
+        Assert.assertTrue(StatisticExecutor.parseMultiColumnStatistic(Lists.newArrayList()).isEmpty());
+        Assert.assertEquals("city,country", StatisticExecutor.getMultiColumnKey(Lists.newArrayList("Country", "city")));
+    }
+}
@@ -25,8 +25,10 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.catalog.Catalog;
 import com.starrocks.catalog.CatalogTestUtil;
+import com.starrocks.catalog.Database;
 import com.starrocks.catalog.FakeCatalog;
 import com.starrocks.catalog.FakeEditLog;
+import com.starrocks.catalog.OlapTable;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.FeMetaVersion;
@@ -170,6 +172,56 @@ public class DatabaseTransactionMgrTest {
 
     }
 
+    @Test
+    public void testMergeCommit() throws UserException {
+        FakeCatalog.setCatalog(masterCatalog);
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        Database db = masterCatalog.getDb(CatalogTestUtil.testDbId1);
+        List<TabletCommitInfo> transTablets = Lists.newArrayList(
+                new TabletCommitInfo(CatalogTestUtil.testTabletId1, CatalogTestUtil.testBackendId1),
+                new TabletCommitInfo(CatalogTestUtil.testTabletId1, CatalogTestUtil.testBackendId2),
+                new TabletCommitInfo(CatalogTestUtil.testTabletId1, CatalogTestUtil.testBackendId3));
+        long txnId3 = lableToTxnId.get(CatalogTestUtil.testTxnLable3);
+        long txnId4 = lableToTxnId.get(CatalogTestUtil.testTxnLable4);
+        TransactionMergeCommitter.CommitRequest request3 =
+                new TransactionMergeCommitter.CommitRequest(txnId3, transTablets, null);
+        TransactionMergeCommitter.CommitRequest request4 =
+                new TransactionMergeCommitter.CommitRequest(txnId4, transTablets, null);
+        // a transaction not found fails alone
+        TransactionMergeCommitter.CommitRequest request5 =
+                new TransactionMergeCommitter.CommitRequest(100000L, transTablets, null);
+        int batchUpsertNum = fakeEditLog.getBatchUpsertNum();
+        masterDbTransMgr.commitTransactionBatch(Lists.newArrayList(request3, request4, request5));
+
+        assertTrue(request3.isDone() && request3.getError() == null && request3.isTxnOperated());
+        assertTrue(request4.isDone() && request4.getError() == null && request4.isTxnOperated());
+        assertTrue(request5.isDone() && request5.getError() != null && !request5.isTxnOperated());
+        // all the committed transactions are in one edit log
+        assertEquals(batchUpsertNum + 1, fakeEditLog.getBatchUpsertNum());
+        TransactionState transactionState3 = fakeEditLog.getTransaction(txnId3);
+        TransactionState transactionState4 = fakeEditLog.getTransaction(txnId4);
+        assertEquals(TransactionStatus.COMMITTED, transactionState3.getTransactionStatus());
+        assertEquals(TransactionStatus.COMMITTED, transactionState4.getTransactionStatus());
+        // versions are assigned in the order of requests
+        long version3 = transactionState3.getTableCommitInfo(CatalogTestUtil.testTableId1)
+                .getPartitionCommitInfo(CatalogTestUtil.testPartitionId1).getVersion();
+        long version4 = transactionState4.getTableCommitInfo(CatalogTestUtil.testTableId1)
+                .getPartitionCommitInfo(CatalogTestUtil.testPartitionId1).getVersion();
+        assertEquals(version3 + 1, version4);
+        assertEquals(version4 + 1, ((OlapTable) db.getTable(CatalogTestUtil.testTableId1))
+                .getPartition(CatalogTestUtil.testPartitionId1).getNextVersion());
+
+        // commit again has no effect, and writes no edit log
+        TransactionMergeCommitter.CommitRequest request3Again =
+                new TransactionMergeCommitter.CommitRequest(txnId3, transTablets, null);
+        masterDbTransMgr.commitTransactionBatch(Lists.newArrayList(request3Again));
+        assertTrue(request3Again.isDone() && request3Again.getError() == null && !request3Again.isTxnOperated());
+        assertEquals(batchUpsertNum + 1, fakeEditLog.getBatchUpsertNum());
+        masterDbTransMgr.getMergeCommitter().commit(db, txnId3, transTablets, null, 1000);
+        assertEquals(TransactionStatus.COMMITTED, masterDbTransMgr.getTransactionState(txnId3).getTransactionStatus());
+        assertEquals(batchUpsertNum + 1, fakeEditLog.getBatchUpsertNum());
+    }
+
     @Test
     public void testAbortTransaction() throws UserException {
         DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
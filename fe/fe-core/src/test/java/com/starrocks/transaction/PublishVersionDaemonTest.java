@@ -0,0 +1,38 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021 StarRocks Limited.
+
+package com.starrocks.transaction;
+
+import com.google.common.collect.Lists;
+import com.starrocks.transaction.TransactionState.LoadJobSourceType;
+import com.starrocks.transaction.TransactionState.TxnCoordinator;
+import com.starrocks.transaction.TransactionState.TxnSourceType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class PublishVersionDaemonTest {
+    private TransactionState newTransaction(long txnId, Long... tableIds) {
+        return new TransactionState(1L, Lists.newArrayList(tableIds), txnId, "label" + txnId, null,
+                LoadJobSourceType.BACKEND_STREAMING, new TxnCoordinator(TxnSourceType.BE, "be1"), -1, 1000);
+    }
+
+    @Test
+    public void testGroupDependentTransactions() {
+        List<TransactionState> txns = Lists.newArrayList(
+                newTransaction(1, 10L),
+                newTransaction(2, 20L),
+                newTransaction(3, 10L),
+                newTransaction(4, 30L, 20L),
+                newTransaction(5, 40L),
+                newTransaction(6, 30L, 10L));
+
+        List<List<TransactionState>> groups = PublishVersionDaemon.groupDependentTransactions(txns);
+        Assert.assertEquals(2, groups.size());
+        // commit order is kept in the group
+        List<Long> txnIds = Lists.newArrayList();
+        groups.get(0).forEach(txn -> txnIds.add(txn.getTransactionId()));
+        Assert.assertEquals(Lists.newArrayList(1L, 2L, 3L, 4L, 6L), txnIds);
+        Assert.assertEquals(5L, groups.get(1).get(0).getTransactionId());
+    }
+}
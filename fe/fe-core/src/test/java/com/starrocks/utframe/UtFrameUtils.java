@@ -394,6 +394,7 @@ public class UtFrameUtils {
             ExecPlan execPlan = new PlanFragmentBuilder()
                     .createPhysicalPlan(optimizedPlan, plannerContext, connectContext,
                             logicalPlan.getOutputColumn(), columnRefFactory, new ArrayList<>());
+            execPlan.setOptimizerCounters(optimizer.getContext().getCounters());
 
             OperatorStrings operatorPrinter = new OperatorStrings();
             return new Pair<>(operatorPrinter.printOperator(optimizedPlan), execPlan);
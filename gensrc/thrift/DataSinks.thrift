@@ -35,7 +35,8 @@ enum TDataSinkType {
     MYSQL_TABLE_SINK,
     EXPORT_SINK,
     OLAP_TABLE_SINK,
-    MEMORY_SCRATCH_SINK
+    MEMORY_SCRATCH_SINK,
+    MULTI_CAST_DATA_STREAM_SINK
 }
 
 enum TResultSinkType {
@@ -73,6 +74,23 @@ struct TDataStreamSink {
   3: optional bool ignore_not_found
 }
 
+// Specification of one output destination of a plan fragment
+struct TPlanFragmentDestination {
+  // the globally unique fragment instance id
+  1: required Types.TUniqueId fragment_instance_id
+
+  // ... which is being executed on this server
+  2: required Types.TNetworkAddress server
+  3: optional Types.TNetworkAddress brpc_server
+}
+
+// Sink which sends the same data to multiple exchange nodes, e.g. the shared CTE,
+// the destinations of each stream sink are in the same order as the sinks
+struct TMultiCastDataStreamSink {
+  1: required list<TDataStreamSink> sinks
+  2: required list<list<TPlanFragmentDestination>> destinations
+}
+
 struct TResultSink {
     1: optional TResultSinkType type;
     2: optional TResultFileSinkOptions file_options;
@@ -125,5 +143,6 @@ struct TDataSink {
   6: optional TExportSink export_sink
   7: optional TOlapTableSink olap_table_sink
   8: optional TMemoryScratchSink memory_scratch_sink
+  9: optional TMultiCastDataStreamSink multi_cast_stream_sink
 }
 
@@ -179,16 +179,6 @@ struct TRuntimeFilterParams {
   4: optional i64 runtime_filter_max_size;
 }
 
-// Specification of one output destination of a plan fragment
-struct TPlanFragmentDestination {
-  // the globally unique fragment instance id
-  1: required Types.TUniqueId fragment_instance_id
-
-  // ... which is being executed on this server
-  2: required Types.TNetworkAddress server
-  3: optional Types.TNetworkAddress brpc_server
-}
-
 // Parameters for a single execution instance of a particular TPlanFragment
 // TODO: for range partitioning, we also need to specify the range boundaries
 struct TPlanFragmentExecParams {
@@ -210,7 +200,7 @@ struct TPlanFragmentExecParams {
   // The partitioning of the output is specified by
   // TPlanFragment.output_sink.output_partition.
   // The number of output partitions is destinations.size().
-  5: list<TPlanFragmentDestination> destinations
+  5: list<DataSinks.TPlanFragmentDestination> destinations
 
   // Debug options: perform some action in a particular phase of a particular node
   6: optional Types.TPlanNodeId debug_node_id
@@ -306,6 +296,18 @@ struct TExecPlanFragmentResult {
   1: optional Status.TStatus status
 }
 
+// The fragment instances of a query executed by one backend, which are sent by one rpc
+struct TExecBatchPlanFragmentsParams {
+  // The params shared by all the instances, e.g. desc_tbl, query_options and query_globals
+  1: optional TExecPlanFragmentParams common_param
+  // The fragments of the instances, each fragment is only sent once
+  2: optional list<Planner.TPlanFragment> fragments
+  // The params of each instance, which only contain params, backend_num and is_pipeline
+  3: optional list<TExecPlanFragmentParams> unique_params
+  // The index in fragments of the fragment of each instance
+  4: optional list<i32> fragment_indexes
+}
+
 // CancelPlanFragment
 struct TCancelPlanFragmentParams {
   1: required InternalServiceVersion protocol_version
@@ -673,6 +673,9 @@ struct TExchangeNode {
   2: optional TSortInfo sort_info
   // This is tHe number of rows to skip before returning results
   3: optional i64 offset
+  // Buffer all the received data instead of holding back the senders, e.g. the receivers of a multicast
+  // sink, which sends to its receivers one by one and can't wait for the one which isn't read yet
+  4: optional bool unlimited_buffer
 }
 
 // This contains all of the information computed by the plan as part of the resource